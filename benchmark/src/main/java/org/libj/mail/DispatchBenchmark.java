@@ -0,0 +1,100 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetAddress;
+
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of {@link Dispatch#send(javax.mail.PasswordAuthentication,Message)} against an in-process {@link SmtpStub} on the
+ * loopback interface, with a configurable reply latency to simulate a remote relay, with and without {@code STARTTLS}. The
+ * throughput is reported in sends per second, and the latency as a distribution of sample times.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(8)
+@Fork(1)
+public class DispatchBenchmark {
+  /** The latency by which the stub delays each reply, in milliseconds. */
+  @Param({"0", "2"})
+  public long latencyMs;
+
+  /** Whether {@code STARTTLS} is used. */
+  @Param({"false", "true"})
+  public boolean tls;
+
+  /** The max number of pooled connections. */
+  @Param({"8"})
+  public int maxConnections;
+
+  private SmtpStub stub;
+  private Dispatch dispatch;
+  private Message message;
+
+  @Setup(Level.Trial)
+  public void setup() throws IOException, MessagingException {
+    stub = new SmtpStub.Builder().withReplyLatency(latencyMs).withTls(tls).build();
+    dispatch = new Dispatch.Builder("localhost", stub.getPort())
+      .withLocalHost("localhost")
+      .withTls(tls)
+      .withMaxConnections(maxConnections)
+      .build();
+    message = new Message("Subject", new MimeContent("This is the body of the message.", "text/plain"), new InternetAddress("from@example.com"), "to@example.com");
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    dispatch.close();
+    stub.close();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.Throughput)
+  @OutputTimeUnit(TimeUnit.SECONDS)
+  public String throughput() throws MessagingException {
+    return dispatch.send(null, message);
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SampleTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public String latency() throws MessagingException {
+    return dispatch.send(null, message);
+  }
+}
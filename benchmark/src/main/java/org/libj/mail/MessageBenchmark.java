@@ -0,0 +1,91 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+
+import org.libj.mail.Mail.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the construction of {@link Message}, with the recipients as strings that are parsed to {@link InternetAddress}es,
+ * and as {@link InternetAddress}es that are parsed already, the difference of which is the cost of parsing.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageBenchmark {
+  @Param({"1", "10", "100"})
+  public int recipients;
+
+  private MimeContent content;
+  private InternetAddress from;
+  private String[] to;
+  private InternetAddress[] parsed;
+  private Message message;
+
+  @Setup
+  public void setup() throws AddressException {
+    content = new MimeContent("Body", "text/plain");
+    from = new InternetAddress("from@example.com");
+    to = new String[recipients];
+    parsed = new InternetAddress[recipients];
+    for (int i = 0; i < recipients; ++i) { // [A]
+      to[i] = "Recipient " + i + " <recipient" + i + "@example.com>";
+      parsed[i] = new InternetAddress(to[i]);
+    }
+
+    message = new Message("Subject", content, from, to);
+  }
+
+  @Benchmark
+  public Message construct() throws AddressException {
+    return new Message("Subject", content, from, to);
+  }
+
+  @Benchmark
+  public Message constructParsed() {
+    return new Message("Subject", content, from, parsed, null, null);
+  }
+
+  @Benchmark
+  public InternetAddress parse() throws AddressException {
+    return new InternetAddress(to[0]);
+  }
+
+  @Benchmark
+  public int hash() {
+    return message.hashCode();
+  }
+}
@@ -0,0 +1,111 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks of the rendering of {@link MimeContent} to the wire form of a message, as {@link Dispatch} writes it to the SMTP
+ * {@code DATA} phase, for small, medium and large bodies. The body of {@link #render()} is a new {@link MimeContent} on each
+ * invocation, and is thus encoded each time, whereas that of {@link #renderShared()} is encoded once and reused.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MimeContentBenchmark {
+  private static final class Discard extends OutputStream {
+    private long count;
+
+    @Override
+    public void write(final int b) {
+      ++count;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) {
+      count += len;
+    }
+  }
+
+  /** The size of the body: {@code small} (1KiB), {@code medium} (64KiB) or {@code large} (4MiB). */
+  @Param({"small", "medium", "large"})
+  public String size;
+
+  /** The type of the body, of which {@code text/html} with non-ASCII characters is encoded as quoted-printable. */
+  @Param({"text/plain; charset=UTF-8", "text/html; charset=UTF-8"})
+  public String type;
+
+  private final Session session = Session.getInstance(new Properties());
+  private String body;
+  private Message message;
+  private InternetAddress from;
+
+  @Setup
+  public void setup() throws MessagingException {
+    final int length = "small".equals(size) ? 1 << 10 : "medium".equals(size) ? 1 << 16 : 1 << 22;
+    final StringBuilder builder = new StringBuilder(length);
+    final String line = type.startsWith("text/html") ? "<p>Gr\u00fc\u00dfe, this is a line of the newsletter body.</p>\n" : "This is a line of the plain text body of the message.\n";
+    while (builder.length() < length)
+      builder.append(line);
+
+    builder.setLength(length);
+    body = builder.toString();
+    from = new InternetAddress("from@example.com");
+    message = new Message("Subject", new MimeContent(body, type), from, "to@example.com");
+  }
+
+  private long write(final Message message) throws IOException, MessagingException {
+    final Discard discard = new Discard();
+    Dispatch.prepare(session, message, false).writeTo(discard);
+    return discard.count;
+  }
+
+  @Benchmark
+  public long render() throws IOException, MessagingException {
+    return write(new Message("Subject", new MimeContent(body, type), from, "to@example.com"));
+  }
+
+  @Benchmark
+  public long renderShared() throws IOException, MessagingException {
+    return write(message);
+  }
+}
@@ -0,0 +1,324 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+
+/**
+ * A limiter of the number of concurrent sends and the rate of sends to a single SMTP relay, which adapts its limits to the
+ * throttling of the relay with AIMD (additive increase, multiplicative decrease). While sends succeed, the concurrency limit grows
+ * by about 1 per window of {@code limit} sends, and the rate grows by about {@linkplain Builder#withRateIncrease(double) a fixed
+ * number} of messages per second, every second. When the relay replies with a throttling code ({@code 421} or {@code 451}), both
+ * limits are cut by a {@linkplain Builder#withDecrease(double) factor}. Only the first throttling reply to sends that started after
+ * the last cut is acted upon, so a single episode of throttling is not punished once per concurrent send.
+ * <p>
+ * Sends are paced to the rate evenly, rather than in bursts: a send that is started while the limiter is idle does not accrue
+ * credit for the time it was idle.
+ * <p>
+ * An {@link AdaptiveLimiter} tracks the state of a single relay, and is therefore not to be shared by {@link Mail.Dispatch}
+ * instances.
+ *
+ * @see Mail.Dispatch.Builder#withLimiter(AdaptiveLimiter)
+ */
+public final class AdaptiveLimiter {
+  /**
+   * Builder of {@link AdaptiveLimiter}.
+   */
+  public static class Builder {
+    private int minConcurrency = 1;
+    private int maxConcurrency = 16;
+    private int initialConcurrency = 4;
+    private double minRate = 1;
+    private double maxRate = 1000;
+    private double initialRate = 50;
+    private double rateIncrease = 5;
+    private double decrease = 0.5;
+
+    /**
+     * Set the range of the limit of concurrent sends. Default is [1, 16].
+     *
+     * @param min The min limit of concurrent sends.
+     * @param max The max limit of concurrent sends.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code min} is not positive, or {@code max} is less than {@code min}.
+     */
+    public Builder withConcurrency(final int min, final int max) {
+      if (min < 1)
+        throw new IllegalArgumentException("min (" + min + ") must be positive");
+
+      if (max < min)
+        throw new IllegalArgumentException("max (" + max + ") is less than min (" + min + ")");
+
+      this.minConcurrency = min;
+      this.maxConcurrency = max;
+      return this;
+    }
+
+    /**
+     * Set the initial limit of concurrent sends, which is clamped to the range of {@link #withConcurrency(int,int)}. Default is 4.
+     *
+     * @param initial The initial limit of concurrent sends.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withInitialConcurrency(final int initial) {
+      this.initialConcurrency = initial;
+      return this;
+    }
+
+    /**
+     * Set the range of the limit of the rate of sends, in messages per second. Default is [1, 1000].
+     *
+     * @param min The min limit of the rate of sends.
+     * @param max The max limit of the rate of sends.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code min} is not positive, or {@code max} is less than {@code min}.
+     */
+    public Builder withRate(final double min, final double max) {
+      if (!(min > 0))
+        throw new IllegalArgumentException("min (" + min + ") must be positive");
+
+      if (!(max >= min))
+        throw new IllegalArgumentException("max (" + max + ") is less than min (" + min + ")");
+
+      this.minRate = min;
+      this.maxRate = max;
+      return this;
+    }
+
+    /**
+     * Set the initial limit of the rate of sends, in messages per second, which is clamped to the range of
+     * {@link #withRate(double,double)}. Default is 50.
+     *
+     * @param initial The initial limit of the rate of sends.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withInitialRate(final double initial) {
+      this.initialRate = initial;
+      return this;
+    }
+
+    /**
+     * Set the additive increase of the limit of the rate of sends, in messages per second, for each second of successful sends.
+     * Default is 5.
+     *
+     * @param rateIncrease The additive increase of the limit of the rate of sends.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code rateIncrease} is negative.
+     */
+    public Builder withRateIncrease(final double rateIncrease) {
+      if (!(rateIncrease >= 0))
+        throw new IllegalArgumentException("rateIncrease (" + rateIncrease + ") is negative");
+
+      this.rateIncrease = rateIncrease;
+      return this;
+    }
+
+    /**
+     * Set the factor by which the limits are multiplied when the relay throttles. Default is 0.5.
+     *
+     * @param decrease The factor by which the limits are multiplied when the relay throttles, in the range of (0, 1).
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code decrease} is outside the range of (0, 1).
+     */
+    public Builder withDecrease(final double decrease) {
+      if (!(0 < decrease && decrease < 1))
+        throw new IllegalArgumentException("decrease (" + decrease + ") is outside the range of (0, 1)");
+
+      this.decrease = decrease;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link AdaptiveLimiter} with the options specified in this {@link Builder}.
+     *
+     * @return A new {@link AdaptiveLimiter} with the options specified in this {@link Builder}.
+     */
+    public AdaptiveLimiter build() {
+      return new AdaptiveLimiter(this);
+    }
+  }
+
+  /**
+   * Returns whether the specified {@link MessagingException} signals that the relay is throttling, i.e. it carries the reply code
+   * {@code 421} (service not available) or {@code 451} (local error in processing, as is used by most relays for rate limits).
+   *
+   * @param e The {@link MessagingException}.
+   * @return Whether the specified {@link MessagingException} signals that the relay is throttling.
+   */
+  public static boolean isThrottle(final MessagingException e) {
+    final int code = RetryPolicy.getReturnCode(e);
+    return code == 421 || code == 451;
+  }
+
+  private final int minConcurrency;
+  private final int maxConcurrency;
+  private final double minRate;
+  private final double maxRate;
+  private final double rateIncrease;
+  private final double decrease;
+
+  private double concurrency;
+  private double rate;
+  private int inFlight;
+  private long nextSlotNanos;
+  private long lastDecreaseNanos;
+  private long throttleCount;
+
+  private AdaptiveLimiter(final Builder builder) {
+    this.minConcurrency = builder.minConcurrency;
+    this.maxConcurrency = builder.maxConcurrency;
+    this.minRate = builder.minRate;
+    this.maxRate = builder.maxRate;
+    this.rateIncrease = builder.rateIncrease;
+    this.decrease = builder.decrease;
+    this.concurrency = Math.max(minConcurrency, Math.min(maxConcurrency, builder.initialConcurrency));
+    this.rate = Math.max(minRate, Math.min(maxRate, builder.initialRate));
+    this.lastDecreaseNanos = this.nextSlotNanos = System.nanoTime();
+  }
+
+  /**
+   * Waits until a send may start within the concurrency and rate limits, and returns the ticket that is to be passed to
+   * {@link #release(long,MessagingException)} when the send completes.
+   *
+   * @return The ticket of the send, which is the {@link System#nanoTime()} at which it was admitted.
+   * @throws InterruptedException If the current thread is interrupted while waiting.
+   */
+  long acquire() throws InterruptedException {
+    final long slot;
+    synchronized (this) {
+      while (inFlight >= (int)concurrency)
+        wait();
+
+      ++inFlight;
+      final long now = System.nanoTime();
+      slot = Math.max(now, nextSlotNanos);
+      nextSlotNanos = slot + (long)(TimeUnit.SECONDS.toNanos(1) / rate);
+    }
+
+    final long delay = slot - System.nanoTime();
+    if (delay > 0) {
+      try {
+        TimeUnit.NANOSECONDS.sleep(delay);
+      }
+      catch (final InterruptedException e) {
+        synchronized (this) {
+          --inFlight;
+          notifyAll();
+        }
+
+        throw e;
+      }
+    }
+
+    return slot;
+  }
+
+  /**
+   * Releases the send of the specified ticket, and adapts the limits to its outcome.
+   *
+   * @param ticket The ticket returned by {@link #acquire()}.
+   * @param e The {@link MessagingException} with which the send failed, or {@code null} if it succeeded.
+   */
+  synchronized void release(final long ticket, final MessagingException e) {
+    --inFlight;
+    adapt(ticket, e);
+    notifyAll();
+  }
+
+  /**
+   * Adapts the limits to a send that failed before it was admitted, because a connection to the relay could not be opened. Sends
+   * take a connection before they are admitted, so a relay that throttles at the greeting is acted upon here.
+   *
+   * @param ticket The {@link System#nanoTime()} at which the connection was attempted.
+   * @param e The {@link MessagingException} with which the connection failed.
+   */
+  synchronized void refuse(final long ticket, final MessagingException e) {
+    if (isThrottle(e)) {
+      adapt(ticket, e);
+      notifyAll();
+    }
+  }
+
+  private void adapt(final long ticket, final MessagingException e) {
+    if (e == null) {
+      concurrency = Math.min(maxConcurrency, concurrency + 1 / concurrency);
+      rate = Math.min(maxRate, rate + rateIncrease / rate);
+    }
+    else if (isThrottle(e)) {
+      ++throttleCount;
+      if (ticket - lastDecreaseNanos > 0) {
+        concurrency = Math.max(minConcurrency, concurrency * decrease);
+        rate = Math.max(minRate, rate * decrease);
+        lastDecreaseNanos = System.nanoTime();
+        // Sends that are already paced at the old rate are not recalled, but subsequent sends are spaced at the new rate
+        nextSlotNanos = Math.max(nextSlotNanos, lastDecreaseNanos + (long)(TimeUnit.SECONDS.toNanos(1) / rate));
+      }
+    }
+  }
+
+  /**
+   * Returns the current limit of concurrent sends.
+   *
+   * @return The current limit of concurrent sends.
+   */
+  public synchronized int getConcurrencyLimit() {
+    return (int)concurrency;
+  }
+
+  /**
+   * Returns the current limit of the rate of sends, in messages per second.
+   *
+   * @return The current limit of the rate of sends, in messages per second.
+   */
+  public synchronized double getRate() {
+    return rate;
+  }
+
+  /**
+   * Returns the max limit of concurrent sends.
+   *
+   * @return The max limit of concurrent sends.
+   */
+  public int getMaxConcurrency() {
+    return maxConcurrency;
+  }
+
+  /**
+   * Returns the number of sends that are in flight.
+   *
+   * @return The number of sends that are in flight.
+   */
+  public synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Returns the number of sends that failed with a throttling reply from the relay.
+   *
+   * @return The number of sends that failed with a throttling reply from the relay.
+   */
+  public synchronized long getThrottleCount() {
+    return throttleCount;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "{concurrency: " + (int)concurrency + ", rate: " + String.format("%.1f", rate) + ", inFlight: " + inFlight + ", throttled: " + throttleCount + "}";
+  }
+}
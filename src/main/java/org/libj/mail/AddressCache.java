@@ -0,0 +1,330 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+
+/**
+ * A bounded cache of parsed {@link InternetAddress}es by the strings they are parsed from, by which the recipients of messages to
+ * the same mailboxes share a single immutable {@link InternetAddress} instance, rather than each parsing a new one.
+ * <p>
+ * The cache is divided into segments by the hash of the string, each of which is locked separately, and evicts its least
+ * recently used entry when it exceeds its share of the max size. An address is parsed outside of the lock of its segment.
+ * <p>
+ * Before an address is parsed, it is {@linkplain #isWellFormed(String) pre-validated} with a single pass over its characters that
+ * allocates nothing, so that a malformed address is rejected without the cost of the full parser of {@link InternetAddress}.
+ * <p>
+ * This class is thread-safe.
+ */
+public final class AddressCache {
+  private static final int SEGMENTS = 16;
+  private static final AddressCache defaultCache = new AddressCache(4096);
+
+  /**
+   * Returns the {@link AddressCache} with which the string addresses of {@link Mail.Message} are parsed.
+   *
+   * @return The {@link AddressCache} with which the string addresses of {@link Mail.Message} are parsed.
+   */
+  public static AddressCache getDefault() {
+    return defaultCache;
+  }
+
+  /**
+   * An {@link InternetAddress} that cannot be modified, and can thus be shared. Its hash code is computed once.
+   */
+  static final class ImmutableInternetAddress extends InternetAddress {
+    private static final long serialVersionUID = -4006405727012574858L;
+
+    private final int hashCode;
+
+    ImmutableInternetAddress(final String address) throws AddressException {
+      super(address);
+      this.hashCode = super.hashCode();
+    }
+
+    @Override
+    public void setAddress(final String address) {
+      throw new UnsupportedOperationException("Shared address cannot be modified");
+    }
+
+    @Override
+    public void setPersonal(final String name, final String charset) {
+      throw new UnsupportedOperationException("Shared address cannot be modified");
+    }
+
+    @Override
+    public void setPersonal(final String name) {
+      throw new UnsupportedOperationException("Shared address cannot be modified");
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+  private static final class Segment extends LinkedHashMap<String,InternetAddress> {
+    private static final long serialVersionUID = 6151385683512392347L;
+
+    private final int maxSize;
+
+    private Segment(final int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(final Map.Entry<String,InternetAddress> eldest) {
+      return size() > maxSize;
+    }
+  }
+
+  private static boolean isWhitespace(final char ch) {
+    return ch == ' ' || ch == '\t' || ch == '\r' || ch == '\n';
+  }
+
+  /**
+   * Returns the reason for which the specified address is malformed, or {@code null} if it is not found to be malformed. Only the
+   * conditions that the strict parser of {@link InternetAddress} rejects are checked, so an address that passes may still be
+   * rejected by the parser, but an address that fails would have been rejected by it too.
+   *
+   * @param address The address.
+   * @return The reason for which the specified address is malformed, or {@code null} if it is not found to be malformed.
+   */
+  static String check(final String address) {
+    int start = 0;
+    int end = address.length();
+    while (start < end && isWhitespace(address.charAt(start)))
+      ++start;
+
+    while (end > start && isWhitespace(address.charAt(end - 1)))
+      --end;
+
+    if (start == end)
+      return "Illegal address";
+
+    boolean quoted = false;
+    int comment = 0;
+    boolean special = false;
+    boolean whitespace = false;
+    boolean comma = false;
+    // The number of non-empty elements of the comma-separated list
+    int elements = 0;
+    boolean element = false;
+    int at = -1;
+    boolean atAt = false;
+    int dotDot = -1;
+    for (int i = start; i < end; ++i) { // [N]
+      final char ch = address.charAt(i);
+      if (ch == ',') {
+        element = false;
+      }
+      else if (!element && !isWhitespace(ch)) {
+        element = true;
+        ++elements;
+      }
+
+      if (quoted) {
+        if (ch == '\\')
+          ++i;
+        else if (ch == '"')
+          quoted = false;
+      }
+      else if (comment > 0) {
+        if (ch == '\\')
+          ++i;
+        else if (ch == '(')
+          ++comment;
+        else if (ch == ')')
+          --comment;
+      }
+      else if (ch == '"') {
+        quoted = special = true;
+      }
+      else if (ch == '(') {
+        ++comment;
+        special = true;
+      }
+      else if (ch == ')') {
+        return "Missing '('";
+      }
+      else if (ch == '>') {
+        return "Missing '<'";
+      }
+      else if (ch == '<' || ch == '\\' || ch == '[') {
+        // Route addresses, domain literals and stray escapes are left to the parser
+        return null;
+      }
+      else if (ch == ':' || ch == ';') {
+        special = true;
+      }
+      else if (ch == ',') {
+        comma = true;
+      }
+      else if (ch == '@') {
+        if (at != -1)
+          atAt = true;
+
+        at = i;
+      }
+      else if (ch == '.') {
+        if (dotDot == -1 && i > start && address.charAt(i - 1) == '.')
+          dotDot = i;
+      }
+      else if (ch < 0x20 || ch == 0x7f || ch == ' ') {
+        whitespace = true;
+      }
+    }
+
+    if (quoted)
+      return "Missing '\"'";
+
+    if (comment > 0)
+      return "Missing ')'";
+
+    // Quoted strings, comments and groups are left to the parser
+    if (special)
+      return null;
+
+    // A list of several addresses is rejected, but empty elements are ignored by the parser
+    if (comma)
+      return elements > 1 ? "Illegal address" : null;
+
+    if (whitespace)
+      return "Local address contains control or whitespace";
+
+    if (atAt)
+      return "Domain contains illegal character";
+
+    // An address without a domain is accepted by the parser
+    if (at == -1)
+      return null;
+
+    if (at == start)
+      return "Missing local name";
+
+    if (at == end - 1)
+      return "Missing domain";
+
+    if (address.charAt(start) == '.')
+      return "Local address starts with dot";
+
+    if (dotDot != -1)
+      return dotDot < at ? "Local address contains dot-dot" : "Domain contains dot-dot";
+
+    if (address.charAt(end - 1) == '.')
+      return "Domain ends with dot";
+
+    return null;
+  }
+
+  /**
+   * Returns whether the specified address is well formed, as far as can be determined with a single pass over its characters. An
+   * address that is not well formed is rejected by {@link InternetAddress#InternetAddress(String)}, but an address that is well
+   * formed may still be rejected by it.
+   *
+   * @param address The address.
+   * @return Whether the specified address is well formed.
+   * @throws NullPointerException If {@code address} is null.
+   */
+  public static boolean isWellFormed(final String address) {
+    return check(address) == null;
+  }
+
+  private final Segment[] segments = new Segment[SEGMENTS];
+
+  /**
+   * Creates a new {@link AddressCache} with the specified max number of entries.
+   *
+   * @param maxSize The max number of entries.
+   * @throws IllegalArgumentException If {@code maxSize} is not positive.
+   */
+  public AddressCache(final int maxSize) {
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("maxSize (" + maxSize + ") must be positive");
+
+    final int segmentSize = Math.max(1, (maxSize + SEGMENTS - 1) / SEGMENTS);
+    for (int i = 0; i < SEGMENTS; ++i) // [A]
+      segments[i] = new Segment(segmentSize);
+  }
+
+  private Segment segment(final String address) {
+    final int hash = address.hashCode();
+    return segments[(hash ^ (hash >>> 16)) & (SEGMENTS - 1)];
+  }
+
+  /**
+   * Returns the cached {@link InternetAddress} of the specified string, or parses, caches and returns it if it is not cached. The
+   * returned {@link InternetAddress} is shared, and cannot be modified.
+   *
+   * @param address The address to parse.
+   * @return The cached {@link InternetAddress} of the specified string.
+   * @throws AddressException If the address is malformed.
+   * @throws NullPointerException If {@code address} is null.
+   */
+  public InternetAddress parse(final String address) throws AddressException {
+    final Segment segment = segment(Objects.requireNonNull(address, "address is null"));
+    synchronized (segment) {
+      final InternetAddress cached = segment.get(address);
+      if (cached != null)
+        return cached;
+    }
+
+    final String reason = check(address);
+    if (reason != null)
+      throw new AddressException(reason, address);
+
+    final InternetAddress parsed = new ImmutableInternetAddress(address);
+    synchronized (segment) {
+      final InternetAddress cached = segment.putIfAbsent(address, parsed);
+      return cached != null ? cached : parsed;
+    }
+  }
+
+  /**
+   * Returns the number of entries in this cache.
+   *
+   * @return The number of entries in this cache.
+   */
+  public int getCount() {
+    int count = 0;
+    for (final Segment segment : segments) { // [A]
+      synchronized (segment) {
+        count += segment.size();
+      }
+    }
+
+    return count;
+  }
+
+  /**
+   * Removes all entries from this cache.
+   */
+  public void clear() {
+    for (final Segment segment : segments) { // [A]
+      synchronized (segment) {
+        segment.clear();
+      }
+    }
+  }
+}
@@ -0,0 +1,145 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Enumeration;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeBodyPart;
+
+import com.sun.mail.util.LineOutputStream;
+
+/**
+ * A {@link MimeBodyPart} whose content is the file at a {@link Path}, which is {@code base64}-encoded directly from a
+ * {@link FileChannel} into the output stream with fixed-size buffers when the part is written. The file is never loaded into
+ * memory as a whole, regardless of its size.
+ */
+final class AttachmentBodyPart extends MimeBodyPart {
+  private static final byte[] BASE64 = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".getBytes(StandardCharsets.US_ASCII);
+  private static final byte[] CRLF = {'\r', '\n'};
+
+  /** Number of bytes encoded to a single 76 character line, as per RFC 2045. */
+  private static final int BYTES_PER_LINE = 57;
+  private static final int CHARS_PER_LINE = 76;
+  private static final int LINES_PER_CHUNK = 128;
+
+  /**
+   * Encodes {@code len} bytes of {@code src} as {@code base64} into {@code dst}, with a {@code CRLF} after each line of
+   * {@value #CHARS_PER_LINE} characters except the last.
+   *
+   * @return The number of bytes written to {@code dst}.
+   */
+  static int encode(final byte[] src, final int len, final byte[] dst) {
+    int j = 0;
+    int col = 0;
+    int i = 0;
+    for (final int end = len - len % 3; i < end; i += 3) { // [A]
+      if (col == CHARS_PER_LINE) {
+        dst[j++] = '\r';
+        dst[j++] = '\n';
+        col = 0;
+      }
+
+      final int b = (src[i] & 0xff) << 16 | (src[i + 1] & 0xff) << 8 | src[i + 2] & 0xff;
+      dst[j++] = BASE64[b >>> 18];
+      dst[j++] = BASE64[b >>> 12 & 0x3f];
+      dst[j++] = BASE64[b >>> 6 & 0x3f];
+      dst[j++] = BASE64[b & 0x3f];
+      col += 4;
+    }
+
+    final int rem = len - i;
+    if (rem > 0) {
+      if (col == CHARS_PER_LINE) {
+        dst[j++] = '\r';
+        dst[j++] = '\n';
+      }
+
+      final int b = (src[i] & 0xff) << 16 | (rem == 2 ? (src[i + 1] & 0xff) << 8 : 0);
+      dst[j++] = BASE64[b >>> 18];
+      dst[j++] = BASE64[b >>> 12 & 0x3f];
+      dst[j++] = rem == 2 ? BASE64[b >>> 6 & 0x3f] : (byte)'=';
+      dst[j++] = '=';
+    }
+
+    return j;
+  }
+
+  private final Path path;
+
+  /**
+   * Creates a new {@link AttachmentBodyPart} for the file at the specified {@link Path}.
+   *
+   * @param path The {@link Path} of the file.
+   * @param type The mime type string.
+   * @param disposition The {@code Content-Disposition} (i.e. {@link #ATTACHMENT} or {@link #INLINE}).
+   * @param fileName The file name, or {@code null} to omit.
+   * @param contentId The {@code Content-ID} (without angle brackets), or {@code null} to omit.
+   * @throws MessagingException If a messaging error has occurred.
+   */
+  AttachmentBodyPart(final Path path, final String type, final String disposition, final String fileName, final String contentId) throws MessagingException {
+    this.path = path;
+    // The DataHandler is used to read the decoded content (i.e. by MimeBodyPart.getInputStream()), but not to write it
+    new StreamingMimeContent(path, type).setTo(this);
+    setHeader("Content-Transfer-Encoding", "base64");
+    setDisposition(disposition);
+    if (fileName != null)
+      setFileName(fileName);
+
+    if (contentId != null)
+      setContentID("<" + contentId + ">");
+  }
+
+  @Override
+  public void writeTo(final OutputStream os) throws IOException, MessagingException {
+    final LineOutputStream los = os instanceof LineOutputStream ? (LineOutputStream)os : new LineOutputStream(os);
+    for (final Enumeration<String> headers = getNonMatchingHeaderLines(null); headers.hasMoreElements();) // [E]
+      los.writeln(headers.nextElement());
+
+    los.writeln();
+    final byte[] src = new byte[BYTES_PER_LINE * LINES_PER_CHUNK];
+    final byte[] dst = new byte[(CHARS_PER_LINE + CRLF.length) * LINES_PER_CHUNK];
+    final ByteBuffer buffer = ByteBuffer.wrap(src);
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      boolean first = true;
+      while (true) {
+        // Fill the buffer completely (except at EOF), so that each chunk ends on a line boundary
+        buffer.clear();
+        while (buffer.hasRemaining() && channel.read(buffer) != -1);
+        final int len = buffer.position();
+        if (len == 0)
+          break;
+
+        if (first)
+          first = false;
+        else
+          os.write(CRLF);
+
+        os.write(dst, 0, encode(src, len, dst));
+        if (len < src.length)
+          break;
+      }
+    }
+  }
+}
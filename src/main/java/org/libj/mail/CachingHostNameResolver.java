@@ -0,0 +1,160 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link HostNameResolver} that resolves on a background thread with a strict timeout, caches the result with a TTL, and falls
+ * back to another {@link HostNameResolver} when the result is not available in time. A failed or timed out resolution is cached
+ * with a negative TTL, for which the fallback is returned without waiting.
+ *
+ * @see HostNameResolver#cached(HostNameResolver,long,long,long)
+ */
+final class CachingHostNameResolver implements HostNameResolver {
+  private static final Logger logger = LoggerFactory.getLogger(CachingHostNameResolver.class);
+  private static final String DEFAULT_HOST_NAME = "localhost.localdomain";
+
+  private final HostNameResolver resolver;
+  private final HostNameResolver fallback;
+  private final long timeoutMs;
+  private final long ttlMs;
+  private final long negativeTtlMs;
+
+  private volatile String hostName;
+  private volatile long expiryTime;
+  // The time until which a failed or timed out resolution is cached, or 0 if no resolution has failed or timed out
+  private volatile long negativeExpiryTime;
+  private CompletableFuture<String> refresh;
+  private String fallbackHostName;
+
+  CachingHostNameResolver(final HostNameResolver resolver, final HostNameResolver fallback, final long timeoutMs, final long ttlMs, final long negativeTtlMs) {
+    this.resolver = Objects.requireNonNull(resolver, "resolver is null");
+    this.fallback = fallback;
+    this.timeoutMs = timeoutMs;
+    if (timeoutMs < 0)
+      throw new IllegalArgumentException("timeoutMs (" + timeoutMs + ") is negative");
+
+    this.ttlMs = ttlMs;
+    if (ttlMs < 0)
+      throw new IllegalArgumentException("ttlMs (" + ttlMs + ") is negative");
+
+    this.negativeTtlMs = negativeTtlMs;
+    if (negativeTtlMs < 0)
+      throw new IllegalArgumentException("negativeTtlMs (" + negativeTtlMs + ") is negative");
+  }
+
+  /**
+   * Starts the background resolution of the host name, unless it is already in progress, and returns its
+   * {@link CompletableFuture}.
+   *
+   * @return The {@link CompletableFuture} of the background resolution of the host name.
+   */
+  synchronized CompletableFuture<String> refresh() {
+    if (refresh != null)
+      return refresh;
+
+    final CompletableFuture<String> future = refresh = new CompletableFuture<>();
+    final Thread thread = new Thread(() -> {
+      String hostName = null;
+      Throwable exception = null;
+      try {
+        hostName = resolver.getHostName();
+        if (hostName == null)
+          throw new IOException("Unable to resolve host name");
+
+        this.hostName = hostName;
+        this.expiryTime = System.currentTimeMillis() + ttlMs;
+      }
+      catch (final Throwable t) {
+        if (logger.isDebugEnabled()) { logger.debug("Unable to resolve host name", t); }
+        this.negativeExpiryTime = System.currentTimeMillis() + negativeTtlMs;
+        exception = t;
+      }
+
+      // The refresh is cleared before the future is completed, so that a caller that observes the completion can start another
+      synchronized (CachingHostNameResolver.this) {
+        refresh = null;
+      }
+
+      if (exception != null)
+        future.completeExceptionally(exception);
+      else
+        future.complete(hostName);
+    }, "libj-mail-hostname");
+    thread.setDaemon(true);
+    thread.start();
+    return future;
+  }
+
+  @Override
+  public String getHostName() {
+    final String hostName = this.hostName;
+    final long now = System.currentTimeMillis();
+    if (hostName != null) {
+      if (now >= expiryTime && now >= negativeExpiryTime)
+        refresh();
+
+      return hostName;
+    }
+
+    // Once a resolution has failed or timed out, the fallback is returned at once while the host name is refreshed
+    if (negativeExpiryTime != 0) {
+      if (now >= negativeExpiryTime)
+        refresh();
+
+      return getFallbackHostName();
+    }
+
+    try {
+      return refresh().get(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    catch (final ExecutionException e) {
+    }
+    catch (final TimeoutException e) {
+      negativeExpiryTime = System.currentTimeMillis() + negativeTtlMs;
+    }
+
+    return getFallbackHostName();
+  }
+
+  private synchronized String getFallbackHostName() {
+    if (fallbackHostName != null)
+      return fallbackHostName;
+
+    try {
+      if (fallback != null && (fallbackHostName = fallback.getHostName()) != null)
+        return fallbackHostName;
+    }
+    catch (final IOException e) {
+      if (logger.isDebugEnabled()) { logger.debug("Unable to resolve fallback host name", e); }
+    }
+
+    return fallbackHostName = DEFAULT_HOST_NAME;
+  }
+}
@@ -0,0 +1,79 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.Objects;
+
+import javax.mail.PasswordAuthentication;
+
+/**
+ * Value-based identity of a {@link PasswordAuthentication}, used to key state (such as pooled connections) that is specific to an
+ * authenticated principal. {@link PasswordAuthentication} itself does not define {@link Object#equals(Object)} or
+ * {@link Object#hashCode()}.
+ */
+final class Credential {
+  static final Credential ANONYMOUS = new Credential(null);
+
+  /**
+   * Returns the {@link Credential} for the specified {@link PasswordAuthentication}.
+   *
+   * @param authentication The {@link PasswordAuthentication} (can be null).
+   * @return The {@link Credential} for the specified {@link PasswordAuthentication}, or {@link #ANONYMOUS} if
+   *         {@code authentication} is null.
+   */
+  static Credential of(final PasswordAuthentication authentication) {
+    return authentication == null ? ANONYMOUS : new Credential(authentication);
+  }
+
+  final PasswordAuthentication authentication;
+  private final int hashCode;
+
+  private Credential(final PasswordAuthentication authentication) {
+    this.authentication = authentication;
+    this.hashCode = authentication == null ? 0 : 31 * Objects.hashCode(authentication.getUserName()) + Objects.hashCode(authentication.getPassword());
+  }
+
+  String getUserName() {
+    return authentication == null ? null : authentication.getUserName();
+  }
+
+  String getPassword() {
+    return authentication == null ? null : authentication.getPassword();
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (obj == this)
+      return true;
+
+    if (!(obj instanceof Credential))
+      return false;
+
+    final Credential that = (Credential)obj;
+    return hashCode == that.hashCode && Objects.equals(getUserName(), that.getUserName()) && Objects.equals(getPassword(), that.getPassword());
+  }
+
+  @Override
+  public int hashCode() {
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return authentication == null ? "anonymous" : authentication.getUserName();
+  }
+}
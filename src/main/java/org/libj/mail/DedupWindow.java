@@ -0,0 +1,283 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Objects;
+
+import javax.mail.internet.InternetAddress;
+
+import org.libj.mail.Mail.Message;
+
+/**
+ * A time-windowed and size-bounded set of the fingerprints of recently sent {@link Message}s, by which a {@link Mail.Dispatch}
+ * suppresses the duplicates that an at-least-once upstream delivers again.
+ * <p>
+ * A fingerprint is a 64-bit hash of the fields of a {@link Message} by which it is {@linkplain Message#equals(Object) equal} to
+ * another. The fingerprints are held in a primitive open-addressing table with linear probing, and in a ring in the order in which
+ * they were added, so that no reference to a {@link Message} is retained, and the memory of the window is fixed at construction.
+ * A fingerprint expires when it is older than the window, or when it is the oldest fingerprint and the window is full. Distinct
+ * messages whose fingerprints collide are (with negligible probability) taken for duplicates.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Mail.Dispatch.Builder#withDedupWindow(DedupWindow)
+ */
+public final class DedupWindow {
+  // The fingerprint 0 marks an empty slot of the table, so it is substituted
+  private static final long ZERO = 0x9e3779b97f4a7c15L;
+
+  private static long mix(long h) {
+    h ^= h >>> 33;
+    h *= 0xff51afd7ed558ccdL;
+    h ^= h >>> 33;
+    h *= 0xc4ceb9fe1a85ec53L;
+    h ^= h >>> 33;
+    return h;
+  }
+
+  private static long hash(long h, final String s) {
+    for (int i = 0, i$ = s.length(); i < i$; ++i) // [N]
+      h = 0x100000001b3L * (h ^ s.charAt(i));
+
+    return 0x100000001b3L * (h ^ s.length());
+  }
+
+  private static long hash(final long h, final InternetAddress address) {
+    // InternetAddress.equals() compares the address (and not the personal name) ignoring case
+    final String s = address.getAddress();
+    return s == null ? 0x100000001b3L * h : hash(h, s.toLowerCase(Locale.ENGLISH));
+  }
+
+  private static long hash(long h, final InternetAddress[] addresses) {
+    if (addresses == null)
+      return 0x100000001b3L * (h ^ -1);
+
+    for (final InternetAddress address : addresses) // [A]
+      h = hash(h, address);
+
+    return 0x100000001b3L * (h ^ addresses.length);
+  }
+
+  /**
+   * Returns the 64-bit fingerprint of the specified {@link Message}, which is equal for {@linkplain Message#equals(Object) equal}
+   * messages. The subject and the addresses are hashed to 64 bits, and the {@link MimeContent} is hashed by its
+   * {@link MimeContent#hashCode() hashCode()}.
+   *
+   * @param message The {@link Message}.
+   * @return The 64-bit fingerprint of the specified {@link Message}.
+   * @throws NullPointerException If {@code message} is null.
+   */
+  public static long fingerprint(final Message message) {
+    long h = 0xcbf29ce484222325L;
+    h = hash(h, Objects.requireNonNull(message, "message is null").subject);
+    h = 0x100000001b3L * (h ^ message.content.hashCode());
+    h = hash(h, message.from);
+    h = hash(h, message.to);
+    h = hash(h, message.cc);
+    h = hash(h, message.bcc);
+    h = mix(h);
+    return h != 0 ? h : ZERO;
+  }
+
+  private final long windowMs;
+  // The open-addressing table of fingerprints, and the index in the ring of each
+  private final long[] keys;
+  private final int[] indexes;
+  private final int mask;
+  // The ring of fingerprints in the order in which they were added, and the time at which each was added
+  private final long[] ring;
+  private final long[] times;
+  private int head;
+  // The number of entries of the ring, including the tombstones of removed fingerprints
+  private int count;
+  private int size;
+  private long duplicateCount;
+
+  /**
+   * Creates a new {@link DedupWindow} with the specified max number of fingerprints and window.
+   *
+   * @param maxSize The max number of fingerprints in the window.
+   * @param windowMs The time in milliseconds for which a fingerprint is held.
+   * @throws IllegalArgumentException If {@code maxSize} or {@code windowMs} is not positive, or if {@code maxSize} exceeds
+   *           {@code 1 << 28}.
+   */
+  public DedupWindow(final int maxSize, final long windowMs) {
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("maxSize (" + maxSize + ") must be positive");
+
+    if (windowMs <= 0)
+      throw new IllegalArgumentException("windowMs (" + windowMs + ") must be positive");
+
+    // The table has a capacity of up to 4 times maxSize, which must not exceed 1 << 30
+    if (maxSize > 1 << 28)
+      throw new IllegalArgumentException("maxSize (" + maxSize + ") must not exceed " + (1 << 28));
+
+    this.windowMs = windowMs;
+    // A load factor of at most 0.5 keeps the probe sequences short
+    final int capacity = Integer.highestOneBit(maxSize) << 2;
+    this.keys = new long[capacity];
+    this.indexes = new int[capacity];
+    this.mask = capacity - 1;
+    this.ring = new long[maxSize];
+    this.times = new long[maxSize];
+  }
+
+  /**
+   * Adds the fingerprint of the specified {@link Message} to this window, unless it is in the window already.
+   *
+   * @param message The {@link Message}.
+   * @return {@code true} if the fingerprint was added, or {@code false} if the {@link Message} is a duplicate.
+   * @throws NullPointerException If {@code message} is null.
+   */
+  public boolean add(final Message message) {
+    return add(fingerprint(message), System.currentTimeMillis());
+  }
+
+  /**
+   * Removes the fingerprint of the specified {@link Message} from this window, so that an equal {@link Message} is no longer taken
+   * for a duplicate, i.e. after its send has failed. The removed fingerprint holds its place in the window until it expires.
+   *
+   * @param message The {@link Message}.
+   * @return {@code true} if the fingerprint was in this window.
+   * @throws NullPointerException If {@code message} is null.
+   */
+  public boolean remove(final Message message) {
+    return remove(fingerprint(message));
+  }
+
+  synchronized boolean add(final long fingerprint, final long now) {
+    expire(now);
+    int slot = (int)fingerprint & mask;
+    for (long key; (key = keys[slot]) != 0; slot = (slot + 1) & mask) {
+      if (key == fingerprint) {
+        ++duplicateCount;
+        return false;
+      }
+    }
+
+    if (count == ring.length)
+      evict();
+
+    final int index = (head + count) % ring.length;
+    ring[index] = fingerprint;
+    times[index] = now;
+    ++count;
+    ++size;
+    // The eviction may have shifted an entry into the free slot, so it is probed again
+    slot = (int)fingerprint & mask;
+    while (keys[slot] != 0)
+      slot = (slot + 1) & mask;
+
+    keys[slot] = fingerprint;
+    indexes[slot] = index;
+    return true;
+  }
+
+  synchronized boolean remove(final long fingerprint) {
+    int slot = (int)fingerprint & mask;
+    for (long key; (key = keys[slot]) != 0; slot = (slot + 1) & mask) {
+      if (key == fingerprint) {
+        // The entry of the ring is left in place as a tombstone, and skipped when it expires
+        ring[indexes[slot]] = 0;
+        delete(slot);
+        --size;
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private void expire(final long now) {
+    while (count > 0 && now - times[head] >= windowMs)
+      evict();
+  }
+
+  private void evict() {
+    final long fingerprint = ring[head];
+    if (fingerprint != 0) {
+      int slot = (int)fingerprint & mask;
+      while (keys[slot] != fingerprint)
+        slot = (slot + 1) & mask;
+
+      delete(slot);
+      --size;
+    }
+
+    head = (head + 1) % ring.length;
+    --count;
+  }
+
+  /**
+   * Deletes the entry at the specified slot of the table, and shifts back the entries of its probe sequence that follow it, so
+   * that no tombstone is left in the table.
+   *
+   * @param slot The slot.
+   */
+  private void delete(int slot) {
+    for (int next = (slot + 1) & mask;; next = (next + 1) & mask) { // [N]
+      final long key = keys[next];
+      if (key == 0)
+        break;
+
+      // The entry at next can move to slot if its home is not cyclically in (slot, next]
+      final int home = (int)key & mask;
+      if (slot <= next ? (home <= slot || home > next) : (home <= slot && home > next)) {
+        keys[slot] = key;
+        indexes[slot] = indexes[next];
+        slot = next;
+      }
+    }
+
+    keys[slot] = 0;
+  }
+
+  /**
+   * Returns the number of fingerprints in this window, including those that have expired but have not yet been evicted.
+   *
+   * @return The number of fingerprints in this window.
+   */
+  public synchronized int getCount() {
+    return size;
+  }
+
+  /**
+   * Returns the number of messages that have been found to be duplicates.
+   *
+   * @return The number of messages that have been found to be duplicates.
+   */
+  public synchronized long getDuplicateCount() {
+    return duplicateCount;
+  }
+
+  /**
+   * Removes all fingerprints from this window.
+   */
+  public synchronized void clear() {
+    Arrays.fill(keys, 0);
+    Arrays.fill(ring, 0);
+    head = count = size = 0;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "{count: " + size + ", duplicates: " + duplicateCount + "}";
+  }
+}
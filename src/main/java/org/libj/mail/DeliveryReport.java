@@ -0,0 +1,161 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+
+import com.sun.mail.smtp.SMTPAddressFailedException;
+
+/**
+ * The per-recipient outcome of a send, combined across all of the transactions in which the recipients of a message were sent.
+ *
+ * @see Mail.Dispatch#deliver(javax.mail.PasswordAuthentication,Mail.Message)
+ */
+public final class DeliveryReport {
+  /**
+   * Returns the {@link MessagingException} for the specified recipient of a failed transaction: the
+   * {@link SMTPAddressFailedException} of the recipient in the chain of {@linkplain MessagingException#getNextException() next
+   * exceptions}, if there is one, or {@code e} itself otherwise.
+   */
+  private static MessagingException getException(final MessagingException e, final Address recipient) {
+    for (Exception next = e.getNextException(); next instanceof MessagingException; next = ((MessagingException)next).getNextException()) // [X]
+      if (next instanceof SMTPAddressFailedException && recipient.equals(((SMTPAddressFailedException)next).getAddress()))
+        return (MessagingException)next;
+
+    return e;
+  }
+
+  private final String messageId;
+  private final int recipientCount;
+  private final ArrayList<Address> accepted;
+  private final LinkedHashMap<Address,MessagingException> rejected = new LinkedHashMap<>();
+  private int transactionCount;
+
+  DeliveryReport(final String messageId, final int recipientCount) {
+    this.messageId = messageId;
+    this.recipientCount = recipientCount;
+    this.accepted = new ArrayList<>(recipientCount);
+  }
+
+  /**
+   * Records the outcome of a transaction to the specified recipients.
+   *
+   * @param recipients The recipients of the transaction.
+   * @param e The {@link MessagingException} with which the transaction failed, or {@code null} if it succeeded.
+   */
+  synchronized void add(final Address[] recipients, final MessagingException e) {
+    ++transactionCount;
+    if (e == null) {
+      Collections.addAll(accepted, recipients);
+      return;
+    }
+
+    // With sendPartial, the transaction may have succeeded for some of the recipients
+    final Address[] sent = e instanceof SendFailedException ? ((SendFailedException)e).getValidSentAddresses() : null;
+    if (sent != null)
+      Collections.addAll(accepted, sent);
+
+    for (final Address recipient : recipients) { // [A]
+      if (sent == null || !contains(sent, recipient))
+        rejected.put(recipient, getException(e, recipient));
+    }
+  }
+
+  private static boolean contains(final Address[] addresses, final Address address) {
+    for (final Address a : addresses) // [A]
+      if (a.equals(address))
+        return true;
+
+    return false;
+  }
+
+  /**
+   * Returns the {@link javax.mail.internet.MimeMessage#getMessageID() messageID} of the message.
+   *
+   * @return The {@link javax.mail.internet.MimeMessage#getMessageID() messageID} of the message.
+   */
+  public String getMessageId() {
+    return messageId;
+  }
+
+  /**
+   * Returns the recipients that were accepted by the SMTP server.
+   *
+   * @return The recipients that were accepted by the SMTP server.
+   */
+  public synchronized List<Address> getAccepted() {
+    return Collections.unmodifiableList(new ArrayList<>(accepted));
+  }
+
+  /**
+   * Returns the recipients that were not accepted by the SMTP server, mapped to the {@link MessagingException} of each.
+   *
+   * @return The recipients that were not accepted by the SMTP server, mapped to the {@link MessagingException} of each.
+   */
+  public synchronized Map<Address,MessagingException> getRejected() {
+    return Collections.unmodifiableMap(new LinkedHashMap<>(rejected));
+  }
+
+  /**
+   * Returns the number of transactions in which the recipients were sent.
+   *
+   * @return The number of transactions in which the recipients were sent.
+   */
+  public synchronized int getTransactionCount() {
+    return transactionCount;
+  }
+
+  /**
+   * Returns whether all recipients were accepted by the SMTP server.
+   *
+   * @return Whether all recipients were accepted by the SMTP server.
+   */
+  public synchronized boolean isComplete() {
+    return rejected.size() == 0 && accepted.size() == recipientCount;
+  }
+
+  /**
+   * Returns a {@link SendFailedException} that summarizes the rejected recipients, or {@code null} if this report is
+   * {@linkplain #isComplete() complete}. If no recipient was accepted, the exception of the first rejected recipient is chained as
+   * its {@linkplain MessagingException#getNextException() next exception}, so that it is
+   * {@linkplain RetryPolicy#classify(MessagingException) classified} by it. If some recipients were accepted, nothing is chained, so
+   * that the exception is classified as {@linkplain RetryPolicy.Failure#PERMANENT permanent}, and the message is not resent to the
+   * accepted recipients.
+   *
+   * @return A {@link SendFailedException} that summarizes the rejected recipients, or {@code null} if this report is complete.
+   */
+  synchronized SendFailedException toException() {
+    if (isComplete())
+      return null;
+
+    final MessagingException first = accepted.size() == 0 && rejected.size() > 0 ? rejected.values().iterator().next() : null;
+    return new SendFailedException(rejected.size() + " of " + recipientCount + " recipients were rejected", first, accepted.toArray(new Address[accepted.size()]), null, rejected.keySet().toArray(new Address[rejected.size()]));
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "{messageId: " + messageId + ", accepted: " + accepted.size() + ", rejected: " + rejected.size() + ", transactions: " + transactionCount + "}";
+  }
+}
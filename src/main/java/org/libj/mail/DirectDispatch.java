@@ -0,0 +1,580 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+import javax.net.ssl.SSLContext;
+
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.mail.smtp.SMTPMessage;
+
+/**
+ * Delivers messages directly to the mail exchangers (MX) of the domains of their recipients, rather than via a smart host. The
+ * recipients of a message ({@code to}, {@code cc}, and {@code bcc}) are grouped by domain, and the message is sent in one
+ * transaction per domain with all of the recipients of that domain, to the domains in parallel. The MIME body of a message is
+ * rendered once and shared by all domains. The MX hosts of each domain are tried in order of preference, moving to the next on a
+ * {@linkplain RetryPolicy.Failure#CONNECTION connection failure}.
+ * <p>
+ * MX answers are cached for a {@linkplain Builder#withMxCacheTtl(long,long) configured time}, and so is the non-existence of a
+ * domain. A {@link Dispatch} is created for each MX host on first use, and is reused thereafter.
+ */
+public final class DirectDispatch implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(DirectDispatch.class);
+
+  /**
+   * Builder of {@link DirectDispatch}.
+   */
+  public static class Builder {
+    private int port = 25;
+    private boolean startTls = true;
+    private int connectionTimeoutMs = 30000;
+    private int readTimeoutMs = 60000;
+    private int maxConnectionsPerHost;
+    private HostNameResolver hostNameResolver;
+    private long mxTtlMs = 300000;
+    private long mxNegativeTtlMs = 60000;
+    private long maxIdleMs = 300000;
+    private MxResolver.Lookup lookup = MxResolver.DNS;
+    private Executor executor;
+    private int maxInFlight = Dispatch.DEFAULT_MAX_IN_FLIGHT;
+    private DispatchListener listener;
+    private MimeContentCache contentCache;
+    private DkimSigner dkim;
+
+    /**
+     * Set the port of the MX hosts. Default is 25.
+     *
+     * @param port The port of the MX hosts.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code port} is outside the range of [1, 65535].
+     */
+    public Builder withPort(final int port) {
+      if (port < 1 || 65535 < port)
+        throw new IllegalArgumentException("port (" + port + ") is outside the range of [1, 65535]");
+
+      this.port = port;
+      return this;
+    }
+
+    /**
+     * Set whether {@code STARTTLS} is used with MX hosts that support it. {@code STARTTLS} is opportunistic, i.e. a host that does
+     * not support it is sent to in the clear. Default is {@code true}.
+     *
+     * @param enabled Whether {@code STARTTLS} is used with MX hosts that support it.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withStartTls(final boolean enabled) {
+      this.startTls = enabled;
+      return this;
+    }
+
+    /**
+     * Set the socket connection timeout in milliseconds. Default is 30s.
+     *
+     * @param timeoutMs The socket connection timeout in milliseconds.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withConnectionTimeout(final int timeoutMs) {
+      this.connectionTimeoutMs = timeoutMs;
+      return this;
+    }
+
+    /**
+     * Set the socket read timeout in milliseconds. Default is 60s.
+     *
+     * @param timeoutMs The socket read timeout in milliseconds.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withReadTimeout(final int timeoutMs) {
+      this.readTimeoutMs = timeoutMs;
+      return this;
+    }
+
+    /**
+     * Set the max number of pooled connections to each MX host. Default is 0, which disables pooling.
+     *
+     * @param maxConnections The max number of pooled connections to each MX host.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxConnections} is negative.
+     * @see Dispatch.Builder#withMaxConnections(int)
+     */
+    public Builder withMaxConnectionsPerHost(final int maxConnections) {
+      if (maxConnections < 0)
+        throw new IllegalArgumentException("maxConnections (" + maxConnections + ") is negative");
+
+      this.maxConnectionsPerHost = maxConnections;
+      return this;
+    }
+
+    /**
+     * Set the {@link HostNameResolver} of the name with which to identify in {@code EHLO}. MX hosts commonly check that this name
+     * matches the reverse DNS of the sending IP address. Default is that of {@link Dispatch}.
+     *
+     * @param resolver The {@link HostNameResolver}.
+     * @return {@code this} {@link Builder}.
+     * @see Dispatch.Builder#withHostNameResolver(HostNameResolver)
+     */
+    public Builder withHostNameResolver(final HostNameResolver resolver) {
+      this.hostNameResolver = resolver;
+      return this;
+    }
+
+    /**
+     * Set the name with which to identify in {@code EHLO}.
+     *
+     * @param hostName The host name.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code hostName} is null.
+     */
+    public Builder withLocalHost(final String hostName) {
+      return withHostNameResolver(HostNameResolver.of(hostName));
+    }
+
+    /**
+     * Set the times for which MX answers are cached. Default is 5m for the MX hosts of a domain, and 1m for the non-existence of
+     * a domain.
+     *
+     * @param ttlMs The time in milliseconds for which the MX hosts of a domain are cached.
+     * @param negativeTtlMs The time in milliseconds for which the non-existence of a domain is cached.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code ttlMs} or {@code negativeTtlMs} is negative.
+     */
+    public Builder withMxCacheTtl(final long ttlMs, final long negativeTtlMs) {
+      if (ttlMs < 0)
+        throw new IllegalArgumentException("ttlMs (" + ttlMs + ") is negative");
+
+      if (negativeTtlMs < 0)
+        throw new IllegalArgumentException("negativeTtlMs (" + negativeTtlMs + ") is negative");
+
+      this.mxTtlMs = ttlMs;
+      this.mxNegativeTtlMs = negativeTtlMs;
+      return this;
+    }
+
+    /**
+     * Set the time after which the {@link Dispatch} of an MX host that has not been used is closed and removed, so that the
+     * {@link Dispatch}es of the MX hosts of a long-lived {@link DirectDispatch} do not accumulate. Default is 5m.
+     *
+     * @param maxIdleMs The time in milliseconds after which the {@link Dispatch} of an MX host that has not been used is closed.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxIdleMs} is not positive.
+     */
+    public Builder withMaxIdle(final long maxIdleMs) {
+      if (maxIdleMs <= 0)
+        throw new IllegalArgumentException("maxIdleMs (" + maxIdleMs + ") must be positive");
+
+      this.maxIdleMs = maxIdleMs;
+      return this;
+    }
+
+    Builder withLookup(final MxResolver.Lookup lookup) {
+      this.lookup = lookup;
+      return this;
+    }
+
+    /**
+     * Set the {@link Executor} on which the transactions to the domains of a message are performed. Default is the same as that of
+     * {@link Dispatch.Builder#withExecutor(Executor)}.
+     *
+     * @param executor The {@link Executor} on which the transactions to the domains of a message are performed.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withExecutor(final Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Set the max number of transactions that may be in flight at any one time, across all domains. Default is
+     * {@value Dispatch#DEFAULT_MAX_IN_FLIGHT}.
+     *
+     * @param maxInFlight The max number of transactions that may be in flight at any one time.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxInFlight} is not positive.
+     */
+    public Builder withMaxInFlight(final int maxInFlight) {
+      if (maxInFlight < 1)
+        throw new IllegalArgumentException("maxInFlight (" + maxInFlight + ") must be positive");
+
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /**
+     * Set the {@link DispatchListener} to which the events of the {@link Dispatch} of each MX host are reported. Default is no
+     * listener.
+     *
+     * @param listener The {@link DispatchListener}.
+     * @return {@code this} {@link Builder}.
+     * @see Dispatch.Builder#withListener(DispatchListener)
+     */
+    public Builder withListener(final DispatchListener listener) {
+      this.listener = listener;
+      return this;
+    }
+
+    /**
+     * Set the {@link MimeContentCache} by which the content of each message is replaced with a cached instance that is equal to
+     * it. Default is no cache.
+     *
+     * @param contentCache The {@link MimeContentCache}.
+     * @return {@code this} {@link Builder}.
+     * @see Dispatch.Builder#withContentCache(MimeContentCache)
+     */
+    public Builder withContentCache(final MimeContentCache contentCache) {
+      this.contentCache = contentCache;
+      return this;
+    }
+
+    /**
+     * Set the {@link DkimSigner} with which messages are signed as they are written to the SMTP {@code DATA} phase of each MX
+     * host. Default is no signing.
+     *
+     * @param dkim The {@link DkimSigner}.
+     * @return {@code this} {@link Builder}.
+     * @see Dispatch.Builder#withDkim(DkimSigner)
+     */
+    public Builder withDkim(final DkimSigner dkim) {
+      this.dkim = dkim;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link DirectDispatch} with the options specified in this {@link Builder}.
+     *
+     * @return A new {@link DirectDispatch} with the options specified in this {@link Builder}.
+     */
+    public DirectDispatch build() {
+      return new DirectDispatch(this);
+    }
+  }
+
+  /**
+   * Returns the recipients of the specified {@link MimeMessage} grouped by domain, in order of first appearance.
+   *
+   * @param mimeMessage The {@link MimeMessage}.
+   * @return The recipients of the specified {@link MimeMessage} grouped by domain.
+   * @throws MessagingException If a messaging error has occurred.
+   */
+  static Map<String,List<Address>> groupByDomain(final MimeMessage mimeMessage) throws MessagingException {
+    final Address[] recipients = mimeMessage.getAllRecipients();
+    final LinkedHashMap<String,List<Address>> domains = new LinkedHashMap<>();
+    if (recipients != null) {
+      for (final Address recipient : recipients) { // [A]
+        final String address = ((InternetAddress)recipient).getAddress();
+        final int at = address.lastIndexOf('@');
+        final String domain = at == -1 ? "" : address.substring(at + 1).toLowerCase(Locale.ROOT);
+        domains.computeIfAbsent(domain, (final String k) -> new ArrayList<>()).add(recipient);
+      }
+    }
+
+    return domains;
+  }
+
+  private final Builder builder;
+  private final Session session = Session.getInstance(new Properties());
+  private final MxResolver mxResolver;
+  private final ConcurrentHashMap<String,Host> dispatches = new ConcurrentHashMap<>();
+  private final DispatchQueue queue;
+  private volatile boolean closed;
+  // Shared by the Dispatch of each MX host, so that the TLS sessions of all hosts are held in a single session cache
+  private final SSLContext sslContext;
+
+  private DirectDispatch(final Builder builder) {
+    this.builder = builder;
+    this.sslContext = builder.startTls ? TlsSocketFactory.newTrustAllContext() : null;
+    this.mxResolver = new MxResolver(builder.lookup, builder.mxTtlMs, builder.mxNegativeTtlMs);
+    this.queue = new DispatchQueue(builder.executor, builder.maxInFlight, builder.listener);
+    scheduleEviction();
+  }
+
+  /**
+   * The {@link Dispatch} of an MX host, with the number of sends in progress on it, and the time it was last used. Its fields are
+   * only accessed in the remapping functions of {@link DirectDispatch#dispatches}, which are atomic per host.
+   */
+  private static final class Host {
+    private final Dispatch dispatch;
+    private int sends;
+    private long lastUsedTime;
+
+    private Host(final Dispatch dispatch) {
+      this.dispatch = dispatch;
+    }
+  }
+
+  /**
+   * Returns the number of MX hosts for which a {@link Dispatch} is currently held.
+   *
+   * @return The number of MX hosts for which a {@link Dispatch} is currently held.
+   */
+  int getHostCount() {
+    return dispatches.size();
+  }
+
+  private void scheduleEviction() {
+    if (!closed)
+      Dispatch.timer.schedule(() -> queue.submit(this::evict), builder.maxIdleMs);
+  }
+
+  /**
+   * Closes and removes the {@link Dispatch} of each MX host that has no sends in progress, and has not been used for the
+   * {@linkplain Builder#withMaxIdle(long) max idle time}.
+   */
+  private Void evict() {
+    if (closed)
+      return null;
+
+    final long now = System.currentTimeMillis();
+    final ArrayList<Dispatch> evicted = new ArrayList<>();
+    for (final String host : dispatches.keySet()) { // [S]
+      dispatches.computeIfPresent(host, (final String k, final Host h) -> {
+        if (h.sends > 0 || now - h.lastUsedTime < builder.maxIdleMs)
+          return h;
+
+        evicted.add(h.dispatch);
+        return null;
+      });
+    }
+
+    for (int i = 0, i$ = evicted.size(); i < i$; ++i) { // [RA]
+      if (logger.isDebugEnabled()) { logger.debug("Closing idle " + evicted.get(i)); }
+      evicted.get(i).close();
+    }
+
+    scheduleEviction();
+    return null;
+  }
+
+  private Dispatch acquire(final String host) {
+    return dispatches.compute(host, (final String k, Host h) -> {
+      if (h == null)
+        h = new Host(newDispatch(k));
+
+      ++h.sends;
+      return h;
+    }).dispatch;
+  }
+
+  private void release(final String host) {
+    final long now = System.currentTimeMillis();
+    dispatches.computeIfPresent(host, (final String k, final Host h) -> {
+      --h.sends;
+      h.lastUsedTime = now;
+      return h;
+    });
+  }
+
+  private Dispatch newDispatch(final String host) {
+    final HashMap<String,String> properties = new HashMap<>();
+    if (builder.startTls)
+      properties.put("mail.smtp.starttls.enable", "true");
+
+    final Dispatch.Builder dispatch = new Dispatch.Builder(host, builder.port)
+      .withConnectionTimeout(builder.connectionTimeoutMs)
+      .withReadTimeout(builder.readTimeoutMs)
+      .withMaxConnections(builder.maxConnectionsPerHost)
+      .withSslContext(sslContext)
+      .withProperties(properties)
+      .withListener(builder.listener)
+      // The Dispatch of each MX host is only sent with synchronously, so it shares the Executor of this DirectDispatch
+      .withExecutor(queue.getExecutor());
+
+    // Otherwise, the default HostNameResolver of Dispatch is used
+    if (builder.hostNameResolver != null)
+      dispatch.withHostNameResolver(builder.hostNameResolver);
+
+    return dispatch.build();
+  }
+
+  /**
+   * Sends the specified {@link MimeMessage} to the specified recipients of a single domain, trying the MX hosts of the domain in
+   * order of preference.
+   */
+  private String send(final String domain, final MimeMessage mimeMessage, final Address[] recipients) throws MessagingException {
+    if (domain.isEmpty())
+      throw new MessagingException("Recipient has no domain: " + recipients[0]);
+
+    final List<String> hosts = mxResolver.resolve(domain);
+    MessagingException exception = null;
+    for (int i = 0, i$ = hosts.size(); i < i$; ++i) { // [RA]
+      final String host = hosts.get(i);
+      final Dispatch dispatch = acquire(host);
+      try {
+        return dispatch.send(null, mimeMessage, recipients);
+      }
+      catch (final MessagingException e) {
+        if (RetryPolicy.classify(e) != RetryPolicy.Failure.CONNECTION)
+          throw e;
+
+        if (logger.isDebugEnabled()) { logger.debug("Unable to connect to MX " + host + " of " + domain + ": " + e.getMessage()); }
+        exception = e;
+      }
+      finally {
+        release(host);
+      }
+    }
+
+    throw exception;
+  }
+
+  /**
+   * Send {@code message} directly to the MX hosts of the domains of its recipients, in parallel. The
+   * {@link Message#success()} callback of {@code message} is invoked if it is accepted for all domains, and the
+   * {@link Message#failure(MessagingException)} callback is invoked with the exception of the first domain that failed
+   * otherwise.
+   *
+   * @param message The {@linkplain Message message} to send.
+   * @return A map of the {@link Result} of each domain of the recipients of {@code message}, in order of first appearance.
+   * @throws MessagingException If the message cannot be rendered.
+   * @throws NullPointerException If {@code message} is null.
+   */
+  public Map<String,Result> send(final Message message) throws MessagingException {
+    try {
+      return sendAsync(message).get();
+    }
+    catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof MessagingException)
+        throw (MessagingException)cause;
+
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException)cause;
+
+      throw new MessagingException(cause.getMessage(), (Exception)cause);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MessagingException("Interrupted while waiting for send", e);
+    }
+  }
+
+  /**
+   * Asynchronously send {@code message} directly to the MX hosts of the domains of its recipients, in parallel. The
+   * {@link Message#success()} or {@link Message#failure(MessagingException)} callback of {@code message} is invoked before the
+   * returned {@link CompletableFuture} is completed.
+   *
+   * @param message The {@linkplain Message message} to send.
+   * @return A {@link CompletableFuture} that is completed with a map of the {@link Result} of each domain of the recipients of
+   *         {@code message}, in order of first appearance, or exceptionally with the {@link MessagingException} if the message
+   *         cannot be rendered.
+   * @throws NullPointerException If {@code message} is null.
+   */
+  public CompletableFuture<Map<String,Result>> sendAsync(final Message message) {
+    Objects.requireNonNull(message, "message is null");
+    final SMTPMessage mimeMessage;
+    final Map<String,List<Address>> domains;
+    try {
+      // The message is prepared once for the MX hosts of all domains, so it is not prepared with 8bit parts
+      final MimeContent content = builder.contentCache != null ? builder.contentCache.intern(message.content) : message.content;
+      mimeMessage = Dispatch.prepare(session, message, content, false, builder.dkim);
+      domains = groupByDomain(mimeMessage);
+    }
+    catch (final MessagingException e) {
+      message.failure(e);
+      final CompletableFuture<Map<String,Result>> future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+
+    final ArrayList<String> names = new ArrayList<>(domains.keySet());
+    @SuppressWarnings("unchecked")
+    final CompletableFuture<String>[] futures = new CompletableFuture[names.size()];
+    for (int i = 0; i < futures.length; ++i) { // [A]
+      final String domain = names.get(i);
+      final Address[] recipients = domains.get(domain).toArray(new Address[0]);
+      futures[i] = queue.submit(message.getLane(), () -> send(domain, mimeMessage, recipients));
+    }
+
+    return CompletableFuture.allOf(futures).handle((final Void v, final Throwable t) -> {
+      final LinkedHashMap<String,Result> results = new LinkedHashMap<>();
+      MessagingException exception = null;
+      for (int i = 0; i < futures.length; ++i) { // [A]
+        final CompletableFuture<String> future = futures[i];
+        final Result result;
+        if (future.isCompletedExceptionally()) {
+          final MessagingException e = toMessagingException(future);
+          if (exception == null)
+            exception = e;
+
+          result = new Result(message, null, e);
+        }
+        else {
+          result = new Result(message, future.join(), null);
+        }
+
+        results.put(names.get(i), result);
+      }
+
+      if (exception != null)
+        message.failure(exception);
+      else
+        message.success();
+
+      return Collections.unmodifiableMap(results);
+    });
+  }
+
+  private static MessagingException toMessagingException(final CompletableFuture<?> future) {
+    try {
+      future.get();
+      throw new IllegalStateException();
+    }
+    catch (final ExecutionException e) {
+      final Throwable cause = e.getCause();
+      return cause instanceof MessagingException ? (MessagingException)cause : new MessagingException(cause.getMessage(), cause instanceof Exception ? (Exception)cause : null);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return new MessagingException("Interrupted", e);
+    }
+  }
+
+  /**
+   * Shuts down the default {@link Executor} of this {@link DirectDispatch}, if one was created, and closes the {@link Dispatch} of
+   * each MX host.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    queue.close();
+    for (final Host host : dispatches.values()) // [C]
+      host.dispatch.close();
+  }
+}
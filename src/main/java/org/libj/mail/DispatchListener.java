@@ -0,0 +1,126 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import javax.mail.MessagingException;
+
+/**
+ * A listener of the events of a {@link Mail.Dispatch}, by which the latency of each phase of an SMTP transaction, the outcome of
+ * each send, the bytes sent and the usage of connections are observed. All methods have empty default implementations, so that
+ * an implementation overrides only those of interest. {@link DispatchMetrics} is an implementation that aggregates the events
+ * into histograms and counters.
+ * <p>
+ * The methods are called synchronously by the threads that send, and must therefore be fast and thread-safe. If no
+ * {@link DispatchListener} is set, no time is measured.
+ *
+ * @see Mail.Dispatch.Builder#withListener(DispatchListener)
+ */
+public interface DispatchListener {
+  /**
+   * A phase of the lifecycle of a connection, or of an SMTP transaction.
+   */
+  enum Phase {
+    /** The creation of a {@link javax.mail.Session} of the {@link Mail.Dispatch}. */
+    SESSION,
+    /** The establishment of a connection, up to its {@code EHLO} (and {@code STARTTLS}) exchange, but excluding {@code AUTH}. */
+    CONNECT,
+    /** The TLS handshake of a connection, for SSL or {@code STARTTLS}. */
+    TLS,
+    /** The {@code AUTH} exchange of a connection. */
+    AUTH,
+    /** The {@code MAIL FROM} and {@code RCPT TO} commands of a transaction. */
+    ENVELOPE,
+    /** The {@code DATA} (or {@code BDAT}) phase of a transaction, from its command to the reply to the end of the message. */
+    DATA,
+    /** The {@code QUIT} of a connection. */
+    QUIT
+  }
+
+  /**
+   * Called when a {@link Phase} completes, whether successfully or not.
+   *
+   * @param phase The {@link Phase}.
+   * @param nanos The duration of the {@link Phase}, in nanoseconds.
+   */
+  default void onPhase(final Phase phase, final long nanos) {
+  }
+
+  /**
+   * Called when a connection is borrowed from the {@link TransportPool}, or is created if connection pooling is not enabled.
+   *
+   * @param nanos The time taken to borrow the connection, in nanoseconds, which includes the time waited for a connection to
+   *          become available, and the time taken to connect a new connection.
+   */
+  default void onBorrow(final long nanos) {
+  }
+
+  /**
+   * Called when a borrowed connection is returned to the {@link TransportPool}, or is closed if connection pooling is not enabled.
+   *
+   * @param invalidated Whether the connection was invalidated, as opposed to released.
+   */
+  default void onRelease(final boolean invalidated) {
+  }
+
+  /**
+   * Called when the content of a message has been written to the {@code DATA} (or {@code BDAT}) phase of a transaction.
+   *
+   * @param bytes The number of bytes of the message, before dot-stuffing.
+   */
+  default void onSent(final long bytes) {
+  }
+
+  /**
+   * Called when a send succeeds.
+   */
+  default void onSuccess() {
+  }
+
+  /**
+   * Called when a send fails.
+   *
+   * @param replyCode The SMTP reply code of the failure, or {@code -1} if the failure does not carry one (i.e. the connection
+   *          failed).
+   * @param e The {@link MessagingException}.
+   */
+  default void onFailure(final int replyCode, final MessagingException e) {
+  }
+
+  /**
+   * Called when a message is not sent, because it is a duplicate of a message in the {@link DedupWindow}.
+   */
+  default void onDuplicate() {
+  }
+
+  /**
+   * Called when an asynchronous send is submitted to the queue of the {@link Mail.Dispatch}.
+   *
+   * @param lane The {@link Lane} of the send.
+   */
+  default void onEnqueue(final Lane lane) {
+  }
+
+  /**
+   * Called when an asynchronous send is taken from the queue of the {@link Mail.Dispatch} to be executed.
+   *
+   * @param lane The {@link Lane} of the send.
+   * @param nanos The time for which the send waited in the queue, in nanoseconds.
+   */
+  default void onDequeue(final Lane lane, final long nanos) {
+  }
+}
@@ -0,0 +1,427 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.mail.MessagingException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A {@link DispatchListener} that aggregates the events of a {@link Mail.Dispatch} into a {@link Histogram} of the latency of
+ * each {@link DispatchListener.Phase}, and counters of successes, failures by SMTP reply code, bytes sent and connection usage.
+ * All updates are made to {@link LongAdder}s, so that threads that send concurrently do not contend on the same memory.
+ * <p>
+ * The metrics are optionally exposed via JMX, as a {@link DispatchMetricsMXBean} registered with {@link #register(String)}.
+ *
+ * <pre>
+ * final DispatchMetrics metrics = new DispatchMetrics();
+ * final Dispatch dispatch = new Dispatch.Builder(host, port).withListener(metrics).build();
+ * metrics.register("relay");
+ * </pre>
+ */
+public class DispatchMetrics implements DispatchListener, DispatchMetricsMXBean {
+  /**
+   * A histogram of durations, in buckets of powers of 2 nanoseconds. The bucket of a duration is found with a single
+   * {@link Long#numberOfLeadingZeros(long)}, and a percentile is reported as the upper bound of its bucket, which is thus accurate
+   * to within a factor of 2.
+   */
+  public static final class Histogram {
+    private final LongAdder[] buckets = new LongAdder[64];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0);
+
+    Histogram() {
+      for (int i = 0, i$ = buckets.length; i < i$; ++i) // [A]
+        buckets[i] = new LongAdder();
+    }
+
+    void record(final long nanos) {
+      final long value = Math.max(0, nanos);
+      buckets[Math.min(63, 64 - Long.numberOfLeadingZeros(value))].increment();
+      count.increment();
+      sum.add(value);
+      max.accumulate(value);
+    }
+
+    void reset() {
+      for (final LongAdder bucket : buckets) // [A]
+        bucket.reset();
+
+      count.reset();
+      sum.reset();
+      max.reset();
+    }
+
+    /**
+     * Returns the number of recorded durations.
+     *
+     * @return The number of recorded durations.
+     */
+    public long getCount() {
+      return count.sum();
+    }
+
+    /**
+     * Returns the total of the recorded durations, in nanoseconds.
+     *
+     * @return The total of the recorded durations, in nanoseconds.
+     */
+    public long getSumNanos() {
+      return sum.sum();
+    }
+
+    /**
+     * Returns the mean of the recorded durations, in milliseconds, or {@code 0} if no duration has been recorded.
+     *
+     * @return The mean of the recorded durations, in milliseconds.
+     */
+    public double getMeanMs() {
+      final long count = this.count.sum();
+      return count == 0 ? 0 : sum.sum() / 1e6 / count;
+    }
+
+    /**
+     * Returns the max of the recorded durations, in milliseconds.
+     *
+     * @return The max of the recorded durations, in milliseconds.
+     */
+    public double getMaxMs() {
+      return max.get() / 1e6;
+    }
+
+    /**
+     * Returns the upper bound of the bucket of the specified percentile of the recorded durations, in milliseconds, or {@code 0}
+     * if no duration has been recorded.
+     *
+     * @param percentile The percentile, between {@code 0} and {@code 100}.
+     * @return The upper bound of the bucket of the specified percentile of the recorded durations, in milliseconds.
+     * @throws IllegalArgumentException If {@code percentile} is not between {@code 0} and {@code 100}.
+     */
+    public double getPercentileMs(final double percentile) {
+      if (percentile < 0 || percentile > 100)
+        throw new IllegalArgumentException("percentile (" + percentile + ") must be between 0 and 100");
+
+      final long[] counts = new long[buckets.length];
+      long total = 0;
+      for (int i = 0, i$ = counts.length; i < i$; ++i) // [A]
+        total += counts[i] = buckets[i].sum();
+
+      if (total == 0)
+        return 0;
+
+      final long rank = Math.max(1, (long)Math.ceil(total * percentile / 100));
+      long seen = 0;
+      for (int i = 0, i$ = counts.length; i < i$; ++i) // [A]
+        if ((seen += counts[i]) >= rank)
+          return Math.min(i == 0 ? 0 : 1L << i, max.get()) / 1e6;
+
+      return getMaxMs();
+    }
+
+    @Override
+    public String toString() {
+      return "{count: " + getCount() + ", meanMs: " + getMeanMs() + ", p99Ms: " + getPercentileMs(99) + ", maxMs: " + getMaxMs() + "}";
+    }
+  }
+
+  private final Histogram[] phases = new Histogram[Phase.values().length];
+  private final Histogram borrows = new Histogram();
+  private final LongAdder successes = new LongAdder();
+  private final LongAdder failures = new LongAdder();
+  private final ConcurrentHashMap<Integer,LongAdder> failuresByCode = new ConcurrentHashMap<>();
+  private final LongAdder duplicates = new LongAdder();
+  private final ConcurrentHashMap<String,LongAdder> laneDepths = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String,Histogram> laneWaits = new ConcurrentHashMap<>();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder invalidates = new LongAdder();
+  private final LongAdder inUse = new LongAdder();
+  private volatile ObjectName objectName;
+
+  /**
+   * Creates a new {@link DispatchMetrics}.
+   */
+  public DispatchMetrics() {
+    for (int i = 0, i$ = phases.length; i < i$; ++i) // [A]
+      phases[i] = new Histogram();
+  }
+
+  @Override
+  public void onPhase(final Phase phase, final long nanos) {
+    phases[phase.ordinal()].record(nanos);
+  }
+
+  @Override
+  public void onBorrow(final long nanos) {
+    borrows.record(nanos);
+    inUse.increment();
+  }
+
+  @Override
+  public void onRelease(final boolean invalidated) {
+    inUse.decrement();
+    if (invalidated)
+      invalidates.increment();
+  }
+
+  @Override
+  public void onSent(final long bytes) {
+    this.bytes.add(bytes);
+  }
+
+  @Override
+  public void onSuccess() {
+    successes.increment();
+  }
+
+  @Override
+  public void onFailure(final int replyCode, final MessagingException e) {
+    failures.increment();
+    failuresByCode.computeIfAbsent(replyCode, k -> new LongAdder()).increment();
+  }
+
+  @Override
+  public void onDuplicate() {
+    duplicates.increment();
+  }
+
+  @Override
+  public void onEnqueue(final Lane lane) {
+    laneDepths.computeIfAbsent(lane.getName(), k -> new LongAdder()).increment();
+  }
+
+  @Override
+  public void onDequeue(final Lane lane, final long nanos) {
+    laneDepths.computeIfAbsent(lane.getName(), k -> new LongAdder()).decrement();
+    getWaitHistogram(lane).record(nanos);
+  }
+
+  /**
+   * Returns the {@link Histogram} of the specified {@link DispatchListener.Phase}.
+   *
+   * @param phase The {@link DispatchListener.Phase}.
+   * @return The {@link Histogram} of the specified {@link DispatchListener.Phase}.
+   * @throws NullPointerException If {@code phase} is null.
+   */
+  public Histogram getHistogram(final Phase phase) {
+    return phases[phase.ordinal()];
+  }
+
+  /**
+   * Returns the {@link Histogram} of the time that asynchronous sends of the specified {@link Lane} waited in the queue.
+   *
+   * @param lane The {@link Lane}.
+   * @return The {@link Histogram} of the time that asynchronous sends of the specified {@link Lane} waited in the queue.
+   * @throws NullPointerException If {@code lane} is null.
+   */
+  public Histogram getWaitHistogram(final Lane lane) {
+    return laneWaits.computeIfAbsent(lane.getName(), k -> new Histogram());
+  }
+
+  /**
+   * Returns the {@link Histogram} of the time to borrow a connection.
+   *
+   * @return The {@link Histogram} of the time to borrow a connection.
+   */
+  public Histogram getBorrowHistogram() {
+    return borrows;
+  }
+
+  @Override
+  public long getSuccessCount() {
+    return successes.sum();
+  }
+
+  @Override
+  public long getFailureCount() {
+    return failures.sum();
+  }
+
+  @Override
+  public Map<Integer,Long> getFailureCounts() {
+    final TreeMap<Integer,Long> counts = new TreeMap<>();
+    for (final Map.Entry<Integer,LongAdder> entry : failuresByCode.entrySet()) // [S]
+      counts.put(entry.getKey(), entry.getValue().sum());
+
+    return counts;
+  }
+
+  @Override
+  public long getDuplicateCount() {
+    return duplicates.sum();
+  }
+
+  @Override
+  public Map<String,Long> getLaneDepths() {
+    final TreeMap<String,Long> depths = new TreeMap<>();
+    for (final Map.Entry<String,LongAdder> entry : laneDepths.entrySet()) // [S]
+      depths.put(entry.getKey(), entry.getValue().sum());
+
+    return depths;
+  }
+
+  @Override
+  public Map<String,Double> getLaneMeanWaitMs() {
+    final TreeMap<String,Double> means = new TreeMap<>();
+    for (final Map.Entry<String,Histogram> entry : laneWaits.entrySet()) // [S]
+      means.put(entry.getKey(), entry.getValue().getMeanMs());
+
+    return means;
+  }
+
+  @Override
+  public Map<String,Double> getLaneP99WaitMs() {
+    final TreeMap<String,Double> percentiles = new TreeMap<>();
+    for (final Map.Entry<String,Histogram> entry : laneWaits.entrySet()) // [S]
+      percentiles.put(entry.getKey(), entry.getValue().getPercentileMs(99));
+
+    return percentiles;
+  }
+
+  @Override
+  public long getBytesSent() {
+    return bytes.sum();
+  }
+
+  @Override
+  public long getBorrowCount() {
+    return borrows.getCount();
+  }
+
+  @Override
+  public long getInvalidateCount() {
+    return invalidates.sum();
+  }
+
+  @Override
+  public long getInUseCount() {
+    return inUse.sum();
+  }
+
+  @Override
+  public double getMeanBorrowTimeMs() {
+    return borrows.getMeanMs();
+  }
+
+  @Override
+  public Map<String,Long> getPhaseCounts() {
+    final TreeMap<String,Long> counts = new TreeMap<>();
+    for (final Phase phase : Phase.values()) // [A]
+      counts.put(phase.name(), phases[phase.ordinal()].getCount());
+
+    return counts;
+  }
+
+  @Override
+  public Map<String,Double> getPhaseMeanMs() {
+    final TreeMap<String,Double> means = new TreeMap<>();
+    for (final Phase phase : Phase.values()) // [A]
+      means.put(phase.name(), phases[phase.ordinal()].getMeanMs());
+
+    return means;
+  }
+
+  @Override
+  public Map<String,Double> getPhaseP99Ms() {
+    final TreeMap<String,Double> percentiles = new TreeMap<>();
+    for (final Phase phase : Phase.values()) // [A]
+      percentiles.put(phase.name(), phases[phase.ordinal()].getPercentileMs(99));
+
+    return percentiles;
+  }
+
+  /**
+   * Resets all histograms and counters, except the number of connections that are currently borrowed, and the number of sends
+   * that are currently queued.
+   */
+  @Override
+  public void reset() {
+    for (final Histogram histogram : phases) // [A]
+      histogram.reset();
+
+    for (final Histogram histogram : laneWaits.values()) // [C]
+      histogram.reset();
+
+    borrows.reset();
+    successes.reset();
+    failures.reset();
+    failuresByCode.clear();
+    duplicates.reset();
+    bytes.reset();
+    invalidates.reset();
+  }
+
+  /**
+   * Registers this {@link DispatchMetrics} with the platform {@link MBeanServer}, as {@code org.libj.mail:type=Dispatch,name=}
+   * {@code name}.
+   *
+   * @param name The value of the {@code name} key of the {@link ObjectName}.
+   * @return The {@link ObjectName} with which this {@link DispatchMetrics} is registered.
+   * @throws NullPointerException If {@code name} is null.
+   * @throws IllegalStateException If this {@link DispatchMetrics} is already registered, or if the registration fails.
+   */
+  public synchronized ObjectName register(final String name) {
+    if (objectName != null)
+      throw new IllegalStateException("Already registered as " + objectName);
+
+    try {
+      final ObjectName objectName = new ObjectName("org.libj.mail:type=Dispatch,name=" + ObjectName.quote(Objects.requireNonNull(name, "name is null")));
+      ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+      return this.objectName = objectName;
+    }
+    catch (final JMException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  /**
+   * Unregisters this {@link DispatchMetrics} from the platform {@link MBeanServer}, if it is registered.
+   *
+   * @throws IllegalStateException If the unregistration fails.
+   */
+  public synchronized void unregister() {
+    if (objectName == null)
+      return;
+
+    try {
+      ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+      objectName = null;
+    }
+    catch (final JMException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder("{successes: ").append(getSuccessCount()).append(", failures: ").append(getFailureCounts()).append(", bytes: ").append(getBytesSent()).append(", borrow: ").append(borrows);
+    for (final Phase phase : Phase.values()) // [A]
+      builder.append(", ").append(phase.name()).append(": ").append(phases[phase.ordinal()]);
+
+    return builder.append('}').toString();
+  }
+}
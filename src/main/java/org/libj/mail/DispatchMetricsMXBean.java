@@ -0,0 +1,137 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.util.Map;
+
+/**
+ * The JMX management interface of {@link DispatchMetrics}.
+ *
+ * @see DispatchMetrics#register(String)
+ */
+public interface DispatchMetricsMXBean {
+  /**
+   * Returns the number of successful sends.
+   *
+   * @return The number of successful sends.
+   */
+  long getSuccessCount();
+
+  /**
+   * Returns the number of failed sends.
+   *
+   * @return The number of failed sends.
+   */
+  long getFailureCount();
+
+  /**
+   * Returns the number of failed sends by SMTP reply code, where {@code -1} is the code of failures that do not carry one.
+   *
+   * @return The number of failed sends by SMTP reply code.
+   */
+  Map<Integer,Long> getFailureCounts();
+
+  /**
+   * Returns the number of messages that were not sent, because they were duplicates.
+   *
+   * @return The number of messages that were not sent, because they were duplicates.
+   */
+  long getDuplicateCount();
+
+  /**
+   * Returns the number of asynchronous sends waiting in the queue, by {@link Lane}.
+   *
+   * @return The number of asynchronous sends waiting in the queue, by {@link Lane}.
+   */
+  Map<String,Long> getLaneDepths();
+
+  /**
+   * Returns the mean time that asynchronous sends waited in the queue in milliseconds, by {@link Lane}.
+   *
+   * @return The mean time that asynchronous sends waited in the queue in milliseconds, by {@link Lane}.
+   */
+  Map<String,Double> getLaneMeanWaitMs();
+
+  /**
+   * Returns the 99th percentile of the time that asynchronous sends waited in the queue in milliseconds, by {@link Lane}.
+   *
+   * @return The 99th percentile of the time that asynchronous sends waited in the queue in milliseconds, by {@link Lane}.
+   */
+  Map<String,Double> getLaneP99WaitMs();
+
+  /**
+   * Returns the number of bytes sent.
+   *
+   * @return The number of bytes sent.
+   */
+  long getBytesSent();
+
+  /**
+   * Returns the number of borrowed connections.
+   *
+   * @return The number of borrowed connections.
+   */
+  long getBorrowCount();
+
+  /**
+   * Returns the number of invalidated connections.
+   *
+   * @return The number of invalidated connections.
+   */
+  long getInvalidateCount();
+
+  /**
+   * Returns the number of connections that are currently borrowed.
+   *
+   * @return The number of connections that are currently borrowed.
+   */
+  long getInUseCount();
+
+  /**
+   * Returns the mean time to borrow a connection, in milliseconds.
+   *
+   * @return The mean time to borrow a connection, in milliseconds.
+   */
+  double getMeanBorrowTimeMs();
+
+  /**
+   * Returns the number of completions of each {@link DispatchListener.Phase}, by name.
+   *
+   * @return The number of completions of each {@link DispatchListener.Phase}, by name.
+   */
+  Map<String,Long> getPhaseCounts();
+
+  /**
+   * Returns the mean time of each {@link DispatchListener.Phase}, by name, in milliseconds.
+   *
+   * @return The mean time of each {@link DispatchListener.Phase}, by name, in milliseconds.
+   */
+  Map<String,Double> getPhaseMeanMs();
+
+  /**
+   * Returns the 99th percentile time of each {@link DispatchListener.Phase}, by name, in milliseconds.
+   *
+   * @return The 99th percentile time of each {@link DispatchListener.Phase}, by name, in milliseconds.
+   */
+  Map<String,Double> getPhaseP99Ms();
+
+  /**
+   * Resets all histograms and counters.
+   */
+  void reset();
+}
@@ -0,0 +1,278 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.util.ArrayDeque;
+import java.util.Objects;
+
+import javax.mail.PasswordAuthentication;
+
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
+import org.reactivestreams.Processor;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+/**
+ * A Reactive Streams {@link Processor} that sends the {@link Message}s it receives from an upstream {@link Publisher} with a
+ * {@link Dispatch}, and publishes the {@link Result} of each to a downstream {@link Subscriber}, in order of completion.
+ * <p>
+ * Messages are requested from upstream only as there is capacity to send them: the number of messages that have been requested
+ * and not yet received, that are being sent, and whose results have not yet been delivered downstream, is bounded by the
+ * {@linkplain Dispatch.Builder#withMaxInFlight(int) max number of sends in flight} of the {@link Dispatch}, and by the current
+ * {@linkplain AdaptiveLimiter#getConcurrencyLimit() concurrency limit} of its {@link AdaptiveLimiter}, if one is configured. An
+ * upstream that is faster than the relay, or a downstream that is slower than it, thus slows the flow of messages, rather than
+ * having them buffered without bound or holding a thread per message.
+ * <p>
+ * Results are held until a downstream {@link Subscriber} subscribes, and count against the capacity until they are delivered, so
+ * a downstream {@link Subscriber} must subscribe for more messages to be sent than the capacity allows. A {@link Subscriber} that
+ * requests {@link Long#MAX_VALUE} can be subscribed to disregard the results. A {@link DispatchProcessor} has a single upstream and
+ * a single downstream, and cannot be reused after either has terminated.
+ * <p>
+ * On JDK 9+, {@code org.reactivestreams.FlowAdapters} adapts a {@link DispatchProcessor} to a
+ * {@code java.util.concurrent.Flow.Processor}.
+ *
+ * @see Dispatch#newProcessor(PasswordAuthentication)
+ */
+public final class DispatchProcessor implements Processor<Message,Result> {
+  private final Dispatch dispatch;
+  private final PasswordAuthentication authentication;
+
+  private Subscription upstream;
+  private boolean subscribed;
+  // Set once the downstream Subscriber has returned from onSubscribe(), after which it can be signaled
+  private Subscriber<? super Result> downstream;
+  private final ArrayDeque<Result> results = new ArrayDeque<>();
+  // The number of results requested by downstream, and not yet delivered
+  private long demand;
+  // The number of messages requested from upstream, and not yet received
+  private long requested;
+  private int inFlight;
+  private boolean upstreamDone;
+  private Throwable upstreamError;
+  private boolean upstreamCancelled;
+  private boolean cancelled;
+  private Throwable illegalRequest;
+  private boolean terminated;
+  private boolean draining;
+
+  private final Subscription subscription = new Subscription() {
+    @Override
+    public void request(final long n) {
+      synchronized (DispatchProcessor.this) {
+        if (n <= 0) {
+          if (illegalRequest == null)
+            illegalRequest = new IllegalArgumentException("n (" + n + ") must be positive");
+        }
+        else {
+          demand = demand + n < 0 ? Long.MAX_VALUE : demand + n;
+        }
+      }
+
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      synchronized (DispatchProcessor.this) {
+        cancelled = true;
+      }
+
+      drain();
+    }
+  };
+
+  DispatchProcessor(final Dispatch dispatch, final PasswordAuthentication authentication) {
+    this.dispatch = dispatch;
+    this.authentication = authentication;
+  }
+
+  @Override
+  public void onSubscribe(final Subscription subscription) {
+    Objects.requireNonNull(subscription, "subscription is null");
+    final boolean subscribed;
+    synchronized (this) {
+      subscribed = upstream != null;
+      if (!subscribed)
+        upstream = subscription;
+    }
+
+    // Only a single upstream is supported
+    if (subscribed)
+      subscription.cancel();
+    else
+      drain();
+  }
+
+  @Override
+  public void onNext(final Message message) {
+    Objects.requireNonNull(message, "message is null");
+    synchronized (this) {
+      --requested;
+      // Messages that arrive after the downstream has cancelled are not sent
+      if (cancelled || terminated)
+        return;
+
+      ++inFlight;
+    }
+
+    dispatch.submitForResult(authentication, message).whenComplete((final Result result, final Throwable t) -> {
+      synchronized (this) {
+        --inFlight;
+        results.add(result != null ? result : new Result(message, null, Dispatch.toMessagingException(t)));
+      }
+
+      drain();
+    });
+  }
+
+  @Override
+  public void onError(final Throwable t) {
+    Objects.requireNonNull(t, "t is null");
+    synchronized (this) {
+      upstreamDone = true;
+      upstreamError = t;
+    }
+
+    drain();
+  }
+
+  @Override
+  public void onComplete() {
+    synchronized (this) {
+      upstreamDone = true;
+    }
+
+    drain();
+  }
+
+  @Override
+  public void subscribe(final Subscriber<? super Result> subscriber) {
+    Objects.requireNonNull(subscriber, "subscriber is null");
+    final boolean subscribed;
+    synchronized (this) {
+      subscribed = this.subscribed;
+      this.subscribed = true;
+    }
+
+    if (subscribed) {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(final long n) {
+        }
+
+        @Override
+        public void cancel() {
+        }
+      });
+      subscriber.onError(new IllegalStateException("Only a single subscriber is supported"));
+      return;
+    }
+
+    subscriber.onSubscribe(subscription);
+    synchronized (this) {
+      downstream = subscriber;
+    }
+
+    drain();
+  }
+
+  /**
+   * Returns the number of messages that can be requested from upstream, which is the capacity of the {@link Dispatch} less the
+   * number of messages that have been requested, that are being sent, and whose results have not been delivered.
+   *
+   * @return The number of messages that can be requested from upstream.
+   */
+  private long getFree() {
+    return dispatch.getCapacity() - requested - inFlight - results.size();
+  }
+
+  /**
+   * Performs the actions that the state of this {@link DispatchProcessor} calls for, one at a time, until there is none. The
+   * signals to the downstream {@link Subscriber} and to the upstream {@link Subscription} are thus serialized, and are made
+   * without holding the lock of this {@link DispatchProcessor}.
+   */
+  private void drain() {
+    synchronized (this) {
+      if (draining)
+        return;
+
+      draining = true;
+    }
+
+    while (true) {
+      Subscriber<? super Result> subscriber = null;
+      Result result = null;
+      Throwable error = null;
+      boolean complete = false;
+      Subscription cancel = null;
+      Subscription request = null;
+      long n = 0;
+      synchronized (this) {
+        if (illegalRequest != null && downstream != null && !terminated) {
+          // Rule 3.9: a non-positive request is signaled with onError
+          terminated = cancelled = true;
+          error = illegalRequest;
+          subscriber = downstream;
+        }
+        else if (cancelled || terminated) {
+          results.clear();
+          if (upstream != null && !upstreamCancelled && !upstreamDone) {
+            upstreamCancelled = true;
+            cancel = upstream;
+          }
+        }
+        else if (downstream != null && demand > 0 && !results.isEmpty()) {
+          result = results.poll();
+          if (demand != Long.MAX_VALUE)
+            --demand;
+
+          subscriber = downstream;
+        }
+        else if (downstream != null && upstreamDone && inFlight == 0 && results.isEmpty()) {
+          terminated = true;
+          error = upstreamError;
+          complete = error == null;
+          subscriber = downstream;
+        }
+        else if (upstream != null && !upstreamDone && (n = getFree()) > 0) {
+          requested += n;
+          request = upstream;
+        }
+
+        if (subscriber == null && cancel == null && request == null) {
+          draining = false;
+          return;
+        }
+      }
+
+      if (cancel != null)
+        cancel.cancel();
+      else if (request != null)
+        request.request(n);
+      else if (result != null)
+        subscriber.onNext(result);
+      else if (complete)
+        subscriber.onComplete();
+      else
+        subscriber.onError(error);
+    }
+  }
+}
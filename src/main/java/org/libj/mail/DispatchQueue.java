@@ -0,0 +1,333 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An asynchronous queue of tasks that are executed by an {@link Executor} with a bounded number of tasks in flight. Tasks
+ * submitted while the bound is reached are queued (without blocking the submitter) in the {@link Lane} with which they are
+ * submitted, and are handed to the {@link Executor} as in-flight tasks complete: in FIFO order within a lane, and by weighted fair
+ * queuing among lanes, as described in {@link Lane}.
+ */
+final class DispatchQueue implements AutoCloseable {
+  private static final AtomicInteger threadNumber = new AtomicInteger();
+
+  /**
+   * Returns a new {@link ExecutorService} that starts a new virtual thread for each task, if supported by the runtime (JDK 21+),
+   * or otherwise a new cached thread pool of daemon threads.
+   *
+   * @return A new {@link ExecutorService} for the execution of asynchronous sends.
+   */
+  static ExecutorService newDefaultExecutor() {
+    try {
+      return (ExecutorService)Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+    catch (final ReflectiveOperationException e) {
+      return Executors.newCachedThreadPool((final Runnable r) -> {
+        final Thread thread = new Thread(r, "libj-mail-dispatch-" + threadNumber.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+  }
+
+  private final class Task<T> implements Runnable {
+    private final LaneQueue lane;
+    private final Callable<T> callable;
+    private final CompletableFuture<T> future;
+    private final long enqueueTime;
+    private double start;
+
+    private Task(final LaneQueue lane, final Callable<T> callable, final CompletableFuture<T> future) {
+      this.lane = lane;
+      this.callable = callable;
+      this.future = future;
+      this.enqueueTime = lane.maxWaitNanos != -1 || listener != null ? System.nanoTime() : 0;
+    }
+
+    @Override
+    public void run() {
+      try {
+        future.complete(callable.call());
+      }
+      catch (final Throwable t) {
+        future.completeExceptionally(t);
+      }
+      finally {
+        next();
+      }
+    }
+  }
+
+  /**
+   * The pending tasks of a {@link Lane}, and the virtual finish time of the last of them.
+   */
+  private static final class LaneQueue {
+    private final Lane lane;
+    private final double cost;
+    private final boolean preemptive;
+    private final long maxWaitNanos;
+    private final ArrayDeque<Task<?>> pending = new ArrayDeque<>();
+    private double finish;
+
+    private LaneQueue(final Lane lane) {
+      this.lane = lane;
+      this.cost = 1d / lane.getWeight();
+      this.preemptive = lane.isPreemptive();
+      this.maxWaitNanos = lane.getMaxWaitMs() != -1 ? lane.getMaxWaitMs() * 1000000 : -1;
+    }
+  }
+
+  private final Executor executor;
+  private final boolean ownsExecutor;
+  private final int maxInFlight;
+  private final DispatchListener listener;
+  private final HashMap<Lane,LaneQueue> lanes = new HashMap<>();
+  // The lanes with pending tasks
+  private final ArrayList<LaneQueue> backlogged = new ArrayList<>();
+  private double virtualTime;
+  private int pending;
+  private int inFlight;
+
+  /**
+   * Creates a new {@link DispatchQueue} with the provided parameters.
+   *
+   * @param executor The {@link Executor} to run tasks, or {@code null} to use {@link #newDefaultExecutor()}.
+   * @param maxInFlight The max number of tasks that may be executing at any one time.
+   * @throws IllegalArgumentException If {@code maxInFlight} is not positive.
+   */
+  DispatchQueue(final Executor executor, final int maxInFlight) {
+    this(executor, maxInFlight, null);
+  }
+
+  /**
+   * Creates a new {@link DispatchQueue} with the provided parameters.
+   *
+   * @param executor The {@link Executor} to run tasks, or {@code null} to use {@link #newDefaultExecutor()}.
+   * @param maxInFlight The max number of tasks that may be executing at any one time.
+   * @param listener The {@link DispatchListener} to which the queuing of tasks is reported, or {@code null}.
+   * @throws IllegalArgumentException If {@code maxInFlight} is not positive.
+   */
+  DispatchQueue(final Executor executor, final int maxInFlight, final DispatchListener listener) {
+    if (maxInFlight < 1)
+      throw new IllegalArgumentException("maxInFlight (" + maxInFlight + ") must be positive");
+
+    this.ownsExecutor = executor == null;
+    this.executor = ownsExecutor ? newDefaultExecutor() : executor;
+    this.maxInFlight = maxInFlight;
+    this.listener = listener;
+  }
+
+  /**
+   * Returns the {@link Executor} that runs the tasks of this {@link DispatchQueue}.
+   *
+   * @return The {@link Executor} that runs the tasks of this {@link DispatchQueue}.
+   */
+  Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Submits the specified {@link Callable} for asynchronous execution in the {@linkplain Lane#DEFAULT default lane}.
+   *
+   * @param <T> The type parameter of the result.
+   * @param callable The {@link Callable} to execute.
+   * @return A {@link CompletableFuture} that is completed with the result of {@code callable}, or exceptionally with the
+   *         {@link Throwable} it throws.
+   */
+  <T> CompletableFuture<T> submit(final Callable<T> callable) {
+    return submit(Lane.DEFAULT, callable);
+  }
+
+  /**
+   * Submits the specified {@link Callable} for asynchronous execution in the specified {@link Lane}.
+   *
+   * @param <T> The type parameter of the result.
+   * @param lane The {@link Lane}.
+   * @param callable The {@link Callable} to execute.
+   * @return A {@link CompletableFuture} that is completed with the result of {@code callable}, or exceptionally with the
+   *         {@link Throwable} it throws.
+   * @throws NullPointerException If {@code lane} is null.
+   */
+  <T> CompletableFuture<T> submit(final Lane lane, final Callable<T> callable) {
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    final Task<T> task;
+    synchronized (this) {
+      final LaneQueue queue = lanes.computeIfAbsent(Objects.requireNonNull(lane, "lane is null"), LaneQueue::new);
+      task = new Task<>(queue, callable, future);
+      if (listener != null)
+        listener.onEnqueue(lane);
+
+      // A lane that becomes backlogged starts no earlier than the current virtual time
+      task.start = Math.max(virtualTime, queue.finish);
+      queue.finish = task.start + queue.cost;
+      if (inFlight == maxInFlight) {
+        if (queue.pending.isEmpty())
+          backlogged.add(queue);
+
+        queue.pending.add(task);
+        ++pending;
+        return future;
+      }
+
+      ++inFlight;
+      virtualTime = task.start;
+    }
+
+    if (!execute(task))
+      next();
+
+    return future;
+  }
+
+  /**
+   * Hands the specified task to the {@link Executor}, or completes it exceptionally if the {@link Executor} rejects it.
+   *
+   * @param task The task.
+   * @return Whether the task was accepted by the {@link Executor}.
+   */
+  private boolean execute(final Task<?> task) {
+    if (listener != null)
+      listener.onDequeue(task.lane.lane, System.nanoTime() - task.enqueueTime);
+
+    try {
+      executor.execute(task);
+      return true;
+    }
+    catch (final RejectedExecutionException e) {
+      task.future.completeExceptionally(e);
+      return false;
+    }
+  }
+
+  /**
+   * Removes and returns the next pending task, which is the task that has waited longer than the max wait of its lane for the
+   * longest time, or else the task with the earliest virtual start time of the preemptive lanes, or else of all lanes.
+   *
+   * @return The next pending task, or {@code null} if there are no pending tasks.
+   */
+  private Task<?> poll() {
+    if (pending == 0)
+      return null;
+
+    final long now = System.nanoTime();
+    LaneQueue starved = null;
+    LaneQueue preemptive = null;
+    LaneQueue next = null;
+    long maxOverdue = 0;
+    for (int i = 0, i$ = backlogged.size(); i < i$; ++i) { // [RA]
+      final LaneQueue queue = backlogged.get(i);
+      final Task<?> head = queue.pending.peek();
+      if (queue.maxWaitNanos != -1) {
+        final long overdue = now - head.enqueueTime - queue.maxWaitNanos;
+        if (overdue > maxOverdue) {
+          maxOverdue = overdue;
+          starved = queue;
+        }
+      }
+
+      if (queue.preemptive && (preemptive == null || head.start < preemptive.pending.peek().start))
+        preemptive = queue;
+
+      if (next == null || head.start < next.pending.peek().start)
+        next = queue;
+    }
+
+    final LaneQueue queue = starved != null ? starved : preemptive != null ? preemptive : next;
+    final Task<?> task = queue.pending.poll();
+    if (queue.pending.isEmpty())
+      backlogged.remove(queue);
+
+    --pending;
+    virtualTime = Math.max(virtualTime, task.start);
+    return task;
+  }
+
+  private void next() {
+    while (true) {
+      final Task<?> task;
+      synchronized (this) {
+        task = poll();
+        if (task == null) {
+          --inFlight;
+          return;
+        }
+      }
+
+      if (execute(task))
+        return;
+    }
+  }
+
+  /**
+   * Returns the max number of tasks that may be executing at any one time.
+   *
+   * @return The max number of tasks that may be executing at any one time.
+   */
+  int getMaxInFlight() {
+    return maxInFlight;
+  }
+
+  /**
+   * Returns the number of tasks that are currently executing.
+   *
+   * @return The number of tasks that are currently executing.
+   */
+  synchronized int getInFlight() {
+    return inFlight;
+  }
+
+  /**
+   * Returns the number of tasks that are waiting to be executed.
+   *
+   * @return The number of tasks that are waiting to be executed.
+   */
+  synchronized int getPending() {
+    return pending;
+  }
+
+  /**
+   * Returns the number of tasks of the specified {@link Lane} that are waiting to be executed.
+   *
+   * @param lane The {@link Lane}.
+   * @return The number of tasks of the specified {@link Lane} that are waiting to be executed.
+   */
+  synchronized int getPending(final Lane lane) {
+    final LaneQueue queue = lanes.get(lane);
+    return queue != null ? queue.pending.size() : 0;
+  }
+
+  /**
+   * Shuts down the {@link Executor} of this {@link DispatchQueue}, if it was created by this {@link DispatchQueue}.
+   */
+  @Override
+  public void close() {
+    if (ownsExecutor)
+      ((ExecutorService)executor).shutdown();
+  }
+}
@@ -0,0 +1,337 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+
+import com.sun.mail.smtp.SMTPMessage;
+import com.sun.mail.smtp.SMTPTransport;
+
+/**
+ * The {@link SMTPTransport} of {@link Mail.Dispatch}, which adds support for the {@code PIPELINING} (RFC 2920) and
+ * {@code 8BITMIME} (RFC 6152) extensions.
+ * <p>
+ * With {@code PIPELINING}, the {@code MAIL FROM} command and all {@code RCPT TO} commands of a transaction are written to the
+ * server in a single batch, and their replies are read in order thereafter, which reduces the round trips of the envelope from
+ * {@code 1 + n} to 1. {@link SMTPTransport} issues each command and reads its reply in turn, so the batch is written when it
+ * issues {@code MAIL FROM}, and each subsequent {@code RCPT TO} that matches the next command of the batch is not written again.
+ * If {@link SMTPTransport} issues any other command before the batch is exhausted (i.e. {@code RSET} after the rejection of
+ * {@code MAIL FROM}), the replies to the remainder of the batch are drained first.
+ * <p>
+ * With {@code 8BITMIME}, {@code BODY=8BITMIME} is declared on {@code MAIL FROM}. {@code CHUNKING} ({@code BDAT}) is supported by
+ * {@link SMTPTransport} itself, and is enabled with the {@code mail.<protocol>.chunksize} property.
+ * <p>
+ * If a {@link DispatchListener} is provided, the {@link DispatchListener.Phase phases} of the connection and of each transaction
+ * are timed, and the bytes of each message are counted as they are written. Otherwise, no time is measured.
+ */
+final class DispatchTransport extends SMTPTransport {
+  private static final String MAIL_FROM = "MAIL FROM:";
+
+  private static String normalize(final String address) {
+    return address.startsWith("<") || address.endsWith(">") ? address : "<" + address + ">";
+  }
+
+  private final String protocol;
+  private final boolean pipelining;
+  private final boolean eightBitMime;
+  private final DispatchListener listener;
+  private final ArrayDeque<String> batch = new ArrayDeque<>();
+  private SMTPMessage message;
+  private Address[] addresses;
+  private int unread;
+  private boolean connecting;
+  private boolean open;
+  private long authStart;
+  private long envelopeStart;
+  private long dataStart;
+  private CountingOutputStream dataStream;
+
+  /**
+   * Creates a new {@link DispatchTransport} with the provided parameters.
+   *
+   * @param session The {@link Session}.
+   * @param protocol The protocol (i.e. {@code "smtp"} or {@code "smtps"}).
+   * @param pipelining Whether {@code PIPELINING} is to be used if supported by the server.
+   * @param eightBitMime Whether {@code BODY=8BITMIME} is to be declared if {@code 8BITMIME} is supported by the server.
+   * @param listener The {@link DispatchListener}, or {@code null} if the transport is not to be instrumented.
+   */
+  DispatchTransport(final Session session, final String protocol, final boolean pipelining, final boolean eightBitMime, final DispatchListener listener) {
+    super(session, null, protocol, "smtps".equals(protocol));
+    this.protocol = protocol;
+    this.pipelining = pipelining;
+    this.eightBitMime = eightBitMime;
+    this.listener = listener;
+  }
+
+  @Override
+  protected synchronized boolean protocolConnect(final String host, final int port, final String user, final String password) throws MessagingException {
+    if (listener == null)
+      return super.protocolConnect(host, port, user, password);
+
+    final long start = System.nanoTime();
+    authStart = 0;
+    connecting = true;
+    try {
+      return open = super.protocolConnect(host, port, user, password);
+    }
+    finally {
+      connecting = false;
+      final long end = System.nanoTime();
+      if (authStart == 0) {
+        listener.onPhase(DispatchListener.Phase.CONNECT, end - start);
+      }
+      else {
+        listener.onPhase(DispatchListener.Phase.CONNECT, authStart - start);
+        listener.onPhase(DispatchListener.Phase.AUTH, end - authStart);
+      }
+    }
+  }
+
+  @Override
+  protected void mailFrom() throws MessagingException {
+    if (listener != null)
+      envelopeStart = System.nanoTime();
+
+    super.mailFrom();
+  }
+
+  @Override
+  protected OutputStream data() throws MessagingException {
+    return listener == null ? super.data() : startData(super::data);
+  }
+
+  @Override
+  protected void finishData() throws IOException, MessagingException {
+    try {
+      super.finishData();
+    }
+    finally {
+      if (listener != null)
+        finishData(dataStream);
+    }
+  }
+
+  @Override
+  protected OutputStream bdat() throws MessagingException {
+    return listener == null ? super.bdat() : startData(super::bdat);
+  }
+
+  @Override
+  protected void finishBdat() throws IOException, MessagingException {
+    try {
+      super.finishBdat();
+    }
+    finally {
+      if (listener != null)
+        finishData(dataStream);
+    }
+  }
+
+  @FunctionalInterface
+  private interface DataCommand {
+    OutputStream issue() throws MessagingException;
+  }
+
+  /**
+   * Ends the {@link DispatchListener.Phase#ENVELOPE ENVELOPE} phase, and starts the {@link DispatchListener.Phase#DATA DATA} phase
+   * with the specified {@link DataCommand}, the {@link OutputStream} of which is wrapped to count the bytes of the message.
+   */
+  private OutputStream startData(final DataCommand command) throws MessagingException {
+    dataStart = System.nanoTime();
+    listener.onPhase(DispatchListener.Phase.ENVELOPE, dataStart - envelopeStart);
+    return dataStream = new CountingOutputStream(command.issue());
+  }
+
+  private void finishData(final CountingOutputStream dataStream) {
+    listener.onPhase(DispatchListener.Phase.DATA, System.nanoTime() - dataStart);
+    if (dataStream != null) {
+      listener.onSent(dataStream.count);
+      this.dataStream = null;
+    }
+  }
+
+  @Override
+  public synchronized void close() throws MessagingException {
+    if (listener == null || !open) {
+      super.close();
+      return;
+    }
+
+    open = false;
+    final long start = System.nanoTime();
+    try {
+      super.close();
+    }
+    finally {
+      listener.onPhase(DispatchListener.Phase.QUIT, System.nanoTime() - start);
+    }
+  }
+
+  @Override
+  public synchronized void sendMessage(final Message message, final Address[] addresses) throws MessagingException, SendFailedException {
+    this.message = message instanceof SMTPMessage ? (SMTPMessage)message : null;
+    this.addresses = addresses;
+    try {
+      super.sendMessage(message, addresses);
+    }
+    finally {
+      this.message = null;
+      this.addresses = null;
+      if (unread > 0) {
+        try {
+          drain();
+        }
+        catch (final MessagingException e) {
+          // The connection is lost, and will fail validation when it is next borrowed
+        }
+      }
+    }
+  }
+
+  /**
+   * Returns whether the envelope of the current message can be pipelined: the server supports {@code PIPELINING}, and all
+   * recipients are plain addresses (as opposed to groups, which {@link SMTPTransport} expands).
+   */
+  private boolean canPipeline() {
+    if (!pipelining || addresses == null || addresses.length == 0 || !supportsExtension("PIPELINING"))
+      return false;
+
+    for (final Address address : addresses) // [A]
+      if (!(address instanceof InternetAddress) || ((InternetAddress)address).isGroup())
+        return false;
+
+    return true;
+  }
+
+  /**
+   * Returns the {@code NOTIFY} parameter of {@code RCPT TO}, as {@link SMTPTransport} determines it.
+   */
+  private String getNotify() {
+    if (!supportsExtension("DSN"))
+      return null;
+
+    final int options = message != null ? message.getNotifyOptions() : 0;
+    if (options == 0)
+      return session.getProperty("mail." + protocol + ".dsn.notify");
+
+    if (options == SMTPMessage.NOTIFY_NEVER)
+      return "NEVER";
+
+    final StringBuilder builder = new StringBuilder();
+    if ((options & SMTPMessage.NOTIFY_SUCCESS) != 0)
+      builder.append(",SUCCESS");
+
+    if ((options & SMTPMessage.NOTIFY_FAILURE) != 0)
+      builder.append(",FAILURE");
+
+    if ((options & SMTPMessage.NOTIFY_DELAY) != 0)
+      builder.append(",DELAY");
+
+    return builder.substring(1);
+  }
+
+  @Override
+  protected void sendCommand(String cmd) throws MessagingException {
+    if (connecting && authStart == 0 && cmd.startsWith("AUTH "))
+      authStart = System.nanoTime();
+
+    if (unread > 0) {
+      if (cmd.equals(batch.peek())) {
+        // This command was already written as part of the batch
+        batch.poll();
+        return;
+      }
+
+      drain();
+    }
+
+    if (cmd.startsWith(MAIL_FROM)) {
+      if (eightBitMime && supportsExtension("8BITMIME"))
+        cmd += " BODY=8BITMIME";
+
+      if (canPipeline()) {
+        final String notify = getNotify();
+        final StringBuilder builder = new StringBuilder(cmd);
+        for (final Address address : addresses) { // [A]
+          String rcpt = "RCPT TO:" + normalize(((InternetAddress)address).getAddress());
+          if (notify != null)
+            rcpt += " NOTIFY=" + notify;
+
+          builder.append("\r\n").append(rcpt);
+          batch.add(rcpt);
+        }
+
+        // The reply to MAIL FROM is read by SMTPTransport as the reply to the command it issued
+        unread = batch.size() + 1;
+        super.sendCommand(builder.toString());
+        return;
+      }
+    }
+
+    super.sendCommand(cmd);
+  }
+
+  @Override
+  protected int readServerResponse() throws MessagingException {
+    if (unread > 0)
+      --unread;
+
+    return super.readServerResponse();
+  }
+
+  /**
+   * An {@link OutputStream} that counts the bytes written to it.
+   */
+  private static final class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    private CountingOutputStream(final OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+      out.write(b);
+      ++count;
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
+
+  /**
+   * Reads and discards the replies to the commands of the batch that {@link SMTPTransport} has not issued.
+   */
+  private void drain() throws MessagingException {
+    batch.clear();
+    while (unread > 0)
+      readServerResponse();
+  }
+}
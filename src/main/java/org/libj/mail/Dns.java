@@ -0,0 +1,81 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.Hashtable;
+import java.util.List;
+
+import javax.naming.NamingEnumeration;
+import javax.naming.NamingException;
+import javax.naming.directory.Attribute;
+import javax.naming.directory.Attributes;
+import javax.naming.directory.DirContext;
+import javax.naming.directory.InitialDirContext;
+
+/**
+ * Utility functions for DNS lookups via the JNDI DNS service provider.
+ */
+final class Dns {
+  /**
+   * Returns the values of the DNS records of the specified {@code type} for the specified {@code name}.
+   *
+   * @param name The DNS name to look up.
+   * @param type The record type (i.e. {@code "PTR"} or {@code "MX"}).
+   * @param timeoutMs The initial timeout in milliseconds of the DNS query, which is doubled for each of the subsequent retries.
+   * @return The values of the DNS records of the specified {@code type} for the specified {@code name}, with trailing
+   *         {@code '.'} removed.
+   * @throws NamingException If the lookup failed.
+   */
+  static List<String> lookup(final String name, final String type, final int timeoutMs) throws NamingException {
+    final Hashtable<String,String> environment = new Hashtable<>();
+    environment.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
+    environment.put("com.sun.jndi.dns.timeout.initial", String.valueOf(timeoutMs));
+    environment.put("com.sun.jndi.dns.timeout.retries", "2");
+    final DirContext context = new InitialDirContext(environment);
+    try {
+      final Attributes attrs = context.getAttributes(name, new String[] {type});
+      final ArrayList<String> values = new ArrayList<>(1);
+      for (final NamingEnumeration<? extends Attribute> enumeration = attrs.getAll(); enumeration.hasMoreElements();) { // [E]
+        final Attribute attr = enumeration.next();
+        if (type.equals(attr.getID())) {
+          for (final Enumeration<?> enumeration2 = attr.getAll(); enumeration2.hasMoreElements();) { // [E]
+            String value = enumeration2.nextElement().toString();
+            final int len = value.length();
+            if (len > 1 && value.charAt(len - 1) == '.')
+              value = value.substring(0, len - 1);
+
+            values.add(value);
+          }
+        }
+      }
+
+      return values;
+    }
+    finally {
+      try {
+        context.close();
+      }
+      catch (final NamingException e) {
+      }
+    }
+  }
+
+  private Dns() {
+  }
+}
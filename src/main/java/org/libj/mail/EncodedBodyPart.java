@@ -0,0 +1,34 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.MimeBodyPart;
+
+/**
+ * A {@link MimeBodyPart} whose content can be set to the {@linkplain MimeContent.Encoded encoded wire form} of a
+ * {@link MimeContent}, which is shared by all parts of the same content, and is written as it is.
+ */
+final class EncodedBodyPart extends MimeBodyPart implements MimeContent.EncodedPart {
+  @Override
+  public void setContent(final MimeContent.Encoded encoded) throws MessagingException {
+    // The raw content is written by MimeBodyPart.writeTo() without being decoded, because the Content-Transfer-Encoding is set
+    this.content = encoded.body;
+    setHeader("Content-Type", encoded.type);
+    setHeader("Content-Transfer-Encoding", encoded.encoding);
+  }
+}
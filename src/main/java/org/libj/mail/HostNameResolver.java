@@ -0,0 +1,96 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.util.Objects;
+
+/**
+ * Strategy for the resolution of the local host name that is announced in the SMTP {@code EHLO}/{@code HELO} command.
+ */
+@FunctionalInterface
+public interface HostNameResolver {
+  /**
+   * {@link HostNameResolver} that returns the {@linkplain InetAddress#getCanonicalHostName() canonical host name} of the
+   * {@linkplain InetAddress#getLocalHost() local host}.
+   */
+  HostNameResolver LOCAL = () -> InetAddress.getLocalHost().getCanonicalHostName();
+
+  /**
+   * {@link HostNameResolver} that determines the external IP address of this host (via {@code http://checkip.amazonaws.com}), and
+   * returns the host name associated with it by reverse DNS lookup. Gets results more often than
+   * {@link InetAddress#getCanonicalHostName()}, but is subject to network latency, and should therefore be used via
+   * {@link #cached(HostNameResolver,long,long)}.
+   */
+  HostNameResolver REVERSE_DNS = new ReverseDnsHostNameResolver(5000);
+
+  /**
+   * Returns a {@link HostNameResolver} that always returns the specified {@code hostName}.
+   *
+   * @param hostName The host name.
+   * @return A {@link HostNameResolver} that always returns the specified {@code hostName}.
+   * @throws NullPointerException If {@code hostName} is null.
+   */
+  static HostNameResolver of(final String hostName) {
+    Objects.requireNonNull(hostName, "hostName is null");
+    return () -> hostName;
+  }
+
+  /**
+   * Returns a {@link HostNameResolver} that resolves the host name with the specified {@code resolver} on a background thread, and
+   * caches the result for {@code ttlMs} milliseconds, and a failed or timed out resolution for 60 seconds.
+   *
+   * @param resolver The {@link HostNameResolver} to which resolution is to be delegated.
+   * @param timeoutMs The max time in milliseconds to wait for {@code resolver} before falling back to {@link #LOCAL}.
+   * @param ttlMs The time in milliseconds for which a resolved host name is cached.
+   * @return A caching {@link HostNameResolver} that delegates to the specified {@code resolver}.
+   * @throws NullPointerException If {@code resolver} is null.
+   * @throws IllegalArgumentException If {@code timeoutMs} or {@code ttlMs} is negative.
+   * @see #cached(HostNameResolver,long,long,long)
+   */
+  static HostNameResolver cached(final HostNameResolver resolver, final long timeoutMs, final long ttlMs) {
+    return cached(resolver, timeoutMs, ttlMs, 60000);
+  }
+
+  /**
+   * Returns a {@link HostNameResolver} that resolves the host name with the specified {@code resolver} on a background thread, and
+   * caches the result for {@code ttlMs} milliseconds. If a resolved host name is not available within {@code timeoutMs}
+   * milliseconds, or if {@code resolver} fails, the returned {@link HostNameResolver} falls back to {@link #LOCAL}, which is then
+   * returned without waiting for {@code negativeTtlMs} milliseconds, and thereafter while the host name is being refreshed. An
+   * expired host name continues to be returned while it is being refreshed.
+   *
+   * @param resolver The {@link HostNameResolver} to which resolution is to be delegated.
+   * @param timeoutMs The max time in milliseconds to wait for {@code resolver} before falling back to {@link #LOCAL}.
+   * @param ttlMs The time in milliseconds for which a resolved host name is cached.
+   * @param negativeTtlMs The time in milliseconds for which a failed or timed out resolution is cached.
+   * @return A caching {@link HostNameResolver} that delegates to the specified {@code resolver}.
+   * @throws NullPointerException If {@code resolver} is null.
+   * @throws IllegalArgumentException If {@code timeoutMs}, {@code ttlMs} or {@code negativeTtlMs} is negative.
+   */
+  static HostNameResolver cached(final HostNameResolver resolver, final long timeoutMs, final long ttlMs, final long negativeTtlMs) {
+    return new CachingHostNameResolver(resolver, LOCAL, timeoutMs, ttlMs, negativeTtlMs);
+  }
+
+  /**
+   * Returns the local host name.
+   *
+   * @return The local host name.
+   * @throws IOException If an I/O error has occurred.
+   */
+  String getHostName() throws IOException;
+}
@@ -0,0 +1,145 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.util.Objects;
+
+import org.libj.mail.Mail.Message;
+
+/**
+ * A lane of the asynchronous sends of a {@link Mail.Dispatch}, in which a {@link Message} is queued as per its
+ * {@link Message#getLane()}, so that messages of different kinds (i.e. transactional and bulk) share the connections of the
+ * {@link Mail.Dispatch} in proportion to the weights of their lanes, rather than in the order in which they were submitted.
+ * <p>
+ * The lanes are scheduled with weighted fair queuing: each time a send completes, the next send is taken from the lane with the
+ * earliest virtual start time, which advances by {@code 1 / weight} for each send of the lane. A send of a
+ * {@linkplain #isPreemptive() preemptive} lane is taken before the sends of all other lanes, and a send that has waited longer
+ * than the {@linkplain #getMaxWaitMs() max wait} of its lane is taken before all others, so that a lane with a low weight is not
+ * starved by a preemptive lane. Sends that are already in flight are not interrupted.
+ * <p>
+ * Lanes are equal if their names, weights, preemption and max waits are equal. A {@link Mail.Dispatch} holds the queue and the
+ * metrics of each distinct lane for as long as it is open, so a lane is to be created once as a constant and shared by the
+ * messages that are sent in it, and the number of distinct lanes is to be kept small.
+ *
+ * @see Message#getLane()
+ * @see DispatchListener#onDequeue(Lane,long)
+ */
+public final class Lane {
+  /** The preemptive lane of transactional messages, i.e. password resets and one-time codes. */
+  public static final Lane TRANSACTIONAL = new Lane("transactional", 8, true, -1);
+
+  /** The default lane, which is starvation-protected after 10 seconds. */
+  public static final Lane DEFAULT = new Lane("default", 4, false, 10000);
+
+  /** The lane of bulk messages, i.e. newsletters and campaigns, which is starvation-protected after 60 seconds. */
+  public static final Lane BULK = new Lane("bulk", 1, false, 60000);
+
+  private final String name;
+  private final int weight;
+  private final boolean preemptive;
+  private final long maxWaitMs;
+
+  /**
+   * Creates a new {@link Lane} with the provided parameters.
+   *
+   * @param name The name of the lane, by which it is reported.
+   * @param weight The weight of the lane.
+   * @param preemptive Whether the sends of the lane are taken before the sends of non-preemptive lanes.
+   * @param maxWaitMs The time in milliseconds after which a waiting send of the lane is taken before all others, or {@code -1}
+   *          for no bound.
+   * @throws NullPointerException If {@code name} is null.
+   * @throws IllegalArgumentException If {@code weight} is not positive, or if {@code maxWaitMs} is neither positive nor {@code -1}.
+   */
+  public Lane(final String name, final int weight, final boolean preemptive, final long maxWaitMs) {
+    this.name = Objects.requireNonNull(name, "name is null");
+    if (weight <= 0)
+      throw new IllegalArgumentException("weight (" + weight + ") must be positive");
+
+    if (maxWaitMs <= 0 && maxWaitMs != -1)
+      throw new IllegalArgumentException("maxWaitMs (" + maxWaitMs + ") must be positive or -1");
+
+    this.weight = weight;
+    this.preemptive = preemptive;
+    this.maxWaitMs = maxWaitMs;
+  }
+
+  /**
+   * Returns the name of this lane.
+   *
+   * @return The name of this lane.
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Returns the weight of this lane.
+   *
+   * @return The weight of this lane.
+   */
+  public int getWeight() {
+    return weight;
+  }
+
+  /**
+   * Returns whether the sends of this lane are taken before the sends of non-preemptive lanes.
+   *
+   * @return Whether the sends of this lane are taken before the sends of non-preemptive lanes.
+   */
+  public boolean isPreemptive() {
+    return preemptive;
+  }
+
+  /**
+   * Returns the time in milliseconds after which a waiting send of this lane is taken before all others, or {@code -1} if there
+   * is no bound.
+   *
+   * @return The time in milliseconds after which a waiting send of this lane is taken before all others, or {@code -1} if there
+   *         is no bound.
+   */
+  public long getMaxWaitMs() {
+    return maxWaitMs;
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (obj == this)
+      return true;
+
+    if (!(obj instanceof Lane))
+      return false;
+
+    final Lane that = (Lane)obj;
+    return name.equals(that.name) && weight == that.weight && preemptive == that.preemptive && maxWaitMs == that.maxWaitMs;
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+    hashCode = 31 * hashCode + name.hashCode();
+    hashCode = 31 * hashCode + weight;
+    hashCode = 31 * hashCode + Boolean.hashCode(preemptive);
+    hashCode = 31 * hashCode + Long.hashCode(maxWaitMs);
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return name;
+  }
+}
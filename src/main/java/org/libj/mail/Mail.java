@@ -16,34 +16,38 @@
 
 package org.libj.mail;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.InetAddress;
-import java.net.URL;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Enumeration;
+import java.util.Collection;
 import java.util.HashMap;
-import java.util.Hashtable;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+import javax.mail.Address;
 import javax.mail.Authenticator;
 import javax.mail.MessagingException;
 import javax.mail.PasswordAuthentication;
+import javax.mail.SendFailedException;
 import javax.mail.Session;
 import javax.mail.Transport;
 import javax.mail.internet.AddressException;
 import javax.mail.internet.InternetAddress;
 import javax.mail.internet.MimeMessage;
-import javax.naming.NamingEnumeration;
-import javax.naming.NamingException;
-import javax.naming.directory.Attribute;
-import javax.naming.directory.Attributes;
-import javax.naming.directory.DirContext;
-import javax.naming.directory.InitialDirContext;
-import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+
+import com.sun.mail.smtp.SMTPMessage;
+import com.sun.mail.smtp.SMTPTransport;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,6 +64,10 @@ public final class Mail {
 
   /**
    * Class representing a email message.
+   * <p>
+   * String addresses are parsed with the {@linkplain AddressCache#getDefault() default} {@link AddressCache}, so that the
+   * recipients of messages to the same mailboxes share immutable {@link InternetAddress} instances. The hash code of a
+   * {@link Message} is computed once, so the arrays of its recipients must not be modified after it is created.
    */
   public static class Message {
     private static InternetAddress[] toInternetAddress(final String ... emailAddrs) throws AddressException {
@@ -68,7 +76,7 @@ public final class Mail {
 
       final InternetAddress[] addresses = new InternetAddress[emailAddrs.length];
       for (int i = 0, i$ = emailAddrs.length; i < i$; ++i) // [A]
-        addresses[i] = new InternetAddress(emailAddrs[i]);
+        addresses[i] = AddressCache.getDefault().parse(emailAddrs[i]);
 
       return addresses;
     }
@@ -79,6 +87,7 @@ public final class Mail {
     public final InternetAddress[] to;
     public final InternetAddress[] cc;
     public final InternetAddress[] bcc;
+    private int hashCode;
 
     /**
      * Creates a new {@link Message} with the supplied parameters.
@@ -124,6 +133,16 @@ public final class Mail {
       this(subject, content, from, to, null, null);
     }
 
+    /**
+     * Returns the {@link Lane} in which this message is queued when it is sent asynchronously, which is {@link Lane#DEFAULT} unless
+     * this method is overridden.
+     *
+     * @return The {@link Lane} in which this message is queued when it is sent asynchronously.
+     */
+    public Lane getLane() {
+      return Lane.DEFAULT;
+    }
+
     /**
      * Default no-op implementation of success callback.
      */
@@ -147,11 +166,15 @@ public final class Mail {
         return false;
 
       final Message that = (Message)obj;
-      return subject.equals(that.subject) && content.equals(that.content) && from.equals(that.from) && Arrays.equals(to, that.to) && Arrays.equals(cc, that.cc) && Arrays.equals(bcc, that.bcc);
+      return hashCode() == that.hashCode() && subject.equals(that.subject) && content.equals(that.content) && from.equals(that.from) && Arrays.equals(to, that.to) && Arrays.equals(cc, that.cc) && Arrays.equals(bcc, that.bcc);
     }
 
     @Override
     public int hashCode() {
+      // Racy single-check, as in String.hashCode()
+      if (this.hashCode != 0)
+        return this.hashCode;
+
       int hashCode = 1;
       hashCode = 31 * hashCode + subject.hashCode();
       hashCode = 31 * hashCode + content.hashCode();
@@ -159,15 +182,94 @@ public final class Mail {
       hashCode = 31 * hashCode + Arrays.hashCode(to);
       hashCode = 31 * hashCode + Arrays.hashCode(cc);
       hashCode = 31 * hashCode + Arrays.hashCode(bcc);
-      return hashCode;
+      return this.hashCode = hashCode;
+    }
+  }
+
+  /**
+   * Class representing the outcome of the dispatch of a {@link Message}.
+   */
+  public static final class Result {
+    private final Message message;
+    private final String messageId;
+    private final MessagingException exception;
+    private final boolean duplicate;
+
+    Result(final Message message, final String messageId, final MessagingException exception) {
+      this(message, messageId, exception, false);
+    }
+
+    Result(final Message message, final String messageId, final MessagingException exception, final boolean duplicate) {
+      this.message = message;
+      this.messageId = messageId;
+      this.exception = exception;
+      this.duplicate = duplicate;
+    }
+
+    /**
+     * Returns the {@link Message} to which this {@link Result} pertains, or {@code null} if the {@link Message} could not be created
+     * (i.e. for a recipient of {@link Dispatch#merge(PasswordAuthentication,String,MimeTemplate,InternetAddress,String,Iterable)}
+     * with an invalid address).
+     *
+     * @return The {@link Message} to which this {@link Result} pertains.
+     */
+    public Message getMessage() {
+      return message;
+    }
+
+    /**
+     * Returns the {@link MimeMessage#getMessageID() messageID} of the sent message, or {@code null} if the dispatch failed, or if the
+     * message is a duplicate.
+     *
+     * @return The {@link MimeMessage#getMessageID() messageID} of the sent message, or {@code null} if the dispatch failed, or if
+     *         the message is a duplicate.
+     */
+    public String getMessageId() {
+      return messageId;
+    }
+
+    /**
+     * Returns the {@link MessagingException} that led to the failure of the dispatch, or {@code null} if the dispatch succeeded.
+     *
+     * @return The {@link MessagingException} that led to the failure of the dispatch, or {@code null} if the dispatch succeeded.
+     */
+    public MessagingException getException() {
+      return exception;
+    }
+
+    /**
+     * Returns whether the dispatch succeeded.
+     *
+     * @return Whether the dispatch succeeded.
+     */
+    public boolean isSuccess() {
+      return exception == null;
+    }
+
+    /**
+     * Returns whether the message was not sent, because it is a duplicate of a message that was sent within the
+     * {@link DedupWindow} of the {@link Dispatch}. The dispatch of a duplicate is deemed to have succeeded.
+     *
+     * @return Whether the message was not sent, because it is a duplicate.
+     * @see Dispatch.Builder#withDedupWindow(DedupWindow)
+     */
+    public boolean isDuplicate() {
+      return duplicate;
+    }
+
+    @Override
+    public String toString() {
+      return duplicate ? "{duplicate}" : exception == null ? "{success: " + messageId + "}" : "{failure: " + exception.getMessage() + "}";
     }
   }
 
   /**
    * Class representing the SMTP(S) sender.
    */
-  public static class Dispatch {
-    private static final String[] ptr = {"PTR"};
+  public static class Dispatch implements AutoCloseable {
+    static final int DEFAULT_MAX_IN_FLIGHT = 16;
+    static final int DEFAULT_CHUNK_SIZE = 65536;
+    private static final byte[] CRLF = {'\r', '\n'};
 
     public static class Builder {
       private final String host;
@@ -175,6 +277,9 @@ public final class Mail {
 
       private boolean ssl;
       private boolean tls;
+      private SSLContext sslContext;
+      private int sessionCacheSize = -1;
+      private int sessionTimeoutS = -1;
 
       private int connectionTimeoutMs = -1;
       private int readTimeoutMs = -1;
@@ -183,6 +288,31 @@ public final class Mail {
       private Map<String,String> properties;
       private boolean debug;
 
+      private int maxConnections;
+      private long maxIdleMs = -1;
+      private long maxLifetimeMs = -1;
+      private int maxMessagesPerConnection = -1;
+
+      private Executor executor;
+      private int maxInFlight = -1;
+
+      private HostNameResolver hostNameResolver;
+
+      private RetryPolicy retryPolicy;
+      private AdaptiveLimiter limiter;
+
+      private int maxRecipientsPerTransaction = -1;
+      private int chunkParallelism = -1;
+
+      private boolean pipelining = true;
+      private int chunkSize = DEFAULT_CHUNK_SIZE;
+      private boolean eightBitMime = true;
+
+      private MimeContentCache contentCache;
+      private DkimSigner dkim;
+      private DispatchListener listener;
+      private DedupWindow dedupWindow;
+
       /**
        * Creates a new {@link Builder} with the specified {@code host} and {@code port}.
        *
@@ -220,6 +350,41 @@ public final class Mail {
         return this;
       }
 
+      /**
+       * Set the {@link SSLContext} that is shared by all connections of the {@link Dispatch} for SSL and {@code STARTTLS}, so that
+       * TLS sessions are resumed with abbreviated handshakes. Default is an {@link SSLContext} created for the {@link Dispatch},
+       * which trusts all server certificates.
+       *
+       * @param sslContext The {@link SSLContext}.
+       * @return {@code this} {@link Builder}.
+       * @see Dispatch#getTlsMetrics()
+       */
+      public Builder withSslContext(final SSLContext sslContext) {
+        this.sslContext = sslContext;
+        return this;
+      }
+
+      /**
+       * Set the size and timeout of the client session cache of the {@link SSLContext}, which is to be sized to hold a session for
+       * each host that is connected to within the timeout. Default is the size and timeout of the {@link SSLContext}.
+       *
+       * @param size The max number of cached sessions, or {@code 0} for no limit.
+       * @param timeoutS The timeout of cached sessions in seconds, or {@code 0} for no limit.
+       * @return {@code this} {@link Builder}.
+       * @throws IllegalArgumentException If {@code size} or {@code timeoutS} is negative.
+       */
+      public Builder withSessionCache(final int size, final int timeoutS) {
+        if (size < 0)
+          throw new IllegalArgumentException("size (" + size + ") must be non-negative");
+
+        if (timeoutS < 0)
+          throw new IllegalArgumentException("timeoutS (" + timeoutS + ") must be non-negative");
+
+        this.sessionCacheSize = size;
+        this.sessionTimeoutS = timeoutS;
+        return this;
+      }
+
       /**
        * Set the socket connection timeout value in milliseconds. This timeout is implemented by {@link java.net.Socket}. Default is
        * infinite timeout.
@@ -282,140 +447,366 @@ public final class Mail {
       }
 
       /**
-       * Returns a new {@link Dispatch} with the options specified in this {@link Builder}.
+       * Set the max number of connections to be kept in a {@link TransportPool} shared by all sends of the {@link Dispatch}. Pooled
+       * connections remain connected and authenticated between sends, and are keyed by the {@link PasswordAuthentication} with which
+       * they were opened. Default is {@code 0}, whereby each send opens and closes its own connection.
        *
-       * @return A new {@link Dispatch} with the options specified in this {@link Builder}.
+       * @param maxConnections The max number of pooled connections, or {@code 0} to disable pooling.
+       * @return {@code this} {@link Builder}.
+       * @throws IllegalArgumentException If {@code maxConnections} is negative.
        */
-      public Dispatch build() {
-        return new Dispatch(host, port, ssl, tls, connectionTimeoutMs, readTimeoutMs, writeTimeoutMs, properties, debug);
+      public Builder withMaxConnections(final int maxConnections) {
+        if (maxConnections < 0)
+          throw new IllegalArgumentException("maxConnections (" + maxConnections + ") is negative");
+
+        this.maxConnections = maxConnections;
+        return this;
       }
-    }
 
-    private static String externalIP;
+      /**
+       * Set the max time in milliseconds a pooled connection may remain idle before it is closed. Default is no limit.
+       *
+       * @param maxIdleMs The max time in milliseconds a pooled connection may remain idle, or {@code -1} for no limit.
+       * @return {@code this} {@link Builder}.
+       * @see #withMaxConnections(int)
+       */
+      public Builder withMaxIdleTime(final long maxIdleMs) {
+        this.maxIdleMs = maxIdleMs;
+        return this;
+      }
 
-    private static String getExternalIP() throws IOException {
-      if (externalIP != null)
-        return externalIP;
+      /**
+       * Set the max time in milliseconds since creation after which a pooled connection is closed. Default is no limit.
+       *
+       * @param maxLifetimeMs The max time in milliseconds since creation of a pooled connection, or {@code -1} for no limit.
+       * @return {@code this} {@link Builder}.
+       * @see #withMaxConnections(int)
+       */
+      public Builder withMaxLifetime(final long maxLifetimeMs) {
+        this.maxLifetimeMs = maxLifetimeMs;
+        return this;
+      }
 
-      final URL whatismyip = new URL("http://checkip.amazonaws.com");
-      try (final BufferedReader in = new BufferedReader(new InputStreamReader(whatismyip.openStream()))) {
-        return externalIP = in.readLine();
+      /**
+       * Set the max number of messages to be sent over a pooled connection, after which the connection is closed. Default is no
+       * limit.
+       *
+       * @param maxMessages The max number of messages to be sent over a pooled connection, or {@code -1} for no limit.
+       * @return {@code this} {@link Builder}.
+       * @see #withMaxConnections(int)
+       */
+      public Builder withMaxMessagesPerConnection(final int maxMessages) {
+        this.maxMessagesPerConnection = maxMessages;
+        return this;
       }
-    }
 
-    /**
-     * Do a reverse DNS lookup to find the host name associated with an IP address. Gets results more often than
-     * {@link InetAddress#getCanonicalHostName()}, but also tries the Inet implementation if reverse DNS does not work. Based on code
-     * found at http://www.codingforums.com/showpost.php?p=892349&postcount=5
-     *
-     * @return The host name, if one could be found, or the IP address
-     */
-    private static String getHostName() {
-      try {
-        final String ip = getExternalIP();
-        final String[] parts = ip.split("\\.");
-        if (parts.length != 4)
-          throw new IllegalArgumentException(ip + " does not match IPv4 format");
+      /**
+       * Set the local host name to be announced in the SMTP {@code EHLO}/{@code HELO} command.
+       *
+       * @param hostName The local host name.
+       * @return {@code this} {@link Builder}.
+       * @throws NullPointerException If {@code hostName} is null.
+       */
+      public Builder withLocalHost(final String hostName) {
+        this.hostNameResolver = HostNameResolver.of(hostName);
+        return this;
+      }
 
-        for (final String part : parts) { // [A]
-          try {
-            final int x = Integer.parseInt(part);
-            if (x < 0 || 255 < x)
-              throw new IllegalArgumentException(ip + " does not match IPv4 format");
-          }
-          catch (final NumberFormatException e) {
-            throw new IllegalArgumentException(ip + " does not match IPv4 format");
-          }
-        }
+      /**
+       * Set the {@link HostNameResolver} of the local host name to be announced in the SMTP {@code EHLO}/{@code HELO} command. The
+       * {@link HostNameResolver} is invoked each time a new connection is opened, so slow strategies should be wrapped with
+       * {@link HostNameResolver#cached(HostNameResolver,long,long)}. Default is {@link HostNameResolver#REVERSE_DNS}, resolved in the
+       * background with a timeout of 1s and cached for 1h, falling back to {@link HostNameResolver#LOCAL}; or, if the
+       * {@code "mail.smtp.localhost"} (or {@code "mail.smtps.localhost"}) property is {@linkplain #withProperties(Map) provided},
+       * the value of that property.
+       *
+       * @param resolver The {@link HostNameResolver}.
+       * @return {@code this} {@link Builder}.
+       * @throws NullPointerException If {@code resolver} is null.
+       */
+      public Builder withHostNameResolver(final HostNameResolver resolver) {
+        this.hostNameResolver = Objects.requireNonNull(resolver, "resolver is null");
+        return this;
+      }
 
-        String hostName = null;
-        DirContext context = null;
-        try {
-          final Hashtable<String,String> environment = new Hashtable<>();
-          environment.put("java.naming.factory.initial", "com.sun.jndi.dns.DnsContextFactory");
-          context = new InitialDirContext(environment);
-          final String reverseDnsDomain = parts[3] + "." + parts[2] + "." + parts[1] + "." + parts[0] + ".in-addr.arpa";
-          final Attributes attrs = context.getAttributes(reverseDnsDomain, ptr);
-          for (final NamingEnumeration<? extends Attribute> enumeration = attrs.getAll(); enumeration.hasMoreElements();) { // [E]
-            final Attribute attr = enumeration.next();
-            final String attrId = attr.getID();
-            for (final Enumeration<?> values = attr.getAll(); values.hasMoreElements();) { // [E]
-              hostName = values.nextElement().toString();
-              if ("PTR".equals(attrId)) {
-                final int len = hostName.length();
-                if (len > 1 && hostName.charAt(len - 1) == '.')
-                  hostName = hostName.substring(0, len - 1);
-
-                break;
-              }
-            }
-          }
-        }
-        catch (final NamingException e) {
-        }
-        finally {
-          if (context != null) {
-            try {
-              context.close();
-            }
-            catch (final NamingException e) {
-            }
-          }
-        }
+      /**
+       * Set the {@link Executor} on which {@link Dispatch#sendAsync(PasswordAuthentication,Message)} is to send messages. Default is
+       * an executor that starts a virtual thread per send on runtimes that support virtual threads (JDK 21+), or a cached pool of
+       * daemon threads otherwise.
+       *
+       * @param executor The {@link Executor} on which asynchronous sends are to be performed.
+       * @return {@code this} {@link Builder}.
+       */
+      public Builder withExecutor(final Executor executor) {
+        this.executor = executor;
+        return this;
+      }
+
+      /**
+       * Set the max number of asynchronous sends that may be in flight at any one time. Sends submitted beyond this limit are queued
+       * without blocking the caller, in the {@linkplain Message#getLane() lane} of their message. Default is the
+       * {@linkplain AdaptiveLimiter#getMaxConcurrency() max concurrency} of the {@linkplain #withLimiter(AdaptiveLimiter) limiter},
+       * or the {@linkplain #withMaxConnections(int) max number of pooled connections}, or {@value Dispatch#DEFAULT_MAX_IN_FLIGHT} if
+       * neither is configured.
+       *
+       * @param maxInFlight The max number of asynchronous sends that may be in flight at any one time.
+       * @return {@code this} {@link Builder}.
+       * @throws IllegalArgumentException If {@code maxInFlight} is not positive.
+       */
+      public Builder withMaxInFlight(final int maxInFlight) {
+        if (maxInFlight < 1)
+          throw new IllegalArgumentException("maxInFlight (" + maxInFlight + ") must be positive");
+
+        this.maxInFlight = maxInFlight;
+        return this;
+      }
+
+      /**
+       * Set the {@link RetryPolicy} by which sends that fail due to a transient condition are retried. With a {@link RetryPolicy},
+       * the {@link Message#success()} or {@link Message#failure(MessagingException)} callback of a message is invoked only once, on
+       * the final outcome of its send. Default is no retries.
+       *
+       * @param retryPolicy The {@link RetryPolicy}, or {@code null} for no retries.
+       * @return {@code this} {@link Builder}.
+       * @see Dispatch#send(PasswordAuthentication,Message)
+       * @see Dispatch#sendAsync(PasswordAuthentication,Message)
+       */
+      public Builder withRetryPolicy(final RetryPolicy retryPolicy) {
+        this.retryPolicy = retryPolicy;
+        return this;
+      }
+
+      /**
+       * Set the {@link AdaptiveLimiter} of the concurrency and rate of sends to the SMTP server, which adapts to the throttling
+       * replies of the server. The {@link AdaptiveLimiter} tracks the state of the SMTP server of this {@link Dispatch}, and is
+       * therefore not to be shared with other {@link Dispatch} instances. Default is no limiter.
+       *
+       * @param limiter The {@link AdaptiveLimiter}, or {@code null} for no limiter.
+       * @return {@code this} {@link Builder}.
+       */
+      public Builder withLimiter(final AdaptiveLimiter limiter) {
+        this.limiter = limiter;
+        return this;
+      }
+
+      /**
+       * Set the max number of recipients of a single transaction. The recipients of a message that exceeds this number are split
+       * into chunks of at most this number, which are sent in separate transactions over pooled connections in parallel, with the
+       * MIME body rendered once and shared by all chunks. Servers commonly limit the number of {@code RCPT} commands per transaction
+       * to a number between 100 and 500. Default is no limit.
+       *
+       * @param maxRecipients The max number of recipients of a single transaction.
+       * @return {@code this} {@link Builder}.
+       * @throws IllegalArgumentException If {@code maxRecipients} is not positive.
+       * @see Dispatch#deliver(PasswordAuthentication,Message)
+       */
+      public Builder withMaxRecipientsPerTransaction(final int maxRecipients) {
+        if (maxRecipients < 1)
+          throw new IllegalArgumentException("maxRecipients (" + maxRecipients + ") must be positive");
+
+        this.maxRecipientsPerTransaction = maxRecipients;
+        return this;
+      }
+
+      /**
+       * Set the max number of chunks of the recipients of a single message that are sent in parallel. Default is the
+       * {@linkplain #withMaxConnections(int) max number of pooled connections}, or 4 if pooling is disabled.
+       *
+       * @param parallelism The max number of chunks of the recipients of a single message that are sent in parallel.
+       * @return {@code this} {@link Builder}.
+       * @throws IllegalArgumentException If {@code parallelism} is not positive.
+       * @see #withMaxRecipientsPerTransaction(int)
+       */
+      public Builder withChunkParallelism(final int parallelism) {
+        if (parallelism < 1)
+          throw new IllegalArgumentException("parallelism (" + parallelism + ") must be positive");
+
+        this.chunkParallelism = parallelism;
+        return this;
+      }
+
+      /**
+       * Set whether the {@code PIPELINING} extension (RFC 2920) is to be used if it is advertised by the server, whereby the
+       * {@code MAIL FROM} command and all {@code RCPT TO} commands of a transaction are written in a single round trip. Default is
+       * {@code true}.
+       *
+       * @param pipelining Whether the {@code PIPELINING} extension is to be used if it is advertised by the server.
+       * @return {@code this} {@link Builder}.
+       */
+      public Builder withPipelining(final boolean pipelining) {
+        this.pipelining = pipelining;
+        return this;
+      }
+
+      /**
+       * Set the size of the {@code BDAT} chunks of the message body, if the {@code CHUNKING} extension (RFC 3030) is advertised by
+       * the server. With {@code BDAT}, the body is not dot-stuffed, and the server acknowledges each chunk as it is received.
+       * Default is {@value Dispatch#DEFAULT_CHUNK_SIZE}.
+       *
+       * @param chunkSize The size of the {@code BDAT} chunks of the message body, or {@code 0} to always use {@code DATA}.
+       * @return {@code this} {@link Builder}.
+       * @throws IllegalArgumentException If {@code chunkSize} is negative.
+       */
+      public Builder withChunking(final int chunkSize) {
+        if (chunkSize < 0)
+          throw new IllegalArgumentException("chunkSize (" + chunkSize + ") must be non-negative");
+
+        this.chunkSize = chunkSize;
+        return this;
+      }
+
+      /**
+       * Set whether the {@code 8BITMIME} extension (RFC 6152) is to be used if it is advertised by the server, whereby text parts
+       * that are 8-bit clean are sent without {@code quoted-printable} or {@code base64} encoding, and {@code BODY=8BITMIME} is
+       * declared on {@code MAIL FROM}. Default is {@code true}.
+       *
+       * @param eightBitMime Whether the {@code 8BITMIME} extension is to be used if it is advertised by the server.
+       * @return {@code this} {@link Builder}.
+       */
+      public Builder withEightBitMime(final boolean eightBitMime) {
+        this.eightBitMime = eightBitMime;
+        return this;
+      }
+
+      /**
+       * Set the {@link MimeContentCache} by which the content of each message is replaced with a cached instance that is equal to
+       * it, so that its encoded wire form is computed once for all messages with equal content. Default is no cache, whereby the
+       * encoded wire form is only reused among messages with the same {@link MimeContent} instance.
+       *
+       * @param contentCache The {@link MimeContentCache}.
+       * @return {@code this} {@link Builder}.
+       */
+      public Builder withContentCache(final MimeContentCache contentCache) {
+        this.contentCache = contentCache;
+        return this;
+      }
+
+      /**
+       * Set the {@link DkimSigner} with which messages are signed as they are written to the SMTP {@code DATA} phase. Default is no
+       * signing.
+       *
+       * @param dkim The {@link DkimSigner}.
+       * @return {@code this} {@link Builder}.
+       */
+      public Builder withDkim(final DkimSigner dkim) {
+        this.dkim = dkim;
+        return this;
+      }
+
+      /**
+       * Set the {@link DispatchListener} to which the events of the {@link Dispatch} are reported, such as a
+       * {@link DispatchMetrics}. Default is no listener, in which case no time is measured.
+       *
+       * @param listener The {@link DispatchListener}.
+       * @return {@code this} {@link Builder}.
+       */
+      public Builder withListener(final DispatchListener listener) {
+        this.listener = listener;
+        return this;
+      }
 
-        return hostName != null ? hostName : InetAddress.getByName(ip).getCanonicalHostName();
+      /**
+       * Set the {@link DedupWindow} by which a message that is {@linkplain Message#equals(Object) equal} to a message that was sent
+       * recently is not sent again. The {@link Message#success()} and {@link Message#failure(MessagingException)} callbacks of a
+       * duplicate are not invoked. If the send of a message fails (or is not accepted for any recipient), it is removed from the
+       * window, so that it can be sent again. Default is no deduplication.
+       *
+       * @param dedupWindow The {@link DedupWindow}.
+       * @return {@code this} {@link Builder}.
+       */
+      public Builder withDedupWindow(final DedupWindow dedupWindow) {
+        this.dedupWindow = dedupWindow;
+        return this;
       }
-      catch (final IOException e) {
-        return "localhost.localdomain";
+
+      /**
+       * Returns a new {@link Dispatch} with the options specified in this {@link Builder}.
+       *
+       * @return A new {@link Dispatch} with the options specified in this {@link Builder}.
+       */
+      public Dispatch build() {
+        return new Dispatch(this);
       }
     }
 
+    private static final HostNameResolver defaultHostNameResolver = HostNameResolver.cached(HostNameResolver.REVERSE_DNS, 1000, 3600000);
+    // Shared by the retries of all Dispatch instances, and the health probes of all RelayGroup instances
+    static final TimerWheel timer = new TimerWheel("libj-mail-timer", 10, 512);
+
     private final String host;
     private final int port;
     private final HashMap<String,String> defaultProperties = new HashMap<>();
 
     private final String protocol;
+    private final TlsSocketFactory socketFactory;
     private final boolean debug;
-
-    private Dispatch(final String host, final int port, final boolean ssl, final boolean tls, final int connectionTimeoutMs, final int readTimeoutMs, final int writeTimeoutMs, final Map<String,String> properties, final boolean debug) {
-      this.host = host;
-      this.port = port;
-      if (properties != null)
-        defaultProperties.putAll(properties);
-
-      String sslProtocols = null;
-      if (ssl) {
-        protocol = "smtps";
-        sslProtocols = "SSLv3";
-
+    private final Session anonSession;
+    private final Session authSession;
+    private final HostNameResolver hostNameResolver;
+    private final TransportPool pool;
+    private final DispatchQueue queue;
+    private final RetryPolicy retryPolicy;
+    private final AdaptiveLimiter limiter;
+    private final int maxRecipientsPerTransaction;
+    private final DispatchQueue chunkQueue;
+    private final boolean pipelining;
+    private final boolean eightBitMime;
+    // Set when a server of this Dispatch has advertised 8BITMIME, after which messages are prepared with 8bit text parts
+    private volatile boolean eightBitMimeSupported;
+    private final MimeContentCache contentCache;
+    private final DkimSigner dkim;
+    private final DispatchListener listener;
+    private final DedupWindow dedupWindow;
+
+    private Dispatch(final Builder builder) {
+      this.host = builder.host;
+      this.port = builder.port;
+      this.listener = builder.listener;
+      if (builder.properties != null)
+        defaultProperties.putAll(builder.properties);
+
+      final boolean ssl = builder.ssl;
+      final boolean tls = builder.tls;
+      final int connectionTimeoutMs = builder.connectionTimeoutMs;
+      final int readTimeoutMs = builder.readTimeoutMs;
+      final int writeTimeoutMs = builder.writeTimeoutMs;
+
+      protocol = ssl ? "smtps" : "smtp";
+      if (ssl)
         defaultProperties.put("mail." + protocol + ".ssl.enable", "true");
-        defaultProperties.put("mail." + protocol + ".socketFactory.class", SSLSocketFactory.class.getName());
-        defaultProperties.put("mail." + protocol + ".socketFactory.port", String.valueOf(port));
-        defaultProperties.put("mail." + protocol + ".socketFactory.fallback", "false");
-      }
-      else {
-        protocol = "smtp";
-      }
 
       if (tls) {
-        if (sslProtocols != null)
-          sslProtocols += " TLSv1.2";
-        else
-          sslProtocols = "TLSv1.2";
-
         defaultProperties.put("mail." + protocol + ".starttls.enable", "true");
         defaultProperties.put("mail." + protocol + ".starttls.required", "true");
       }
 
-      if (sslProtocols != null)
-        defaultProperties.put("mail." + protocol + ".ssl.protocols", sslProtocols);
+      if (ssl || tls || "true".equals(defaultProperties.get("mail." + protocol + ".starttls.enable"))) {
+        final SSLContext sslContext = builder.sslContext != null ? builder.sslContext : TlsSocketFactory.newTrustAllContext();
+        final SSLSessionContext sessionContext = sslContext.getClientSessionContext();
+        if (builder.sessionCacheSize != -1)
+          sessionContext.setSessionCacheSize(builder.sessionCacheSize);
+
+        if (builder.sessionTimeoutS != -1)
+          sessionContext.setSessionTimeout(builder.sessionTimeoutS);
+
+        this.socketFactory = new TlsSocketFactory(sslContext, listener);
+        final String[] supported = sslContext.getSupportedSSLParameters().getProtocols();
+        final StringBuilder protocols = new StringBuilder();
+        for (final String sslProtocol : new String[] {"TLSv1.3", "TLSv1.2"}) // [A]
+          if (Arrays.asList(supported).contains(sslProtocol))
+            protocols.append(' ').append(sslProtocol);
+
+        if (protocols.length() > 0)
+          defaultProperties.putIfAbsent("mail." + protocol + ".ssl.protocols", protocols.substring(1));
+      }
+      else {
+        this.socketFactory = null;
+      }
 
       defaultProperties.put("mail.transport.protocol", protocol);
       defaultProperties.put("mail." + protocol + ".host", host);
-      defaultProperties.put("mail." + protocol + ".localhost", getHostName());
       defaultProperties.put("mail." + protocol + ".port", String.valueOf(port));
       defaultProperties.put("mail." + protocol + ".quitwait", "false");
-      defaultProperties.put("mail." + protocol + ".ssl.trust", "*");
 
       if (connectionTimeoutMs != -1)
         defaultProperties.put("mail." + protocol + ".connectiontimeout", String.valueOf(connectionTimeoutMs));
@@ -426,118 +817,975 @@ public final class Mail {
       if (writeTimeoutMs != -1)
         defaultProperties.put("mail." + protocol + ".writetimeout", String.valueOf(writeTimeoutMs));
 
-      if (this.debug = debug) {
+      if (builder.chunkSize > 0)
+        defaultProperties.put("mail." + protocol + ".chunksize", String.valueOf(builder.chunkSize));
+
+      if (this.debug = builder.debug) {
         defaultProperties.put("mail.debug", "true");
         defaultProperties.put("mail." + protocol + ".debug", "true");
       }
+
+      this.hostNameResolver = builder.hostNameResolver != null ? builder.hostNameResolver : defaultProperties.containsKey("mail." + protocol + ".localhost") ? null : defaultHostNameResolver;
+      if (hostNameResolver instanceof CachingHostNameResolver)
+        ((CachingHostNameResolver)hostNameResolver).refresh();
+
+      this.anonSession = newSession(false);
+      this.authSession = newSession(true);
+      this.pool = builder.maxConnections == 0 ? null : new TransportPool(this::connect, builder.maxConnections, builder.maxIdleMs, builder.maxLifetimeMs, builder.maxMessagesPerConnection);
+      this.limiter = builder.limiter;
+      this.queue = new DispatchQueue(builder.executor, builder.maxInFlight != -1 ? builder.maxInFlight : limiter != null ? limiter.getMaxConcurrency() : builder.maxConnections > 0 ? builder.maxConnections : DEFAULT_MAX_IN_FLIGHT, listener);
+      this.retryPolicy = builder.retryPolicy;
+      this.maxRecipientsPerTransaction = builder.maxRecipientsPerTransaction;
+      // Chunks are run on a queue of their own, because a send that waits for its chunks may itself be running on the queue
+      this.chunkQueue = new DispatchQueue(builder.executor, builder.chunkParallelism != -1 ? builder.chunkParallelism : builder.maxConnections > 0 ? builder.maxConnections : 4);
+      this.pipelining = builder.pipelining;
+      this.eightBitMime = builder.eightBitMime;
+      this.contentCache = builder.contentCache;
+      this.dkim = builder.dkim;
+      this.dedupWindow = builder.dedupWindow;
     }
 
     /**
-     * Send a message with the provided parameters.
+     * Returns the {@link TransportPool} of this {@link Dispatch}, or {@code null} if connection pooling is not enabled.
      *
-     * @param authentication The {@link PasswordAuthentication} for the transport server.
-     * @param subject The subject of the message.
-     * @param content The {@link MimeContent} content.
-     * @param from The "from" {@link InternetAddress}.
-     * @param to A string array of "to" email addresses.
-     * @throws MessagingException If a transport error has occurred.
+     * @return The {@link TransportPool} of this {@link Dispatch}, or {@code null} if connection pooling is not enabled.
+     * @see Builder#withMaxConnections(int)
      */
-    public void send(final PasswordAuthentication authentication, final String subject, final MimeContent content, final InternetAddress from, final String ... to) throws MessagingException {
-      send(authentication, new Message(subject, content, from, to, null, null));
+    public TransportPool getPool() {
+      return pool;
     }
 
     /**
-     * Send a message with the provided parameters.
+     * Returns the {@link TlsMetrics} of the TLS handshakes of the connections of this {@link Dispatch}, or {@code null} if neither
+     * SSL nor {@code STARTTLS} is enabled.
      *
-     * @param authentication The {@link PasswordAuthentication} for the transport server.
-     * @param subject The subject of the message.
-     * @param content The {@link MimeContent} content.
-     * @param from The "from" {@link InternetAddress}.
-     * @param to A string array of "to" email addresses.
-     * @param cc A string array of "cc" email addresses.
-     * @param bcc A string array of "bcc" email addresses.
-     * @throws MessagingException If a transport error has occurred.
+     * @return The {@link TlsMetrics} of the TLS handshakes of the connections of this {@link Dispatch}.
+     * @see Builder#withSslContext(SSLContext)
      */
-    public void send(final PasswordAuthentication authentication, final String subject, final MimeContent content, final InternetAddress from, final String[] to, final String[] cc, final String[] bcc) throws MessagingException {
-      send(authentication, new Message(subject, content, from, to, cc, bcc));
+    public TlsMetrics getTlsMetrics() {
+      return socketFactory != null ? socketFactory.getMetrics() : null;
     }
 
     /**
-     * Send {@code messages} with the provided {@link PasswordAuthentication}.
+     * Returns the {@link AdaptiveLimiter} of this {@link Dispatch}, or {@code null} if no limiter is configured.
      *
-     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
-     * @param message The {@linkplain Message message} to send.
-     * @return The {@link MimeMessage#getMessageID() messageID} of the sent message.
-     * @throws MessagingException If a transport error has occurred.
-     * @throws NullPointerException If {@code message} is null.
+     * @return The {@link AdaptiveLimiter} of this {@link Dispatch}, or {@code null} if no limiter is configured.
+     * @see Builder#withLimiter(AdaptiveLimiter)
      */
-    public String send(final PasswordAuthentication authentication, final Message message) throws MessagingException {
+    public AdaptiveLimiter getLimiter() {
+      return limiter;
+    }
+
+    /**
+     * Returns a new {@link Session} for this {@link Dispatch}. Credentials are provided explicitly to
+     * {@link Transport#connect(String,int,String,String)}, so the {@link Session} does not hold an {@link Authenticator}, and a
+     * single instance can be shared by all connections (and threads) that authenticate, regardless of the credential.
+     *
+     * @param auth Whether the {@link Session} is to be configured for authenticated connections.
+     * @return A new {@link Session} for this {@link Dispatch}.
+     */
+    private Session newSession(final boolean auth) {
+      final long start = listener != null ? System.nanoTime() : 0;
       final Properties properties = new Properties();
       properties.putAll(defaultProperties);
-
-      final Session session;
-      if (authentication != null) {
+      if (socketFactory != null) {
+        // The instance (rather than a class name) is shared by all connections, and takes precedence over mail.<protocol>.ssl.trust,
+        // which is removed, because javax.mail would otherwise layer TLS over the plain socket of the factory with a factory of its own
+        properties.put("mail." + protocol + ".ssl.socketFactory", socketFactory);
+        properties.remove("mail." + protocol + ".ssl.trust");
+      }
+      if (auth) {
         properties.put("mail." + protocol + ".auth", "true");
         // the following 2 lines were causing "Relaying denied. Proper
         // authentication required." messages from sendmail
         // properties.put("mail." + protocolString + ".ehlo", "false");
         // properties.put("mail." + protocolString + ".user", credentials.getUsername());
+      }
+
+      final Session session = Session.getInstance(properties);
+      if (debug) {
+        session.setDebug(debug);
+        // Properties.list(PrintStream) casts each value to String, which the socket factory is not
+        System.err.println("-- listing properties --");
+        for (final Map.Entry<Object,Object> entry : properties.entrySet()) // [S]
+          System.err.println(entry.getKey() + "=" + entry.getValue());
+      }
+
+      if (listener != null)
+        listener.onPhase(DispatchListener.Phase.SESSION, System.nanoTime() - start);
+
+      return session;
+    }
+
+    private TransportPool.Connection connect(final Credential credential) throws MessagingException {
+      final Session session = credential.authentication != null ? authSession : anonSession;
+      final DispatchTransport transport = new DispatchTransport(session, protocol, pipelining, eightBitMime, listener);
+      if (hostNameResolver != null) {
+        try {
+          transport.setLocalHost(hostNameResolver.getHostName());
+        }
+        catch (final IOException e) {
+          if (logger.isDebugEnabled()) { logger.debug("Unable to resolve local host name", e); }
+        }
+      }
+
+      transport.connect(host, port, credential.getUserName(), credential.getPassword());
+      if (eightBitMime && !eightBitMimeSupported && transport.supportsExtension("8BITMIME"))
+        eightBitMimeSupported = true;
+
+      return new TransportPool.Connection(credential, session, transport);
+    }
+
+    private TransportPool.Connection borrow(final Credential credential) throws MessagingException {
+      if (listener == null)
+        return pool != null ? pool.borrow(credential) : connect(credential);
+
+      final long start = System.nanoTime();
+      final TransportPool.Connection connection = pool != null ? pool.borrow(credential) : connect(credential);
+      listener.onBorrow(System.nanoTime() - start);
+      return connection;
+    }
+
+    private void release(final TransportPool.Connection connection) {
+      if (listener != null)
+        listener.onRelease(false);
+
+      if (pool != null)
+        pool.release(connection);
+      else
+        connection.close();
+    }
+
+    private void invalidate(final TransportPool.Connection connection) {
+      if (listener != null)
+        listener.onRelease(true);
+
+      if (pool != null)
+        pool.invalidate(connection);
+      else
+        connection.close();
+    }
+
+    /**
+     * Send a message with the provided parameters.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server.
+     * @param subject The subject of the message.
+     * @param content The {@link MimeContent} content.
+     * @param from The "from" {@link InternetAddress}.
+     * @param to A string array of "to" email addresses.
+     * @throws MessagingException If a transport error has occurred.
+     */
+    public void send(final PasswordAuthentication authentication, final String subject, final MimeContent content, final InternetAddress from, final String ... to) throws MessagingException {
+      send(authentication, new Message(subject, content, from, to, null, null));
+    }
+
+    /**
+     * Send a message with the provided parameters.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server.
+     * @param subject The subject of the message.
+     * @param content The {@link MimeContent} content.
+     * @param from The "from" {@link InternetAddress}.
+     * @param to A string array of "to" email addresses.
+     * @param cc A string array of "cc" email addresses.
+     * @param bcc A string array of "bcc" email addresses.
+     * @throws MessagingException If a transport error has occurred.
+     */
+    public void send(final PasswordAuthentication authentication, final String subject, final MimeContent content, final InternetAddress from, final String[] to, final String[] cc, final String[] bcc) throws MessagingException {
+      send(authentication, new Message(subject, content, from, to, cc, bcc));
+    }
+
+    /**
+     * Send {@code messages} with the provided {@link PasswordAuthentication}. If a {@link RetryPolicy} is configured, this method
+     * blocks until the final outcome of the send, including its retries.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @param message The {@linkplain Message message} to send.
+     * @return The {@link MimeMessage#getMessageID() messageID} of the sent message, or {@code null} if {@code message} is a
+     *         duplicate.
+     * @throws MessagingException If a transport error has occurred.
+     * @throws NullPointerException If {@code message} is null.
+     * @see Builder#withRetryPolicy(RetryPolicy)
+     * @see Builder#withDedupWindow(DedupWindow)
+     */
+    public String send(final PasswordAuthentication authentication, final Message message) throws MessagingException {
+      if (isDuplicate(message))
+        return null;
+
+      if (retryPolicy != null) {
+        try {
+          return submit(authentication, message).get();
+        }
+        catch (final ExecutionException e) {
+          throw toMessagingException(e.getCause());
+        }
+        catch (final InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new MessagingException("Interrupted while waiting for send", e);
+        }
+      }
+
+      return sendNow(authentication, message);
+    }
+
+    private String sendNow(final PasswordAuthentication authentication, final Message message) throws MessagingException {
+      final String messageId;
+      try {
+        messageId = sendOnce(authentication, message);
+      }
+      catch (final MessagingException e) {
+        forget(message, e);
+        message.failure(e);
+        throw e;
+      }
+
+      message.success();
+      return messageId;
+    }
+
+    private String sendOnce(final PasswordAuthentication authentication, final Message message) throws MessagingException {
+      final SMTPMessage mimeMessage = prepare(message);
+      final Address[] recipients = mimeMessage.getAllRecipients();
+      if (maxRecipientsPerTransaction == -1 || recipients == null || recipients.length <= maxRecipientsPerTransaction)
+        return send(authentication, mimeMessage, recipients);
+
+      final DeliveryReport report = deliver(authentication, mimeMessage, recipients);
+      final MessagingException e = report.toException();
+      if (e != null)
+        throw e;
+
+      return report.getMessageId();
+    }
 
-        session = Session.getInstance(properties, new Authenticator() {
-          @Override
-          protected PasswordAuthentication getPasswordAuthentication() {
-            return authentication;
+    /**
+     * Send {@code message} with the provided {@link PasswordAuthentication}, and return the outcome of each of its recipients.
+     * Unlike {@link #send(PasswordAuthentication,Message)}, the rejection of some recipients does not fail the send for the others.
+     * If the {@linkplain Builder#withMaxRecipientsPerTransaction(int) max number of recipients per transaction} is exceeded, the
+     * recipients are split into chunks that are sent in parallel, and the outcomes of all chunks are combined into the returned
+     * {@link DeliveryReport}. The {@link Message#success()} callback of {@code message} is invoked if all recipients are accepted,
+     * and the {@link Message#failure(MessagingException)} callback is invoked otherwise. Failed chunks are not retried, regardless
+     * of the {@link RetryPolicy}.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @param message The {@linkplain Message message} to send.
+     * @return The {@link DeliveryReport} of the recipients of {@code message}, or {@code null} if {@code message} is a duplicate.
+     * @throws MessagingException If the message cannot be rendered.
+     * @throws NullPointerException If {@code message} is null.
+     * @see Builder#withDedupWindow(DedupWindow)
+     */
+    public DeliveryReport deliver(final PasswordAuthentication authentication, final Message message) throws MessagingException {
+      if (isDuplicate(message))
+        return null;
+
+      final DeliveryReport report;
+      try {
+        final SMTPMessage mimeMessage = prepare(message);
+        final Address[] recipients = mimeMessage.getAllRecipients();
+        if (recipients == null)
+          throw new SendFailedException("No recipient addresses");
+
+        report = deliver(authentication, mimeMessage, recipients);
+      }
+      catch (final MessagingException e) {
+        forget(message, e);
+        message.failure(e);
+        throw e;
+      }
+
+      final MessagingException e = report.toException();
+      if (e == null) {
+        message.success();
+      }
+      else {
+        forget(message, e);
+        message.failure(e);
+      }
+
+      return report;
+    }
+
+    private DeliveryReport deliver(final PasswordAuthentication authentication, final SMTPMessage mimeMessage, final Address[] recipients) throws MessagingException {
+      // With sendPartial, a transaction proceeds for the accepted recipients when some are rejected
+      mimeMessage.setSendPartial(true);
+      final DeliveryReport report = new DeliveryReport(mimeMessage.getMessageID(), recipients.length);
+      final int chunkSize = maxRecipientsPerTransaction != -1 ? maxRecipientsPerTransaction : recipients.length;
+      if (recipients.length <= chunkSize) {
+        sendChunk(authentication, mimeMessage, recipients, report);
+        return report;
+      }
+
+      final int noChunks = (recipients.length + chunkSize - 1) / chunkSize;
+      @SuppressWarnings("unchecked")
+      final CompletableFuture<Void>[] futures = new CompletableFuture[noChunks];
+      for (int i = 0; i < noChunks; ++i) { // [A]
+        final Address[] chunk = Arrays.copyOfRange(recipients, i * chunkSize, Math.min(recipients.length, (i + 1) * chunkSize));
+        futures[i] = chunkQueue.submit(() -> {
+          sendChunk(authentication, mimeMessage, chunk, report);
+          return null;
+        });
+      }
+
+      try {
+        CompletableFuture.allOf(futures).get();
+      }
+      catch (final ExecutionException e) {
+        // Chunks record their failures in the report, so this is not expected
+        throw toMessagingException(e.getCause());
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MessagingException("Interrupted while waiting for send", e);
+      }
+
+      return report;
+    }
+
+    private void sendChunk(final PasswordAuthentication authentication, final SMTPMessage mimeMessage, final Address[] chunk, final DeliveryReport report) {
+      try {
+        send(authentication, mimeMessage, chunk);
+        report.add(chunk, null);
+      }
+      catch (final MessagingException e) {
+        if (logger.isDebugEnabled()) { logger.debug("Send of chunk of " + chunk.length + " recipients failed: " + e.getMessage()); }
+        report.add(chunk, e);
+      }
+    }
+
+    static MessagingException toMessagingException(final Throwable t) {
+      if (t instanceof MessagingException)
+        return (MessagingException)t;
+
+      // A dependent stage of a CompletableFuture is completed with the exception of its source wrapped in a CompletionException
+      if (t instanceof CompletionException && t.getCause() != null)
+        return toMessagingException(t.getCause());
+
+      if (t instanceof Error)
+        throw (Error)t;
+
+      return new MessagingException(t.getMessage(), (Exception)t);
+    }
+
+    /**
+     * The attempts of a send under a {@link RetryPolicy}. Each attempt is submitted to the {@link DispatchQueue}, and each retry is
+     * scheduled on the shared {@link TimerWheel}, so that no thread is held while a send waits to be retried.
+     */
+    private final class Retry {
+      private final PasswordAuthentication authentication;
+      private final Message message;
+      private final CompletableFuture<String> future = new CompletableFuture<>();
+      private final long startTime = System.currentTimeMillis();
+      private int attempt;
+
+      private Retry(final PasswordAuthentication authentication, final Message message) {
+        this.authentication = authentication;
+        this.message = message;
+      }
+
+      private void attempt() {
+        ++attempt;
+        queue.submit(message.getLane(), () -> sendOnce(authentication, message)).whenComplete((final String messageId, final Throwable t) -> {
+          if (t == null) {
+            message.success();
+            future.complete(messageId);
+            return;
           }
+
+          final MessagingException e = toMessagingException(t);
+          final long delayMs = retryPolicy.nextDelay(e, attempt, System.currentTimeMillis() - startTime);
+          if (delayMs >= 0) {
+            if (logger.isDebugEnabled()) { logger.debug("Attempt " + attempt + " of send failed (" + RetryPolicy.classify(e) + "), retrying in " + delayMs + "ms: " + e.getMessage()); }
+            timer.schedule(this::attempt, delayMs);
+            return;
+          }
+
+          forget(message, e);
+          message.failure(e);
+          future.completeExceptionally(e);
         });
       }
-      else {
-        session = Session.getInstance(properties);
+    }
+
+    /**
+     * Asynchronously send {@code message} with the provided {@link PasswordAuthentication}. The {@link Message#success()} or
+     * {@link Message#failure(MessagingException)} callback of {@code message} is invoked before the returned
+     * {@link CompletableFuture} is completed. If a {@link RetryPolicy} is configured, the returned {@link CompletableFuture} is
+     * completed on the final outcome of the send, including its retries. If the {@linkplain Builder#withMaxInFlight(int) max number
+     * of sends in flight} is reached, the send is queued in the {@link Lane} of {@code message}.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @param message The {@linkplain Message message} to send.
+     * @return A {@link CompletableFuture} that is completed with the {@link MimeMessage#getMessageID() messageID} of the sent
+     *         message (or {@code null} if {@code message} is a duplicate), or exceptionally with the {@link MessagingException} if a
+     *         transport error has occurred.
+     * @throws NullPointerException If {@code message} is null.
+     * @see Builder#withExecutor(Executor)
+     * @see Builder#withMaxInFlight(int)
+     * @see Builder#withRetryPolicy(RetryPolicy)
+     * @see Builder#withDedupWindow(DedupWindow)
+     * @see Message#getLane()
+     */
+    public CompletableFuture<String> sendAsync(final PasswordAuthentication authentication, final Message message) {
+      Objects.requireNonNull(message, "message is null");
+      return isDuplicate(message) ? CompletableFuture.completedFuture(null) : submit(authentication, message);
+    }
+
+    /**
+     * Asynchronously send {@code message} as per {@link #sendAsync(PasswordAuthentication,Message)}, and return a
+     * {@link CompletableFuture} that is completed with its {@link Result}.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @param message The {@linkplain Message message} to send.
+     * @return A {@link CompletableFuture} that is completed with the {@link Result} of {@code message}.
+     */
+    CompletableFuture<Result> submitForResult(final PasswordAuthentication authentication, final Message message) {
+      if (isDuplicate(message))
+        return CompletableFuture.completedFuture(new Result(message, null, null, true));
+
+      return submit(authentication, message).handle((final String messageId, final Throwable t) -> new Result(message, messageId, t == null ? null : toMessagingException(t)));
+    }
+
+    /**
+     * Returns the max number of sends of this {@link Dispatch} that can currently be in flight, which is the
+     * {@linkplain Builder#withMaxInFlight(int) max number of asynchronous sends in flight}, bounded by the current
+     * {@linkplain AdaptiveLimiter#getConcurrencyLimit() concurrency limit} of the {@link AdaptiveLimiter}, if one is configured.
+     *
+     * @return The max number of sends of this {@link Dispatch} that can currently be in flight.
+     */
+    int getCapacity() {
+      final int maxInFlight = queue.getMaxInFlight();
+      return limiter != null ? Math.min(maxInFlight, limiter.getConcurrencyLimit()) : maxInFlight;
+    }
+
+    /**
+     * Returns a new {@link DispatchProcessor} that sends the {@link Message}s it receives from an upstream
+     * {@link org.reactivestreams.Publisher} with the provided {@link PasswordAuthentication}, requesting them as this
+     * {@link Dispatch} has capacity to send them, and publishes the {@link Result} of each.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @return A new {@link DispatchProcessor} of this {@link Dispatch}.
+     */
+    public DispatchProcessor newProcessor(final PasswordAuthentication authentication) {
+      return new DispatchProcessor(this, authentication);
+    }
+
+    private CompletableFuture<String> submit(final PasswordAuthentication authentication, final Message message) {
+      if (retryPolicy == null) {
+        return queue.submit(message.getLane(), () -> sendNow(authentication, message)).whenComplete((final String messageId, final Throwable t) -> {
+          // If the Executor rejects the send (i.e. after close()), sendNow() is not run to report its failure
+          if (t instanceof RejectedExecutionException) {
+            final MessagingException e = toMessagingException(t);
+            forget(message, e);
+            message.failure(e);
+          }
+        });
       }
 
-      if (debug) {
-        session.setDebug(debug);
-        properties.list(System.err);
+      final Retry retry = new Retry(authentication, message);
+      retry.attempt();
+      return retry.future;
+    }
+
+    /**
+     * Send {@code messages} with the provided {@link PasswordAuthentication} over a single connection, one transaction per message.
+     * If a transaction fails, the connection is reset with {@code RSET} before the next message is sent, and is reopened if it was
+     * lost. The {@link Message#success()} or {@link Message#failure(MessagingException)} callback of each message is invoked as its
+     * transaction completes. Failed transactions are not retried, regardless of the {@link RetryPolicy}.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @param messages The {@linkplain Message messages} to send.
+     * @return A list of {@link Result}s, one for each message of {@code messages} in iteration order.
+     * @throws NullPointerException If {@code messages}, or a member thereof, is null.
+     */
+    public List<Result> sendAll(final PasswordAuthentication authentication, final Iterable<? extends Message> messages) {
+      final ArrayList<Result> results = messages instanceof Collection ? new ArrayList<>(((Collection<?>)messages).size()) : new ArrayList<>();
+      try (final Batch batch = new Batch(Credential.of(authentication))) {
+        for (final Message message : messages) // [I]
+          results.add(batch.send(Objects.requireNonNull(message, "message is null")));
+      }
+
+      return results;
+    }
+
+    /**
+     * Send a personalized message to each recipient of {@code recipients} over a single connection, as per
+     * {@link #sendAll(PasswordAuthentication,Iterable)}. Each member of {@code recipients} is the map of variables that is
+     * {@linkplain MimeTemplate#bind(Map) bound} to {@code template} for the recipient, including the address of the recipient by
+     * the name {@code toVariable}. The variables are iterated lazily, and the content of each message is written straight from the
+     * compiled template, so the messages of the batch are never held in memory together.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @param subject The subject of the messages.
+     * @param template The {@link MimeTemplate} of the content of the messages.
+     * @param from The "from" {@link InternetAddress}.
+     * @param toVariable The name of the variable of the address of the recipient.
+     * @param recipients The maps of variables of the recipients.
+     * @return A list of {@link Result}s, one for each member of {@code recipients} in iteration order. If the address of a
+     *         recipient is invalid, its {@link Result} is a failure with an {@link AddressException}, and has no
+     *         {@link Message}.
+     * @throws NullPointerException If {@code template}, {@code from}, {@code toVariable}, or {@code recipients}, or a member
+     *           thereof, is null.
+     * @throws IllegalArgumentException If a placeholder of {@code template} or {@code toVariable} has no value in a member of
+     *           {@code recipients}.
+     */
+    public List<Result> merge(final PasswordAuthentication authentication, final String subject, final MimeTemplate template, final InternetAddress from, final String toVariable, final Iterable<? extends Map<String,String>> recipients) {
+      Objects.requireNonNull(template, "template is null");
+      Objects.requireNonNull(from, "from is null");
+      Objects.requireNonNull(toVariable, "toVariable is null");
+      final ArrayList<Result> results = recipients instanceof Collection ? new ArrayList<>(((Collection<?>)recipients).size()) : new ArrayList<>();
+      try (final Batch batch = new Batch(Credential.of(authentication))) {
+        for (final Map<String,String> variables : recipients) { // [I]
+          final MimeContent content = template.bind(variables);
+          final String to = variables.get(toVariable);
+          if (to == null)
+            throw new IllegalArgumentException("Variable \"" + toVariable + "\" is not bound");
+
+          try {
+            results.add(batch.send(new Message(subject, content, from, to)));
+          }
+          catch (final AddressException e) {
+            results.add(new Result(null, null, e));
+          }
+        }
       }
 
-      try (final Transport transport = session.getTransport(protocol)) {
-        if (authentication != null)
-          transport.connect(host, port, authentication.getUserName(), authentication.getPassword());
-        else
-          transport.connect(host, port, null, null);
+      return results;
+    }
+
+    /**
+     * A batch of transactions over a single connection, which is borrowed for the first transaction, reset after a failed
+     * transaction, and reopened if it was lost or exhausted.
+     */
+    private final class Batch implements AutoCloseable {
+      private final Credential credential;
+      private TransportPool.Connection connection;
+      private MessagingException connectException;
+
+      private Batch(final Credential credential) {
+        this.credential = credential;
+      }
+
+      /**
+       * Sends the specified {@link Message} in a transaction of this batch, and invokes its {@link Message#success()} or
+       * {@link Message#failure(MessagingException)} callback.
+       *
+       * @param message The {@link Message}.
+       * @return The {@link Result} of the transaction.
+       */
+      private Result send(final Message message) {
+        if (isDuplicate(message))
+          return new Result(message, null, null, true);
+
+        if (connectException != null) {
+          report(connectException);
+          return fail(message, connectException);
+        }
 
-        if (logger.isDebugEnabled()) { logger.debug("Sending Email:\n  subject: " + message.subject + "\n       to: " + Arrays.toString(message.to) + (message.cc != null ? "\n       cc: " + Arrays.toString(message.cc) : "") + (message.bcc != null ? "\n      bcc: " + Arrays.toString(message.bcc) : "")); }
+        final SMTPMessage mimeMessage;
+        try {
+          mimeMessage = prepare(message);
+        }
+        catch (final MessagingException e) {
+          return fail(message, e);
+        }
 
-        session.getProperties().setProperty("mail." + protocol + ".from", message.from.getAddress());
-        final MimeMessage mimeMessage = new MimeMessage(session);
+        if (connection == null) {
+          final long start = System.nanoTime();
+          try {
+            connection = borrow(credential);
+          }
+          catch (final MessagingException e) {
+            // If a connection cannot be opened, fail the rest of the batch rather than reconnecting for each message
+            connectException = e;
+            refuse(start, e);
+            return fail(message, e);
+          }
+        }
 
+        // The slot of the limiter is taken while the connection of the batch is held, as on every other path, so no send waits
+        // for a connection while it holds a slot
+        final long ticket;
         try {
-          mimeMessage.setFrom(message.from);
+          ticket = admit();
+        }
+        catch (final MessagingException e) {
+          return fail(message, e);
+        }
+
+        final String messageId;
+        try {
+          messageId = transmit(connection, mimeMessage, mimeMessage.getAllRecipients());
+        }
+        catch (final MessagingException e) {
+          complete(ticket, e);
+          if (!reset(connection)) {
+            invalidate(connection);
+            connection = null;
+          }
+
+          return fail(message, e);
+        }
+
+        complete(ticket, null);
+        message.success();
+        if (pool != null && pool.isExhausted(connection)) {
+          release(connection);
+          connection = null;
+        }
+
+        return new Result(message, messageId, null);
+      }
+
+      private Result fail(final Message message, final MessagingException e) {
+        forget(message, e);
+        message.failure(e);
+        return new Result(message, null, e);
+      }
+
+      @Override
+      public void close() {
+        if (connection != null)
+          release(connection);
+      }
+    }
+
+    /**
+     * Returns whether the specified {@link Message} is a duplicate of a message in the {@link DedupWindow} of this {@link Dispatch},
+     * and adds it to the window if it is not.
+     *
+     * @param message The {@link Message}.
+     * @return Whether the specified {@link Message} is a duplicate.
+     */
+    private boolean isDuplicate(final Message message) {
+      if (dedupWindow == null || dedupWindow.add(message))
+        return false;
+
+      if (logger.isDebugEnabled()) { logger.debug("Suppressed duplicate message: " + message.subject); }
+      if (listener != null)
+        listener.onDuplicate();
+
+      return true;
+    }
+
+    /**
+     * Removes the specified {@link Message} from the {@link DedupWindow} of this {@link Dispatch}, if one is configured, so that it
+     * can be sent again after its send has failed, unless it was accepted for some of its recipients, to whom it is not to be sent
+     * again.
+     *
+     * @param message The {@link Message}.
+     * @param e The {@link MessagingException} of the failed send.
+     */
+    private void forget(final Message message, final MessagingException e) {
+      if (dedupWindow == null)
+        return;
+
+      if (e instanceof SendFailedException) {
+        final Address[] validSent = ((SendFailedException)e).getValidSentAddresses();
+        if (validSent != null && validSent.length > 0)
+          return;
+      }
+
+      dedupWindow.remove(message);
+    }
+
+    /**
+     * Resets the SMTP session of the specified {@link TransportPool.Connection} with {@code RSET}.
+     *
+     * @param connection The {@link TransportPool.Connection}.
+     * @return Whether the connection is usable for a subsequent transaction.
+     */
+    private static boolean reset(final TransportPool.Connection connection) {
+      try {
+        if (connection.transport instanceof SMTPTransport)
+          return ((SMTPTransport)connection.transport).simpleCommand("RSET") == 250;
+
+        return connection.transport.isConnected();
+      }
+      catch (final MessagingException e) {
+        return false;
+      }
+    }
+
+    /**
+     * Returns a new {@link SMTPMessage} of the specified {@link Message}, with its headers and envelope sender set, and its changes
+     * saved. Once the server of this {@link Dispatch} has advertised {@code 8BITMIME}, text parts that are 8-bit clean are
+     * prepared with the {@code 8bit} transfer encoding.
+     *
+     * @param message The {@link Message}.
+     * @return A new {@link SMTPMessage} of the specified {@link Message}.
+     * @throws MessagingException If a messaging error has occurred.
+     */
+    SMTPMessage prepare(final Message message) throws MessagingException {
+      return prepare(message, eightBitMime && eightBitMimeSupported);
+    }
+
+    /**
+     * Returns a new {@link SMTPMessage} of the specified {@link Message}, with its headers and envelope sender set, and its changes
+     * saved. The message is signed with the {@link DkimSigner} of this {@link Dispatch} as it is written, and its content is
+     * replaced with a cached instance from the {@link MimeContentCache} of this {@link Dispatch}, if these are set.
+     *
+     * @param message The {@link Message}.
+     * @param eightBit Whether text parts that are 8-bit clean are to be prepared with the {@code 8bit} transfer encoding.
+     * @return A new {@link SMTPMessage} of the specified {@link Message}.
+     * @throws MessagingException If a messaging error has occurred.
+     */
+    SMTPMessage prepare(final Message message, final boolean eightBit) throws MessagingException {
+      return prepare(anonSession, message, contentCache != null ? contentCache.intern(message.content) : message.content, eightBit, dkim);
+    }
+
+    /**
+     * Returns the {@link DkimSigner} with which messages are signed by this {@link Dispatch}, or {@code null} if none is set.
+     *
+     * @return The {@link DkimSigner} with which messages are signed by this {@link Dispatch}, or {@code null} if none is set.
+     */
+    DkimSigner getDkim() {
+      return dkim;
+    }
 
-          if (message.to != null)
-            mimeMessage.setRecipients(MimeMessage.RecipientType.TO, message.to);
+    /**
+     * An {@link SMTPMessage} whose content can be set to the {@linkplain MimeContent.Encoded encoded wire form} of a
+     * {@link MimeContent}, which is written as it is, and which is signed with DKIM as it is written, if a {@link DkimSigner} is
+     * provided.
+     */
+    private static final class PreparedMessage extends SMTPMessage implements MimeContent.EncodedPart {
+      private final DkimSigner signer;
+      private MimeContent.Encoded encoded;
+      private String signature;
+
+      private PreparedMessage(final Session session, final DkimSigner signer) {
+        super(session);
+        this.signer = signer;
+      }
+
+      @Override
+      public void setContent(final MimeContent.Encoded encoded) throws MessagingException {
+        // The raw content is written by MimeMessage.writeTo() without being decoded, because the Content-Transfer-Encoding is set
+        this.content = encoded.body;
+        this.encoded = encoded;
+        setHeader("Content-Type", encoded.type);
+        setHeader("Content-Transfer-Encoding", encoded.encoding);
+      }
+
+      /**
+       * Returns the {@code DKIM-Signature} header line of this message, which is computed on first invocation, and is reused when
+       * the message is written again (i.e. for each chunk of its recipients, or for a retry).
+       */
+      private synchronized String getSignature() throws IOException, MessagingException {
+        if (signature == null) {
+          final byte[] bodyHash;
+          if (encoded != null) {
+            bodyHash = signer.getBodyHash(encoded);
+          }
+          else {
+            final DkimSigner.BodyHash hash = new DkimSigner.BodyHash(true);
+            super.writeTo(hash, null);
+            bodyHash = hash.digest();
+          }
 
-          if (message.cc != null)
-            mimeMessage.setRecipients(MimeMessage.RecipientType.CC, message.cc);
+          signature = signer.sign(this, bodyHash);
+        }
 
-          if (message.bcc != null)
-            mimeMessage.setRecipients(MimeMessage.RecipientType.BCC, message.bcc);
+        return signature;
+      }
 
-          // Setting the Subject and Content Type
-          mimeMessage.setSubject(message.subject);
-          mimeMessage.setContent(message.content.getContent(), message.content.getType());
+      @Override
+      public void writeTo(final OutputStream os, final String[] ignoreList) throws IOException, MessagingException {
+        if (signer != null) {
+          if (!saved)
+            saveChanges();
 
-          mimeMessage.saveChanges();
-          transport.sendMessage(mimeMessage, mimeMessage.getAllRecipients());
-          message.success();
-          return mimeMessage.getMessageID();
+          os.write(getSignature().getBytes(StandardCharsets.US_ASCII));
+          os.write(CRLF);
+        }
+
+        super.writeTo(os, ignoreList);
+      }
+    }
+
+    /**
+     * Returns a new {@link SMTPMessage} of the specified {@link Message} in the specified {@link Session}, with its headers and
+     * envelope sender set, and its changes saved.
+     *
+     * @param session The {@link Session}.
+     * @param message The {@link Message}.
+     * @param eightBit Whether text parts that are 8-bit clean are to be prepared with the {@code 8bit} transfer encoding, which
+     *          is only to be set if the message is to be sent to a server that has advertised {@code 8BITMIME}.
+     * @return A new {@link SMTPMessage} of the specified {@link Message}.
+     * @throws MessagingException If a messaging error has occurred.
+     */
+    static SMTPMessage prepare(final Session session, final Message message, final boolean eightBit) throws MessagingException {
+      return prepare(session, message, message.content, eightBit, null);
+    }
+
+    /**
+     * Returns a new {@link SMTPMessage} of the specified {@link Message} with the specified {@link MimeContent} in the specified
+     * {@link Session}, with its headers and envelope sender set, and its changes saved.
+     *
+     * @param session The {@link Session}.
+     * @param message The {@link Message}.
+     * @param content The {@link MimeContent} to be used in place of the content of {@code message}, which is equal to it.
+     * @param eightBit Whether text parts that are 8-bit clean are to be prepared with the {@code 8bit} transfer encoding.
+     * @param signer The {@link DkimSigner} with which the message is to be signed as it is written, or {@code null}.
+     * @return A new {@link SMTPMessage} of the specified {@link Message}.
+     * @throws MessagingException If a messaging error has occurred.
+     */
+    static SMTPMessage prepare(final Session session, final Message message, final MimeContent content, final boolean eightBit, final DkimSigner signer) throws MessagingException {
+      if (logger.isDebugEnabled()) { logger.debug("Sending Email:\n  subject: " + message.subject + "\n       to: " + Arrays.toString(message.to) + (message.cc != null ? "\n       cc: " + Arrays.toString(message.cc) : "") + (message.bcc != null ? "\n      bcc: " + Arrays.toString(message.bcc) : "")); }
+      final SMTPMessage mimeMessage = new PreparedMessage(session, signer);
+      mimeMessage.setEnvelopeFrom(message.from.getAddress());
+      mimeMessage.setFrom(message.from);
+
+      if (message.to != null)
+        mimeMessage.setRecipients(MimeMessage.RecipientType.TO, message.to);
+
+      if (message.cc != null)
+        mimeMessage.setRecipients(MimeMessage.RecipientType.CC, message.cc);
+
+      if (message.bcc != null)
+        mimeMessage.setRecipients(MimeMessage.RecipientType.BCC, message.bcc);
+
+      // Setting the Subject and Content Type
+      mimeMessage.setSubject(message.subject);
+      content.setTo(mimeMessage, eightBit);
+
+      mimeMessage.saveChanges();
+      return mimeMessage;
+    }
+
+    /**
+     * Returns the {@link Session} with which messages of this {@link Dispatch} are prepared and parsed.
+     *
+     * @return The {@link Session} with which messages of this {@link Dispatch} are prepared and parsed.
+     */
+    Session getSession() {
+      return anonSession;
+    }
+
+    private static String transmit(final TransportPool.Connection connection, final MimeMessage mimeMessage, final Address[] recipients) throws MessagingException {
+      ++connection.messageCount;
+      connection.transport.sendMessage(mimeMessage, recipients);
+      return mimeMessage.getMessageID();
+    }
+
+    /**
+     * Send an already prepared {@link MimeMessage} to the specified envelope {@code recipients} with the provided
+     * {@link PasswordAuthentication}.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @param mimeMessage The {@link MimeMessage} to send.
+     * @param recipients The envelope recipients.
+     * @return The {@link MimeMessage#getMessageID() messageID} of the sent message.
+     * @throws MessagingException If a transport error has occurred.
+     */
+    String send(final PasswordAuthentication authentication, final MimeMessage mimeMessage, final Address[] recipients) throws MessagingException {
+      final long start = System.nanoTime();
+      final TransportPool.Connection connection;
+      try {
+        connection = borrow(Credential.of(authentication));
+      }
+      catch (final MessagingException e) {
+        refuse(start, e);
+        throw e;
+      }
+
+      // The connection is taken before the slot of the limiter on every path, so no send waits for a connection while it holds a
+      // slot
+      final String messageId;
+      try {
+        final long ticket = admit();
+        try {
+          messageId = transmit(connection, mimeMessage, recipients);
         }
         catch (final MessagingException e) {
-          message.failure(e);
+          complete(ticket, e);
           throw e;
         }
+
+        complete(ticket, null);
+      }
+      finally {
+        release(connection);
+      }
+
+      return messageId;
+    }
+
+    /**
+     * Opens and closes an anonymous connection to the SMTP server of this {@link Dispatch}, bypassing the {@link TransportPool}, to
+     * determine whether the server is reachable.
+     *
+     * @throws MessagingException If a connection cannot be established.
+     */
+    void probe() throws MessagingException {
+      connect(Credential.ANONYMOUS).close();
+    }
+
+    /**
+     * Waits for the {@link AdaptiveLimiter} of this {@link Dispatch}, if one is configured, to admit a send.
+     *
+     * @return The ticket of the send, to be passed to {@link #complete(long,MessagingException)}.
+     * @throws MessagingException If the current thread is interrupted while waiting.
+     */
+    private long admit() throws MessagingException {
+      if (limiter == null)
+        return 0;
+
+      try {
+        return limiter.acquire();
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new MessagingException("Interrupted while waiting for the limiter", e);
       }
     }
 
+    /**
+     * Reports a send that failed before it was admitted by the {@link AdaptiveLimiter}, because its connection could not be opened.
+     *
+     * @param start The {@link System#nanoTime()} at which the connection was attempted.
+     * @param e The {@link MessagingException} with which the connection failed.
+     */
+    private void refuse(final long start, final MessagingException e) {
+      if (limiter != null)
+        limiter.refuse(start, e);
+
+      report(e);
+    }
+
+    private void complete(final long ticket, final MessagingException e) {
+      if (limiter != null)
+        limiter.release(ticket, e);
+
+      report(e);
+    }
+
+    /**
+     * Reports the outcome of a send to the {@link DispatchListener} of this {@link Dispatch}, if one is set.
+     *
+     * @param e The {@link MessagingException} of the send, or {@code null} if it succeeded.
+     */
+    private void report(final MessagingException e) {
+      if (listener == null)
+        return;
+
+      if (e == null)
+        listener.onSuccess();
+      else
+        listener.onFailure(RetryPolicy.getReturnCode(e), e);
+    }
+
+    /**
+     * Closes the {@link TransportPool} of this {@link Dispatch}, if connection pooling is enabled, and shuts down the default
+     * {@link Executor} of asynchronous sends, if one was created.
+     */
+    @Override
+    public void close() {
+      queue.close();
+      chunkQueue.close();
+      if (pool != null)
+        pool.close();
+    }
+
     @Override
     public boolean equals(final Object obj) {
       if (obj == this)
@@ -554,5 +1802,10 @@ public final class Mail {
     public int hashCode() {
       return defaultProperties.hashCode();
     }
+
+    @Override
+    public String toString() {
+      return protocol + "://" + host + ":" + port;
+    }
   }
 }
\ No newline at end of file
@@ -16,15 +16,92 @@
 
 package org.libj.mail;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.Objects;
 
+import javax.mail.MessagingException;
+import javax.mail.internet.ContentType;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimePart;
+import javax.mail.internet.MimeUtility;
+
 /**
  * The {@link MimeContent} represents message content with an associated mime type.
+ * <p>
+ * The encoded wire form of the content (i.e. its {@code Content-Type} with charset, its {@code Content-Transfer-Encoding}, and
+ * its transfer-encoded bytes) is computed once, when the content is first sent, and is reused by all messages that are sent with
+ * the same {@link MimeContent} instance. A {@link MimeContentCache} can be used to share the encoded form among instances that
+ * are {@linkplain #equals(Object) equal}.
  */
 public class MimeContent implements Serializable {
+  /**
+   * The encoded wire form of a {@link MimeContent}.
+   */
+  static final class Encoded {
+    final String type;
+    final String encoding;
+    final byte[] body;
+
+    private Encoded(final String type, final String encoding, final byte[] body) {
+      this.type = type;
+      this.encoding = encoding;
+      this.body = body;
+    }
+  }
+
+  /**
+   * A {@link MimePart} whose content can be set to the {@link Encoded} wire form of a {@link MimeContent}, which is then written
+   * as it is, without being decoded and encoded again.
+   */
+  interface EncodedPart extends MimePart {
+    /**
+     * Sets the content of this {@link MimePart} to the specified {@link Encoded} wire form.
+     *
+     * @param encoded The {@link Encoded} wire form.
+     * @throws MessagingException If a messaging error has occurred.
+     */
+    void setContent(Encoded encoded) throws MessagingException;
+  }
+
+  /**
+   * Returns whether the specified string can be sent with the {@code 8bit} transfer encoding, and is not better sent with
+   * {@code 7bit}: it contains a non-ASCII character, no {@code NUL}, and no line longer than 998 octets in {@code UTF-8}.
+   */
+  static boolean is8Bit(final String content) {
+    boolean nonAscii = false;
+    int octets = 0;
+    for (int i = 0, i$ = content.length(); i < i$; ++i) { // [N]
+      final char ch = content.charAt(i);
+      if (ch == '\r' || ch == '\n') {
+        octets = 0;
+        continue;
+      }
+
+      if (ch == '\0')
+        return false;
+
+      if (ch < 0x80) {
+        ++octets;
+      }
+      else {
+        nonAscii = true;
+        octets += ch < 0x800 || Character.isSurrogate(ch) ? 2 : 3;
+      }
+
+      if (octets > 998)
+        return false;
+    }
+
+    return nonAscii;
+  }
+
   private final String content;
   private final String type;
+  private transient volatile Encoded encoded;
+  private transient volatile Encoded encoded8Bit;
 
   /**
    * Creates a new {@link MimeContent} with the provided {@code content} and mime {@code type}.
@@ -38,6 +115,18 @@ public class MimeContent implements Serializable {
     this.type = Objects.requireNonNull(type);
   }
 
+  /**
+   * Creates a new {@link MimeContent} with the provided mime {@code type}, for subclasses that do not hold their content as a
+   * string.
+   *
+   * @param type The mime type string.
+   * @throws NullPointerException If {@code type} is null.
+   */
+  MimeContent(final String type) {
+    this.content = null;
+    this.type = Objects.requireNonNull(type);
+  }
+
   /**
    * Returns the content string.
    *
@@ -56,6 +145,113 @@ public class MimeContent implements Serializable {
     return type;
   }
 
+  /**
+   * Returns the weight of this content in a {@link MimeContentCache}, which is the number of characters of the content string, or
+   * {@code 0} if this content is not to be cached.
+   *
+   * @return The weight of this content in a {@link MimeContentCache}.
+   */
+  long getWeight() {
+    return content != null ? content.length() : 0;
+  }
+
+  /**
+   * Returns a new {@link Encoded} wire form of this content.
+   *
+   * @param eightBit Whether the {@code 8bit} transfer encoding is to be used, if this content is {@code UTF-8} text that is 8-bit
+   *          clean.
+   * @return A new {@link Encoded} wire form of this content.
+   * @throws MessagingException If a messaging error has occurred.
+   */
+  private Encoded encode(final boolean eightBit) throws MessagingException {
+    final boolean is8Bit;
+    if (eightBit) {
+      final ContentType contentType = new ContentType(type);
+      is8Bit = contentType.match("text/*") && "UTF-8".equalsIgnoreCase(contentType.getParameter("charset")) && is8Bit(content);
+    }
+    else {
+      is8Bit = false;
+    }
+
+    // MimeBodyPart.content shadows this.content in the body of the subclass
+    final String text = content;
+    final MimeBodyPart part = new MimeBodyPart() {
+      {
+        setContent(text, MimeContent.this.type);
+        if (is8Bit)
+          setHeader("Content-Transfer-Encoding", "8bit");
+
+        // Determines the charset and transfer encoding, as MimeMessage.saveChanges() would
+        updateHeaders();
+      }
+    };
+
+    final String encoding = part.getEncoding();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try {
+      final OutputStream os = MimeUtility.encode(out, encoding);
+      part.getDataHandler().writeTo(os);
+      os.flush();
+    }
+    catch (final IOException e) {
+      throw new MessagingException(e.getMessage(), e);
+    }
+
+    return new Encoded(part.getContentType(), encoding, out.toByteArray());
+  }
+
+  /**
+   * Returns the {@link Encoded} wire form of this content, which is computed on first invocation.
+   *
+   * @param eightBit Whether the {@code 8bit} transfer encoding is to be used, if this content is {@code UTF-8} text that is 8-bit
+   *          clean.
+   * @return The {@link Encoded} wire form of this content.
+   * @throws MessagingException If a messaging error has occurred.
+   */
+  Encoded getEncoded(final boolean eightBit) throws MessagingException {
+    Encoded encoded = eightBit ? encoded8Bit : this.encoded;
+    if (encoded == null) {
+      synchronized (this) {
+        encoded = eightBit ? encoded8Bit : this.encoded;
+        if (encoded == null) {
+          encoded = encode(eightBit);
+          if (eightBit)
+            encoded8Bit = encoded;
+          else
+            this.encoded = encoded;
+        }
+      }
+    }
+
+    return encoded;
+  }
+
+  /**
+   * Sets this content as the content of the specified {@link MimePart}.
+   *
+   * @param part The {@link MimePart}.
+   * @throws MessagingException If a messaging error has occurred.
+   */
+  void setTo(final MimePart part) throws MessagingException {
+    setTo(part, false);
+  }
+
+  /**
+   * Sets this content as the content of the specified {@link MimePart}. If the {@link MimePart} is an {@link EncodedPart}, its
+   * content is set to the {@link Encoded} wire form of this content.
+   *
+   * @param part The {@link MimePart}.
+   * @param eightBit Whether the {@code 8bit} transfer encoding is to be used for text that is 8-bit clean, which is only to be
+   *          set if the message is to be sent to a server that has advertised {@code 8BITMIME}.
+   * @throws MessagingException If a messaging error has occurred.
+   */
+  void setTo(final MimePart part, final boolean eightBit) throws MessagingException {
+    if (part instanceof EncodedPart)
+      ((EncodedPart)part).setContent(getEncoded(eightBit));
+    else
+      part.setContent(content, type);
+  }
+
   @Override
   public boolean equals(final Object obj) {
     if (obj == this)
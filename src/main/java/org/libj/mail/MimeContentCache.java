@@ -0,0 +1,108 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A bounded cache of {@link MimeContent} instances, by which {@linkplain MimeContent#equals(Object) equal} content that is
+ * created anew for each message (i.e. the body of a newsletter) shares a single instance, and thus a single
+ * {@linkplain MimeContent encoded wire form} that is computed once.
+ * <p>
+ * The size of the cache is the sum of the lengths of the content strings of its entries. When the size exceeds the max size, the
+ * least recently used entries are evicted. {@link StreamingMimeContent} is not cached, because it is not encoded in advance.
+ * <p>
+ * This class is thread-safe.
+ *
+ * @see Mail.Dispatch.Builder#withContentCache(MimeContentCache)
+ */
+public class MimeContentCache {
+  private final LinkedHashMap<MimeContent,MimeContent> cache = new LinkedHashMap<>(16, 0.75f, true);
+  private final long maxSize;
+  private long size;
+
+  /**
+   * Creates a new {@link MimeContentCache} with the specified max size.
+   *
+   * @param maxSize The max sum of the lengths of the content strings of the entries of this cache.
+   * @throws IllegalArgumentException If {@code maxSize} is not positive.
+   */
+  public MimeContentCache(final long maxSize) {
+    if (maxSize <= 0)
+      throw new IllegalArgumentException("maxSize (" + maxSize + ") must be positive");
+
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Returns the cached {@link MimeContent} that is equal to the specified {@link MimeContent}, or caches and returns the specified
+   * {@link MimeContent} if no equal instance is cached.
+   *
+   * @param content The {@link MimeContent}.
+   * @return The cached {@link MimeContent} that is equal to the specified {@link MimeContent}, or the specified
+   *         {@link MimeContent} if no equal instance is cached, or if it is not to be cached.
+   * @throws NullPointerException If {@code content} is null.
+   */
+  public synchronized MimeContent intern(final MimeContent content) {
+    final MimeContent cached = cache.get(Objects.requireNonNull(content, "content is null"));
+    if (cached != null)
+      return cached;
+
+    final long weight = content.getWeight();
+    if (weight == 0 || weight > maxSize)
+      return content;
+
+    cache.put(content, content);
+    size += weight;
+    final Iterator<Map.Entry<MimeContent,MimeContent>> iterator = cache.entrySet().iterator();
+    while (size > maxSize) {
+      size -= iterator.next().getKey().getWeight();
+      iterator.remove();
+    }
+
+    return content;
+  }
+
+  /**
+   * Returns the number of entries in this cache.
+   *
+   * @return The number of entries in this cache.
+   */
+  public synchronized int getCount() {
+    return cache.size();
+  }
+
+  /**
+   * Returns the sum of the lengths of the content strings of the entries of this cache.
+   *
+   * @return The sum of the lengths of the content strings of the entries of this cache.
+   */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /**
+   * Removes all entries from this cache.
+   */
+  public synchronized void clear() {
+    cache.clear();
+    size = 0;
+  }
+}
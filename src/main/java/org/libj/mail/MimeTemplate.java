@@ -0,0 +1,384 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.mail.MessagingException;
+import javax.mail.internet.ContentType;
+import javax.mail.internet.MimePart;
+import javax.mail.internet.MimeUtility;
+import javax.mail.internet.ParseException;
+
+/**
+ * A template of {@link MimeContent} for personalized bulk mail (mail merge). The template is compiled once into static segments,
+ * which are encoded to bytes in the charset of its type, and placeholders of the form {@code ${name}}, which are substituted with
+ * the values of variables that are {@linkplain #bind(Map) bound} for each recipient. A literal {@code $} is written as {@code $$}.
+ * <p>
+ * The {@link MimeContent} of a binding is not rendered as a string: as the message is written, the pre-encoded static segments
+ * and the encoded values of the variables are written straight to the output stream. The transfer encoding is determined from
+ * statistics of the static segments that are computed once, and a scan of the values: {@code 7bit} or {@code 8bit} (if
+ * {@code 8BITMIME} is supported by the server) when the rendered body is 8-bit clean, and {@code quoted-printable} otherwise.
+ * <p>
+ * Values are substituted as they are, and are not escaped (i.e. for {@code text/html}).
+ *
+ * @see Mail.Dispatch#merge(javax.mail.PasswordAuthentication,String,MimeTemplate,javax.mail.internet.InternetAddress,String,Iterable)
+ */
+public final class MimeTemplate implements Serializable {
+  /**
+   * Statistics of the lines of text, by which the transfer encoding of a rendered body is determined. The number of octets of
+   * each character is counted as in {@code UTF-8}, which is an upper bound for the single-byte charsets.
+   */
+  private static final class Lines implements Serializable {
+    /** The octets of the first line, which is the whole text if it has no line break. */
+    private int first;
+    /** The octets of the current (last) line. */
+    private int line;
+    /** The octets of the longest line that has been terminated by a line break. */
+    private int max;
+    private boolean hasBreak;
+    private boolean nonAscii;
+    private boolean nul;
+
+    private Lines scan(final String text) {
+      for (int i = 0, i$ = text.length(); i < i$; ++i) { // [N]
+        final char ch = text.charAt(i);
+        if (ch == '\r' || ch == '\n') {
+          if (!hasBreak) {
+            hasBreak = true;
+            first = line;
+          }
+
+          if (line > max)
+            max = line;
+
+          line = 0;
+          continue;
+        }
+
+        if (ch == '\0')
+          nul = true;
+
+        if (ch < 0x80) {
+          ++line;
+        }
+        else {
+          nonAscii = true;
+          line += ch < 0x800 || Character.isSurrogate(ch) ? 2 : 3;
+        }
+      }
+
+      if (!hasBreak)
+        first = line;
+
+      return this;
+    }
+
+    private void append(final Lines next) {
+      if (next.hasBreak) {
+        max = Math.max(Math.max(max, line + next.first), next.max);
+        line = next.line;
+        hasBreak = true;
+      }
+      else {
+        line += next.first;
+      }
+
+      nonAscii |= next.nonAscii;
+      nul |= next.nul;
+    }
+
+    private boolean isClean() {
+      return !nul && max <= 998 && line <= 998;
+    }
+  }
+
+  /**
+   * The {@link MimeContent} of a binding of variables to a {@link MimeTemplate}.
+   */
+  private final class Binding extends MimeContent {
+    private final String[] values;
+
+    private Binding(final String[] values) {
+      super(type);
+      this.values = values;
+    }
+
+    private String getEncoding(final boolean eightBit) {
+      if (!isText)
+        return "base64";
+
+      final Lines lines = new Lines();
+      for (int i = 0; i < values.length; ++i) { // [A]
+        lines.append(segmentLines[i]);
+        lines.append(new Lines().scan(values[i]));
+      }
+
+      lines.append(segmentLines[values.length]);
+      if (!lines.isClean())
+        return "quoted-printable";
+
+      if (!lines.nonAscii)
+        return "7bit";
+
+      return eightBit && isUtf8 ? "8bit" : "quoted-printable";
+    }
+
+    private void writeTo(final OutputStream out) throws IOException {
+      final Charset charset = getCharset();
+      for (int i = 0; i < values.length; ++i) { // [A]
+        out.write(segments[i]);
+        out.write(values[i].getBytes(charset));
+      }
+
+      out.write(segments[values.length]);
+    }
+
+    private byte[] toByteArray() throws IOException {
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      writeTo(out);
+      return out.toByteArray();
+    }
+
+    /**
+     * Returns the body rendered as a string, which is only to be used for diagnostics.
+     *
+     * @return The body rendered as a string.
+     */
+    @Override
+    public String getContent() {
+      try {
+        return new String(toByteArray(), getCharset());
+      }
+      catch (final IOException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    @Override
+    long getWeight() {
+      return 0;
+    }
+
+    @Override
+    void setTo(final MimePart part, final boolean eightBit) throws MessagingException {
+      part.setDataHandler(new DataHandler(new DataSource() {
+        @Override
+        public InputStream getInputStream() throws IOException {
+          return new ByteArrayInputStream(toByteArray());
+        }
+
+        @Override
+        public OutputStream getOutputStream() throws IOException {
+          throw new IOException("Read-only data source");
+        }
+
+        @Override
+        public String getContentType() {
+          return type;
+        }
+
+        @Override
+        public String getName() {
+          return null;
+        }
+      }) {
+        @Override
+        public void writeTo(final OutputStream os) throws IOException {
+          Binding.this.writeTo(os);
+        }
+      });
+
+      // Setting the headers explicitly prevents MimeMessage.saveChanges() from rendering the whole body to determine them
+      part.setHeader("Content-Type", type);
+      part.setHeader("Content-Transfer-Encoding", getEncoding(eightBit));
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj == this)
+        return true;
+
+      if (!(obj instanceof Binding))
+        return false;
+
+      final Binding that = (Binding)obj;
+      return getTemplate() == that.getTemplate() && Arrays.equals(values, that.values);
+    }
+
+    private MimeTemplate getTemplate() {
+      return MimeTemplate.this;
+    }
+
+    @Override
+    public int hashCode() {
+      return 31 * System.identityHashCode(MimeTemplate.this) + Arrays.hashCode(values);
+    }
+
+    @Override
+    public String toString() {
+      return "Content-Type: " + type + "\n" + getContent();
+    }
+  }
+
+  private final String template;
+  private final String type;
+  private final String charset;
+  private final boolean isText;
+  private final boolean isUtf8;
+  private final byte[][] segments;
+  private final Lines[] segmentLines;
+  private final List<String> names;
+
+  /**
+   * Creates a new {@link MimeTemplate} by compiling the provided {@code template}. If {@code type} is a {@code text} type without
+   * a {@code charset} parameter, {@code charset=UTF-8} is added.
+   *
+   * @param template The template string, with placeholders of the form {@code ${name}}.
+   * @param type The mime type string.
+   * @throws NullPointerException If {@code template} or {@code type} is null.
+   * @throws IllegalArgumentException If {@code type} is not a valid mime type, or if a placeholder is not terminated.
+   */
+  public MimeTemplate(final String template, final String type) {
+    this.template = Objects.requireNonNull(template, "template is null");
+    final ContentType contentType;
+    try {
+      contentType = new ContentType(Objects.requireNonNull(type, "type is null"));
+    }
+    catch (final ParseException e) {
+      throw new IllegalArgumentException("Invalid mime type: " + type, e);
+    }
+
+    this.isText = contentType.match("text/*");
+    if (isText && contentType.getParameter("charset") == null)
+      contentType.setParameter("charset", "UTF-8");
+
+    this.type = isText ? contentType.toString() : type;
+    this.charset = contentType.getParameter("charset") != null ? MimeUtility.javaCharset(contentType.getParameter("charset")) : "UTF-8";
+    this.isUtf8 = "UTF-8".equalsIgnoreCase(charset) || "UTF8".equalsIgnoreCase(charset);
+
+    final ArrayList<String> statics = new ArrayList<>();
+    final ArrayList<String> names = new ArrayList<>();
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0, i$ = template.length(); i < i$; ++i) { // [N]
+      final char ch = template.charAt(i);
+      if (ch != '$' || i + 1 == i$) {
+        builder.append(ch);
+      }
+      else if (template.charAt(i + 1) == '$') {
+        builder.append('$');
+        ++i;
+      }
+      else if (template.charAt(i + 1) == '{') {
+        final int end = template.indexOf('}', i + 2);
+        if (end == -1)
+          throw new IllegalArgumentException("Unterminated placeholder at index " + i);
+
+        statics.add(builder.toString());
+        builder.setLength(0);
+        names.add(template.substring(i + 2, end));
+        i = end;
+      }
+      else {
+        builder.append(ch);
+      }
+    }
+
+    statics.add(builder.toString());
+    final Charset javaCharset = getCharset();
+    this.segments = new byte[statics.size()][];
+    this.segmentLines = new Lines[statics.size()];
+    for (int i = 0, i$ = statics.size(); i < i$; ++i) { // [RA]
+      segments[i] = statics.get(i).getBytes(javaCharset);
+      segmentLines[i] = new Lines().scan(statics.get(i));
+    }
+
+    this.names = Collections.unmodifiableList(names);
+  }
+
+  private Charset getCharset() {
+    return Charset.forName(charset);
+  }
+
+  /**
+   * Returns the template string.
+   *
+   * @return The template string.
+   */
+  public String getTemplate() {
+    return template;
+  }
+
+  /**
+   * Returns the mime type string, with the {@code charset} parameter if this is a {@code text} type.
+   *
+   * @return The mime type string.
+   */
+  public String getType() {
+    return type;
+  }
+
+  /**
+   * Returns the names of the placeholders of this template, in order of occurrence.
+   *
+   * @return The names of the placeholders of this template, in order of occurrence.
+   */
+  public List<String> getNames() {
+    return names;
+  }
+
+  /**
+   * Returns a new {@link MimeContent} of this template with the values of the specified {@code variables} substituted for its
+   * placeholders.
+   *
+   * @param variables The map of variable names to values.
+   * @return A new {@link MimeContent} of this template with the values of the specified {@code variables} substituted for its
+   *         placeholders.
+   * @throws NullPointerException If {@code variables} is null.
+   * @throws IllegalArgumentException If a placeholder of this template has no value in {@code variables}.
+   */
+  public MimeContent bind(final Map<String,String> variables) {
+    Objects.requireNonNull(variables, "variables is null");
+    final String[] values = new String[names.size()];
+    for (int i = 0; i < values.length; ++i) { // [A]
+      final String name = names.get(i);
+      if ((values[i] = variables.get(name)) == null)
+        throw new IllegalArgumentException("Variable \"" + name + "\" is not bound");
+    }
+
+    return new Binding(values);
+  }
+
+  @Override
+  public String toString() {
+    return "Content-Type: " + type + "\n" + template;
+  }
+}
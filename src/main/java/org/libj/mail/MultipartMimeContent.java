@@ -0,0 +1,333 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.NotSerializableException;
+import java.io.ObjectStreamException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+import javax.mail.MessagingException;
+import javax.mail.Part;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMultipart;
+import javax.mail.internet.MimePart;
+
+/**
+ * A {@link MimeContent} composed of alternative bodies (i.e. {@code text/plain} and {@code text/html}), inline parts (i.e. images
+ * referenced from the HTML body by {@code cid:} URL), and attachments. The resulting structure is the conventional nesting of
+ * {@code multipart/mixed}, {@code multipart/related}, and {@code multipart/alternative}, omitting each level that is not needed.
+ * <p>
+ * Parts that are specified by {@link Path} are not read into memory, but are {@code base64}-encoded directly from the file as the
+ * message is written to the SMTP {@code DATA} phase. A {@link MultipartMimeContent} with such parts is therefore not
+ * {@linkplain #equals(Object) equal} to another that is built with the same {@link Path} (as the file may be regenerated between
+ * sends), and is not serializable.
+ */
+public class MultipartMimeContent extends MimeContent {
+  /**
+   * Builder of {@link MultipartMimeContent}.
+   */
+  public static class Builder {
+    private final ArrayList<MimeContent> alternatives = new ArrayList<>();
+    private final ArrayList<Attachment> inlines = new ArrayList<>();
+    private final ArrayList<Attachment> attachments = new ArrayList<>();
+
+    /**
+     * Add an alternative body. Alternatives are to be added in increasing order of preference (i.e. {@code text/plain} before
+     * {@code text/html}).
+     *
+     * @param content The {@link MimeContent} of the alternative body.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code content} is null.
+     */
+    public Builder withAlternative(final MimeContent content) {
+      alternatives.add(Objects.requireNonNull(content, "content is null"));
+      return this;
+    }
+
+    /**
+     * Add an inline part, to be referenced from an HTML alternative by {@code cid:}{@code contentId}.
+     *
+     * @param path The {@link Path} of the file.
+     * @param type The mime type string.
+     * @param contentId The {@code Content-ID} (without angle brackets).
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code path}, {@code type}, or {@code contentId} is null.
+     */
+    public Builder withInline(final Path path, final String type, final String contentId) {
+      inlines.add(new Attachment(path, null, type, Part.INLINE, null, Objects.requireNonNull(contentId, "contentId is null")));
+      return this;
+    }
+
+    /**
+     * Add an attachment with the file name of the specified {@link Path}.
+     *
+     * @param path The {@link Path} of the file.
+     * @param type The mime type string.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code path} or {@code type} is null.
+     */
+    public Builder withAttachment(final Path path, final String type) {
+      return withAttachment(path, type, path.getFileName().toString());
+    }
+
+    /**
+     * Add an attachment with the specified file name.
+     *
+     * @param path The {@link Path} of the file.
+     * @param type The mime type string.
+     * @param fileName The file name to be presented to the recipient.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code path}, {@code type} or {@code fileName} is null.
+     */
+    public Builder withAttachment(final Path path, final String type, final String fileName) {
+      attachments.add(new Attachment(path, null, type, Part.ATTACHMENT, Objects.requireNonNull(fileName, "fileName is null"), null));
+      return this;
+    }
+
+    /**
+     * Add an attachment of the specified {@link MimeContent}.
+     *
+     * @param content The {@link MimeContent} of the attachment.
+     * @param fileName The file name to be presented to the recipient.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code content} or {@code fileName} is null.
+     */
+    public Builder withAttachment(final MimeContent content, final String fileName) {
+      attachments.add(new Attachment(null, Objects.requireNonNull(content, "content is null"), content.getType(), Part.ATTACHMENT, Objects.requireNonNull(fileName, "fileName is null"), null));
+      return this;
+    }
+
+    /**
+     * Returns a new {@link MultipartMimeContent} with the parts specified in this {@link Builder}.
+     *
+     * @return A new {@link MultipartMimeContent} with the parts specified in this {@link Builder}.
+     * @throws IllegalStateException If no parts have been specified.
+     */
+    public MultipartMimeContent build() {
+      if (alternatives.size() == 0 && inlines.size() == 0 && attachments.size() == 0)
+        throw new IllegalStateException("No parts have been specified");
+
+      return new MultipartMimeContent(new ArrayList<>(alternatives), new ArrayList<>(inlines), new ArrayList<>(attachments));
+    }
+  }
+
+  private static final class Attachment implements Serializable {
+    private final Path path;
+    private final MimeContent content;
+    private final String type;
+    private final String disposition;
+    private final String fileName;
+    private final String contentId;
+
+    private Attachment(final Path path, final MimeContent content, final String type, final String disposition, final String fileName, final String contentId) {
+      this.path = path;
+      this.content = content;
+      this.type = Objects.requireNonNull(type, "type is null");
+      this.disposition = disposition;
+      this.fileName = fileName;
+      this.contentId = contentId;
+      if (path == null && content == null)
+        throw new NullPointerException("path is null");
+    }
+
+    private MimeBodyPart toBodyPart(final boolean eightBit) throws MessagingException {
+      if (path != null)
+        return new AttachmentBodyPart(path, type, disposition, fileName, contentId);
+
+      final MimeBodyPart part = new EncodedBodyPart();
+      content.setTo(part, eightBit);
+      part.setDisposition(disposition);
+      if (fileName != null)
+        part.setFileName(fileName);
+
+      return part;
+    }
+
+    private Object writeReplace() throws ObjectStreamException {
+      if (path != null)
+        throw new NotSerializableException(MultipartMimeContent.class.getName() + " with a part of a Path is not serializable");
+
+      return this;
+    }
+
+    @Override
+    public boolean equals(final Object obj) {
+      if (obj == this)
+        return true;
+
+      if (!(obj instanceof Attachment))
+        return false;
+
+      // The body of a part of a Path is not known until it is read
+      final Attachment that = (Attachment)obj;
+      return path == null && that.path == null && content.equals(that.content) && type.equals(that.type) && disposition.equals(that.disposition) && Objects.equals(fileName, that.fileName) && Objects.equals(contentId, that.contentId);
+    }
+
+    @Override
+    public int hashCode() {
+      return path != null ? System.identityHashCode(this) : Objects.hash(content, type, disposition, fileName, contentId);
+    }
+  }
+
+  private static String getType(final List<MimeContent> alternatives, final List<Attachment> inlines, final List<Attachment> attachments) {
+    if (attachments.size() > 0)
+      return "multipart/mixed";
+
+    if (inlines.size() > 0)
+      return "multipart/related";
+
+    if (alternatives.size() > 1)
+      return "multipart/alternative";
+
+    return "multipart/mixed";
+  }
+
+  private static MimeBodyPart toBodyPart(final MimeContent content, final boolean eightBit) throws MessagingException {
+    final MimeBodyPart part = new EncodedBodyPart();
+    content.setTo(part, eightBit);
+    return part;
+  }
+
+  private static MimeBodyPart toBodyPart(final MimeMultipart multipart) throws MessagingException {
+    final MimeBodyPart part = new MimeBodyPart();
+    part.setContent(multipart);
+    return part;
+  }
+
+  private final List<MimeContent> alternatives;
+  private final List<Attachment> inlines;
+  private final List<Attachment> attachments;
+
+  private MultipartMimeContent(final List<MimeContent> alternatives, final List<Attachment> inlines, final List<Attachment> attachments) {
+    super(getType(alternatives, inlines, attachments));
+    this.alternatives = alternatives;
+    this.inlines = inlines;
+    this.attachments = attachments;
+  }
+
+  /**
+   * Returns a placeholder that describes the parts of this content, which is only to be used for diagnostics, because a
+   * {@link MultipartMimeContent} is not held as a string.
+   *
+   * @return A placeholder that describes the parts of this content.
+   */
+  @Override
+  public String getContent() {
+    return "[" + MultipartMimeContent.class.getSimpleName() + ": " + alternatives.size() + " alternative(s), " + inlines.size() + " inline(s), " + attachments.size() + " attachment(s)]";
+  }
+
+  /**
+   * Returns a new {@link MimeMultipart} of the structure of this content. The {@link MimeMultipart} is created anew for each
+   * message, because each is given a unique boundary, but the parts it references are not copied.
+   *
+   * @param eightBit Whether the {@code 8bit} transfer encoding is to be used for text that is 8-bit clean.
+   * @return A new {@link MimeMultipart} of the structure of this content.
+   * @throws MessagingException If a messaging error has occurred.
+   */
+  MimeMultipart toMultipart(final boolean eightBit) throws MessagingException {
+    final int noAlternatives = alternatives.size();
+    final int noInlines = inlines.size();
+    final int noAttachments = attachments.size();
+    MimeBodyPart body = null;
+    if (noAlternatives == 1) {
+      body = toBodyPart(alternatives.get(0), eightBit);
+    }
+    else if (noAlternatives > 1) {
+      final MimeMultipart alternative = new MimeMultipart("alternative");
+      for (int i = 0; i < noAlternatives; ++i) // [RA]
+        alternative.addBodyPart(toBodyPart(alternatives.get(i), eightBit));
+
+      if (noInlines == 0 && noAttachments == 0)
+        return alternative;
+
+      body = toBodyPart(alternative);
+    }
+
+    if (noInlines > 0) {
+      final MimeMultipart related = new MimeMultipart("related");
+      if (body != null)
+        related.addBodyPart(body);
+
+      for (int i = 0; i < noInlines; ++i) // [RA]
+        related.addBodyPart(inlines.get(i).toBodyPart(eightBit));
+
+      if (noAttachments == 0)
+        return related;
+
+      body = toBodyPart(related);
+    }
+
+    final MimeMultipart mixed = new MimeMultipart("mixed");
+    if (body != null)
+      mixed.addBodyPart(body);
+
+    for (int i = 0; i < noAttachments; ++i) // [RA]
+      mixed.addBodyPart(attachments.get(i).toBodyPart(eightBit));
+
+    return mixed;
+  }
+
+  @Override
+  long getWeight() {
+    long weight = 0;
+    for (int i = 0, i$ = alternatives.size(); i < i$; ++i) // [RA]
+      weight += alternatives.get(i).getWeight();
+
+    for (int i = 0, i$ = attachments.size(); i < i$; ++i) { // [RA]
+      final MimeContent content = attachments.get(i).content;
+      if (content != null)
+        weight += content.getWeight();
+    }
+
+    return weight;
+  }
+
+  @Override
+  void setTo(final MimePart part, final boolean eightBit) throws MessagingException {
+    part.setContent(toMultipart(eightBit));
+  }
+
+  @Override
+  public boolean equals(final Object obj) {
+    if (obj == this)
+      return true;
+
+    if (!(obj instanceof MultipartMimeContent))
+      return false;
+
+    final MultipartMimeContent that = (MultipartMimeContent)obj;
+    return alternatives.equals(that.alternatives) && inlines.equals(that.inlines) && attachments.equals(that.attachments);
+  }
+
+  @Override
+  public int hashCode() {
+    int hashCode = 1;
+    hashCode = 31 * hashCode + alternatives.hashCode();
+    hashCode = 31 * hashCode + inlines.hashCode();
+    hashCode = 31 * hashCode + attachments.hashCode();
+    return hashCode;
+  }
+
+  @Override
+  public String toString() {
+    return "Content-Type: " + getType() + "\n" + alternatives.size() + " alternative(s), " + inlines.size() + " inline(s), " + attachments.size() + " attachment(s)";
+  }
+}
@@ -0,0 +1,166 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.mail.MessagingException;
+import javax.naming.NameNotFoundException;
+import javax.naming.NamingException;
+
+/**
+ * A resolver of the mail exchangers (MX) of a domain, with a cache of positive and negative answers. The JNDI DNS provider does
+ * not expose the TTL of records, so answers are cached for a configured time instead.
+ */
+final class MxResolver {
+  /**
+   * Lookup of the raw MX records (i.e. {@code "10 mx.example.com"}) of a domain.
+   */
+  @FunctionalInterface
+  interface Lookup {
+    /**
+     * Returns the raw MX records of the specified domain.
+     *
+     * @param domain The domain.
+     * @return The raw MX records of the specified domain, which is empty if the domain has no MX records.
+     * @throws NamingException If the lookup failed, or {@link NameNotFoundException} if the domain does not exist.
+     */
+    List<String> lookup(String domain) throws NamingException;
+  }
+
+  static final Lookup DNS = (final String domain) -> Dns.lookup(domain, "MX", 5000);
+
+  private static final class Entry {
+    private final List<String> hosts;
+    private final NamingException exception;
+    private final long expiryTime;
+
+    private Entry(final List<String> hosts, final NamingException exception, final long expiryTime) {
+      this.hosts = hosts;
+      this.exception = exception;
+      this.expiryTime = expiryTime;
+    }
+  }
+
+  /**
+   * Returns the host names of the specified raw MX records, in order of preference. Records of equal preference retain their
+   * order, and records that cannot be parsed are skipped.
+   *
+   * @param records The raw MX records (i.e. {@code "10 mx.example.com"}).
+   * @return The host names of the specified raw MX records, in order of preference.
+   */
+  static List<String> parse(final List<String> records) {
+    final int size = records.size();
+    final ArrayList<long[]> order = new ArrayList<>(size);
+    final ArrayList<String> hosts = new ArrayList<>(size);
+    for (int i = 0; i < size; ++i) { // [RA]
+      final String record = records.get(i).trim();
+      final int space = record.indexOf(' ');
+      if (space == -1)
+        continue;
+
+      try {
+        order.add(new long[] {Integer.parseInt(record.substring(0, space)), hosts.size()});
+        hosts.add(record.substring(space + 1).trim());
+      }
+      catch (final NumberFormatException e) {
+      }
+    }
+
+    order.sort((final long[] a, final long[] b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+    final ArrayList<String> sorted = new ArrayList<>(hosts.size());
+    for (int i = 0, i$ = order.size(); i < i$; ++i) { // [RA]
+      final String host = hosts.get((int)order.get(i)[1]);
+      // A single MX of "." (null MX, RFC 7505) means the domain does not accept mail
+      if (!host.isEmpty() && !".".equals(host))
+        sorted.add(host);
+    }
+
+    return sorted;
+  }
+
+  private final ConcurrentHashMap<String,Entry> cache = new ConcurrentHashMap<>();
+  private final Lookup lookup;
+  private final long ttlMs;
+  private final long negativeTtlMs;
+
+  /**
+   * Creates a new {@link MxResolver} with the provided parameters.
+   *
+   * @param lookup The {@link Lookup} of raw MX records.
+   * @param ttlMs The time in milliseconds for which the MX hosts of a domain are cached.
+   * @param negativeTtlMs The time in milliseconds for which the non-existence of a domain is cached.
+   * @throws NullPointerException If {@code lookup} is null.
+   */
+  MxResolver(final Lookup lookup, final long ttlMs, final long negativeTtlMs) {
+    this.lookup = Objects.requireNonNull(lookup, "lookup is null");
+    this.ttlMs = ttlMs;
+    this.negativeTtlMs = negativeTtlMs;
+  }
+
+  /**
+   * Returns the MX hosts of the specified domain in order of preference. A domain without MX records is its own mail exchanger,
+   * as per RFC 5321 section 5.1.
+   *
+   * @param domain The domain.
+   * @return The MX hosts of the specified domain in order of preference.
+   * @throws MessagingException If the domain does not exist, does not accept mail, or the lookup failed.
+   */
+  List<String> resolve(final String domain) throws MessagingException {
+    final String key = domain.toLowerCase(Locale.ROOT);
+    final long now = System.currentTimeMillis();
+    Entry entry = cache.get(key);
+    if (entry == null || now >= entry.expiryTime) {
+      try {
+        final List<String> records = lookup.lookup(key);
+        final List<String> hosts = records.size() == 0 ? Collections.singletonList(key) : Collections.unmodifiableList(parse(records));
+        entry = new Entry(hosts, null, now + ttlMs);
+      }
+      catch (final NameNotFoundException e) {
+        entry = new Entry(null, e, now + negativeTtlMs);
+      }
+      catch (final NamingException e) {
+        // Failures of the lookup itself (i.e. timeouts) are not cached
+        throw new MessagingException("Unable to resolve MX of " + domain, e);
+      }
+
+      cache.put(key, entry);
+    }
+
+    if (entry.exception != null)
+      throw new MessagingException("Domain does not exist: " + domain, entry.exception);
+
+    if (entry.hosts.size() == 0)
+      throw new MessagingException("Domain does not accept mail: " + domain);
+
+    return entry.hosts;
+  }
+
+  /**
+   * Returns the number of domains in the cache, including those that have expired.
+   *
+   * @return The number of domains in the cache.
+   */
+  int size() {
+    return cache.size();
+  }
+}
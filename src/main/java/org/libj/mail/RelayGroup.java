@@ -0,0 +1,490 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import javax.mail.MessagingException;
+import javax.mail.PasswordAuthentication;
+import javax.mail.internet.MimeMessage;
+
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.mail.smtp.SMTPMessage;
+
+/**
+ * A group of {@link Dispatch} endpoints (relays) that share the load of sending messages. Each send is routed to a healthy relay
+ * according to the {@link Strategy} of the group, and is failed over to another relay if it fails due to a
+ * {@linkplain RetryPolicy.Failure#CONNECTION connection} or {@linkplain RetryPolicy.Failure#TRANSIENT transient} failure. A relay
+ * is ejected from the rotation after a {@linkplain Builder#withMaxConsecutiveFailures(int) number of consecutive connection
+ * failures}, and is probed in the background until a connection succeeds again, whereupon it rejoins the rotation.
+ * <p>
+ * A message is prepared once with the {@link DkimSigner} and {@link MimeContentCache} of the first relay that it is sent to, and
+ * the same prepared message is sent to each relay that it is failed over to, unless that relay signs with a different
+ * {@link DkimSigner}. The {@link Message#success()} or {@link Message#failure(MessagingException)} callback of a message is
+ * invoked only on the final outcome of its send across all relays.
+ */
+public final class RelayGroup implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(RelayGroup.class);
+
+  /**
+   * The strategy by which a relay is selected for each send.
+   */
+  public enum Strategy {
+    /** Selects the healthy relay with the fewest outstanding sends, relative to its weight. */
+    LEAST_OUTSTANDING,
+    /** Selects healthy relays in smooth weighted round-robin order, regardless of their outstanding sends. */
+    WEIGHTED
+  }
+
+  /**
+   * Builder of {@link RelayGroup}.
+   */
+  public static class Builder {
+    private final ArrayList<Relay> relays = new ArrayList<>();
+    private Strategy strategy = Strategy.LEAST_OUTSTANDING;
+    private int maxConsecutiveFailures = 3;
+    private long probeIntervalMs = 10000;
+    private Executor executor;
+    private int maxInFlight = -1;
+
+    /**
+     * Add a relay with a weight of 1.
+     *
+     * @param dispatch The {@link Dispatch} of the relay.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code dispatch} is null.
+     */
+    public Builder withRelay(final Dispatch dispatch) {
+      return withRelay(dispatch, 1);
+    }
+
+    /**
+     * Add a relay with the specified weight, which is its share of the load relative to the weights of the other relays.
+     *
+     * @param dispatch The {@link Dispatch} of the relay.
+     * @param weight The weight of the relay.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code dispatch} is null.
+     * @throws IllegalArgumentException If {@code weight} is not positive.
+     */
+    public Builder withRelay(final Dispatch dispatch, final int weight) {
+      if (weight < 1)
+        throw new IllegalArgumentException("weight (" + weight + ") must be positive");
+
+      relays.add(new Relay(Objects.requireNonNull(dispatch, "dispatch is null"), weight));
+      return this;
+    }
+
+    /**
+     * Set the {@link Strategy} by which a relay is selected for each send. Default is {@link Strategy#LEAST_OUTSTANDING}.
+     *
+     * @param strategy The {@link Strategy}.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code strategy} is null.
+     */
+    public Builder withStrategy(final Strategy strategy) {
+      this.strategy = Objects.requireNonNull(strategy, "strategy is null");
+      return this;
+    }
+
+    /**
+     * Set the number of consecutive connection failures after which a relay is ejected from the rotation. Default is 3.
+     *
+     * @param maxConsecutiveFailures The number of consecutive connection failures after which a relay is ejected.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxConsecutiveFailures} is not positive.
+     */
+    public Builder withMaxConsecutiveFailures(final int maxConsecutiveFailures) {
+      if (maxConsecutiveFailures < 1)
+        throw new IllegalArgumentException("maxConsecutiveFailures (" + maxConsecutiveFailures + ") must be positive");
+
+      this.maxConsecutiveFailures = maxConsecutiveFailures;
+      return this;
+    }
+
+    /**
+     * Set the interval in milliseconds at which an ejected relay is probed. Default is 10s.
+     *
+     * @param probeIntervalMs The interval in milliseconds at which an ejected relay is probed.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code probeIntervalMs} is not positive.
+     */
+    public Builder withProbeInterval(final long probeIntervalMs) {
+      if (probeIntervalMs < 1)
+        throw new IllegalArgumentException("probeIntervalMs (" + probeIntervalMs + ") must be positive");
+
+      this.probeIntervalMs = probeIntervalMs;
+      return this;
+    }
+
+    /**
+     * Set the {@link Executor} on which {@link RelayGroup#sendAsync(PasswordAuthentication,Message)} is to send messages, and
+     * relays are probed. Default is the same as that of {@link Dispatch.Builder#withExecutor(Executor)}.
+     *
+     * @param executor The {@link Executor} on which asynchronous sends are to be performed.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withExecutor(final Executor executor) {
+      this.executor = executor;
+      return this;
+    }
+
+    /**
+     * Set the max number of asynchronous sends that may be in flight at any one time across all relays. Default is
+     * {@value Dispatch#DEFAULT_MAX_IN_FLIGHT} per relay.
+     *
+     * @param maxInFlight The max number of asynchronous sends that may be in flight at any one time.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxInFlight} is not positive.
+     */
+    public Builder withMaxInFlight(final int maxInFlight) {
+      if (maxInFlight < 1)
+        throw new IllegalArgumentException("maxInFlight (" + maxInFlight + ") must be positive");
+
+      this.maxInFlight = maxInFlight;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link RelayGroup} with the options specified in this {@link Builder}.
+     *
+     * @return A new {@link RelayGroup} with the options specified in this {@link Builder}.
+     * @throws IllegalStateException If no relays have been specified.
+     */
+    public RelayGroup build() {
+      if (relays.size() == 0)
+        throw new IllegalStateException("No relays have been specified");
+
+      return new RelayGroup(this);
+    }
+  }
+
+  /**
+   * A relay of a {@link RelayGroup}, and its state.
+   */
+  public static final class Relay {
+    private final Dispatch dispatch;
+    private final int weight;
+    // Guarded by the RelayGroup, and volatile for the getters
+    private volatile int outstanding;
+    private int currentWeight;
+    private int consecutiveFailures;
+    private volatile boolean ejected;
+    private volatile long sendCount;
+    private volatile long failureCount;
+
+    private Relay(final Dispatch dispatch, final int weight) {
+      this.dispatch = dispatch;
+      this.weight = weight;
+    }
+
+    /**
+     * Returns the {@link Dispatch} of this relay.
+     *
+     * @return The {@link Dispatch} of this relay.
+     */
+    public Dispatch getDispatch() {
+      return dispatch;
+    }
+
+    /**
+     * Returns the weight of this relay.
+     *
+     * @return The weight of this relay.
+     */
+    public int getWeight() {
+      return weight;
+    }
+
+    /**
+     * Returns the number of sends to this relay that are in progress.
+     *
+     * @return The number of sends to this relay that are in progress.
+     */
+    public int getOutstanding() {
+      return outstanding;
+    }
+
+    /**
+     * Returns whether this relay is in the rotation, i.e. it has not been ejected due to consecutive connection failures.
+     *
+     * @return Whether this relay is in the rotation.
+     */
+    public boolean isHealthy() {
+      return !ejected;
+    }
+
+    /**
+     * Returns the number of sends to this relay, including those that failed.
+     *
+     * @return The number of sends to this relay, including those that failed.
+     */
+    public long getSendCount() {
+      return sendCount;
+    }
+
+    /**
+     * Returns the number of sends to this relay that failed.
+     *
+     * @return The number of sends to this relay that failed.
+     */
+    public long getFailureCount() {
+      return failureCount;
+    }
+
+    @Override
+    public String toString() {
+      return "{relay: " + dispatch + ", weight: " + weight + ", outstanding: " + outstanding + ", healthy: " + !ejected + "}";
+    }
+  }
+
+  private final List<Relay> relays;
+  private final Strategy strategy;
+  private final int maxConsecutiveFailures;
+  private final long probeIntervalMs;
+  private final DispatchQueue queue;
+  private volatile boolean closed;
+
+  private RelayGroup(final Builder builder) {
+    this.relays = Collections.unmodifiableList(new ArrayList<>(builder.relays));
+    this.strategy = builder.strategy;
+    this.maxConsecutiveFailures = builder.maxConsecutiveFailures;
+    this.probeIntervalMs = builder.probeIntervalMs;
+    this.queue = new DispatchQueue(builder.executor, builder.maxInFlight != -1 ? builder.maxInFlight : Dispatch.DEFAULT_MAX_IN_FLIGHT * relays.size());
+  }
+
+  /**
+   * Returns the relays of this group, in the order in which they were specified.
+   *
+   * @return The relays of this group, in the order in which they were specified.
+   */
+  public List<Relay> getRelays() {
+    return relays;
+  }
+
+  /**
+   * Selects the relay for the next attempt of a send, and increments its outstanding sends. Healthy relays are preferred, and an
+   * ejected relay is only selected if no healthy relay remains to be tried, so that a send is not failed without an attempt while
+   * all relays are ejected.
+   *
+   * @param tried The relays that have already been tried for the send.
+   * @return The relay for the next attempt of a send, or {@code null} if all relays have been tried.
+   */
+  synchronized Relay select(final List<Relay> tried) {
+    Relay selected = null;
+    boolean selectedHealthy = false;
+    int totalWeight = 0;
+    for (int i = 0, i$ = relays.size(); i < i$; ++i) { // [RA]
+      final Relay relay = relays.get(i);
+      if (tried.contains(relay))
+        continue;
+
+      final boolean healthy = !relay.ejected;
+      if (selected != null && selectedHealthy && !healthy)
+        continue;
+
+      if (strategy == Strategy.WEIGHTED) {
+        if (healthy) {
+          relay.currentWeight += relay.weight;
+          totalWeight += relay.weight;
+        }
+
+        if (selected == null || healthy && !selectedHealthy || relay.currentWeight > selected.currentWeight) {
+          selected = relay;
+          selectedHealthy = healthy;
+        }
+      }
+      else if (selected == null || healthy && !selectedHealthy || (long)relay.outstanding * selected.weight < (long)selected.outstanding * relay.weight) {
+        selected = relay;
+        selectedHealthy = healthy;
+      }
+    }
+
+    if (selected != null) {
+      if (strategy == Strategy.WEIGHTED && selectedHealthy)
+        selected.currentWeight -= totalWeight;
+
+      ++selected.outstanding;
+      ++selected.sendCount;
+    }
+
+    return selected;
+  }
+
+  void succeeded(final Relay relay) {
+    synchronized (this) {
+      --relay.outstanding;
+      relay.consecutiveFailures = 0;
+    }
+  }
+
+  private void failed(final Relay relay, final MessagingException e) {
+    final boolean eject;
+    synchronized (this) {
+      --relay.outstanding;
+      ++relay.failureCount;
+      eject = RetryPolicy.classify(e) == RetryPolicy.Failure.CONNECTION && ++relay.consecutiveFailures >= maxConsecutiveFailures && !relay.ejected;
+      if (eject)
+        relay.ejected = true;
+    }
+
+    if (eject) {
+      logger.warn("Ejecting relay " + relay.dispatch + " after " + maxConsecutiveFailures + " consecutive connection failures: " + e.getMessage());
+      scheduleProbe(relay);
+    }
+  }
+
+  private void scheduleProbe(final Relay relay) {
+    if (!closed)
+      Dispatch.timer.schedule(() -> queue.submit(() -> probe(relay)), probeIntervalMs);
+  }
+
+  private Void probe(final Relay relay) {
+    try {
+      relay.dispatch.probe();
+      synchronized (this) {
+        relay.ejected = false;
+        relay.consecutiveFailures = 0;
+      }
+
+      if (logger.isInfoEnabled()) { logger.info("Relay " + relay.dispatch + " has recovered, and rejoins the rotation"); }
+    }
+    catch (final MessagingException e) {
+      if (logger.isDebugEnabled()) { logger.debug("Probe of relay " + relay.dispatch + " failed: " + e.getMessage()); }
+      scheduleProbe(relay);
+    }
+
+    return null;
+  }
+
+  /**
+   * Send {@code message} with the provided {@link PasswordAuthentication} via a relay of this group, failing over to other relays
+   * as necessary. The message is sent directly on the connections of each relay, so the {@link DedupWindow} and
+   * {@link RetryPolicy} of each relay are bypassed.
+   *
+   * @param authentication The {@link PasswordAuthentication} for the transport servers (can be null).
+   * @param message The {@linkplain Message message} to send.
+   * @return The {@link MimeMessage#getMessageID() messageID} of the sent message.
+   * @throws MessagingException If the message could not be sent via any relay, in which case the exception is that of the last
+   *           attempt.
+   * @throws NullPointerException If {@code message} is null.
+   */
+  public String send(final PasswordAuthentication authentication, final Message message) throws MessagingException {
+    final String messageId;
+    try {
+      messageId = transmit(authentication, message);
+    }
+    catch (final MessagingException e) {
+      message.failure(e);
+      throw e;
+    }
+
+    message.success();
+    return messageId;
+  }
+
+  private String transmit(final PasswordAuthentication authentication, final Message message) throws MessagingException {
+    Objects.requireNonNull(message, "message is null");
+    final ArrayList<Relay> tried = new ArrayList<>(relays.size());
+    SMTPMessage mimeMessage = null;
+    DkimSigner signer = null;
+    MessagingException exception = null;
+    for (Relay relay; (relay = select(tried)) != null;) { // [X]
+      tried.add(relay);
+      // The message may fail over to a relay that does not support 8BITMIME, so it is not prepared with 8bit parts. It is prepared
+      // again only if it fails over to a relay that signs with a different DkimSigner.
+      if (mimeMessage == null || relay.dispatch.getDkim() != signer) {
+        try {
+          mimeMessage = relay.dispatch.prepare(message, false);
+        }
+        catch (final MessagingException | RuntimeException e) {
+          // The message cannot be rendered, which is not a failure of the relay
+          synchronized (this) {
+            --relay.outstanding;
+          }
+
+          throw e;
+        }
+
+        signer = relay.dispatch.getDkim();
+      }
+
+      try {
+        final String messageId = relay.dispatch.send(authentication, mimeMessage, mimeMessage.getAllRecipients());
+        succeeded(relay);
+        return messageId;
+      }
+      catch (final MessagingException e) {
+        failed(relay, e);
+        exception = e;
+        if (RetryPolicy.classify(e) == RetryPolicy.Failure.PERMANENT)
+          throw e;
+
+        if (logger.isDebugEnabled()) { logger.debug("Send via relay " + relay.dispatch + " failed, failing over: " + e.getMessage()); }
+      }
+    }
+
+    throw exception;
+  }
+
+  /**
+   * Asynchronously send {@code message} with the provided {@link PasswordAuthentication} via a relay of this group, failing over to
+   * other relays as necessary. The {@link Message#success()} or {@link Message#failure(MessagingException)} callback of
+   * {@code message} is invoked before the returned {@link CompletableFuture} is completed.
+   *
+   * @param authentication The {@link PasswordAuthentication} for the transport servers (can be null).
+   * @param message The {@linkplain Message message} to send.
+   * @return A {@link CompletableFuture} that is completed with the {@link MimeMessage#getMessageID() messageID} of the sent
+   *         message, or exceptionally with the {@link MessagingException} of the last attempt if it could not be sent via any relay.
+   * @throws NullPointerException If {@code message} is null.
+   */
+  public CompletableFuture<String> sendAsync(final PasswordAuthentication authentication, final Message message) {
+    Objects.requireNonNull(message, "message is null");
+    return queue.submit(message.getLane(), () -> send(authentication, message)).whenComplete((final String messageId, final Throwable t) -> {
+      // If the Executor rejects the send (i.e. after close()), send() is not run to report its failure
+      if (t instanceof RejectedExecutionException)
+        message.failure(Dispatch.toMessagingException(t));
+    });
+  }
+
+  /**
+   * Stops the probing of ejected relays, shuts down the default {@link Executor} of asynchronous sends, if one was created, and
+   * closes the {@link Dispatch} of each relay.
+   */
+  @Override
+  public void close() {
+    closed = true;
+    queue.close();
+    for (int i = 0, i$ = relays.size(); i < i$; ++i) // [RA]
+      relays.get(i).dispatch.close();
+  }
+
+  @Override
+  public String toString() {
+    return relays.toString();
+  }
+}
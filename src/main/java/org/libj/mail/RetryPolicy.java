@@ -0,0 +1,323 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.mail.MessagingException;
+import javax.naming.CommunicationException;
+import javax.naming.ServiceUnavailableException;
+
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+import com.sun.mail.smtp.SMTPSenderFailedException;
+import com.sun.mail.util.MailConnectException;
+
+/**
+ * The policy by which a {@link Mail.Dispatch} retries a send that failed due to a condition that may not persist. Failures are
+ * {@linkplain #classify(MessagingException) classified} as {@linkplain Failure#PERMANENT permanent}, {@linkplain Failure#TRANSIENT
+ * transient}, or {@linkplain Failure#CONNECTION connection} failures, and only the latter two are retried. Retries are delayed with
+ * jittered exponential backoff, and are limited by a max number of attempts and a deadline.
+ *
+ * @see Mail.Dispatch.Builder#withRetryPolicy(RetryPolicy)
+ */
+public final class RetryPolicy {
+  /**
+   * The classification of the failure of a send.
+   */
+  public enum Failure {
+    /** The SMTP server rejected the message with a {@code 5xx} reply, or the message is invalid. Not retried. */
+    PERMANENT,
+    /** The SMTP server rejected the message with a {@code 4xx} reply. */
+    TRANSIENT,
+    /** The connection to the SMTP server could not be established, or was lost. */
+    CONNECTION
+  }
+
+  private static final String GREETING_RESPONSE = ", response: ";
+
+  /**
+   * Returns the SMTP reply code of the first exception in the chain of {@linkplain MessagingException#getNextException() next
+   * exceptions} of the specified {@link MessagingException} that carries one, or {@code -1} if none does. The reply code of a
+   * rejected greeting (i.e. {@code 421} on connect), which {@link com.sun.mail.smtp.SMTPTransport} reports only in the message of
+   * the exception, is recognized as well.
+   *
+   * @param e The {@link MessagingException}.
+   * @return The SMTP reply code of the specified {@link MessagingException}, or {@code -1} if it does not carry one.
+   */
+  static int getReturnCode(final MessagingException e) {
+    for (Exception next = e; next != null; next = next instanceof MessagingException ? ((MessagingException)next).getNextException() : null) { // [X]
+      if (next instanceof SMTPSendFailedException)
+        return ((SMTPSendFailedException)next).getReturnCode();
+
+      if (next instanceof SMTPAddressFailedException)
+        return ((SMTPAddressFailedException)next).getReturnCode();
+
+      if (next instanceof SMTPSenderFailedException)
+        return ((SMTPSenderFailedException)next).getReturnCode();
+
+      final String message = next.getMessage();
+      if (next.getClass() == MessagingException.class && message != null && message.startsWith("Got bad greeting")) {
+        final int index = message.lastIndexOf(GREETING_RESPONSE);
+        if (index != -1) {
+          try {
+            return Integer.parseInt(message.substring(index + GREETING_RESPONSE.length()).trim());
+          }
+          catch (final NumberFormatException ignored) {
+          }
+        }
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Returns the {@link Failure} classification of the specified {@link MessagingException}. The reply code of the first SMTP
+   * exception in the chain of {@linkplain MessagingException#getNextException() next exceptions} determines whether the failure is
+   * {@link Failure#TRANSIENT} ({@code 4xx}) or {@link Failure#PERMANENT} ({@code 5xx}). Otherwise, the failure is
+   * {@link Failure#CONNECTION} if the chain contains a {@link MailConnectException}, an {@link IOException}, a DNS
+   * {@link CommunicationException} or {@link ServiceUnavailableException}, or an SMTP exception without a reply code (i.e. the
+   * server closed the connection before it replied, which {@link com.sun.mail.smtp.SMTPTransport} reports as {@code [EOF]}), and
+   * {@link Failure#PERMANENT} if not.
+   *
+   * @param e The {@link MessagingException}.
+   * @return The {@link Failure} classification of the specified {@link MessagingException}.
+   * @throws NullPointerException If {@code e} is null.
+   */
+  public static Failure classify(final MessagingException e) {
+    final int code = getReturnCode(e);
+    if (code / 100 == 4)
+      return Failure.TRANSIENT;
+
+    if (code / 100 == 5)
+      return Failure.PERMANENT;
+
+    for (Exception next = e; next != null; next = next instanceof MessagingException ? ((MessagingException)next).getNextException() : null) // [X]
+      if (next instanceof MailConnectException || next instanceof IOException || next instanceof CommunicationException || next instanceof ServiceUnavailableException || code == -1 && (next instanceof SMTPSendFailedException || next instanceof SMTPAddressFailedException || next instanceof SMTPSenderFailedException))
+        return Failure.CONNECTION;
+
+    return Failure.PERMANENT;
+  }
+
+  /**
+   * Builder of {@link RetryPolicy}.
+   */
+  public static class Builder {
+    private int maxAttempts = 5;
+    private long initialDelayMs = 1000;
+    private long maxDelayMs = 300000;
+    private double multiplier = 2;
+    private double jitter = 0.5;
+    private long deadlineMs = -1;
+    private boolean retryConnection = true;
+
+    /**
+     * Set the max number of attempts of a send, including the first. Default is 5.
+     *
+     * @param maxAttempts The max number of attempts of a send.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxAttempts} is not positive.
+     */
+    public Builder withMaxAttempts(final int maxAttempts) {
+      if (maxAttempts < 1)
+        throw new IllegalArgumentException("maxAttempts (" + maxAttempts + ") must be positive");
+
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * Set the delay in milliseconds before the first retry. Default is 1s.
+     *
+     * @param initialDelayMs The delay in milliseconds before the first retry.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code initialDelayMs} is negative.
+     */
+    public Builder withInitialDelay(final long initialDelayMs) {
+      if (initialDelayMs < 0)
+        throw new IllegalArgumentException("initialDelayMs (" + initialDelayMs + ") is negative");
+
+      this.initialDelayMs = initialDelayMs;
+      return this;
+    }
+
+    /**
+     * Set the max delay in milliseconds between retries. Default is 5m.
+     *
+     * @param maxDelayMs The max delay in milliseconds between retries.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxDelayMs} is negative.
+     */
+    public Builder withMaxDelay(final long maxDelayMs) {
+      if (maxDelayMs < 0)
+        throw new IllegalArgumentException("maxDelayMs (" + maxDelayMs + ") is negative");
+
+      this.maxDelayMs = maxDelayMs;
+      return this;
+    }
+
+    /**
+     * Set the factor by which the delay is multiplied after each retry. Default is 2.
+     *
+     * @param multiplier The factor by which the delay is multiplied after each retry.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code multiplier} is less than 1.
+     */
+    public Builder withMultiplier(final double multiplier) {
+      if (!(multiplier >= 1))
+        throw new IllegalArgumentException("multiplier (" + multiplier + ") must be at least 1");
+
+      this.multiplier = multiplier;
+      return this;
+    }
+
+    /**
+     * Set the fraction of each delay that is randomized, so that sends that fail together do not retry together. A delay
+     * {@code d} with jitter {@code j} is chosen uniformly from {@code [d * (1 - j), d]}. Default is 0.5.
+     *
+     * @param jitter The fraction of each delay that is randomized, in the range of [0, 1].
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code jitter} is outside the range of [0, 1].
+     */
+    public Builder withJitter(final double jitter) {
+      if (!(0 <= jitter && jitter <= 1))
+        throw new IllegalArgumentException("jitter (" + jitter + ") is outside the range of [0, 1]");
+
+      this.jitter = jitter;
+      return this;
+    }
+
+    /**
+     * Set the time in milliseconds from the first attempt of a send after which it is no longer retried. Default is no deadline.
+     *
+     * @param deadlineMs The time in milliseconds from the first attempt of a send after which it is no longer retried, or
+     *          {@code -1} for no deadline.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code deadlineMs} is less than {@code -1}.
+     */
+    public Builder withDeadline(final long deadlineMs) {
+      if (deadlineMs < -1)
+        throw new IllegalArgumentException("deadlineMs (" + deadlineMs + ") must be -1 or non-negative");
+
+      this.deadlineMs = deadlineMs;
+      return this;
+    }
+
+    /**
+     * Set whether {@linkplain Failure#CONNECTION connection} failures are retried. Default is {@code true}.
+     *
+     * @param enabled Whether connection failures are retried.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withRetryOnConnectionFailure(final boolean enabled) {
+      this.retryConnection = enabled;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link RetryPolicy} with the options specified in this {@link Builder}.
+     *
+     * @return A new {@link RetryPolicy} with the options specified in this {@link Builder}.
+     */
+    public RetryPolicy build() {
+      return new RetryPolicy(this);
+    }
+  }
+
+  private final int maxAttempts;
+  private final long initialDelayMs;
+  private final long maxDelayMs;
+  private final double multiplier;
+  private final double jitter;
+  private final long deadlineMs;
+  private final boolean retryConnection;
+
+  private RetryPolicy(final Builder builder) {
+    this.maxAttempts = builder.maxAttempts;
+    this.initialDelayMs = builder.initialDelayMs;
+    this.maxDelayMs = builder.maxDelayMs;
+    this.multiplier = builder.multiplier;
+    this.jitter = builder.jitter;
+    this.deadlineMs = builder.deadlineMs;
+    this.retryConnection = builder.retryConnection;
+  }
+
+  /**
+   * Returns the max number of attempts of a send, including the first.
+   *
+   * @return The max number of attempts of a send, including the first.
+   */
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  /**
+   * Returns the time in milliseconds from the first attempt of a send after which it is no longer retried, or {@code -1} for no
+   * deadline.
+   *
+   * @return The time in milliseconds from the first attempt of a send after which it is no longer retried, or {@code -1} for no
+   *         deadline.
+   */
+  public long getDeadline() {
+    return deadlineMs;
+  }
+
+  /**
+   * Returns whether a send that failed with the specified {@link Failure} is to be retried.
+   *
+   * @param failure The {@link Failure}.
+   * @return Whether a send that failed with the specified {@link Failure} is to be retried.
+   */
+  public boolean isRetryable(final Failure failure) {
+    return failure == Failure.TRANSIENT || failure == Failure.CONNECTION && retryConnection;
+  }
+
+  /**
+   * Returns the jittered delay in milliseconds before the specified retry.
+   *
+   * @param retry The number of the retry, starting at 1 for the retry after the first attempt.
+   * @return The jittered delay in milliseconds before the specified retry.
+   */
+  public long getDelay(final int retry) {
+    final double delay = Math.min(maxDelayMs, initialDelayMs * Math.pow(multiplier, retry - 1));
+    return (long)(delay * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+  }
+
+  /**
+   * Returns the delay in milliseconds before the next attempt of a send that failed with the specified {@link MessagingException}
+   * on the specified attempt, or {@code -1} if it is not to be retried.
+   *
+   * @param e The {@link MessagingException} of the failed attempt.
+   * @param attempt The number of the failed attempt, starting at 1.
+   * @param elapsedMs The time in milliseconds since the first attempt.
+   * @return The delay in milliseconds before the next attempt, or {@code -1} if the send is not to be retried.
+   */
+  long nextDelay(final MessagingException e, final int attempt, final long elapsedMs) {
+    if (attempt >= maxAttempts || !isRetryable(classify(e)))
+      return -1;
+
+    final long delay = getDelay(attempt);
+    return deadlineMs == -1 || elapsedMs + delay < deadlineMs ? delay : -1;
+  }
+
+  @Override
+  public String toString() {
+    return "{maxAttempts: " + maxAttempts + ", initialDelay: " + initialDelayMs + ", maxDelay: " + maxDelayMs + ", multiplier: " + multiplier + ", jitter: " + jitter + ", deadline: " + deadlineMs + "}";
+  }
+}
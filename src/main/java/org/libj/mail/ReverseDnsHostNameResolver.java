@@ -0,0 +1,92 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.URL;
+import java.net.URLConnection;
+import java.util.List;
+
+import javax.naming.NamingException;
+
+/**
+ * A {@link HostNameResolver} that does a reverse DNS lookup to find the host name associated with the external IP address of this
+ * host. Gets results more often than {@link InetAddress#getCanonicalHostName()}, but also tries the Inet implementation if
+ * reverse DNS does not work. Based on code found at http://www.codingforums.com/showpost.php?p=892349&postcount=5
+ */
+final class ReverseDnsHostNameResolver implements HostNameResolver {
+  private final int timeoutMs;
+
+  /**
+   * Creates a new {@link ReverseDnsHostNameResolver} with the specified timeout.
+   *
+   * @param timeoutMs The timeout in milliseconds applied to the connect and read of the external IP address request, and to the
+   *          DNS query.
+   */
+  ReverseDnsHostNameResolver(final int timeoutMs) {
+    this.timeoutMs = timeoutMs;
+  }
+
+  private String getExternalIP() throws IOException {
+    final URLConnection connection = new URL("http://checkip.amazonaws.com").openConnection();
+    connection.setConnectTimeout(timeoutMs);
+    connection.setReadTimeout(timeoutMs);
+    try (final BufferedReader in = new BufferedReader(new InputStreamReader(connection.getInputStream()))) {
+      return in.readLine();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @return The host name, if one could be found, or the IP address.
+   */
+  @Override
+  public String getHostName() throws IOException {
+    final String ip = getExternalIP();
+    if (ip == null)
+      throw new IOException("Unable to determine external IP address");
+
+    final String[] parts = ip.split("\\.");
+    if (parts.length != 4)
+      throw new IOException(ip + " does not match IPv4 format");
+
+    for (final String part : parts) { // [A]
+      try {
+        final int x = Integer.parseInt(part);
+        if (x < 0 || 255 < x)
+          throw new IOException(ip + " does not match IPv4 format");
+      }
+      catch (final NumberFormatException e) {
+        throw new IOException(ip + " does not match IPv4 format");
+      }
+    }
+
+    try {
+      final List<String> hostNames = Dns.lookup(parts[3] + "." + parts[2] + "." + parts[1] + "." + parts[0] + ".in-addr.arpa", "PTR", timeoutMs);
+      if (hostNames.size() > 0)
+        return hostNames.get(0);
+    }
+    catch (final NamingException e) {
+    }
+
+    return InetAddress.getByName(ip).getCanonicalHostName();
+  }
+}
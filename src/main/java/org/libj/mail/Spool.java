@@ -0,0 +1,578 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.PasswordAuthentication;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.sun.mail.smtp.SMTPMessage;
+
+/**
+ * A durable outbound spool in front of a {@link Dispatch}. {@linkplain #enqueue(Message) Enqueued} messages are rendered to MIME
+ * and appended to a segmented, memory-mapped log on disk, from which drainer threads deliver them via the {@link Dispatch}.
+ * <ul>
+ * <li>Enqueue is an append to a memory-mapped segment, and does not wait for the SMTP server.</li>
+ * <li>Segments are forced to disk in batches (group commit) every {@linkplain Builder#withSyncInterval(long) sync interval}, or on
+ * {@link #sync()}.</li>
+ * <li>A delivered entry is acknowledged by flipping its status in place, and a segment is deleted once all of its entries are
+ * acknowledged.</li>
+ * <li>On {@linkplain Builder#build() open}, entries of existing segments that were not acknowledged are replayed.</li>
+ * <li>An entry whose delivery fails transiently is retried after the {@linkplain Builder#withRetryInterval(long) retry interval},
+ * without limit unless a {@linkplain Builder#withMaxAttempts(int) max number of attempts} is set.</li>
+ * </ul>
+ * Entries are delivered at least once: an entry whose acknowledgement is lost in a crash is delivered again on recovery.
+ * Messages that are recovered from disk are delivered without their {@link Message#success()} and
+ * {@link Message#failure(MessagingException)} callbacks.
+ */
+public final class Spool implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(Spool.class);
+
+  private static final String SUFFIX = ".spool";
+  private static final int HEADER_SIZE = 9;
+  private static final byte PENDING = 0;
+  private static final byte ACKED = 1;
+
+  /**
+   * Builder of {@link Spool}.
+   */
+  public static class Builder {
+    private final Dispatch dispatch;
+    private final Path directory;
+    private PasswordAuthentication authentication;
+    private int segmentSize = 16 * 1024 * 1024;
+    private long syncIntervalMs = 10;
+    private long retryIntervalMs = 5000;
+    private int maxAttempts = Integer.MAX_VALUE;
+    private int drainers = 1;
+
+    /**
+     * Creates a new {@link Builder} for a {@link Spool} in the specified {@code directory} that delivers via the specified
+     * {@link Dispatch}.
+     *
+     * @param dispatch The {@link Dispatch} via which spooled messages are delivered.
+     * @param directory The directory of the segment files.
+     * @throws NullPointerException If {@code dispatch} or {@code directory} is null.
+     */
+    public Builder(final Dispatch dispatch, final Path directory) {
+      this.dispatch = Objects.requireNonNull(dispatch, "dispatch is null");
+      this.directory = Objects.requireNonNull(directory, "directory is null");
+    }
+
+    /**
+     * Set the {@link PasswordAuthentication} with which spooled messages are delivered. Credentials are not written to disk.
+     *
+     * @param authentication The {@link PasswordAuthentication} for the transport server (can be null).
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withAuthentication(final PasswordAuthentication authentication) {
+      this.authentication = authentication;
+      return this;
+    }
+
+    /**
+     * Set the size in bytes of each segment file. An entry larger than this size is written to a segment of its own. Default is
+     * 16MB.
+     *
+     * @param segmentSize The size in bytes of each segment file.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code segmentSize} is not positive.
+     */
+    public Builder withSegmentSize(final int segmentSize) {
+      if (segmentSize < 1)
+        throw new IllegalArgumentException("segmentSize (" + segmentSize + ") must be positive");
+
+      this.segmentSize = segmentSize;
+      return this;
+    }
+
+    /**
+     * Set the interval in milliseconds at which appended entries are forced to disk. An entry is durable at most this long after
+     * it is enqueued. Default is 10ms.
+     *
+     * @param syncIntervalMs The interval in milliseconds at which appended entries are forced to disk.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code syncIntervalMs} is not positive.
+     */
+    public Builder withSyncInterval(final long syncIntervalMs) {
+      if (syncIntervalMs < 1)
+        throw new IllegalArgumentException("syncIntervalMs (" + syncIntervalMs + ") must be positive");
+
+      this.syncIntervalMs = syncIntervalMs;
+      return this;
+    }
+
+    /**
+     * Set the time in milliseconds to wait before an entry whose delivery failed due to a transient condition (i.e. the SMTP
+     * server is unavailable) is delivered again. As a transient failure signals that the SMTP server is unavailable, all drainers
+     * wait for this interval, not only the one whose delivery failed. Default is 5s.
+     *
+     * @param retryIntervalMs The time in milliseconds to wait before a failed delivery is retried.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code retryIntervalMs} is not positive.
+     * @see RetryPolicy#classify(MessagingException)
+     */
+    public Builder withRetryInterval(final long retryIntervalMs) {
+      if (retryIntervalMs < 1)
+        throw new IllegalArgumentException("retryIntervalMs (" + retryIntervalMs + ") must be positive");
+
+      this.retryIntervalMs = retryIntervalMs;
+      return this;
+    }
+
+    /**
+     * Set the max number of attempts to deliver an entry, including the first, after which it is acknowledged and its
+     * {@link Message#failure(MessagingException)} callback is invoked with the last transient failure. Attempts are counted from
+     * when the spool is opened, as they are not written to disk. Default is unlimited.
+     *
+     * @param maxAttempts The max number of attempts to deliver an entry.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxAttempts} is not positive.
+     */
+    public Builder withMaxAttempts(final int maxAttempts) {
+      if (maxAttempts < 1)
+        throw new IllegalArgumentException("maxAttempts (" + maxAttempts + ") must be positive");
+
+      this.maxAttempts = maxAttempts;
+      return this;
+    }
+
+    /**
+     * Set the number of threads that deliver spooled messages. Default is 1.
+     *
+     * @param drainers The number of threads that deliver spooled messages.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code drainers} is not positive.
+     */
+    public Builder withDrainers(final int drainers) {
+      if (drainers < 1)
+        throw new IllegalArgumentException("drainers (" + drainers + ") must be positive");
+
+      this.drainers = drainers;
+      return this;
+    }
+
+    /**
+     * Returns a new {@link Spool} with the options specified in this {@link Builder}, replaying the entries of existing segments
+     * in the directory that were not acknowledged.
+     *
+     * @return A new {@link Spool} with the options specified in this {@link Builder}.
+     * @throws IOException If an I/O error has occurred.
+     */
+    public Spool build() throws IOException {
+      return new Spool(this);
+    }
+  }
+
+  private static final class Segment {
+    private final long sequence;
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private int position;
+    private int live;
+    private boolean sealed;
+    private boolean dirty;
+
+    private Segment(final long sequence, final Path path, final int size) throws IOException {
+      this.sequence = sequence;
+      this.path = path;
+      this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, Math.max(size, channel.size()));
+    }
+
+    private void close() {
+      try {
+        channel.close();
+      }
+      catch (final IOException e) {
+        if (logger.isDebugEnabled()) { logger.debug("Error closing " + path, e); }
+      }
+    }
+  }
+
+  private static final class Entry {
+    private final Segment segment;
+    private final int offset;
+    private final int length;
+    private final Message message;
+    private int attempts;
+
+    private Entry(final Segment segment, final int offset, final int length, final Message message) {
+      this.segment = segment;
+      this.offset = offset;
+      this.length = length;
+      this.message = message;
+    }
+  }
+
+  private static int crc(final ByteBuffer buffer, final int offset, final int length) {
+    final CRC32 crc = new CRC32();
+    final ByteBuffer slice = buffer.duplicate();
+    slice.limit(offset + length).position(offset);
+    crc.update(slice);
+    return (int)crc.getValue();
+  }
+
+  private final Dispatch dispatch;
+  private final Path directory;
+  private final PasswordAuthentication authentication;
+  private final int segmentSize;
+  private final long syncIntervalMs;
+  private final long retryIntervalMs;
+  private final int maxAttempts;
+
+  private final ArrayList<Segment> segments = new ArrayList<>();
+  private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+  private final ArrayList<Thread> threads = new ArrayList<>();
+  private Segment active;
+  private long nextSequence;
+  private long retryTime;
+  private volatile boolean closed;
+
+  private Spool(final Builder builder) throws IOException {
+    this.dispatch = builder.dispatch;
+    this.directory = Files.createDirectories(builder.directory);
+    this.authentication = builder.authentication;
+    this.segmentSize = builder.segmentSize;
+    this.syncIntervalMs = builder.syncIntervalMs;
+    this.retryIntervalMs = builder.retryIntervalMs;
+    this.maxAttempts = builder.maxAttempts;
+
+    recover();
+
+    final Thread syncer = new Thread(this::syncLoop, "libj-mail-spool-sync");
+    threads.add(syncer);
+    for (int i = 0; i < builder.drainers; ++i) // [N]
+      threads.add(new Thread(this::drainLoop, "libj-mail-spool-drain-" + i));
+
+    for (int i = 0, i$ = threads.size(); i < i$; ++i) { // [RA]
+      final Thread thread = threads.get(i);
+      thread.setDaemon(true);
+      thread.start();
+    }
+  }
+
+  private void recover() throws IOException {
+    final ArrayList<Path> paths = new ArrayList<>();
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+      for (final Path path : stream) // [I]
+        paths.add(path);
+    }
+
+    Collections.sort(paths);
+    for (int i = 0, i$ = paths.size(); i < i$; ++i) { // [RA]
+      final Path path = paths.get(i);
+      final String fileName = path.getFileName().toString();
+      final long sequence;
+      try {
+        sequence = Long.parseLong(fileName.substring(0, fileName.length() - SUFFIX.length()));
+      }
+      catch (final NumberFormatException e) {
+        continue;
+      }
+
+      nextSequence = Math.max(nextSequence, sequence + 1);
+      final Segment segment = new Segment(sequence, path, 0);
+      final MappedByteBuffer buffer = segment.buffer;
+      final int capacity = buffer.capacity();
+      int offset = 0;
+      while (offset + HEADER_SIZE <= capacity) {
+        final int length = buffer.getInt(offset);
+        if (length <= 0 || offset + HEADER_SIZE + length > capacity || buffer.getInt(offset + 4) != crc(buffer, offset + HEADER_SIZE, length))
+          break;
+
+        if (buffer.get(offset + 8) == PENDING) {
+          ++segment.live;
+          pending.add(new Entry(segment, offset, length, null));
+        }
+
+        offset += HEADER_SIZE + length;
+      }
+
+      // Recovered segments are not appended to, because the space following the last valid entry may be torn
+      segment.position = offset;
+      segment.sealed = true;
+      if (segment.live == 0) {
+        segment.close();
+        Files.delete(path);
+      }
+      else {
+        segments.add(segment);
+        if (logger.isInfoEnabled()) { logger.info("Recovered " + segment.live + " undelivered entries from " + path); }
+      }
+    }
+  }
+
+  private Segment newSegment(final int size) throws IOException {
+    final long sequence = nextSequence++;
+    final Segment segment = new Segment(sequence, directory.resolve(String.format("%020d", sequence) + SUFFIX), size);
+    segments.add(segment);
+    return segment;
+  }
+
+  private static byte[] serialize(final MimeMessage mimeMessage, final String envelopeFrom, final Address[] recipients) throws IOException, MessagingException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(4096);
+    final DataOutputStream dos = new DataOutputStream(out);
+    dos.writeUTF(envelopeFrom);
+    dos.writeInt(recipients.length);
+    for (final Address recipient : recipients) // [A]
+      dos.writeUTF(((InternetAddress)recipient).getAddress());
+
+    mimeMessage.writeTo(dos);
+    dos.flush();
+    return out.toByteArray();
+  }
+
+  /**
+   * Appends the specified {@link Message} to this spool, from which it is delivered asynchronously. The message becomes durable
+   * within the {@linkplain Builder#withSyncInterval(long) sync interval}, or when {@link #sync()} returns. The
+   * {@link Message#success()} or {@link Message#failure(MessagingException)} callback of {@code message} is invoked when it is
+   * delivered, or when its delivery fails permanently.
+   *
+   * @param message The {@link Message} to enqueue.
+   * @throws IOException If an I/O error has occurred.
+   * @throws MessagingException If {@code message} cannot be rendered to MIME.
+   * @throws NullPointerException If {@code message} is null.
+   * @throws IllegalStateException If this spool is closed.
+   */
+  public void enqueue(final Message message) throws IOException, MessagingException {
+    final SMTPMessage mimeMessage = dispatch.prepare(Objects.requireNonNull(message, "message is null"));
+    final byte[] payload = serialize(mimeMessage, mimeMessage.getEnvelopeFrom(), mimeMessage.getAllRecipients());
+    final int size = HEADER_SIZE + payload.length;
+    synchronized (this) {
+      if (closed)
+        throw new IllegalStateException("Spool is closed");
+
+      if (active == null || active.position + size > active.buffer.capacity()) {
+        if (active != null) {
+          active.sealed = true;
+          deleteIfDelivered(active);
+        }
+
+        active = newSegment(Math.max(segmentSize, size));
+      }
+
+      final MappedByteBuffer buffer = active.buffer;
+      final int offset = active.position;
+      // The length is written last, as it marks the entry as present
+      buffer.position(offset + HEADER_SIZE);
+      buffer.put(payload);
+      buffer.put(offset + 8, PENDING);
+      buffer.putInt(offset + 4, crc(buffer, offset + HEADER_SIZE, payload.length));
+      buffer.putInt(offset, payload.length);
+      active.position += size;
+      ++active.live;
+      active.dirty = true;
+      pending.add(new Entry(active, offset, payload.length, message));
+      notifyAll();
+    }
+  }
+
+  /**
+   * Forces all entries appended to this spool to disk.
+   */
+  public void sync() {
+    final ArrayList<Segment> dirty = new ArrayList<>();
+    synchronized (this) {
+      for (int i = 0, i$ = segments.size(); i < i$; ++i) { // [RA]
+        final Segment segment = segments.get(i);
+        if (segment.dirty) {
+          segment.dirty = false;
+          dirty.add(segment);
+        }
+      }
+    }
+
+    for (int i = 0, i$ = dirty.size(); i < i$; ++i) // [RA]
+      dirty.get(i).buffer.force();
+  }
+
+  /**
+   * Returns the number of entries that have not yet been delivered.
+   *
+   * @return The number of entries that have not yet been delivered.
+   */
+  public synchronized int getPendingCount() {
+    int count = 0;
+    for (int i = 0, i$ = segments.size(); i < i$; ++i) // [RA]
+      count += segments.get(i).live;
+
+    return count;
+  }
+
+  private void deleteIfDelivered(final Segment segment) {
+    if (!segment.sealed || segment.live > 0)
+      return;
+
+    segments.remove(segment);
+    segment.close();
+    try {
+      Files.deleteIfExists(segment.path);
+    }
+    catch (final IOException e) {
+      logger.warn("Unable to delete " + segment.path, e);
+    }
+  }
+
+  private synchronized void acknowledge(final Entry entry) {
+    final Segment segment = entry.segment;
+    segment.buffer.put(entry.offset + 8, ACKED);
+    segment.dirty = true;
+    --segment.live;
+    deleteIfDelivered(segment);
+  }
+
+  private synchronized Entry take() throws InterruptedException {
+    while (!closed) {
+      final long delay = retryTime - System.currentTimeMillis();
+      if (delay > 0) {
+        wait(delay);
+      }
+      else {
+        final Entry entry = pending.poll();
+        if (entry != null)
+          return entry;
+
+        wait();
+      }
+    }
+
+    return null;
+  }
+
+  private synchronized void retry(final Entry entry) {
+    pending.addFirst(entry);
+    retryTime = System.currentTimeMillis() + retryIntervalMs;
+    notifyAll();
+  }
+
+  private void deliver(final Entry entry) {
+    final ByteBuffer buffer = entry.segment.buffer.duplicate();
+    buffer.limit(entry.offset + HEADER_SIZE + entry.length).position(entry.offset + HEADER_SIZE);
+    try {
+      final DataInputStream in = new DataInputStream(new ByteBufferInputStream(buffer));
+      final String envelopeFrom = in.readUTF();
+      final Address[] recipients = new Address[in.readInt()];
+      for (int i = 0; i < recipients.length; ++i) // [A]
+        recipients[i] = new InternetAddress(in.readUTF(), false);
+
+      final SMTPMessage mimeMessage = new SMTPMessage(dispatch.getSession(), in);
+      mimeMessage.setEnvelopeFrom(envelopeFrom);
+      dispatch.send(authentication, mimeMessage, recipients);
+      acknowledge(entry);
+      if (entry.message != null)
+        entry.message.success();
+    }
+    catch (final MessagingException e) {
+      ++entry.attempts;
+      if (RetryPolicy.classify(e) != RetryPolicy.Failure.PERMANENT && entry.attempts < maxAttempts) {
+        if (logger.isDebugEnabled()) { logger.debug("Delivery of spooled entry failed, retrying in " + retryIntervalMs + "ms", e); }
+        retry(entry);
+        return;
+      }
+
+      logger.warn("Delivery of spooled entry failed after " + entry.attempts + " attempt(s)", e);
+      acknowledge(entry);
+      if (entry.message != null)
+        entry.message.failure(e);
+    }
+    catch (final IOException | RuntimeException e) {
+      logger.error("Unable to deliver spooled entry", e);
+      acknowledge(entry);
+      if (entry.message != null)
+        entry.message.failure(new MessagingException("Unable to deliver spooled entry", e));
+    }
+  }
+
+  private void drainLoop() {
+    try {
+      for (Entry entry; (entry = take()) != null;) // [X]
+        deliver(entry);
+    }
+    catch (final InterruptedException e) {
+    }
+  }
+
+  private void syncLoop() {
+    try {
+      while (!closed) {
+        TimeUnit.MILLISECONDS.sleep(syncIntervalMs);
+        sync();
+      }
+    }
+    catch (final InterruptedException e) {
+    }
+  }
+
+  /**
+   * Stops delivery, forces all appended entries to disk, and closes the segment files of this spool. Entries that were not yet
+   * delivered are replayed when a {@link Spool} is next opened in the same directory.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      if (closed)
+        return;
+
+      closed = true;
+      notifyAll();
+    }
+
+    for (int i = 0, i$ = threads.size(); i < i$; ++i) { // [RA]
+      final Thread thread = threads.get(i);
+      thread.interrupt();
+      try {
+        thread.join();
+      }
+      catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    sync();
+    synchronized (this) {
+      for (int i = 0, i$ = segments.size(); i < i$; ++i) // [RA]
+        segments.get(i).close();
+    }
+  }
+}
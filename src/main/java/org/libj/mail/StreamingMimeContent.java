@@ -0,0 +1,228 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectStreamException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+import javax.activation.DataHandler;
+import javax.activation.DataSource;
+import javax.mail.MessagingException;
+import javax.mail.internet.ContentType;
+import javax.mail.internet.MimePart;
+import javax.mail.internet.ParseException;
+
+/**
+ * A {@link MimeContent} whose body is read from an {@link InputStream} at the time it is written to the SMTP {@code DATA} phase,
+ * rather than being held on the heap as a string. The body is transfer-encoded as it is streamed: {@code text/*} content with
+ * {@code quoted-printable}, and all other content with {@code base64}.
+ * <p>
+ * A {@link StreamingMimeContent} is {@linkplain #equals(Object) equal} only to itself, and is not serializable, because its body
+ * is not known until it is read.
+ */
+public class StreamingMimeContent extends MimeContent {
+  /**
+   * Supplier of a new {@link InputStream} of the body, which is invoked each time the body is written.
+   */
+  @FunctionalInterface
+  public interface InputStreamSupplier {
+    /**
+     * Returns a new {@link InputStream} of the body.
+     *
+     * @return A new {@link InputStream} of the body.
+     * @throws IOException If an I/O error has occurred.
+     */
+    InputStream get() throws IOException;
+  }
+
+  /**
+   * Returns a new {@link StreamingMimeContent} whose body is the contents of the file at the specified {@link Path}, mapped into
+   * memory with {@link FileChannel#map(FileChannel.MapMode,long,long)}. The mapping is shared by all sends of the returned
+   * {@link StreamingMimeContent}.
+   *
+   * @param path The {@link Path} of the file.
+   * @param type The mime type string.
+   * @return A new {@link StreamingMimeContent} whose body is the memory-mapped contents of the file at {@code path}.
+   * @throws IOException If an I/O error has occurred.
+   * @throws NullPointerException If {@code path} or {@code type} is null.
+   */
+  public static StreamingMimeContent map(final Path path, final String type) throws IOException {
+    try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new StreamingMimeContent(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), type);
+    }
+  }
+
+  private static String getEncoding(final String type) {
+    try {
+      return new ContentType(type).match("text/*") ? "quoted-printable" : "base64";
+    }
+    catch (final ParseException e) {
+      throw new IllegalArgumentException("Invalid mime type: " + type, e);
+    }
+  }
+
+  private final class StreamDataSource implements DataSource {
+    @Override
+    public InputStream getInputStream() throws IOException {
+      return supplier.get();
+    }
+
+    @Override
+    public OutputStream getOutputStream() throws IOException {
+      throw new IOException("Read-only data source");
+    }
+
+    @Override
+    public String getContentType() {
+      return getType();
+    }
+
+    @Override
+    public String getName() {
+      return source instanceof Path ? ((Path)source).getFileName().toString() : null;
+    }
+  }
+
+  private final Object source;
+  private final InputStreamSupplier supplier;
+  private final String encoding;
+
+  private StreamingMimeContent(final Object source, final InputStreamSupplier supplier, final String type) {
+    super(type);
+    this.source = Objects.requireNonNull(source);
+    this.supplier = supplier;
+    this.encoding = getEncoding(type);
+  }
+
+  /**
+   * Creates a new {@link StreamingMimeContent} whose body is read from the {@link InputStream} provided by the specified
+   * {@link InputStreamSupplier}.
+   *
+   * @param supplier The {@link InputStreamSupplier}, which is invoked each time the body is written.
+   * @param type The mime type string.
+   * @throws NullPointerException If {@code supplier} or {@code type} is null.
+   * @throws IllegalArgumentException If {@code type} is not a valid mime type.
+   */
+  public StreamingMimeContent(final InputStreamSupplier supplier, final String type) {
+    this(supplier, supplier, type);
+  }
+
+  /**
+   * Creates a new {@link StreamingMimeContent} whose body is the contents of the file at the specified {@link Path}, which is read
+   * each time the body is written.
+   *
+   * @param path The {@link Path} of the file.
+   * @param type The mime type string.
+   * @throws NullPointerException If {@code path} or {@code type} is null.
+   * @throws IllegalArgumentException If {@code type} is not a valid mime type.
+   */
+  public StreamingMimeContent(final Path path, final String type) {
+    this(path, () -> Files.newInputStream(path), type);
+  }
+
+  /**
+   * Creates a new {@link StreamingMimeContent} whose body is the remaining bytes of the specified {@link ByteBuffer}. The position
+   * and limit of {@code buffer} are not modified, and its bytes are not copied.
+   *
+   * @param buffer The {@link ByteBuffer} (which may be direct or memory-mapped).
+   * @param type The mime type string.
+   * @throws NullPointerException If {@code buffer} or {@code type} is null.
+   * @throws IllegalArgumentException If {@code type} is not a valid mime type.
+   * @see #map(Path,String)
+   */
+  public StreamingMimeContent(final ByteBuffer buffer, final String type) {
+    this(buffer, () -> new ByteBufferInputStream(buffer.duplicate()), type);
+  }
+
+  /**
+   * Returns a new {@link InputStream} of the body of this content.
+   *
+   * @return A new {@link InputStream} of the body of this content.
+   * @throws IOException If an I/O error has occurred.
+   */
+  public InputStream getInputStream() throws IOException {
+    return supplier.get();
+  }
+
+  /**
+   * Returns a placeholder that describes the source of the body, which is only to be used for diagnostics, because the body of a
+   * {@link StreamingMimeContent} is not held as a string.
+   *
+   * @return A placeholder that describes the source of the body.
+   * @see #getInputStream()
+   */
+  @Override
+  public String getContent() {
+    return "[" + StreamingMimeContent.class.getSimpleName() + ": " + source + "]";
+  }
+
+  /**
+   * Returns {@code 0}, because a {@link StreamingMimeContent} is not encoded in advance, and is not to be cached.
+   */
+  @Override
+  long getWeight() {
+    return 0;
+  }
+
+  @Override
+  void setTo(final MimePart part, final boolean eightBit) throws MessagingException {
+    part.setDataHandler(new DataHandler(new StreamDataSource()));
+    // Setting the headers explicitly prevents MimeMessage.saveChanges() from reading the whole stream to determine them
+    part.setHeader("Content-Type", getType());
+    part.setHeader("Content-Transfer-Encoding", encoding);
+  }
+
+  /**
+   * Returns whether the specified object is this {@link StreamingMimeContent}. Contents with the same source are not equal,
+   * because the source may yield a different body each time it is read (i.e. a file that is regenerated at the same
+   * {@link Path}), and a {@link DedupWindow} would otherwise drop a message with the new body as a duplicate.
+   */
+  @Override
+  public boolean equals(final Object obj) {
+    return obj == this;
+  }
+
+  @Override
+  public int hashCode() {
+    return System.identityHashCode(this);
+  }
+
+  /**
+   * Throws {@link NotSerializableException}, because the source of the body (an {@link InputStreamSupplier}, a {@link Path}, or a
+   * {@link ByteBuffer}) is not serializable.
+   *
+   * @return Never.
+   * @throws NotSerializableException Always.
+   */
+  protected Object writeReplace() throws ObjectStreamException {
+    throw new NotSerializableException(getClass().getName() + " is not serializable");
+  }
+
+  @Override
+  public String toString() {
+    return "Content-Type: " + getType() + "\n" + source;
+  }
+}
@@ -0,0 +1,153 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A hashed timer wheel, which runs scheduled tasks on a single daemon thread. A task is placed into the bucket of the tick at
+ * which it is due, with the number of whole revolutions of the wheel that remain before it is due, so that scheduling is
+ * {@code O(1)} regardless of the number of pending tasks, and only a single thread is needed to service them all. Tasks run on the
+ * timer thread, and are therefore expected to be short (i.e. to hand off work to an {@link java.util.concurrent.Executor}).
+ */
+final class TimerWheel {
+  private static final Logger logger = LoggerFactory.getLogger(TimerWheel.class);
+
+  private static final class Timeout {
+    private final Runnable task;
+    private long rounds;
+
+    private Timeout(final Runnable task, final long rounds) {
+      this.task = task;
+      this.rounds = rounds;
+    }
+  }
+
+  private final long tickMs;
+  private final ArrayList<Timeout>[] buckets;
+  private final String name;
+  private Thread thread;
+  private long startTime;
+  private long tick;
+  private int size;
+
+  /**
+   * Creates a new {@link TimerWheel} with the provided parameters. The timer thread is started when the first task is scheduled.
+   *
+   * @param name The name of the timer thread.
+   * @param tickMs The duration of a tick in milliseconds, which is the resolution of the timer.
+   * @param ticksPerWheel The number of buckets of the wheel.
+   * @throws IllegalArgumentException If {@code tickMs} or {@code ticksPerWheel} is not positive.
+   */
+  @SuppressWarnings("unchecked")
+  TimerWheel(final String name, final long tickMs, final int ticksPerWheel) {
+    if (tickMs < 1)
+      throw new IllegalArgumentException("tickMs (" + tickMs + ") must be positive");
+
+    if (ticksPerWheel < 1)
+      throw new IllegalArgumentException("ticksPerWheel (" + ticksPerWheel + ") must be positive");
+
+    this.name = name;
+    this.tickMs = tickMs;
+    this.buckets = new ArrayList[ticksPerWheel];
+    for (int i = 0; i < ticksPerWheel; ++i) // [A]
+      buckets[i] = new ArrayList<>();
+  }
+
+  /**
+   * Schedules the specified task to run after the specified delay, rounded up to the next tick.
+   *
+   * @param task The task to run.
+   * @param delayMs The delay in milliseconds.
+   * @throws NullPointerException If {@code task} is null.
+   */
+  synchronized void schedule(final Runnable task, final long delayMs) {
+    if (task == null)
+      throw new NullPointerException("task is null");
+
+    if (thread == null) {
+      startTime = System.currentTimeMillis();
+      thread = new Thread(this::run, name);
+      thread.setDaemon(true);
+      thread.start();
+    }
+
+    // The tick at which the task is due, relative to the wall clock, so that time spent running tasks is not accumulated as drift
+    final long due = Math.max(tick + 1, (System.currentTimeMillis() - startTime + Math.max(0, delayMs) + tickMs - 1) / tickMs);
+    final long ticks = due - tick;
+    buckets[(int)(due % buckets.length)].add(new Timeout(task, (ticks - 1) / buckets.length));
+    ++size;
+  }
+
+  /**
+   * Returns the number of tasks that are scheduled and have not yet run.
+   *
+   * @return The number of tasks that are scheduled and have not yet run.
+   */
+  synchronized int size() {
+    return size;
+  }
+
+  private void run() {
+    final ArrayList<Runnable> due = new ArrayList<>();
+    try {
+      while (true) {
+        final long sleepMs;
+        synchronized (this) {
+          sleepMs = startTime + (tick + 1) * tickMs - System.currentTimeMillis();
+        }
+
+        if (sleepMs > 0)
+          TimeUnit.MILLISECONDS.sleep(sleepMs);
+
+        synchronized (this) {
+          final ArrayList<Timeout> bucket = buckets[(int)(++tick % buckets.length)];
+          for (int i = 0; i < bucket.size();) { // [RA]
+            final Timeout timeout = bucket.get(i);
+            if (timeout.rounds > 0) {
+              --timeout.rounds;
+              ++i;
+            }
+            else {
+              due.add(timeout.task);
+              bucket.set(i, bucket.get(bucket.size() - 1));
+              bucket.remove(bucket.size() - 1);
+              --size;
+            }
+          }
+        }
+
+        for (int i = 0, i$ = due.size(); i < i$; ++i) { // [RA]
+          try {
+            due.get(i).run();
+          }
+          catch (final Throwable t) {
+            logger.error("Uncaught exception in timer task", t);
+          }
+        }
+
+        due.clear();
+      }
+    }
+    catch (final InterruptedException e) {
+    }
+  }
+}
@@ -0,0 +1,87 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Metrics of the TLS handshakes of the connections of a {@link Mail.Dispatch}, by which the effect of TLS session resumption can
+ * be confirmed: a resumed (abbreviated) handshake omits the key exchange and certificate verification of a full handshake, and
+ * is thus considerably faster.
+ * <p>
+ * The handshake time is measured from the creation of the {@link javax.net.ssl.SSLSocket} over the connected socket to the
+ * completion of the handshake. A handshake is counted as resumed if its session was created before the socket.
+ *
+ * @see Mail.Dispatch#getTlsMetrics()
+ */
+public final class TlsMetrics {
+  private final LongAdder handshakes = new LongAdder();
+  private final LongAdder resumed = new LongAdder();
+  private final LongAdder handshakeNanos = new LongAdder();
+
+  TlsMetrics() {
+  }
+
+  void handshake(final long nanos, final boolean resumed) {
+    handshakes.increment();
+    handshakeNanos.add(nanos);
+    if (resumed)
+      this.resumed.increment();
+  }
+
+  /**
+   * Returns the number of completed handshakes.
+   *
+   * @return The number of completed handshakes.
+   */
+  public long getHandshakeCount() {
+    return handshakes.sum();
+  }
+
+  /**
+   * Returns the number of completed handshakes that resumed a cached session.
+   *
+   * @return The number of completed handshakes that resumed a cached session.
+   */
+  public long getResumedCount() {
+    return resumed.sum();
+  }
+
+  /**
+   * Returns the total time of the completed handshakes, in nanoseconds.
+   *
+   * @return The total time of the completed handshakes, in nanoseconds.
+   */
+  public long getHandshakeTimeNanos() {
+    return handshakeNanos.sum();
+  }
+
+  /**
+   * Returns the mean time of the completed handshakes, in milliseconds, or {@code 0} if no handshake has completed.
+   *
+   * @return The mean time of the completed handshakes, in milliseconds.
+   */
+  public double getMeanHandshakeTimeMs() {
+    final long count = handshakes.sum();
+    return count == 0 ? 0 : handshakeNanos.sum() / 1e6 / count;
+  }
+
+  @Override
+  public String toString() {
+    return "{handshakes: " + getHandshakeCount() + ", resumed: " + getResumedCount() + ", meanMs: " + getMeanHandshakeTimeMs() + "}";
+  }
+}
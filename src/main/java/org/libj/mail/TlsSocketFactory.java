@@ -0,0 +1,157 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+
+/**
+ * An {@link SSLSocketFactory} of a single {@link SSLContext} that is shared by all connections of a {@link Mail.Dispatch}, so that
+ * the TLS sessions in the client session cache of the {@link SSLContext} are resumed by subsequent connections to the same host,
+ * which then perform an abbreviated handshake. The handshakes of the sockets of this factory are measured in {@link TlsMetrics},
+ * and are reported to the {@link DispatchListener} of the {@link Mail.Dispatch}, if one is set.
+ */
+final class TlsSocketFactory extends SSLSocketFactory {
+  private static final TrustManager[] TRUST_ALL = {new X509TrustManager() {
+    @Override
+    public void checkClientTrusted(final X509Certificate[] chain, final String authType) {
+    }
+
+    @Override
+    public void checkServerTrusted(final X509Certificate[] chain, final String authType) {
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+      return new X509Certificate[0];
+    }
+  }};
+
+  /**
+   * Returns a new {@link SSLContext} that trusts all server certificates, as {@code mail.<protocol>.ssl.trust=*} does.
+   *
+   * @return A new {@link SSLContext} that trusts all server certificates.
+   * @throws IllegalStateException If the {@link SSLContext} cannot be created.
+   */
+  static SSLContext newTrustAllContext() {
+    try {
+      final SSLContext context = SSLContext.getInstance("TLS");
+      context.init(null, TRUST_ALL, null);
+      return context;
+    }
+    catch (final GeneralSecurityException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private final SSLSocketFactory factory;
+  private final DispatchListener listener;
+  private final TlsMetrics metrics = new TlsMetrics();
+
+  /**
+   * Creates a new {@link TlsSocketFactory} of the specified {@link SSLContext}.
+   *
+   * @param context The {@link SSLContext}.
+   * @param listener The {@link DispatchListener} to which the handshakes are reported, or {@code null}.
+   */
+  TlsSocketFactory(final SSLContext context, final DispatchListener listener) {
+    this.factory = context.getSocketFactory();
+    this.listener = listener;
+  }
+
+  /**
+   * Returns the {@link TlsMetrics} of the handshakes of the sockets of this factory.
+   *
+   * @return The {@link TlsMetrics} of the handshakes of the sockets of this factory.
+   */
+  TlsMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Measures the handshake of the specified socket from now, which is to be when the socket is connected, so that the time of the
+   * TCP connect is not included.
+   */
+  private Socket measure(final Socket socket) {
+    if (socket instanceof SSLSocket) {
+      final long createdNanos = System.nanoTime();
+      final long createdMs = System.currentTimeMillis();
+      ((SSLSocket)socket).addHandshakeCompletedListener(e -> {
+        final long nanos = System.nanoTime() - createdNanos;
+        metrics.handshake(nanos, e.getSession().getCreationTime() < createdMs);
+        if (listener != null)
+          listener.onPhase(DispatchListener.Phase.TLS, nanos);
+      });
+    }
+
+    return socket;
+  }
+
+  @Override
+  public String[] getDefaultCipherSuites() {
+    return factory.getDefaultCipherSuites();
+  }
+
+  @Override
+  public String[] getSupportedCipherSuites() {
+    return factory.getSupportedCipherSuites();
+  }
+
+  @Override
+  public Socket createSocket(final Socket s, final String host, final int port, final boolean autoClose) throws IOException {
+    return measure(factory.createSocket(s, host, port, autoClose));
+  }
+
+  /**
+   * Returns a new unconnected plain {@link Socket}. For SMTPS, javax.mail connects the socket that is returned by this method, and
+   * then layers TLS over it with {@link #createSocket(Socket,String,int,boolean)}, so that its handshake is measured from when
+   * it is connected.
+   */
+  @Override
+  public Socket createSocket() {
+    return new Socket();
+  }
+
+  @Override
+  public Socket createSocket(final String host, final int port) throws IOException {
+    return measure(factory.createSocket(host, port));
+  }
+
+  @Override
+  public Socket createSocket(final String host, final int port, final InetAddress localHost, final int localPort) throws IOException {
+    return measure(factory.createSocket(host, port, localHost, localPort));
+  }
+
+  @Override
+  public Socket createSocket(final InetAddress host, final int port) throws IOException {
+    return measure(factory.createSocket(host, port));
+  }
+
+  @Override
+  public Socket createSocket(final InetAddress address, final int port, final InetAddress localAddress, final int localPort) throws IOException {
+    return measure(factory.createSocket(address, port, localAddress, localPort));
+  }
+}
@@ -0,0 +1,407 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.Transport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded pool of connected {@link Transport} instances, keyed by the {@link Credential} with which each was authenticated.
+ * Idle connections are validated (via {@link Transport#isConnected()}, which issues {@code NOOP} or {@code RSET} on an SMTP
+ * transport) before reuse, and are retired when they exceed the configured max idle time, max lifetime, or max number of
+ * messages.
+ */
+public final class TransportPool implements AutoCloseable {
+  private static final Logger logger = LoggerFactory.getLogger(TransportPool.class);
+
+  /**
+   * Factory of new connected {@link Connection}s.
+   */
+  interface Factory {
+    /**
+     * Returns a new connected {@link Connection} for the specified {@link Credential}.
+     *
+     * @param credential The {@link Credential}.
+     * @return A new connected {@link Connection} for the specified {@link Credential}.
+     * @throws MessagingException If a transport error has occurred.
+     */
+    Connection connect(Credential credential) throws MessagingException;
+  }
+
+  /**
+   * A connected {@link Transport} and the {@link Session} from which it was created.
+   */
+  static final class Connection {
+    final Credential credential;
+    final Session session;
+    final Transport transport;
+    final long createdTime;
+    long lastUsedTime;
+    int messageCount;
+
+    Connection(final Credential credential, final Session session, final Transport transport) {
+      this.credential = credential;
+      this.session = session;
+      this.transport = transport;
+      this.lastUsedTime = this.createdTime = System.currentTimeMillis();
+    }
+
+    void close() {
+      try {
+        transport.close();
+      }
+      catch (final MessagingException e) {
+        if (logger.isDebugEnabled()) { logger.debug("Error closing transport for " + credential, e); }
+      }
+    }
+  }
+
+  private final Factory factory;
+  private final int maxConnections;
+  private final long maxIdleMs;
+  private final long maxLifetimeMs;
+  private final int maxMessagesPerConnection;
+
+  private final HashMap<Credential,ArrayDeque<Connection>> idle = new HashMap<>();
+  private int idleCount;
+  private int totalCount;
+  private boolean closed;
+
+  private final AtomicLong createdCount = new AtomicLong();
+  private final AtomicLong closedCount = new AtomicLong();
+  private final AtomicLong borrowCount = new AtomicLong();
+  private final AtomicLong reuseCount = new AtomicLong();
+  private final AtomicLong validationFailureCount = new AtomicLong();
+  private final AtomicLong waitCount = new AtomicLong();
+
+  /**
+   * Creates a new {@link TransportPool} with the provided parameters.
+   *
+   * @param factory The {@link Factory} of new connections.
+   * @param maxConnections The max number of connections (active and idle) across all credentials.
+   * @param maxIdleMs The max time in milliseconds a connection may remain idle before it is retired, or {@code -1} for no limit.
+   * @param maxLifetimeMs The max time in milliseconds since creation after which a connection is retired, or {@code -1} for no limit.
+   * @param maxMessagesPerConnection The max number of messages sent over a connection before it is retired, or {@code -1} for no
+   *          limit.
+   * @throws IllegalArgumentException If {@code maxConnections} is not positive.
+   */
+  TransportPool(final Factory factory, final int maxConnections, final long maxIdleMs, final long maxLifetimeMs, final int maxMessagesPerConnection) {
+    this.factory = factory;
+    this.maxConnections = maxConnections;
+    if (maxConnections < 1)
+      throw new IllegalArgumentException("maxConnections (" + maxConnections + ") must be positive");
+
+    this.maxIdleMs = maxIdleMs;
+    this.maxLifetimeMs = maxLifetimeMs;
+    this.maxMessagesPerConnection = maxMessagesPerConnection;
+  }
+
+  private boolean isExpired(final Connection connection, final long now) {
+    return maxIdleMs != -1 && now - connection.lastUsedTime >= maxIdleMs || maxLifetimeMs != -1 && now - connection.createdTime >= maxLifetimeMs;
+  }
+
+  boolean isExhausted(final Connection connection) {
+    return maxMessagesPerConnection != -1 && connection.messageCount >= maxMessagesPerConnection;
+  }
+
+  /**
+   * Removes and returns the least recently used idle connection of a credential other than the specified {@code credential}, or
+   * {@code null} if there is no such connection. Must be called while holding the lock on {@code this}.
+   */
+  private Connection evictOther(final Credential credential) {
+    Connection eldest = null;
+    for (final Map.Entry<Credential,ArrayDeque<Connection>> entry : idle.entrySet()) { // [S]
+      if (!entry.getKey().equals(credential)) {
+        final Connection last = entry.getValue().peekLast();
+        if (last != null && (eldest == null || last.lastUsedTime < eldest.lastUsedTime))
+          eldest = last;
+      }
+    }
+
+    if (eldest != null) {
+      idle.get(eldest.credential).pollLast();
+      --idleCount;
+    }
+
+    return eldest;
+  }
+
+  private void discard(final Connection connection) {
+    connection.close();
+    closedCount.incrementAndGet();
+  }
+
+  /**
+   * Returns a connected {@link Connection} for the specified {@link Credential}, reusing an idle connection if a valid one is
+   * available, or creating a new one otherwise. If the pool is at capacity, this method blocks until a connection is released.
+   *
+   * @param credential The {@link Credential}.
+   * @return A connected {@link Connection} for the specified {@link Credential}.
+   * @throws MessagingException If a transport error has occurred, or if the calling thread is interrupted while waiting.
+   * @throws IllegalStateException If this pool is closed.
+   */
+  Connection borrow(final Credential credential) throws MessagingException {
+    borrowCount.incrementAndGet();
+    final ArrayList<Connection> retired = new ArrayList<>(0);
+    while (true) {
+      Connection connection = null;
+      boolean create = false;
+      synchronized (this) {
+        while (true) {
+          if (closed)
+            throw new IllegalStateException("TransportPool is closed");
+
+          final ArrayDeque<Connection> connections = idle.get(credential);
+          if (connections != null) {
+            final long now = System.currentTimeMillis();
+            while ((connection = connections.pollFirst()) != null) {
+              --idleCount;
+              if (!isExpired(connection, now))
+                break;
+
+              --totalCount;
+              retired.add(connection);
+            }
+          }
+
+          if (connection != null)
+            break;
+
+          if (totalCount < maxConnections) {
+            ++totalCount;
+            create = true;
+            break;
+          }
+
+          final Connection evicted = evictOther(credential);
+          if (evicted != null) {
+            retired.add(evicted);
+            create = true;
+            break;
+          }
+
+          waitCount.incrementAndGet();
+          try {
+            wait();
+          }
+          catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new MessagingException("Interrupted while waiting for a connection", e);
+          }
+        }
+      }
+
+      for (int i = 0, i$ = retired.size(); i < i$; ++i) // [RA]
+        discard(retired.get(i));
+
+      retired.clear();
+      if (create) {
+        try {
+          connection = factory.connect(credential);
+          createdCount.incrementAndGet();
+          return connection;
+        }
+        catch (final MessagingException | RuntimeException e) {
+          synchronized (this) {
+            --totalCount;
+            notifyAll();
+          }
+
+          throw e;
+        }
+      }
+
+      if (connection.transport.isConnected()) {
+        reuseCount.incrementAndGet();
+        return connection;
+      }
+
+      validationFailureCount.incrementAndGet();
+      discard(connection);
+      synchronized (this) {
+        --totalCount;
+        notifyAll();
+      }
+    }
+  }
+
+  /**
+   * Returns the specified {@link Connection} to this pool. The connection is retired instead if this pool is closed, or if the
+   * connection has exceeded its max lifetime or max number of messages.
+   *
+   * @param connection The {@link Connection} to release.
+   */
+  void release(final Connection connection) {
+    final long now = System.currentTimeMillis();
+    synchronized (this) {
+      if (!closed && !isExhausted(connection) && !isExpired(connection, now)) {
+        connection.lastUsedTime = now;
+        ArrayDeque<Connection> connections = idle.get(connection.credential);
+        if (connections == null)
+          idle.put(connection.credential, connections = new ArrayDeque<>());
+
+        // Most recently used connections are taken first, so that surplus connections age out via maxIdle
+        connections.addFirst(connection);
+        ++idleCount;
+        notifyAll();
+        return;
+      }
+
+      --totalCount;
+      notifyAll();
+    }
+
+    discard(connection);
+  }
+
+  /**
+   * Closes the specified {@link Connection} instead of returning it to this pool. This method is to be called for connections
+   * whose state is known to be broken.
+   *
+   * @param connection The {@link Connection} to invalidate.
+   */
+  void invalidate(final Connection connection) {
+    synchronized (this) {
+      --totalCount;
+      notifyAll();
+    }
+
+    discard(connection);
+  }
+
+  /**
+   * Returns the max number of connections (active and idle) of this pool.
+   *
+   * @return The max number of connections (active and idle) of this pool.
+   */
+  public int getMaxConnections() {
+    return maxConnections;
+  }
+
+  /**
+   * Returns the number of connections that are currently borrowed.
+   *
+   * @return The number of connections that are currently borrowed.
+   */
+  public synchronized int getActiveCount() {
+    return totalCount - idleCount;
+  }
+
+  /**
+   * Returns the number of connections that are currently idle in this pool.
+   *
+   * @return The number of connections that are currently idle in this pool.
+   */
+  public synchronized int getIdleCount() {
+    return idleCount;
+  }
+
+  /**
+   * Returns the total number of connections that have been created by this pool.
+   *
+   * @return The total number of connections that have been created by this pool.
+   */
+  public long getCreatedCount() {
+    return createdCount.get();
+  }
+
+  /**
+   * Returns the total number of connections that have been closed by this pool.
+   *
+   * @return The total number of connections that have been closed by this pool.
+   */
+  public long getClosedCount() {
+    return closedCount.get();
+  }
+
+  /**
+   * Returns the total number of times a connection has been requested from this pool.
+   *
+   * @return The total number of times a connection has been requested from this pool.
+   */
+  public long getBorrowCount() {
+    return borrowCount.get();
+  }
+
+  /**
+   * Returns the total number of times an idle connection has been reused.
+   *
+   * @return The total number of times an idle connection has been reused.
+   */
+  public long getReuseCount() {
+    return reuseCount.get();
+  }
+
+  /**
+   * Returns the total number of idle connections that were found to be disconnected when validated before reuse.
+   *
+   * @return The total number of idle connections that were found to be disconnected when validated before reuse.
+   */
+  public long getValidationFailureCount() {
+    return validationFailureCount.get();
+  }
+
+  /**
+   * Returns the total number of times a request for a connection had to wait due to this pool being at capacity.
+   *
+   * @return The total number of times a request for a connection had to wait due to this pool being at capacity.
+   */
+  public long getWaitCount() {
+    return waitCount.get();
+  }
+
+  /**
+   * Closes all idle connections of this pool. Connections that are borrowed at the time of this call are closed when released.
+   */
+  @Override
+  public void close() {
+    final ArrayList<Connection> connections = new ArrayList<>();
+    synchronized (this) {
+      if (closed)
+        return;
+
+      closed = true;
+      for (final Iterator<ArrayDeque<Connection>> iterator = idle.values().iterator(); iterator.hasNext();) { // [I]
+        connections.addAll(iterator.next());
+        iterator.remove();
+      }
+
+      totalCount -= idleCount;
+      idleCount = 0;
+      notifyAll();
+    }
+
+    for (int i = 0, i$ = connections.size(); i < i$; ++i) // [RA]
+      discard(connections.get(i));
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "{active: " + (totalCount - idleCount) + ", idle: " + idleCount + ", max: " + maxConnections + ", created: " + createdCount.get() + ", closed: " + closedCount.get() + ", borrowed: " + borrowCount.get() + ", reused: " + reuseCount.get() + ", invalid: " + validationFailureCount.get() + ", waited: " + waitCount.get() + "}";
+  }
+}
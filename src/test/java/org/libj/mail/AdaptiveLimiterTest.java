@@ -0,0 +1,128 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
+
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+public class AdaptiveLimiterTest {
+  private static final MessagingException throttle = new SMTPSendFailedException("MAIL FROM", 451, "451 rate limited", null, null, null, null);
+
+  @Test
+  public void testIsThrottle() {
+    assertTrue(AdaptiveLimiter.isThrottle(throttle));
+    assertTrue(AdaptiveLimiter.isThrottle(new MessagingException("Got bad greeting from SMTP host: localhost, port: 25, response: 421")));
+    assertFalse(AdaptiveLimiter.isThrottle(new SMTPSendFailedException("DATA", 554, "554 rejected", null, null, null, null)));
+  }
+
+  @Test
+  public void testAimd() throws Exception {
+    final AdaptiveLimiter limiter = new AdaptiveLimiter.Builder().withConcurrency(1, 8).withInitialConcurrency(2).withRate(1, 100000).withInitialRate(10000).withRateIncrease(100).build();
+    for (int i = 0; i < 20; ++i) // [N]
+      limiter.release(limiter.acquire(), null);
+
+    final int concurrency = limiter.getConcurrencyLimit();
+    final double rate = limiter.getRate();
+    assertTrue(concurrency > 2);
+    assertTrue(rate > 10000);
+
+    // Concurrent sends that started before the cut are throttled together, but cut the limits only once
+    final long ticket1 = limiter.acquire();
+    final long ticket2 = limiter.acquire();
+    limiter.release(ticket1, throttle);
+    limiter.release(ticket2, throttle);
+    assertEquals(Math.max(1, concurrency / 2), limiter.getConcurrencyLimit());
+    assertEquals(rate / 2, limiter.getRate(), rate / 1000);
+    assertEquals(2, limiter.getThrottleCount());
+
+    limiter.release(limiter.acquire(), throttle);
+    assertEquals(rate / 4, limiter.getRate(), rate / 1000);
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  public void testPacing() throws Exception {
+    final AdaptiveLimiter limiter = new AdaptiveLimiter.Builder().withRate(1, 100).withInitialRate(100).withRateIncrease(0).build();
+    final long start = System.nanoTime();
+    for (int i = 0; i < 11; ++i) // [N]
+      limiter.release(limiter.acquire(), null);
+
+    // 11 sends at 100/s are spaced by 10ms, without an initial burst
+    assertTrue((System.nanoTime() - start) / 1000000 >= 95);
+  }
+
+  @Test
+  public void testBatchAndAsync() throws Exception {
+    // With a single slot of the limiter and a single connection, a batch and asynchronous sends must take them in the same order
+    final AdaptiveLimiter limiter = new AdaptiveLimiter.Builder().withConcurrency(1, 1).withInitialConcurrency(1).withRate(1, 100000).withInitialRate(100000).build();
+    try (final SmtpStub stub = new SmtpStub.Builder().withReplyLatency(1).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withLimiter(limiter).withMaxConnections(1).build()) {
+        final InternetAddress from = new InternetAddress("from@example.com");
+        final ArrayList<Message> batch = new ArrayList<>();
+        final ArrayList<CompletableFuture<String>> futures = new ArrayList<>();
+        for (int i = 0; i < 20; ++i) // [N]
+          batch.add(new Message("Batch " + i, new MimeContent("Body", "text/plain"), from, "to@example.com"));
+
+        final CompletableFuture<List<Result>> results = CompletableFuture.supplyAsync(() -> dispatch.sendAll(null, batch));
+        for (int i = 0; i < 20; ++i) // [N]
+          futures.add(dispatch.sendAsync(null, new Message("Async " + i, new MimeContent("Body", "text/plain"), from, "to@example.com")));
+
+        for (final Result result : results.get(10, TimeUnit.SECONDS)) // [L]
+          assertTrue(result.isSuccess());
+
+        for (final CompletableFuture<String> future : futures) // [L]
+          assertNotNull(future.get(10, TimeUnit.SECONDS));
+
+        assertEquals(40, stub.getMessageCount());
+      }
+    }
+  }
+
+  @Test
+  public void testBatchKeepsConnection() throws Exception {
+    final AdaptiveLimiter limiter = new AdaptiveLimiter.Builder().withInitialRate(100000).build();
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withLimiter(limiter).withMaxConnections(2).build()) {
+        final InternetAddress from = new InternetAddress("from@example.com");
+        final ArrayList<Message> batch = new ArrayList<>();
+        for (int i = 0; i < 5; ++i) // [N]
+          batch.add(new Message("Batch " + i, new MimeContent("Body", "text/plain"), from, "to@example.com"));
+
+        for (final Result result : dispatch.sendAll(null, batch)) // [L]
+          assertTrue(result.isSuccess());
+
+        assertEquals(5, stub.getMessageCount());
+        assertEquals(1, stub.getConnectionCount());
+        assertEquals(0, stub.getCommandCount("NOOP"));
+      }
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.Random;
+
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Message;
+
+public class AddressCacheTest {
+  @Test
+  public void testParse() throws Exception {
+    final AddressCache cache = new AddressCache(16);
+    final InternetAddress a = cache.parse("Alice <a@example.com>");
+    assertSame(a, cache.parse("Alice <a@example.com>"));
+    assertEquals(new InternetAddress("Alice <a@example.com>"), a);
+    assertEquals("Alice", a.getPersonal());
+
+    try {
+      a.setPersonal("Eve");
+      fail("Expected UnsupportedOperationException");
+    }
+    catch (final UnsupportedOperationException e) {
+    }
+
+    try {
+      cache.parse("a@@example.com");
+      fail("Expected AddressException");
+    }
+    catch (final AddressException e) {
+    }
+
+    // The cache is bounded
+    for (int i = 0; i < 1000; ++i) // [N]
+      cache.parse("to" + i + "@example.com");
+
+    assertTrue(cache.getCount() <= 16);
+    cache.clear();
+    assertEquals(0, cache.getCount());
+  }
+
+  @Test
+  public void testWellFormed() {
+    assertTrue(AddressCache.isWellFormed("a@example.com"));
+    assertTrue(AddressCache.isWellFormed("\"a b\"@example.com"));
+    assertTrue(AddressCache.isWellFormed("A (comment) <a.b@example.com>"));
+    assertFalse(AddressCache.isWellFormed("a@"));
+    assertFalse(AddressCache.isWellFormed("@example.com"));
+    assertFalse(AddressCache.isWellFormed("a..b@example.com"));
+    assertFalse(AddressCache.isWellFormed(".a@example.com"));
+    assertFalse(AddressCache.isWellFormed("a@example.com."));
+    assertFalse(AddressCache.isWellFormed("a b@example.com"));
+    assertFalse(AddressCache.isWellFormed("a@example.com, b@example.com"));
+    assertFalse(AddressCache.isWellFormed("a@example.com>"));
+  }
+
+  private static boolean isValid(final String address) {
+    try {
+      new InternetAddress(address);
+      return true;
+    }
+    catch (final AddressException e) {
+      return false;
+    }
+  }
+
+  @Test
+  public void testCheck() {
+    // The pre-validator rejects only what InternetAddress rejects
+    final String alphabet = "ab.@<>\"() ,\\[]";
+    final Random random = new Random(1);
+    final char[] chars = new char[12];
+    for (int i = 0; i < 200000; ++i) { // [N]
+      final int len = random.nextInt(chars.length) + 1;
+      for (int j = 0; j < len; ++j) // [A]
+        chars[j] = alphabet.charAt(random.nextInt(alphabet.length()));
+
+      final String address = new String(chars, 0, len);
+      if (AddressCache.check(address) != null)
+        assertFalse(address, isValid(address));
+    }
+  }
+
+  @Test
+  public void testMessageHashCode() throws Exception {
+    final InternetAddress from = new InternetAddress("from@example.com");
+    final Message a = new Message("Subject", new MimeContent("Body", "text/plain"), from, "a@example.com", "b@example.com");
+    final Message b = new Message("Subject", new MimeContent("Body", "text/plain"), from, "a@example.com", "b@example.com");
+    assertSame(a.to[0], b.to[0]);
+    assertEquals(a.hashCode(), a.hashCode());
+    assertEquals(a.hashCode(), b.hashCode());
+    assertEquals(a, b);
+    assertNotEquals(a, new Message("Subject", new MimeContent("Body", "text/plain"), from, "a@example.com"));
+  }
+}
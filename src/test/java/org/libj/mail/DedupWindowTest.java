@@ -0,0 +1,237 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
+
+public class DedupWindowTest {
+  private static Message newMessage(final String subject, final String ... to) throws Exception {
+    return new Message(subject, new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), to);
+  }
+
+  @Test
+  public void testFingerprint() throws Exception {
+    final long fingerprint = DedupWindow.fingerprint(newMessage("Subject", "a@example.com"));
+    assertEquals(fingerprint, DedupWindow.fingerprint(newMessage("Subject", "A@EXAMPLE.COM")));
+    assertNotEquals(fingerprint, DedupWindow.fingerprint(newMessage("Subject ", "a@example.com")));
+    assertNotEquals(fingerprint, DedupWindow.fingerprint(newMessage("Subject", "a@example.com", "b@example.com")));
+    assertNotEquals(fingerprint, DedupWindow.fingerprint(new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), null, new String[] {"a@example.com"}, null)));
+  }
+
+  @Test
+  public void testWindow() {
+    final DedupWindow window = new DedupWindow(4, 1000);
+    assertTrue(window.add(1, 0));
+    assertFalse(window.add(1, 999));
+    assertEquals(1, window.getDuplicateCount());
+
+    // Expired
+    assertTrue(window.add(1, 1000));
+    assertTrue(window.remove(1));
+    assertFalse(window.remove(1));
+    assertTrue(window.add(1, 1000));
+
+    // The oldest fingerprint is evicted when the window is full
+    for (long i = 2; i <= 4; ++i) // [N]
+      assertTrue(window.add(i, 1000));
+
+    assertEquals(4, window.getCount());
+    assertTrue(window.add(5, 1000));
+    assertEquals(4, window.getCount());
+    assertTrue(window.add(1, 1000));
+    assertFalse(window.add(5, 1000));
+
+    window.clear();
+    assertEquals(0, window.getCount());
+    assertTrue(window.add(5, 1000));
+  }
+
+  @Test
+  public void testMaxSize() {
+    // The capacity of the table of a larger window would overflow
+    try {
+      new DedupWindow((1 << 28) + 1, 1000);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    try {
+      new DedupWindow(1 << 29, 1000);
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testTable() {
+    // Few distinct fingerprints that share few slots, so that the probe sequences collide and wrap around
+    final int maxSize = 16;
+    final DedupWindow window = new DedupWindow(maxSize, Long.MAX_VALUE);
+    final HashSet<Long> set = new HashSet<>();
+    // The fingerprints in the order in which they were added, where a removed fingerprint holds its place until it is evicted
+    final ArrayDeque<long[]> order = new ArrayDeque<>();
+    final Random random = new Random(1);
+    for (int i = 0; i < 200000; ++i) { // [N]
+      final long fingerprint = (random.nextInt(48) + 1) * 16L + random.nextInt(4) * 61L + 1;
+      if (random.nextInt(4) == 0) {
+        final boolean removed = set.remove(fingerprint);
+        if (removed)
+          for (final long[] entry : order) // [C]
+            if (entry[0] == fingerprint)
+              entry[0] = 0;
+
+        assertEquals(removed, window.remove(fingerprint));
+      }
+      else {
+        final boolean added = set.add(fingerprint);
+        if (added) {
+          order.add(new long[] {fingerprint});
+          if (order.size() > maxSize)
+            set.remove(order.poll()[0]);
+        }
+
+        assertEquals(added, window.add(fingerprint, 0));
+      }
+
+      assertEquals(set.size(), window.getCount());
+    }
+  }
+
+  @Test
+  public void testDispatch() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      final DedupWindow window = new DedupWindow(100, 60000);
+      final DispatchMetrics metrics = new DispatchMetrics();
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withMaxConnections(1).withDedupWindow(window).withListener(metrics).build()) {
+        assertNotNull(dispatch.send(null, newMessage("Subject", "a@example.com")));
+        assertNull(dispatch.send(null, newMessage("Subject", "a@example.com")));
+        assertNull(dispatch.sendAsync(null, newMessage("Subject", "a@example.com")).get());
+
+        final List<Result> results = dispatch.sendAll(null, Arrays.asList(newMessage("Subject", "a@example.com"), newMessage("Other", "a@example.com"), newMessage("Other", "a@example.com")));
+        assertTrue(results.get(0).isDuplicate());
+        assertFalse(results.get(1).isDuplicate());
+        assertNotNull(results.get(1).getMessageId());
+        assertTrue(results.get(2).isDuplicate());
+        assertTrue(results.get(2).isSuccess());
+      }
+
+      assertEquals(2, stub.getMessageCount());
+      assertEquals(4, window.getDuplicateCount());
+      assertEquals(4, metrics.getDuplicateCount());
+      assertEquals(2, metrics.getSuccessCount());
+    }
+
+    // A message whose send failed is not a duplicate, so it is sent again
+    try (final SmtpStub stub = new SmtpStub.Builder().withReply("MAIL", 0, SmtpStub.Reply.of(451, "4.3.0 Try again later")).build()) {
+      final DedupWindow window = new DedupWindow(100, 60000);
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withDedupWindow(window).build()) {
+        try {
+          dispatch.send(null, newMessage("Subject", "a@example.com"));
+          fail("Expected MessagingException");
+        }
+        catch (final MessagingException e) {
+        }
+
+        assertEquals(0, window.getCount());
+        assertNotNull(dispatch.send(null, newMessage("Subject", "a@example.com")));
+        assertEquals(1, window.getCount());
+        assertEquals(0, window.getDuplicateCount());
+      }
+
+      assertEquals(1, stub.getMessageCount());
+    }
+  }
+
+  @Test
+  public void testPartial() throws Exception {
+    // A message that is accepted for some recipients stays in the window, so that a replay does not reach them again
+    try (final SmtpStub stub = new SmtpStub.Builder().withScript((verb, argument, count) -> "RCPT".equals(verb) && argument.startsWith("<bad") ? SmtpStub.Reply.of(550, "5.1.1 No such user") : null).build()) {
+      for (final RetryPolicy retryPolicy : new RetryPolicy[] {null, new RetryPolicy.Builder().withMaxAttempts(2).withInitialDelay(10).build()}) { // [A]
+        final DedupWindow window = new DedupWindow(100, 60000);
+        try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withMaxRecipientsPerTransaction(1).withRetryPolicy(retryPolicy).withDedupWindow(window).build()) {
+          try {
+            dispatch.send(null, newMessage("Subject", "a@example.com", "bad@example.com"));
+            fail("Expected SendFailedException");
+          }
+          catch (final SendFailedException e) {
+            assertEquals(1, e.getValidSentAddresses().length);
+          }
+
+          assertEquals(1, window.getCount());
+          assertNull(dispatch.send(null, newMessage("Subject", "a@example.com", "bad@example.com")));
+        }
+      }
+
+      assertEquals(2, stub.getMessageCount());
+    }
+  }
+
+  @Test
+  public void testRejected() throws Exception {
+    // A send that is rejected by the Executor is reported as a failure, and is removed from the window so that it can be sent again
+    final AtomicInteger failures = new AtomicInteger();
+    final Message message = new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "a@example.com") {
+      @Override
+      public void failure(final MessagingException e) {
+        failures.incrementAndGet();
+      }
+    };
+
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.shutdown();
+    final DedupWindow window = new DedupWindow(100, 60000);
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withExecutor(executor).withDedupWindow(window).build()) {
+        try {
+          dispatch.sendAsync(null, message).get();
+          fail("Expected ExecutionException");
+        }
+        catch (final ExecutionException e) {
+          assertTrue(e.getCause() instanceof RejectedExecutionException);
+        }
+
+        assertEquals(1, failures.get());
+        assertEquals(0, window.getCount());
+      }
+
+      assertEquals(0, stub.getConnectionCount());
+    }
+  }
+}
@@ -0,0 +1,93 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+import javax.mail.Address;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+
+import com.sun.mail.smtp.SMTPAddressFailedException;
+
+public class DeliveryReportTest {
+  @Test
+  public void testPartial() throws Exception {
+    final InternetAddress a = new InternetAddress("a@example.com");
+    final InternetAddress b = new InternetAddress("b@example.com");
+    final InternetAddress c = new InternetAddress("c@example.com");
+    final SMTPAddressFailedException rejected = new SMTPAddressFailedException(b, "RCPT TO", 550, "550 no such user");
+    final DeliveryReport report = new DeliveryReport("<id>", 3);
+    report.add(new Address[] {a, b}, new SendFailedException("Invalid Addresses", rejected, new Address[] {a}, null, new Address[] {b}));
+    report.add(new Address[] {c}, null);
+
+    assertEquals(Arrays.asList(a, c), report.getAccepted());
+    assertSame(rejected, report.getRejected().get(b));
+    assertEquals(2, report.getTransactionCount());
+    assertFalse(report.isComplete());
+
+    // The message was delivered to some recipients, so it must not be retried as a whole
+    assertEquals(RetryPolicy.Failure.PERMANENT, RetryPolicy.classify(report.toException()));
+  }
+
+  @Test
+  public void testChunks() throws Exception {
+    final String[] to = new String[5];
+    for (int i = 0; i < to.length; ++i) // [A]
+      to[i] = "to" + i + "@example.com";
+
+    final Message message = new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), to);
+    // The 4th recipient is rejected, and the others are accepted in 3 transactions of at most 2 recipients
+    try (final SmtpStub stub = new SmtpStub.Builder().withScript((verb, argument, count) -> "RCPT".equals(verb) && argument.startsWith("<to3@") ? SmtpStub.Reply.of(550, "5.1.1 No such user") : null).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withMaxRecipientsPerTransaction(2).build()) {
+        final DeliveryReport report = dispatch.deliver(null, message);
+        assertEquals(3, report.getTransactionCount());
+        assertEquals(4, report.getAccepted().size());
+        assertFalse(report.getAccepted().contains(new InternetAddress(to[3])));
+        assertEquals(1, report.getRejected().size());
+        assertEquals(550, RetryPolicy.getReturnCode(report.getRejected().get(new InternetAddress(to[3]))));
+        assertEquals(RetryPolicy.Failure.PERMANENT, RetryPolicy.classify(report.toException()));
+      }
+
+      assertEquals(3, stub.getMessageCount());
+      assertEquals(4, stub.getRecipientCount());
+    }
+
+    // Every chunk fails to connect
+    try (final Dispatch dispatch = new Dispatch.Builder("localhost", SmtpStub.getClosedPort()).withLocalHost("localhost").withMaxRecipientsPerTransaction(2).build()) {
+      final DeliveryReport report = dispatch.deliver(null, message);
+      assertEquals(3, report.getTransactionCount());
+      assertEquals(0, report.getAccepted().size());
+      assertEquals(5, report.getRejected().size());
+      assertEquals(RetryPolicy.Failure.CONNECTION, RetryPolicy.classify(report.toException()));
+
+      try {
+        dispatch.send(null, message);
+        fail("Expected SendFailedException");
+      }
+      catch (final SendFailedException e) {
+        assertEquals(5, e.getInvalidAddresses().length);
+      }
+    }
+  }
+}
@@ -0,0 +1,148 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.Address;
+import javax.mail.MessagingException;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.naming.NameNotFoundException;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
+
+public class DirectDispatchTest {
+  @Test
+  public void testParse() {
+    assertEquals(Arrays.asList("a.example.com", "c.example.com", "b.example.com"), MxResolver.parse(Arrays.asList("10 a.example.com", "20 b.example.com", "10 c.example.com", "invalid")));
+    assertEquals(Collections.emptyList(), MxResolver.parse(Collections.singletonList("0 .")));
+  }
+
+  @Test
+  public void testCache() throws Exception {
+    final AtomicInteger lookups = new AtomicInteger();
+    final MxResolver resolver = new MxResolver((final String domain) -> {
+      lookups.incrementAndGet();
+      if ("missing.example".equals(domain))
+        throw new NameNotFoundException(domain);
+
+      return "bare.example".equals(domain) ? Collections.emptyList() : Collections.singletonList("10 mx." + domain);
+    }, 60000, 60000);
+
+    assertEquals(Collections.singletonList("mx.example.com"), resolver.resolve("Example.com"));
+    assertEquals(Collections.singletonList("mx.example.com"), resolver.resolve("example.com"));
+    assertEquals(1, lookups.get());
+
+    // A domain without MX records is its own mail exchanger
+    assertEquals(Collections.singletonList("bare.example"), resolver.resolve("bare.example"));
+
+    for (int i = 0; i < 2; ++i) { // [N]
+      try {
+        resolver.resolve("missing.example");
+        fail("Expected MessagingException");
+      }
+      catch (final MessagingException e) {
+        assertEquals(RetryPolicy.Failure.PERMANENT, RetryPolicy.classify(e));
+      }
+    }
+
+    assertEquals(3, lookups.get());
+  }
+
+  @Test
+  public void testGroupByDomain() throws Exception {
+    final Message message = new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), new String[] {"a@one.example", "b@two.example"}, null, new String[] {"c@ONE.example"});
+    final Map<String,List<Address>> domains = DirectDispatch.groupByDomain(Dispatch.prepare(Session.getInstance(new Properties()), message, false));
+    assertEquals(Arrays.asList("one.example", "two.example"), Arrays.asList(domains.keySet().toArray()));
+    assertEquals(2, domains.get("one.example").size());
+    assertEquals(1, domains.get("two.example").size());
+  }
+
+  @Test
+  public void testSend() throws Exception {
+    final AtomicInteger failures = new AtomicInteger();
+    final Message message = new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "a@up.example", "b@missing.example") {
+      @Override
+      public void failure(final MessagingException e) {
+        failures.incrementAndGet();
+      }
+    };
+
+    // The MX hosts of up.example are on SmtpStub, and missing.example has none
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final DirectDispatch dispatch = new DirectDispatch.Builder().withPort(stub.getPort()).withStartTls(false).withLocalHost("localhost").withLookup((final String domain) -> {
+        if ("missing.example".equals(domain))
+          throw new NameNotFoundException(domain);
+
+        return Arrays.asList("10 localhost", "20 127.0.0.1");
+      }).build()) {
+        final Map<String,Result> results = dispatch.send(message);
+        assertEquals(2, results.size());
+        assertTrue(results.get("up.example").isSuccess());
+        assertEquals(RetryPolicy.Failure.PERMANENT, RetryPolicy.classify(results.get("missing.example").getException()));
+        assertEquals(1, failures.get());
+      }
+
+      assertEquals(1, stub.getMessageCount());
+      assertEquals(1, stub.getRecipientCount());
+    }
+  }
+
+  @Test
+  public void testDefaultBuilder() throws Exception {
+    final Message message = new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "a@up.example");
+    // Without a HostNameResolver of its own, the Dispatch of each MX host uses the default HostNameResolver of Dispatch
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final DirectDispatch dispatch = new DirectDispatch.Builder().withPort(stub.getPort()).withLookup((final String domain) -> Collections.singletonList("10 localhost")).build()) {
+        final Map<String,Result> results = dispatch.send(message);
+        assertTrue(results.get("up.example").isSuccess());
+      }
+
+      assertEquals(1, stub.getMessageCount());
+    }
+  }
+
+  @Test
+  public void testMaxIdle() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      final Message message = new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "a@up.example");
+      try (final DirectDispatch dispatch = new DirectDispatch.Builder().withPort(stub.getPort()).withStartTls(false).withLocalHost("localhost").withMaxIdle(50).withLookup((final String domain) -> Collections.singletonList("10 localhost")).build()) {
+        assertTrue(dispatch.send(message).get("up.example").isSuccess());
+        assertEquals(1, dispatch.getHostCount());
+
+        // The Dispatch of an MX host that has not been used for the max idle time is closed and removed
+        for (int i = 0; i < 100 && dispatch.getHostCount() > 0; ++i) // [N]
+          Thread.sleep(20);
+
+        assertEquals(0, dispatch.getHostCount());
+        assertTrue(dispatch.send(message).get("up.example").isSuccess());
+        assertEquals(1, dispatch.getHostCount());
+      }
+    }
+  }
+}
@@ -0,0 +1,114 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+
+import javax.mail.MessagingException;
+import javax.mail.PasswordAuthentication;
+import javax.mail.internet.InternetAddress;
+import javax.management.ObjectName;
+
+import org.junit.Test;
+import org.libj.mail.DispatchListener.Phase;
+import org.libj.mail.Mail.Dispatch;
+
+public class DispatchMetricsTest {
+  @Test
+  public void testHistogram() {
+    final DispatchMetrics.Histogram histogram = new DispatchMetrics.Histogram();
+    assertEquals(0, histogram.getPercentileMs(99), 0);
+    for (int i = 1; i <= 100; ++i) // [N]
+      histogram.record(i * 1000000L);
+
+    assertEquals(100, histogram.getCount());
+    assertEquals(50.5, histogram.getMeanMs(), 0.001);
+    assertEquals(100, histogram.getMaxMs(), 0.001);
+
+    // The percentile is the upper bound of its power of 2 bucket
+    final double p50 = histogram.getPercentileMs(50);
+    assertTrue(p50 >= 50 && p50 <= 100);
+    assertEquals(100, histogram.getPercentileMs(100), 0.001);
+
+    histogram.reset();
+    assertEquals(0, histogram.getCount());
+  }
+
+  @Test
+  public void testDispatch() throws Exception {
+    final DispatchMetrics metrics = new DispatchMetrics();
+    final PasswordAuthentication authentication = new PasswordAuthentication("user", "secret");
+    // The 1st message is accepted, and the 2nd is deferred
+    try (final SmtpStub stub = new SmtpStub.Builder().withAuth("user", "secret").withReply("MAIL", 1, SmtpStub.Reply.of(451, "4.3.0 Try again later")).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withListener(metrics).build()) {
+        assertEquals(2, metrics.getHistogram(Phase.SESSION).getCount());
+        dispatch.send(authentication, "Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "to@example.com");
+        try {
+          dispatch.send(authentication, "Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "to@example.com");
+          fail("Expected MessagingException");
+        }
+        catch (final MessagingException e) {
+        }
+
+        // Without a pool, each send opens and authenticates a connection of its own
+        assertEquals(2, metrics.getHistogram(Phase.CONNECT).getCount());
+        assertEquals(2, metrics.getHistogram(Phase.AUTH).getCount());
+        assertEquals(1, metrics.getHistogram(Phase.ENVELOPE).getCount());
+        assertEquals(1, metrics.getHistogram(Phase.DATA).getCount());
+        assertEquals(2, metrics.getBorrowCount());
+        assertEquals(0, metrics.getInUseCount());
+      }
+
+      // The content is counted as it is written, before SMTPTransport terminates its last line
+      assertTrue(metrics.getBytesSent() > 0);
+      assertTrue(metrics.getBytesSent() <= stub.getByteCount());
+      assertEquals(1, stub.getMessageCount());
+    }
+
+    assertEquals(1, metrics.getSuccessCount());
+    assertEquals(1, metrics.getFailureCount());
+    assertEquals(Collections.singletonMap(451, 1L), metrics.getFailureCounts());
+
+    metrics.reset();
+    assertEquals(0, metrics.getFailureCount());
+    assertTrue(metrics.getFailureCounts().isEmpty());
+  }
+
+  @Test
+  public void testRegister() {
+    final DispatchMetrics metrics = new DispatchMetrics();
+    final ObjectName name = metrics.register("test");
+    try {
+      assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+      try {
+        metrics.register("test");
+        fail("Expected IllegalStateException");
+      }
+      catch (final IllegalStateException e) {
+      }
+    }
+    finally {
+      metrics.unregister();
+    }
+
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+  }
+}
@@ -0,0 +1,229 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+
+public class DispatchProcessorTest {
+  /**
+   * A {@link Publisher} of a list of messages, which emits them synchronously as they are requested, and records the max number
+   * of messages that were requested and not yet emitted.
+   */
+  private static final class Source implements Publisher<Message> {
+    private final List<Message> messages;
+    private int next;
+    private long requested;
+    private long maxRequested;
+    private boolean emitting;
+    private boolean done;
+
+    private Source(final List<Message> messages) {
+      this.messages = messages;
+    }
+
+    @Override
+    public void subscribe(final Subscriber<? super Message> subscriber) {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(final long n) {
+          synchronized (Source.this) {
+            requested += n;
+            maxRequested = Math.max(maxRequested, requested);
+            if (emitting)
+              return;
+
+            emitting = true;
+          }
+
+          while (true) {
+            final Message message;
+            synchronized (Source.this) {
+              if (done) {
+                emitting = false;
+                return;
+              }
+
+              if (next == messages.size()) {
+                done = true;
+                message = null;
+              }
+              else if (requested > 0) {
+                --requested;
+                message = messages.get(next++);
+              }
+              else {
+                emitting = false;
+                return;
+              }
+            }
+
+            if (message == null)
+              subscriber.onComplete();
+            else
+              subscriber.onNext(message);
+          }
+        }
+
+        @Override
+        public void cancel() {
+          synchronized (Source.this) {
+            done = true;
+          }
+        }
+      });
+    }
+
+    private synchronized long getMaxRequested() {
+      return maxRequested;
+    }
+  }
+
+  /**
+   * A {@link Subscriber} of results that requests them one at a time.
+   */
+  private static class Sink implements Subscriber<Result> {
+    private final List<Result> results = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Subscription subscription;
+    private volatile Throwable error;
+
+    @Override
+    public void onSubscribe(final Subscription subscription) {
+      this.subscription = subscription;
+      subscription.request(1);
+    }
+
+    @Override
+    public void onNext(final Result result) {
+      results.add(result);
+      subscription.request(1);
+    }
+
+    @Override
+    public void onError(final Throwable t) {
+      error = t;
+      done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      done.countDown();
+    }
+  }
+
+  private static List<Message> newMessages(final int count) throws Exception {
+    final ArrayList<Message> messages = new ArrayList<>(count);
+    for (int i = 0; i < count; ++i) // [N]
+      messages.add(new Message("Subject " + i, new MimeContent("Body " + i, "text/plain"), new InternetAddress("from@example.com"), "to@example.com"));
+
+    return messages;
+  }
+
+  @Test
+  public void testBackpressure() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().withReplyLatency(1).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withMaxConnections(2).withDedupWindow(new DedupWindow(100, 60000)).build()) {
+        final List<Message> messages = newMessages(20);
+        messages.add(messages.get(0));
+        final Source source = new Source(messages);
+        final DispatchProcessor processor = dispatch.newProcessor(null);
+        source.subscribe(processor);
+
+        // Without a downstream subscriber, no more messages are requested than there is capacity to hold their results
+        final long deadline = System.currentTimeMillis() + 5000;
+        while (stub.getMessageCount() < 2 && System.currentTimeMillis() < deadline)
+          Thread.sleep(5);
+
+        Thread.sleep(50);
+        assertEquals(2, stub.getMessageCount());
+        assertEquals(2, source.getMaxRequested());
+
+        final Sink sink = new Sink();
+        processor.subscribe(sink);
+        assertTrue(sink.done.await(10, TimeUnit.SECONDS));
+        assertNull(sink.error);
+        assertEquals(21, sink.results.size());
+        assertEquals(20, stub.getMessageCount());
+        assertEquals(2, source.getMaxRequested());
+
+        int duplicates = 0;
+        for (final Result result : sink.results) { // [L]
+          assertTrue(result.toString(), result.isSuccess());
+          if (result.isDuplicate())
+            ++duplicates;
+        }
+
+        assertEquals(1, duplicates);
+
+        // Only a single subscriber is supported
+        final Sink second = new Sink();
+        processor.subscribe(second);
+        assertTrue(second.error instanceof IllegalStateException);
+      }
+    }
+  }
+
+  @Test
+  public void testFailure() throws Exception {
+    // The sender of each message is rejected, and the failure of each send is published as a result
+    try (final SmtpStub stub = new SmtpStub.Builder().withReply("MAIL", SmtpStub.Reply.of(550, "5.7.1 Sender rejected")).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").build()) {
+        final DispatchProcessor processor = dispatch.newProcessor(null);
+        final Sink sink = new Sink();
+        processor.subscribe(sink);
+        new Source(newMessages(3)).subscribe(processor);
+        assertTrue(sink.done.await(10, TimeUnit.SECONDS));
+        assertNull(sink.error);
+        assertEquals(3, sink.results.size());
+        for (final Result result : sink.results) // [L]
+          assertEquals(550, RetryPolicy.getReturnCode(result.getException()));
+
+        // Rule 3.9: a non-positive request is signaled with onError
+        final DispatchProcessor illegal = dispatch.newProcessor(null);
+        final Sink invalid = new Sink() {
+          @Override
+          public void onSubscribe(final Subscription subscription) {
+            subscription.request(0);
+          }
+        };
+
+        illegal.subscribe(invalid);
+        assertTrue(invalid.error instanceof IllegalArgumentException);
+      }
+
+      assertEquals(3, stub.getCommandCount("MAIL"));
+      assertEquals(0, stub.getMessageCount());
+    }
+  }
+}
@@ -0,0 +1,132 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.MessagingException;
+
+import org.junit.Test;
+
+public class DispatchQueueTest {
+  @Test
+  public void testMaxInFlight() throws Exception {
+    final AtomicInteger running = new AtomicInteger();
+    final AtomicInteger max = new AtomicInteger();
+    try (final DispatchQueue queue = new DispatchQueue(null, 2)) {
+      final ArrayList<CompletableFuture<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < 20; ++i) { // [N]
+        final int n = i;
+        futures.add(queue.submit(() -> {
+          max.accumulateAndGet(running.incrementAndGet(), Math::max);
+          Thread.sleep(2);
+          running.decrementAndGet();
+          return n;
+        }));
+      }
+
+      for (int i = 0, i$ = futures.size(); i < i$; ++i) // [RA]
+        assertEquals(i, futures.get(i).get().intValue());
+
+      assertTrue(max.get() <= 2);
+      assertEquals(0, queue.getPending());
+    }
+  }
+
+  @Test
+  public void testException() throws Exception {
+    try (final DispatchQueue queue = new DispatchQueue(Runnable::run, 1)) {
+      final CompletableFuture<String> future = queue.submit(() -> {
+        throw new MessagingException("failed");
+      });
+
+      try {
+        future.get();
+        fail("Expected ExecutionException");
+      }
+      catch (final ExecutionException e) {
+        assertEquals(MessagingException.class, e.getCause().getClass());
+      }
+
+      assertEquals(0, queue.getInFlight());
+    }
+  }
+
+  @Test
+  public void testLanes() throws Exception {
+    // The executor holds the tasks, which are run one at a time by the test
+    final ArrayDeque<Runnable> runnables = new ArrayDeque<>();
+    final DispatchMetrics metrics = new DispatchMetrics();
+    final Lane high = new Lane("high", 3, false, -1);
+    final Lane low = new Lane("low", 1, false, -1);
+    final Lane urgent = new Lane("urgent", 1, true, -1);
+    final Lane aged = new Lane("aged", 1, false, 1);
+    final ArrayList<String> order = new ArrayList<>();
+    try (final DispatchQueue queue = new DispatchQueue(runnables::add, 1, metrics)) {
+      queue.submit(() -> null);
+      for (int i = 0; i < 8; ++i) { // [N]
+        queue.submit(high, () -> order.add("high"));
+        queue.submit(low, () -> order.add("low"));
+      }
+
+      assertEquals(16, queue.getPending());
+      assertEquals(8, queue.getPending(low));
+      // Lanes with equal parameters are the same lane
+      assertEquals(8, queue.getPending(new Lane("low", 1, false, -1)));
+      assertEquals(0, queue.getPending(new Lane("low", 2, false, -1)));
+      assertEquals(8, metrics.getLaneDepths().get("low").longValue());
+
+      // The lanes share the executor in proportion to their weights
+      for (int i = 0; i < 9; ++i) // [N]
+        runnables.poll().run();
+
+      assertEquals(6, order.stream().filter("high"::equals).count());
+      assertEquals(2, order.stream().filter("low"::equals).count());
+
+      // A preemptive lane is taken next (after the task that has already been handed to the executor), unless a send of another
+      // lane has waited longer than its max wait
+      queue.submit(urgent, () -> order.add("urgent"));
+      runnables.poll().run();
+      runnables.poll().run();
+      assertEquals("urgent", order.get(order.size() - 1));
+
+      queue.submit(aged, () -> order.add("aged"));
+      Thread.sleep(5);
+      queue.submit(urgent, () -> order.add("urgent"));
+      runnables.poll().run();
+      runnables.poll().run();
+      assertEquals("aged", order.get(order.size() - 1));
+      runnables.poll().run();
+      assertEquals("urgent", order.get(order.size() - 1));
+
+      while (!runnables.isEmpty())
+        runnables.poll().run();
+
+      assertEquals(0, queue.getPending());
+      assertEquals(0, queue.getInFlight());
+      assertEquals(0, metrics.getLaneDepths().get("low").longValue());
+      assertEquals(8, metrics.getWaitHistogram(low).getCount());
+      assertTrue(metrics.getLaneP99WaitMs().containsKey("aged"));
+    }
+  }
+}
@@ -0,0 +1,142 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
+
+public class DispatchTransportTest {
+  private static Message newMessage(final int i, final String ... to) throws Exception {
+    return new Message("Subject " + i, new MimeContent("Body " + i, "text/plain"), new InternetAddress("from@example.com"), to);
+  }
+
+  /**
+   * Returns a {@link SmtpStub.Builder} that records the commands it receives to {@code commands}, as {@code VERB argument}.
+   */
+  private static SmtpStub.Builder newStub(final ConcurrentLinkedQueue<String> commands) {
+    return new SmtpStub.Builder().withScript((verb, argument, count) -> {
+      commands.add(argument.isEmpty() ? verb : verb + " " + argument);
+      return null;
+    });
+  }
+
+  /**
+   * Returns the envelope commands that a {@link SmtpStub} built with {@code builder} records to {@code commands}, while the specified
+   * {@code messages} are sent in a batch with a {@link Dispatch} with the specified {@code properties}.
+   */
+  private static List<String> send(final SmtpStub.Builder builder, final ConcurrentLinkedQueue<String> commands, final List<Result> results, final String[] properties, final Message ... messages) throws Exception {
+    try (final SmtpStub stub = builder.build()) {
+      final Dispatch.Builder dispatchBuilder = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost");
+      if (properties.length > 0)
+        dispatchBuilder.withProperties(Collections.singletonMap(properties[0], properties[1]));
+
+      try (final Dispatch dispatch = dispatchBuilder.build()) {
+        results.addAll(dispatch.sendAll(null, Arrays.asList(messages)));
+      }
+
+      assertEquals(1, stub.getConnectionCount());
+    }
+
+    final ArrayList<String> envelope = new ArrayList<>();
+    for (final String command : commands) // [I]
+      if (command.startsWith("MAIL ") || command.startsWith("RCPT ") || command.equals("RSET"))
+        envelope.add(command);
+
+    return envelope;
+  }
+
+  @Test
+  public void testPipelining() throws Exception {
+    // MAIL FROM and all RCPT TO are written at once, and are read by the stub without waiting for a reply in between
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").build()) {
+        dispatch.send(null, newMessage(0, "a@example.com", "b@example.com", "c@example.com"));
+      }
+
+      assertEquals(1, stub.getMessageCount());
+      assertEquals(3, stub.getRecipientCount());
+      assertEquals(3, stub.getPipelinedCount());
+    }
+
+    // Without PIPELINING, each command waits for the reply to the previous one
+    try (final SmtpStub stub = new SmtpStub.Builder().withPipelining(false).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").build()) {
+        dispatch.send(null, newMessage(0, "a@example.com", "b@example.com", "c@example.com"));
+      }
+
+      assertEquals(3, stub.getRecipientCount());
+      assertEquals(0, stub.getPipelinedCount());
+    }
+  }
+
+  @Test
+  public void testRejectedMailFrom() throws Exception {
+    // The replies to the pipelined RCPT TO of the rejected transaction are drained before RSET, so that the connection is in step
+    // for the next message
+    final ConcurrentLinkedQueue<String> commands = new ConcurrentLinkedQueue<>();
+    final ArrayList<Result> results = new ArrayList<>();
+    final List<String> envelope = send(newStub(commands).withReply("MAIL", 0, SmtpStub.Reply.of(550, "5.7.1 Sender rejected")), commands, results, new String[0], newMessage(0, "a@example.com", "b@example.com"), newMessage(1, "c@example.com"));
+    assertFalse(results.get(0).isSuccess());
+    assertEquals(RetryPolicy.Failure.PERMANENT, RetryPolicy.classify(results.get(0).getException()));
+    assertTrue(results.get(1).isSuccess());
+    assertEquals(Arrays.asList("MAIL <from@example.com> BODY=8BITMIME", "RCPT <a@example.com>", "RCPT <b@example.com>", "RSET"), envelope.subList(0, 4));
+    assertEquals(Arrays.asList("MAIL <from@example.com> BODY=8BITMIME", "RCPT <c@example.com>"), envelope.subList(envelope.size() - 2, envelope.size()));
+  }
+
+  @Test
+  public void testEightBitMime() throws Exception {
+    for (final boolean pipelining : new boolean[] {true, false}) { // [A]
+      final ConcurrentLinkedQueue<String> commands = new ConcurrentLinkedQueue<>();
+      final ArrayList<Result> results = new ArrayList<>();
+      final List<String> envelope = send(newStub(commands).withPipelining(pipelining), commands, results, new String[0], newMessage(0, "a@example.com"));
+      assertTrue(results.get(0).isSuccess());
+      assertEquals("MAIL <from@example.com> BODY=8BITMIME", envelope.get(0));
+    }
+  }
+
+  @Test
+  public void testNotify() throws Exception {
+    // The NOTIFY parameter of pipelined RCPT TO is the one that SMTPTransport issues without PIPELINING
+    final String[] properties = {"mail.smtp.dsn.notify", "SUCCESS,FAILURE"};
+    final ArrayList<Result> results = new ArrayList<>();
+    final ConcurrentLinkedQueue<String> pipelinedCommands = new ConcurrentLinkedQueue<>();
+    final List<String> pipelined = send(newStub(pipelinedCommands).withDsn(true), pipelinedCommands, results, properties, newMessage(0, "a@example.com", "b@example.com"));
+    final ConcurrentLinkedQueue<String> sequentialCommands = new ConcurrentLinkedQueue<>();
+    final List<String> sequential = send(newStub(sequentialCommands).withDsn(true).withPipelining(false), sequentialCommands, results, properties, newMessage(0, "a@example.com", "b@example.com"));
+    assertTrue(results.get(0).isSuccess());
+    assertTrue(results.get(1).isSuccess());
+    assertEquals("RCPT <a@example.com> NOTIFY=SUCCESS,FAILURE", sequential.get(1));
+    assertEquals(sequential, pipelined);
+
+    // Without DSN, NOTIFY is not issued
+    final ConcurrentLinkedQueue<String> commands = new ConcurrentLinkedQueue<>();
+    assertEquals("RCPT <a@example.com>", send(newStub(commands), commands, results, properties, newMessage(0, "a@example.com")).get(1));
+  }
+}
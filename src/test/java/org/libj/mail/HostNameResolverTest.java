@@ -0,0 +1,100 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+public class HostNameResolverTest {
+  @Test
+  public void testTimeoutFallback() throws Exception {
+    final CachingHostNameResolver resolver = new CachingHostNameResolver(() -> {
+      try {
+        Thread.sleep(200);
+      }
+      catch (final InterruptedException e) {
+      }
+
+      return "resolved.example.com";
+    }, HostNameResolver.of("fallback.example.com"), 10, 60000, 60000);
+
+    assertEquals("fallback.example.com", resolver.getHostName());
+    resolver.refresh().get();
+    assertEquals("resolved.example.com", resolver.getHostName());
+  }
+
+  @Test
+  public void testFailureFallback() throws Exception {
+    final CachingHostNameResolver resolver = new CachingHostNameResolver(() -> {
+      throw new IOException();
+    }, null, 1000, 60000, 60000);
+
+    assertEquals("localhost.localdomain", resolver.getHostName());
+  }
+
+  @Test
+  public void testTtl() throws Exception {
+    final AtomicInteger count = new AtomicInteger();
+    final CachingHostNameResolver resolver = new CachingHostNameResolver(() -> "host" + count.incrementAndGet(), null, 1000, 0, 0);
+    assertEquals("host1", resolver.getHostName());
+    // An expired host name is returned while it is refreshed in the background
+    assertEquals("host1", resolver.getHostName());
+    resolver.refresh().get();
+    assertTrue(resolver.getHostName().startsWith("host"));
+    assertTrue(count.get() >= 2);
+  }
+
+  @Test
+  public void testNegativeTtl() throws Exception {
+    final AtomicInteger count = new AtomicInteger();
+    final CachingHostNameResolver failing = new CachingHostNameResolver(() -> {
+      count.incrementAndGet();
+      throw new IOException();
+    }, HostNameResolver.of("fallback.example.com"), 1000, 60000, 60000);
+
+    // A failed resolution is cached for the negative TTL
+    assertEquals("fallback.example.com", failing.getHostName());
+    assertEquals("fallback.example.com", failing.getHostName());
+    assertEquals(1, count.get());
+
+    final CountDownLatch latch = new CountDownLatch(1);
+    final CachingHostNameResolver slow = new CachingHostNameResolver(() -> {
+      try {
+        latch.await();
+      }
+      catch (final InterruptedException e) {
+        throw new IOException(e);
+      }
+
+      return "resolved.example.com";
+    }, HostNameResolver.of("fallback.example.com"), 200, 60000, 0);
+
+    assertEquals("fallback.example.com", slow.getHostName());
+    // Once a resolution has timed out, the fallback is returned without waiting while the refresh is in flight
+    final long startTime = System.currentTimeMillis();
+    assertEquals("fallback.example.com", slow.getHostName());
+    assertTrue(System.currentTimeMillis() - startTime < 200);
+    latch.countDown();
+    slow.refresh().get();
+    assertEquals("resolved.example.com", slow.getHostName());
+  }
+}
@@ -18,7 +18,37 @@ package org.libj.mail;
 
 import static org.junit.Assert.*;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.PasswordAuthentication;
+import javax.mail.Session;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeBodyPart;
+import javax.mail.internet.MimeMessage;
+import javax.mail.internet.MimeMultipart;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+
 import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
 
 @SuppressWarnings("unused")
 public class MailTest {
@@ -38,4 +68,294 @@ public class MailTest {
     catch (final NullPointerException e) {
     }
   }
-}
\ No newline at end of file
+
+  private static String write(final MimeContent content) throws Exception {
+    final MimeMessage message = new MimeMessage(Session.getInstance(new Properties()));
+    content.setTo(message);
+    message.saveChanges();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    message.writeTo(out);
+    return new String(out.toByteArray(), StandardCharsets.US_ASCII);
+  }
+
+  @Test
+  public void testStreamingMimeContent() throws Exception {
+    final byte[] bytes = new byte[1000];
+    for (int i = 0; i < bytes.length; ++i) // [A]
+      bytes[i] = (byte)i;
+
+    final AtomicInteger reads = new AtomicInteger();
+    final String written = write(new StreamingMimeContent(() -> {
+      reads.incrementAndGet();
+      return new ByteArrayInputStream(bytes);
+    }, "application/octet-stream"));
+
+    // The body is read once, when it is written, and not when saveChanges() determines the headers
+    assertEquals(1, reads.get());
+    assertTrue(written.contains("Content-Transfer-Encoding: base64"));
+    assertTrue(written.replaceAll("\\s", "").contains(Base64.getEncoder().encodeToString(bytes)));
+
+    final ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length);
+    buffer.put(bytes).flip();
+    final StreamingMimeContent content = new StreamingMimeContent(buffer, "text/plain; charset=UTF-8");
+    assertTrue(write(content).contains("Content-Transfer-Encoding: quoted-printable"));
+    assertEquals(bytes.length, buffer.remaining());
+
+    // The body is not held as a string, so its content is a placeholder
+    assertTrue(content.getContent().startsWith("[StreamingMimeContent: "));
+
+    // The file at a path may be regenerated between sends, so contents of the same path are not equal
+    final Path file = Paths.get("report.csv");
+    assertNotEquals(new StreamingMimeContent(file, "text/csv"), new StreamingMimeContent(file, "text/csv"));
+    assertEquals(content, content);
+    try {
+      new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(content);
+      fail("Expected NotSerializableException");
+    }
+    catch (final NotSerializableException e) {
+    }
+  }
+
+  @Test
+  public void testMultipartMimeContent() throws Exception {
+    final byte[] bytes = new byte[100000];
+    for (int i = 0; i < bytes.length; ++i) // [A]
+      bytes[i] = (byte)(i * 31);
+
+    final Path file = Files.createTempFile("attachment", ".bin");
+    try {
+      Files.write(file, bytes);
+      final MultipartMimeContent content = new MultipartMimeContent.Builder()
+        .withAlternative(new MimeContent("text", "text/plain"))
+        .withAlternative(new MimeContent("<img src=\"cid:logo\">", "text/html"))
+        .withInline(file, "image/png", "logo")
+        .withAttachment(file, "application/pdf", "report.pdf")
+        .build();
+
+      assertEquals("multipart/mixed", content.getType());
+      assertEquals("[MultipartMimeContent: 2 alternative(s), 1 inline(s), 1 attachment(s)]", content.getContent());
+      final String written = write(content);
+      final MimeMessage message = new MimeMessage(Session.getInstance(new Properties()), new ByteArrayInputStream(written.getBytes(StandardCharsets.US_ASCII)));
+      final MimeMultipart mixed = (MimeMultipart)message.getContent();
+      assertEquals(2, mixed.getCount());
+      final MimeMultipart related = (MimeMultipart)mixed.getBodyPart(0).getContent();
+      assertTrue(related.getContentType().startsWith("multipart/related"));
+      assertTrue(((MimeMultipart)related.getBodyPart(0).getContent()).getContentType().startsWith("multipart/alternative"));
+      assertEquals("<logo>", ((MimeBodyPart)related.getBodyPart(1)).getContentID());
+
+      final MimeBodyPart attachment = (MimeBodyPart)mixed.getBodyPart(1);
+      assertEquals("report.pdf", attachment.getFileName());
+      final ByteArrayOutputStream out = new ByteArrayOutputStream();
+      attachment.getDataHandler().writeTo(out);
+      assertArrayEquals(bytes, out.toByteArray());
+
+      // The file at a path may be regenerated between sends, so contents with parts of the same path are not equal, and are not
+      // serializable
+      assertNotEquals(new MultipartMimeContent.Builder().withAttachment(file, "application/pdf").build(), new MultipartMimeContent.Builder().withAttachment(file, "application/pdf").build());
+      try {
+        new ObjectOutputStream(new ByteArrayOutputStream()).writeObject(content);
+        fail("Expected NotSerializableException");
+      }
+      catch (final NotSerializableException e) {
+      }
+
+      final MultipartMimeContent inMemory = new MultipartMimeContent.Builder().withAlternative(new MimeContent("text", "text/plain")).withAttachment(new MimeContent("a,b", "text/csv"), "report.csv").build();
+      assertEquals(inMemory, new MultipartMimeContent.Builder().withAlternative(new MimeContent("text", "text/plain")).withAttachment(new MimeContent("a,b", "text/csv"), "report.csv").build());
+      final ByteArrayOutputStream serialized = new ByteArrayOutputStream();
+      new ObjectOutputStream(serialized).writeObject(inMemory);
+      assertEquals(inMemory, new ObjectInputStream(new ByteArrayInputStream(serialized.toByteArray())).readObject());
+    }
+    finally {
+      Files.delete(file);
+    }
+  }
+
+  @Test
+  public void testBase64() {
+    for (int len = 0; len < 200; ++len) { // [N]
+      final byte[] src = new byte[len];
+      for (int i = 0; i < len; ++i) // [A]
+        src[i] = (byte)(i * 7);
+
+      final byte[] dst = new byte[len * 2 + 4];
+      final String expected = Base64.getMimeEncoder().encodeToString(src);
+      assertEquals(expected, new String(dst, 0, AttachmentBodyPart.encode(src, len, dst), StandardCharsets.US_ASCII));
+    }
+  }
+
+  private static String prepare(final MimeContent content, final boolean eightBit) throws Exception {
+    final Message message = new Message("Subject", content, new InternetAddress("from@example.com"), new String[] {"to@example.com"}, null, null);
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Dispatch.prepare(Session.getInstance(new Properties()), message, eightBit).writeTo(out);
+    return new String(out.toByteArray(), StandardCharsets.UTF_8);
+  }
+
+  @Test
+  public void testEightBitMime() throws Exception {
+    final String body = "Gr\u00fc\u00dfe aus K\u00f6ln \u2014 \u65e5\u672c";
+    final MimeContent text = new MimeContent(body, "text/plain; charset=UTF-8");
+    assertFalse(prepare(text, false).contains("Content-Transfer-Encoding: 8bit"));
+    String written = prepare(text, true);
+    assertTrue(written.contains("Content-Transfer-Encoding: 8bit"));
+    assertTrue(written.contains(body));
+
+    // Parts of a multipart are set individually
+    written = prepare(new MultipartMimeContent.Builder().withAlternative(new MimeContent("ascii", "text/plain; charset=UTF-8")).withAlternative(new MimeContent("<p>" + body + "</p>", "text/html; charset=UTF-8")).build(), true);
+    assertTrue(written.contains("Content-Transfer-Encoding: 7bit"));
+    assertTrue(written.contains("Content-Transfer-Encoding: 8bit"));
+    assertTrue(written.contains("<p>" + body + "</p>"));
+
+    // Lines longer than 998 octets cannot be sent as 8bit
+    final StringBuilder line = new StringBuilder();
+    for (int i = 0; i < 500; ++i) // [N]
+      line.append('\u00e9');
+
+    assertFalse(prepare(new MimeContent(line.toString(), "text/plain; charset=UTF-8"), true).contains("Content-Transfer-Encoding: 8bit"));
+
+    // Content of a charset other than UTF-8 is left as it is
+    assertFalse(prepare(new MimeContent(body, "text/plain; charset=ISO-8859-1"), true).contains("Content-Transfer-Encoding: 8bit"));
+  }
+
+  @Test
+  public void testEncodeOnce() throws Exception {
+    final String body = "Newsletter \u2014 " + new String(new char[200]).replace('\0', 'x');
+    final MimeContent content = new MimeContent(body, "text/plain; charset=UTF-8");
+    final String first = prepare(content, false);
+    final MimeContent.Encoded encoded = content.getEncoded(false);
+    final String second = prepare(content, false);
+    assertSame(encoded, content.getEncoded(false));
+    assertEquals(first.substring(first.indexOf("\r\n\r\n")), second.substring(second.indexOf("\r\n\r\n")));
+
+    // The encoded wire form is decoded as the original content
+    final MimeMessage message = new MimeMessage(Session.getInstance(new Properties()), new ByteArrayInputStream(second.getBytes(StandardCharsets.UTF_8)));
+    assertEquals(body, message.getContent());
+    assertTrue(message.getContentType().contains("UTF-8"));
+  }
+
+  @Test
+  public void testMimeContentCache() {
+    final MimeContentCache cache = new MimeContentCache(10);
+    final MimeContent a = new MimeContent("aaaa", "text/plain");
+    assertSame(a, cache.intern(a));
+    assertSame(a, cache.intern(new MimeContent("aaaa", "text/plain")));
+    assertEquals(4, cache.getSize());
+
+    final MimeContent b = new MimeContent("bbbb", "text/plain");
+    assertSame(b, cache.intern(b));
+    assertSame(a, cache.intern(a));
+
+    // Exceeds the max size, so the least recently used entry is evicted
+    final MimeContent c = new MimeContent("cccc", "text/plain");
+    assertSame(c, cache.intern(c));
+    assertEquals(2, cache.getCount());
+    assertEquals(8, cache.getSize());
+    final MimeContent b2 = new MimeContent("bbbb", "text/plain");
+    assertSame(b2, cache.intern(b2));
+
+    // Larger than the max size, so not cached
+    final MimeContent d = new MimeContent("ddddddddddd", "text/plain");
+    assertSame(d, cache.intern(d));
+    assertNotSame(d, cache.intern(new MimeContent("ddddddddddd", "text/plain")));
+  }
+
+  private static void send(final boolean tls) throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().withTls(tls).build()) {
+      final DispatchMetrics metrics = new DispatchMetrics();
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withTls(tls).withMaxConnections(1).withListener(metrics).build()) {
+        for (int i = 0; i < 3; ++i) // [N]
+          dispatch.send(null, "Subject " + i, new MimeContent("Body " + i, "text/plain"), new InternetAddress("from@example.com"), "a@example.com", "b@example.com");
+
+        assertTrue(dispatch.sendAll(null, Arrays.asList(new Message("Subject 3", new MimeContent("Body 3", "text/plain"), new InternetAddress("from@example.com"), "a@example.com", "b@example.com"))).get(0).isSuccess());
+      }
+
+      assertEquals(1, stub.getConnectionCount());
+      assertEquals(4, stub.getMessageCount());
+      assertEquals(8, stub.getRecipientCount());
+      assertEquals(4, metrics.getSuccessCount());
+      assertEquals(4, metrics.getHistogram(DispatchListener.Phase.DATA).getCount());
+      assertEquals(tls ? 1 : 0, metrics.getHistogram(DispatchListener.Phase.TLS).getCount());
+      assertEquals(1, metrics.getHistogram(DispatchListener.Phase.QUIT).getCount());
+      assertTrue(metrics.getBytesSent() > 0);
+      assertEquals(0, metrics.getInUseCount());
+    }
+  }
+
+  @Test
+  public void testSend() throws Exception {
+    send(false);
+    send(true);
+  }
+
+  @Test
+  public void testSendAll() throws Exception {
+    // The 2nd message is rejected for its only recipient, and the connection is dropped at the end of the content of the 4th
+    try (final SmtpStub stub = new SmtpStub.Builder().withScript((verb, argument, count) -> "RCPT".equals(verb) && argument.startsWith("<bad") ? SmtpStub.Reply.of(550, "5.1.1 No such user") : null).withReply(".", 2, SmtpStub.Reply.drop()).build()) {
+      final ArrayList<Message> messages = new ArrayList<>();
+      for (int i = 0; i < 5; ++i) // [N]
+        messages.add(new Message("Subject " + i, new MimeContent("Body " + i, "text/plain"), new InternetAddress("from@example.com"), i == 1 ? "bad@example.com" : "a@example.com"));
+
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").build()) {
+        final List<Result> results = dispatch.sendAll(null, messages);
+        assertEquals(5, results.size());
+        for (int i = 0; i < 5; ++i) // [N]
+          assertEquals("Result " + i, i != 1 && i != 3, results.get(i).isSuccess());
+
+        assertEquals(RetryPolicy.Failure.PERMANENT, RetryPolicy.classify(results.get(1).getException()));
+        assertEquals(RetryPolicy.Failure.CONNECTION, RetryPolicy.classify(results.get(3).getException()));
+      }
+
+      // The failed transaction is reset on the same connection, and the dropped connection is reopened for the 5th message
+      assertTrue(stub.getCommandCount("RSET") >= 1);
+      assertEquals(2, stub.getConnectionCount());
+      assertEquals(3, stub.getMessageCount());
+    }
+  }
+
+  @Test
+  public void testEnvelopeSender() throws Exception {
+    // The Sessions are shared by all sends, and the envelope sender of each send is carried by its message
+    final ConcurrentLinkedQueue<String> senders = new ConcurrentLinkedQueue<>();
+    try (final SmtpStub stub = new SmtpStub.Builder().withScript((verb, argument, count) -> {
+      if ("MAIL".equals(verb))
+        senders.add(argument.substring(argument.indexOf('<'), argument.indexOf('>') + 1));
+
+      return null;
+    }).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").build()) {
+        final Session session = dispatch.getSession();
+        final PasswordAuthentication[] authentications = {null, new PasswordAuthentication("user", "secret")};
+        for (int i = 0; i < 4; ++i) // [N]
+          dispatch.send(authentications[i % 2], "Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from" + i + "@example.com"), "a@example.com");
+
+        assertSame(session, dispatch.getSession());
+        assertNull(session.getProperty("mail.smtp.from"));
+      }
+
+      assertEquals(Arrays.asList("<from0@example.com>", "<from1@example.com>", "<from2@example.com>", "<from3@example.com>"), new ArrayList<>(senders));
+      assertEquals(2, stub.getCommandCount("AUTH"));
+    }
+  }
+
+  @Test
+  public void testSslContext() throws Exception {
+    try (final Dispatch dispatch = new Dispatch.Builder("localhost", 1).withLocalHost("localhost").build()) {
+      assertNull(dispatch.getTlsMetrics());
+    }
+
+    final SSLContext context = SSLContext.getInstance("TLS");
+    context.init(null, null, null);
+    try (final Dispatch dispatch = new Dispatch.Builder("localhost", 1).withLocalHost("localhost").withTls(true).withSslContext(context).withSessionCache(500, 3600).build()) {
+      assertEquals(500, context.getClientSessionContext().getSessionCacheSize());
+      assertEquals(3600, context.getClientSessionContext().getSessionTimeout());
+      assertEquals(0, dispatch.getTlsMetrics().getHandshakeCount());
+
+      // The socket factory of the context is shared by all connections
+      final Object factory = dispatch.getSession().getProperties().get("mail.smtp.ssl.socketFactory");
+      assertTrue(factory instanceof TlsSocketFactory);
+      // TLS is layered over the unconnected socket once it is connected, so that the TCP connect is not measured as the handshake
+      assertFalse(((TlsSocketFactory)factory).createSocket() instanceof SSLSocket);
+      assertNull(dispatch.getSession().getProperty("mail.smtp.ssl.trust"));
+      assertFalse(dispatch.getSession().getProperty("mail.smtp.ssl.protocols").contains("SSLv3"));
+    }
+  }
+}
@@ -0,0 +1,130 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import javax.mail.Session;
+import javax.mail.internet.AddressException;
+import javax.mail.internet.InternetAddress;
+import javax.mail.internet.MimeMessage;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.Mail.Result;
+
+public class MimeTemplateTest {
+  private static Map<String,String> variables(final String ... nameValues) {
+    final HashMap<String,String> variables = new HashMap<>();
+    for (int i = 0; i < nameValues.length; i += 2) // [A]
+      variables.put(nameValues[i], nameValues[i + 1]);
+
+    return variables;
+  }
+
+  private static MimeMessage write(final MimeContent content, final boolean eightBit) throws Exception {
+    final Message message = new Message("Subject", content, new InternetAddress("from@example.com"), "to@example.com");
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    Dispatch.prepare(Session.getInstance(new Properties()), message, eightBit).writeTo(out);
+    return new MimeMessage(Session.getInstance(new Properties()), new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  @Test
+  public void testCompile() {
+    final MimeTemplate template = new MimeTemplate("Dear ${name}, you owe $$${amount}.", "text/plain");
+    assertEquals(Arrays.asList("name", "amount"), template.getNames());
+    assertEquals("text/plain; charset=UTF-8", template.getType());
+    assertEquals("Dear Alice, you owe $5.", template.bind(variables("name", "Alice", "amount", "5")).getContent());
+
+    try {
+      template.bind(variables("name", "Alice"));
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+
+    try {
+      new MimeTemplate("Dear ${name", "text/plain");
+      fail("Expected IllegalArgumentException");
+    }
+    catch (final IllegalArgumentException e) {
+    }
+  }
+
+  @Test
+  public void testEncoding() throws Exception {
+    final MimeTemplate template = new MimeTemplate("Hello ${name},\r\nwelcome.", "text/plain; charset=UTF-8");
+    MimeMessage message = write(template.bind(variables("name", "Bob")), true);
+    assertEquals("7bit", message.getEncoding());
+    assertEquals("Hello Bob,\r\nwelcome.", message.getContent());
+
+    final String name = "J\u00fcrgen";
+    message = write(template.bind(variables("name", name)), false);
+    assertEquals("quoted-printable", message.getEncoding());
+    assertEquals("Hello " + name + ",\r\nwelcome.", message.getContent());
+
+    message = write(template.bind(variables("name", name)), true);
+    assertEquals("8bit", message.getEncoding());
+    assertEquals("Hello " + name + ",\r\nwelcome.", message.getContent());
+
+    // A value that makes a line longer than 998 octets is not 8-bit clean
+    final char[] chars = new char[999];
+    Arrays.fill(chars, 'x');
+    message = write(template.bind(variables("name", new String(chars))), true);
+    assertEquals("quoted-printable", message.getEncoding());
+  }
+
+  @Test
+  public void testMerge() throws Exception {
+    final MimeTemplate template = new MimeTemplate("Hello ${name}", "text/plain");
+    final List<Map<String,String>> recipients = Arrays.asList(variables("name", "A", "to", "a@example.com"), variables("name", "B", "to", "b@@example"), variables("name", "C", "to", "c@example.com"));
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").build()) {
+        // The message of the invalid address is not sent, and does not fail the others
+        final List<Result> results = dispatch.merge(null, "Subject", template, new InternetAddress("from@example.com"), "to", recipients);
+        assertEquals(3, results.size());
+        assertTrue(results.get(0).isSuccess());
+        assertEquals("Hello A", results.get(0).getMessage().content.getContent());
+        assertTrue(results.get(1).getException() instanceof AddressException);
+        assertNull(results.get(1).getMessage());
+        assertTrue(results.get(2).isSuccess());
+        assertEquals("Hello C", results.get(2).getMessage().content.getContent());
+
+        try {
+          dispatch.merge(null, "Subject", template, new InternetAddress("from@example.com"), "to", Collections.singletonList(variables("name", "D")));
+          fail("Expected IllegalArgumentException");
+        }
+        catch (final IllegalArgumentException e) {
+        }
+      }
+
+      assertEquals(2, stub.getMessageCount());
+      assertEquals(2, stub.getRecipientCount());
+    }
+  }
+}
@@ -0,0 +1,141 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.MessagingException;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.RelayGroup.Relay;
+
+public class RelayGroupTest {
+  private static Dispatch newDispatch(final int port) {
+    return new Dispatch.Builder("localhost", port).withLocalHost("localhost").build();
+  }
+
+  private static Dispatch newDispatch(final SmtpStub stub) {
+    return newDispatch(stub.getPort());
+  }
+
+  private static Message newMessage(final AtomicInteger successes, final AtomicInteger failures) throws Exception {
+    return new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "to@example.com") {
+      @Override
+      public void success() {
+        successes.incrementAndGet();
+      }
+
+      @Override
+      public void failure(final MessagingException e) {
+        failures.incrementAndGet();
+      }
+    };
+  }
+
+  @Test
+  public void testWeighted() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final RelayGroup group = new RelayGroup.Builder().withRelay(newDispatch(stub), 1).withRelay(newDispatch(stub), 2).withRelay(newDispatch(stub), 3).withStrategy(RelayGroup.Strategy.WEIGHTED).build()) {
+        for (int i = 0; i < 60; ++i) // [N]
+          group.send(null, new Message("Subject " + i, new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "to@example.com"));
+
+        assertEquals(10, group.getRelays().get(0).getSendCount());
+        assertEquals(20, group.getRelays().get(1).getSendCount());
+        assertEquals(30, group.getRelays().get(2).getSendCount());
+      }
+
+      assertEquals(60, stub.getMessageCount());
+    }
+  }
+
+  @Test
+  public void testLeastOutstanding() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final RelayGroup group = new RelayGroup.Builder().withRelay(newDispatch(stub)).withRelay(newDispatch(stub)).build()) {
+        final Relay first = group.select(Collections.emptyList());
+        final Relay second = group.select(Collections.emptyList());
+        assertNotSame(first, second);
+        group.succeeded(first);
+        assertSame(first, group.select(Collections.emptyList()));
+        assertEquals(1, first.getOutstanding());
+        assertEquals(1, second.getOutstanding());
+      }
+    }
+  }
+
+  @Test
+  public void testFailover() throws Exception {
+    final AtomicInteger successes = new AtomicInteger();
+    final AtomicInteger failures = new AtomicInteger();
+    try (final SmtpStub up = new SmtpStub.Builder().build()) {
+      // With no sends outstanding, the first relay is selected first, and it refuses every connection
+      try (final RelayGroup group = new RelayGroup.Builder().withRelay(newDispatch(SmtpStub.getClosedPort())).withRelay(newDispatch(up)).withMaxConsecutiveFailures(2).withProbeInterval(60000).build()) {
+        for (int i = 0; i < 3; ++i) // [N]
+          assertNotNull(group.send(null, newMessage(successes, failures)));
+
+        // The first 2 sends were failed over from the first relay, which is then ejected, and the 3rd is sent to the second only
+        final Relay first = group.getRelays().get(0);
+        assertEquals(2, first.getSendCount());
+        assertEquals(2, first.getFailureCount());
+        assertFalse(first.isHealthy());
+        final Relay second = group.getRelays().get(1);
+        assertEquals(3, second.getSendCount());
+        assertTrue(second.isHealthy());
+      }
+
+      assertEquals(3, up.getMessageCount());
+    }
+
+    // Each success is reported once, for the final outcome across relays
+    assertEquals(3, successes.get());
+    assertEquals(0, failures.get());
+  }
+
+  @Test
+  public void testAllRelaysDown() throws Exception {
+    final AtomicInteger successes = new AtomicInteger();
+    final AtomicInteger failures = new AtomicInteger();
+    final Message message = newMessage(successes, failures);
+    try (final RelayGroup group = new RelayGroup.Builder().withRelay(newDispatch(SmtpStub.getClosedPort())).withRelay(newDispatch(SmtpStub.getClosedPort())).withMaxConsecutiveFailures(2).withProbeInterval(60000).build()) {
+      for (int i = 0; i < 2; ++i) { // [N]
+        try {
+          group.send(null, message);
+          fail("Expected MessagingException");
+        }
+        catch (final MessagingException e) {
+          assertEquals(RetryPolicy.Failure.CONNECTION, RetryPolicy.classify(e));
+        }
+      }
+
+      // Each send was failed over to both relays, which are now ejected
+      for (int i = 0, i$ = group.getRelays().size(); i < i$; ++i) { // [RA]
+        final Relay relay = group.getRelays().get(i);
+        assertEquals(2, relay.getSendCount());
+        assertFalse(relay.isHealthy());
+      }
+    }
+
+    assertEquals(0, successes.get());
+    assertEquals(2, failures.get());
+  }
+}
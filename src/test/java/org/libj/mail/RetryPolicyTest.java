@@ -0,0 +1,148 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.net.ConnectException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.MessagingException;
+import javax.mail.SendFailedException;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.RetryPolicy.Failure;
+
+import com.sun.mail.smtp.SMTPAddressFailedException;
+import com.sun.mail.smtp.SMTPSendFailedException;
+
+public class RetryPolicyTest {
+  @Test
+  public void testClassify() throws Exception {
+    assertEquals(Failure.TRANSIENT, RetryPolicy.classify(new SMTPSendFailedException("MAIL FROM", 451, "451 try again", null, null, null, null)));
+    assertEquals(Failure.PERMANENT, RetryPolicy.classify(new SMTPSendFailedException("DATA", 554, "554 rejected", null, null, null, null)));
+
+    final SendFailedException invalid = new SendFailedException("Invalid Addresses", new SMTPAddressFailedException(new InternetAddress("a@b.c"), "RCPT TO", 452, "452 mailbox full"));
+    assertEquals(Failure.TRANSIENT, RetryPolicy.classify(invalid));
+
+    assertEquals(Failure.CONNECTION, RetryPolicy.classify(new MessagingException("Can't send command", new ConnectException())));
+    assertEquals(Failure.PERMANENT, RetryPolicy.classify(new MessagingException("Bad message")));
+    // The server closed the connection before it replied
+    assertEquals(Failure.CONNECTION, RetryPolicy.classify(new SMTPSendFailedException("DATA", -1, "[EOF]", null, null, null, null)));
+  }
+
+  @Test
+  public void testDelay() {
+    final RetryPolicy policy = new RetryPolicy.Builder().withInitialDelay(100).withMaxDelay(1000).withMultiplier(2).withJitter(0.5).build();
+    for (int i = 0; i < 100; ++i) { // [N]
+      final long d1 = policy.getDelay(1);
+      assertTrue(50 <= d1 && d1 <= 100);
+      final long d3 = policy.getDelay(3);
+      assertTrue(200 <= d3 && d3 <= 400);
+      final long d10 = policy.getDelay(10);
+      assertTrue(500 <= d10 && d10 <= 1000);
+    }
+
+    final RetryPolicy deadline = new RetryPolicy.Builder().withInitialDelay(100).withJitter(0).withDeadline(150).build();
+    final MessagingException e = new MessagingException("Can't send command", new ConnectException());
+    assertEquals(100, deadline.nextDelay(e, 1, 0));
+    assertEquals(-1, deadline.nextDelay(e, 1, 60));
+    assertEquals(-1, deadline.nextDelay(new MessagingException("Bad message"), 1, 0));
+  }
+
+  @Test
+  public void testTimerWheel() throws Exception {
+    final TimerWheel wheel = new TimerWheel("test-timer", 5, 8);
+    final CountDownLatch latch = new CountDownLatch(3);
+    final long start = System.currentTimeMillis();
+    final long[] times = new long[3];
+    // Delays beyond a full revolution of the wheel (40ms) must wait for the remaining rounds
+    final long[] delays = {10, 100, 45};
+    for (int i = 0; i < delays.length; ++i) { // [A]
+      final int n = i;
+      wheel.schedule(() -> {
+        times[n] = System.currentTimeMillis() - start;
+        latch.countDown();
+      }, delays[i]);
+    }
+
+    assertTrue(latch.await(5, TimeUnit.SECONDS));
+    for (int i = 0; i < delays.length; ++i) // [A]
+      assertTrue(times[i] + " < " + delays[i], times[i] >= delays[i]);
+
+    assertEquals(0, wheel.size());
+  }
+
+  private static Message newMessage(final AtomicInteger successes, final AtomicInteger failures) throws Exception {
+    return new Message("Subject", new MimeContent("Body", "text/plain"), new InternetAddress("from@example.com"), "to@example.com") {
+      @Override
+      public void success() {
+        successes.incrementAndGet();
+      }
+
+      @Override
+      public void failure(final MessagingException e) {
+        failures.incrementAndGet();
+      }
+    };
+  }
+
+  @Test
+  public void testRetry() throws Exception {
+    final AtomicInteger failures = new AtomicInteger();
+    final AtomicInteger successes = new AtomicInteger();
+    final RetryPolicy policy = new RetryPolicy.Builder().withMaxAttempts(3).withInitialDelay(10).build();
+
+    // The first 2 attempts are deferred, and the 3rd is accepted
+    try (final SmtpStub stub = new SmtpStub.Builder().withScript((verb, argument, count) -> "MAIL".equals(verb) && count < 2 ? SmtpStub.Reply.of(451, "4.3.0 Try again later") : null).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withRetryPolicy(policy).build()) {
+        assertNotNull(dispatch.sendAsync(null, newMessage(successes, failures)).get(5, TimeUnit.SECONDS));
+      }
+
+      assertEquals(3, stub.getCommandCount("MAIL"));
+      assertEquals(1, stub.getMessageCount());
+    }
+
+    assertEquals(1, successes.get());
+    assertEquals(0, failures.get());
+
+    // Every attempt is deferred, so the send fails once its attempts are exhausted
+    try (final SmtpStub stub = new SmtpStub.Builder().withReply("MAIL", SmtpStub.Reply.of(451, "4.3.0 Try again later")).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withRetryPolicy(policy).build()) {
+        try {
+          dispatch.sendAsync(null, newMessage(successes, failures)).get(5, TimeUnit.SECONDS);
+          fail("Expected ExecutionException");
+        }
+        catch (final ExecutionException e) {
+          assertEquals(Failure.TRANSIENT, RetryPolicy.classify((MessagingException)e.getCause()));
+        }
+      }
+
+      assertEquals(3, stub.getCommandCount("MAIL"));
+      assertEquals(0, stub.getMessageCount());
+    }
+
+    assertEquals(1, successes.get());
+    assertEquals(1, failures.get());
+  }
+}
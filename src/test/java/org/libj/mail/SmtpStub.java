@@ -0,0 +1,1132 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLEngineResult;
+import javax.net.ssl.SSLException;
+
+/**
+ * An in-process SMTP server on the loopback interface, which accepts messages and discards them, for tests, benchmarks and
+ * fault-injection of {@link Mail.Dispatch} without a real relay.
+ * <p>
+ * All connections are served by a single thread with a {@link Selector}, so that thousands of concurrent connections can be held
+ * open on one machine. {@code EHLO} advertises {@code PIPELINING}, {@code 8BITMIME}, {@code SIZE}, {@code STARTTLS} (with a
+ * self-signed certificate for {@code localhost}, if {@linkplain Builder#withTls(boolean) enabled}), {@code DSN} (if
+ * {@linkplain Builder#withDsn(boolean) enabled}), and {@code AUTH PLAIN LOGIN}.
+ * Each reply can be delayed by a configurable latency, to simulate a remote server. The reply to any command can be replaced by
+ * a {@link Script}, with a different reply code, an additional delay, or a {@linkplain Reply#drop() dropped connection}.
+ * <p>
+ * The counts of connections, messages, recipients, commands and pipelined commands are reported. A message is counted when its {@code DATA} is
+ * accepted, and a recipient when its {@code RCPT TO} is accepted.
+ *
+ * <pre>
+ * // Reject every 10th recipient, and drop the connection on the 3rd message
+ * try (final SmtpStub stub = new SmtpStub.Builder()
+ *   .withScript((verb, argument, count) -&gt; "RCPT".equals(verb) &amp;&amp; count % 10 == 9 ? Reply.of(550, "5.1.1 No such user") : null)
+ *   .withReply(".", 2, Reply.drop())
+ *   .build()) {
+ *   ...
+ * }
+ * </pre>
+ */
+public class SmtpStub implements AutoCloseable {
+  /**
+   * A reply of the {@link SmtpStub} to a command, or the dropping of the connection.
+   */
+  public static final class Reply {
+    private static final Reply DROP = new Reply(0, null, 0);
+
+    /**
+     * Returns a {@link Reply} with the specified code and text. A text of several lines (separated by {@code '\n'}) is sent as a
+     * multiline reply.
+     *
+     * @param code The SMTP reply code.
+     * @param text The text of the reply.
+     * @return A {@link Reply} with the specified code and text.
+     * @throws IllegalArgumentException If {@code code} is not between {@code 200} and {@code 599}.
+     * @throws NullPointerException If {@code text} is null.
+     */
+    public static Reply of(final int code, final String text) {
+      if (code < 200 || code > 599)
+        throw new IllegalArgumentException("code (" + code + ") must be between 200 and 599");
+
+      return new Reply(code, Objects.requireNonNull(text, "text is null"), 0);
+    }
+
+    /**
+     * Returns a {@link Reply} that closes the connection without a reply.
+     *
+     * @return A {@link Reply} that closes the connection without a reply.
+     */
+    public static Reply drop() {
+      return DROP;
+    }
+
+    private final int code;
+    private final String text;
+    private final long delayMs;
+
+    private Reply(final int code, final String text, final long delayMs) {
+      this.code = code;
+      this.text = text;
+      this.delayMs = delayMs;
+    }
+
+    /**
+     * Returns a {@link Reply} that is equal to this {@link Reply}, but is delayed by the specified time in addition to the
+     * {@linkplain Builder#withReplyLatency(long) reply latency}.
+     *
+     * @param delayMs The delay, in milliseconds.
+     * @return A {@link Reply} that is equal to this {@link Reply}, but is delayed by the specified time.
+     * @throws IllegalArgumentException If {@code delayMs} is negative.
+     */
+    public Reply delay(final long delayMs) {
+      if (delayMs < 0)
+        throw new IllegalArgumentException("delayMs (" + delayMs + ") must be non-negative");
+
+      return new Reply(code, text, delayMs);
+    }
+
+    /**
+     * Returns the SMTP reply code of this {@link Reply}, or {@code 0} if it drops the connection.
+     *
+     * @return The SMTP reply code of this {@link Reply}.
+     */
+    public int getCode() {
+      return code;
+    }
+
+    private boolean isDrop() {
+      return text == null;
+    }
+
+    private boolean isPositive() {
+      return code > 0 && code < 400;
+    }
+
+    private byte[] toBytes() {
+      final StringBuilder builder = new StringBuilder();
+      final String[] lines = text.split("\n");
+      for (int i = 0, i$ = lines.length; i < i$; ++i) // [A]
+        builder.append(code).append(i < i$ - 1 ? '-' : ' ').append(lines[i]).append("\r\n");
+
+      return builder.toString().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Override
+    public String toString() {
+      return isDrop() ? "drop" : code + " " + text;
+    }
+  }
+
+  /**
+   * A script of the replies of a {@link SmtpStub}, which is consulted for each command before the default reply is sent.
+   */
+  @FunctionalInterface
+  public interface Script {
+    /**
+     * Returns the {@link Reply} to the specified command, or {@code null} for the default reply. Scripts are called on the thread
+     * of the {@link SmtpStub}, and must not block.
+     * <p>
+     * The greeting is scripted with the verb {@code "CONNECT"}, and the reply to the end of the content of a message with the
+     * verb {@code "."}. A positive reply has the effect of the command (i.e. a {@code 354} reply to {@code DATA} starts the
+     * content of a message), and a negative reply does not.
+     *
+     * @param verb The verb of the command, in upper case.
+     * @param argument The argument of the command, or the empty string if it has none.
+     * @param count The number of previous commands with the same verb on all connections of the {@link SmtpStub}.
+     * @return The {@link Reply} to the specified command, or {@code null} for the default reply.
+     */
+    Reply reply(String verb, String argument, long count);
+  }
+
+  /**
+   * Builder of {@link SmtpStub}.
+   */
+  public static class Builder {
+    private long replyLatencyMs;
+    private boolean tls;
+    private boolean pipelining = true;
+    private boolean dsn;
+    private long maxSize;
+    private String userName;
+    private String password;
+    private final ArrayList<Script> scripts = new ArrayList<>();
+
+    /**
+     * Set the latency by which each reply is delayed. Default is {@code 0}.
+     *
+     * @param latencyMs The latency by which each reply is delayed, in milliseconds.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code latencyMs} is negative.
+     */
+    public Builder withReplyLatency(final long latencyMs) {
+      if (latencyMs < 0)
+        throw new IllegalArgumentException("latencyMs (" + latencyMs + ") must be non-negative");
+
+      this.replyLatencyMs = latencyMs;
+      return this;
+    }
+
+    /**
+     * If set to {@code true}, {@code STARTTLS} is offered with a self-signed certificate for {@code localhost}. Default is
+     * {@code false}.
+     *
+     * @param enabled Whether {@code STARTTLS} is to be offered.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withTls(final boolean enabled) {
+      this.tls = enabled;
+      return this;
+    }
+
+    /**
+     * If set to {@code false}, {@code PIPELINING} is not advertised. Default is {@code true}.
+     *
+     * @param enabled Whether {@code PIPELINING} is to be advertised.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withPipelining(final boolean enabled) {
+      this.pipelining = enabled;
+      return this;
+    }
+
+    /**
+     * If set to {@code true}, {@code DSN} (RFC 3461) is advertised. The parameters of {@code DSN} are accepted, and ignored.
+     * Default is {@code false}.
+     *
+     * @param enabled Whether {@code DSN} is to be advertised.
+     * @return {@code this} {@link Builder}.
+     */
+    public Builder withDsn(final boolean enabled) {
+      this.dsn = enabled;
+      return this;
+    }
+
+    /**
+     * Set the max size of a message, which is advertised with {@code SIZE}, and above which a message is rejected with
+     * {@code 552}. Default is {@code 0}, for no limit.
+     *
+     * @param maxSize The max size of a message in bytes, or {@code 0} for no limit.
+     * @return {@code this} {@link Builder}.
+     * @throws IllegalArgumentException If {@code maxSize} is negative.
+     */
+    public Builder withMaxSize(final long maxSize) {
+      if (maxSize < 0)
+        throw new IllegalArgumentException("maxSize (" + maxSize + ") must be non-negative");
+
+      this.maxSize = maxSize;
+      return this;
+    }
+
+    /**
+     * Set the credential that {@code AUTH} must present, after which {@code AUTH} is required before {@code MAIL FROM}. Default
+     * is no credential, in which case {@code AUTH} accepts any credential, and is not required.
+     *
+     * @param userName The user name.
+     * @param password The password.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code userName} or {@code password} is null.
+     */
+    public Builder withAuth(final String userName, final String password) {
+      this.userName = Objects.requireNonNull(userName, "userName is null");
+      this.password = Objects.requireNonNull(password, "password is null");
+      return this;
+    }
+
+    /**
+     * Adds a {@link Script} of replies. Scripts are consulted in the order they are added, and the first non-null {@link Reply}
+     * is sent.
+     *
+     * @param script The {@link Script}.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code script} is null.
+     */
+    public Builder withScript(final Script script) {
+      scripts.add(Objects.requireNonNull(script, "script is null"));
+      return this;
+    }
+
+    /**
+     * Adds a {@link Script} that replies to all commands with the specified verb with the specified {@link Reply}.
+     *
+     * @param verb The verb of the command (i.e. {@code "RCPT"}, or {@code "."} for the end of the content of a message).
+     * @param reply The {@link Reply}.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code verb} or {@code reply} is null.
+     * @see Script#reply(String,String,long)
+     */
+    public Builder withReply(final String verb, final Reply reply) {
+      final String upper = verb.toUpperCase(Locale.ROOT);
+      Objects.requireNonNull(reply, "reply is null");
+      return withScript((final String v, final String argument, final long count) -> upper.equals(v) ? reply : null);
+    }
+
+    /**
+     * Adds a {@link Script} that replies to the command with the specified verb and count with the specified {@link Reply}.
+     *
+     * @param verb The verb of the command (i.e. {@code "RCPT"}, or {@code "."} for the end of the content of a message).
+     * @param count The number of previous commands with the same verb.
+     * @param reply The {@link Reply}.
+     * @return {@code this} {@link Builder}.
+     * @throws NullPointerException If {@code verb} or {@code reply} is null.
+     * @see Script#reply(String,String,long)
+     */
+    public Builder withReply(final String verb, final long count, final Reply reply) {
+      final String upper = verb.toUpperCase(Locale.ROOT);
+      Objects.requireNonNull(reply, "reply is null");
+      return withScript((final String v, final String argument, final long c) -> c == count && upper.equals(v) ? reply : null);
+    }
+
+    /**
+     * Returns a new {@link SmtpStub} with the options specified in this {@link Builder}, which is listening on an ephemeral port.
+     *
+     * @return A new {@link SmtpStub} with the options specified in this {@link Builder}.
+     * @throws IOException If an I/O error has occurred.
+     */
+    public SmtpStub build() throws IOException {
+      return new SmtpStub(this);
+    }
+  }
+
+  /**
+   * Returns a port on the loopback interface on which nothing listens, so that connections to it are refused, for tests of the
+   * failure to connect.
+   *
+   * @return A port on the loopback interface on which nothing listens.
+   * @throws IOException If an I/O error has occurred.
+   */
+  public static int getClosedPort() throws IOException {
+    try (final ServerSocketChannel channel = ServerSocketChannel.open()) {
+      channel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+      return ((InetSocketAddress)channel.getLocalAddress()).getPort();
+    }
+  }
+
+  /**
+   * Returns a new {@link SSLContext} with the self-signed certificate for {@code localhost} of the {@code smtp-stub.p12} resource.
+   *
+   * @return A new {@link SSLContext} with the self-signed certificate for {@code localhost}.
+   * @throws IOException If the resource cannot be read.
+   */
+  static SSLContext newServerContext() throws IOException {
+    final char[] password = "changeit".toCharArray();
+    try (final InputStream in = SmtpStub.class.getResourceAsStream("/smtp-stub.p12")) {
+      if (in == null)
+        throw new IOException("Resource not found: /smtp-stub.p12");
+
+      final KeyStore keyStore = KeyStore.getInstance("PKCS12");
+      keyStore.load(in, password);
+      final KeyManagerFactory factory = KeyManagerFactory.getInstance(KeyManagerFactory.getDefaultAlgorithm());
+      factory.init(keyStore, password);
+      final SSLContext context = SSLContext.getInstance("TLS");
+      context.init(factory.getKeyManagers(), null, null);
+      return context;
+    }
+    catch (final GeneralSecurityException e) {
+      throw new IOException(e);
+    }
+  }
+
+  private static final ByteBuffer EMPTY = ByteBuffer.allocate(0);
+
+  /**
+   * Returns the specified {@link ByteBuffer} (in write mode) if it has at least the specified number of bytes remaining, or else a
+   * larger copy of it.
+   */
+  private static ByteBuffer ensure(final ByteBuffer buffer, final int remaining) {
+    if (buffer.remaining() >= remaining)
+      return buffer;
+
+    final ByteBuffer grown = ByteBuffer.allocate(Math.max(buffer.capacity() * 2, buffer.position() + remaining));
+    buffer.flip();
+    return grown.put(buffer);
+  }
+
+  private final long replyLatencyNanos;
+  private final boolean pipelining;
+  private final boolean dsn;
+  private final long maxSize;
+  private final String userName;
+  private final String password;
+  private final Script[] scripts;
+  private final SSLContext sslContext;
+  private final Selector selector;
+  private final ServerSocketChannel serverChannel;
+  private final Thread thread;
+  private final HashSet<Connection> connections = new HashSet<>();
+  private final PriorityQueue<Connection> timers = new PriorityQueue<>((final Connection a, final Connection b) -> Long.compare(a.due, b.due));
+  private final ConcurrentLinkedQueue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+  private final ConcurrentHashMap<String,LongAdder> commands = new ConcurrentHashMap<>();
+  private final LongAdder accepted = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+  private final LongAdder messages = new LongAdder();
+  private final LongAdder recipients = new LongAdder();
+  private final LongAdder bytes = new LongAdder();
+  private final LongAdder pipelined = new LongAdder();
+  private volatile int activeCount;
+  private volatile boolean closed;
+
+  private SmtpStub(final Builder builder) throws IOException {
+    this.replyLatencyNanos = TimeUnit.MILLISECONDS.toNanos(builder.replyLatencyMs);
+    this.pipelining = builder.pipelining;
+    this.dsn = builder.dsn;
+    this.maxSize = builder.maxSize;
+    this.userName = builder.userName;
+    this.password = builder.password;
+    this.scripts = builder.scripts.toArray(new Script[builder.scripts.size()]);
+    this.sslContext = builder.tls ? newServerContext() : null;
+    this.selector = Selector.open();
+    this.serverChannel = ServerSocketChannel.open();
+    serverChannel.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 4096);
+    serverChannel.configureBlocking(false);
+    serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+    this.thread = new Thread(this::run, "smtp-stub-" + getPort());
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  /**
+   * Returns the port on which this {@link SmtpStub} is listening.
+   *
+   * @return The port on which this {@link SmtpStub} is listening.
+   */
+  public int getPort() {
+    return serverChannel.socket().getLocalPort();
+  }
+
+  /**
+   * Returns the number of accepted connections.
+   *
+   * @return The number of accepted connections.
+   */
+  public long getConnectionCount() {
+    return accepted.sum();
+  }
+
+  /**
+   * Returns the number of connections that are currently open.
+   *
+   * @return The number of connections that are currently open.
+   */
+  public int getActiveConnectionCount() {
+    return activeCount;
+  }
+
+  /**
+   * Returns the number of connections that were dropped by a {@link Reply#drop()} or {@link #dropConnections()}.
+   *
+   * @return The number of connections that were dropped.
+   */
+  public long getDropCount() {
+    return dropped.sum();
+  }
+
+  /**
+   * Returns the number of accepted messages.
+   *
+   * @return The number of accepted messages.
+   */
+  public long getMessageCount() {
+    return messages.sum();
+  }
+
+  /**
+   * Returns the number of accepted recipients.
+   *
+   * @return The number of accepted recipients.
+   */
+  public long getRecipientCount() {
+    return recipients.sum();
+  }
+
+  /**
+   * Returns the number of bytes of the content of accepted messages.
+   *
+   * @return The number of bytes of the content of accepted messages.
+   */
+  public long getByteCount() {
+    return bytes.sum();
+  }
+
+  /**
+   * Returns the number of received commands with the specified verb.
+   *
+   * @param verb The verb of the command (i.e. {@code "RCPT"}).
+   * @return The number of received commands with the specified verb.
+   */
+  public long getCommandCount(final String verb) {
+    final LongAdder count = commands.get(verb.toUpperCase(Locale.ROOT));
+    return count == null ? 0 : count.sum();
+  }
+
+  /**
+   * Returns the number of commands that were read together with a previous command on the same connection, i.e. that the client
+   * sent without waiting for the reply to the previous command.
+   *
+   * @return The number of commands that were read together with a previous command on the same connection.
+   */
+  public long getPipelinedCount() {
+    return pipelined.sum();
+  }
+
+  /**
+   * Closes all open connections without a reply, as a server that crashes or a network that fails would.
+   *
+   * @return The number of dropped connections.
+   */
+  public int dropConnections() {
+    final CompletableFuture<Integer> future = new CompletableFuture<>();
+    tasks.add(() -> {
+      final int count = connections.size();
+      for (final Connection connection : connections.toArray(new Connection[connections.size()])) // [A]
+        connection.close(true);
+
+      future.complete(count);
+    });
+
+    selector.wakeup();
+    try {
+      return future.get(5, TimeUnit.SECONDS);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return 0;
+    }
+    catch (final ExecutionException | TimeoutException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private void run() {
+    try {
+      while (!closed) {
+        final Connection next = timers.peek();
+        if (next == null) {
+          selector.select();
+        }
+        else {
+          final long waitMs = TimeUnit.NANOSECONDS.toMillis(next.due - System.nanoTime());
+          if (waitMs > 0)
+            selector.select(waitMs);
+          else
+            selector.selectNow();
+        }
+
+        for (Runnable task; (task = tasks.poll()) != null;) // [X]
+          task.run();
+
+        final Iterator<SelectionKey> iterator = selector.selectedKeys().iterator();
+        while (iterator.hasNext()) {
+          final SelectionKey key = iterator.next();
+          iterator.remove();
+          if (!key.isValid())
+            continue;
+
+          if (key.isAcceptable()) {
+            accept();
+            continue;
+          }
+
+          final Connection connection = (Connection)key.attachment();
+          try {
+            if (key.isReadable())
+              connection.read();
+
+            if (key.isValid() && key.isWritable())
+              connection.flush();
+          }
+          catch (final IOException e) {
+            connection.close(false);
+          }
+        }
+
+        for (final long now = System.nanoTime(); !timers.isEmpty() && timers.peek().due - now <= 0;) { // [X]
+          final Connection connection = timers.poll();
+          try {
+            connection.fire();
+          }
+          catch (final IOException e) {
+            connection.close(false);
+          }
+        }
+      }
+    }
+    catch (final IOException | ClosedSelectorException e) {
+      // The selector is closed
+    }
+    finally {
+      for (final Connection connection : connections.toArray(new Connection[connections.size()])) // [A]
+        connection.close(false);
+    }
+  }
+
+  private void accept() throws IOException {
+    for (SocketChannel channel; (channel = serverChannel.accept()) != null;) { // [X]
+      accepted.increment();
+      channel.configureBlocking(false);
+      channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+      final Connection connection = new Connection(channel);
+      connections.add(connection);
+      activeCount = connections.size();
+      try {
+        connection.reply("CONNECT", "", Reply.of(220, "localhost ESMTP stub"));
+      }
+      catch (final IOException e) {
+        connection.close(false);
+      }
+    }
+  }
+
+  private Reply script(final String verb, final String argument) {
+    // Commands are counted only by the thread of this SmtpStub
+    final LongAdder adder = commands.computeIfAbsent(verb, (final String k) -> new LongAdder());
+    final long count = adder.sum();
+    adder.increment();
+    for (final Script script : scripts) { // [A]
+      final Reply reply = script.reply(verb, argument, count);
+      if (reply != null)
+        return reply;
+    }
+
+    return null;
+  }
+
+  private final class Connection {
+    private final SocketChannel channel;
+    private final SelectionKey key;
+    private ByteBuffer in = ByteBuffer.allocate(1024);
+    private ByteBuffer out = ByteBuffer.allocate(1024);
+    private SSLEngine engine;
+    private ByteBuffer netIn;
+    private boolean open = true;
+    private boolean closeAfterFlush;
+    private boolean startTlsAfterReply;
+    // Whether a command has been processed since the last read
+    private boolean buffered;
+
+    // Session state
+    private String ehlo;
+    private boolean authenticated;
+    private String authMechanism;
+    private String authUser;
+    private boolean mail;
+    private int rcpts;
+    private boolean data;
+    private long dataBytes;
+
+    // The reply that is delayed, during which no further commands are processed
+    private Reply pending;
+    private long due;
+
+    private Connection(final SocketChannel channel) throws IOException {
+      this.channel = channel;
+      this.key = channel.register(selector, SelectionKey.OP_READ, this);
+    }
+
+    private void read() throws IOException {
+      final int n;
+      if (engine == null) {
+        in = ensure(in, 1024);
+        n = channel.read(in);
+      }
+      else {
+        n = channel.read(netIn);
+        if (n > 0)
+          unwrap();
+      }
+
+      if (n == -1) {
+        close(false);
+        return;
+      }
+
+      buffered = false;
+      process();
+      flush();
+    }
+
+    private void unwrap() throws IOException {
+      netIn.flip();
+      try {
+        while (open) {
+          in = ensure(in, engine.getSession().getApplicationBufferSize());
+          final SSLEngineResult result = engine.unwrap(netIn, in);
+          if (result.getStatus() == SSLEngineResult.Status.CLOSED) {
+            closeAfterFlush = true;
+            return;
+          }
+
+          if (result.getStatus() == SSLEngineResult.Status.BUFFER_UNDERFLOW)
+            return;
+
+          if (result.getStatus() == SSLEngineResult.Status.BUFFER_OVERFLOW) {
+            in = ensure(in, in.capacity());
+            continue;
+          }
+
+          handshake();
+          if (!netIn.hasRemaining() || result.bytesConsumed() == 0 && engine.getHandshakeStatus() != SSLEngineResult.HandshakeStatus.NEED_UNWRAP)
+            return;
+        }
+      }
+      finally {
+        netIn.compact();
+      }
+    }
+
+    private void handshake() throws SSLException {
+      while (true) {
+        final SSLEngineResult.HandshakeStatus status = engine.getHandshakeStatus();
+        if (status == SSLEngineResult.HandshakeStatus.NEED_TASK) {
+          for (Runnable task; (task = engine.getDelegatedTask()) != null;) // [X]
+            task.run();
+        }
+        else if (status != SSLEngineResult.HandshakeStatus.NEED_WRAP || !wrap(EMPTY)) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Wraps the specified bytes into the outbound buffer, and returns whether the engine is not closed.
+     */
+    private boolean wrap(final ByteBuffer src) throws SSLException {
+      do {
+        out = ensure(out, engine.getSession().getPacketBufferSize());
+        if (engine.wrap(src, out).getStatus() == SSLEngineResult.Status.CLOSED)
+          return false;
+      }
+      while (src.hasRemaining());
+      return true;
+    }
+
+    private void write(final byte[] bytes) throws IOException {
+      if (engine == null)
+        (out = ensure(out, bytes.length)).put(bytes);
+      else
+        wrap(ByteBuffer.wrap(bytes));
+    }
+
+    private void flush() throws IOException {
+      if (!open)
+        return;
+
+      out.flip();
+      channel.write(out);
+      final boolean remaining = out.hasRemaining();
+      out.compact();
+      if (remaining) {
+        key.interestOps(key.interestOps() | SelectionKey.OP_WRITE);
+      }
+      else if (closeAfterFlush) {
+        close(false);
+      }
+      else if ((key.interestOps() & SelectionKey.OP_WRITE) != 0) {
+        key.interestOps(SelectionKey.OP_READ);
+      }
+    }
+
+    private void startTls() {
+      engine = sslContext.createSSLEngine();
+      engine.setUseClientMode(false);
+      netIn = ByteBuffer.allocate(engine.getSession().getPacketBufferSize());
+      // Plaintext that was pipelined after STARTTLS is discarded (RFC 3207, Section 4.2)
+      in.clear();
+      ehlo = null;
+    }
+
+    /**
+     * Processes the complete lines of the inbound buffer, until a reply is delayed.
+     */
+    private void process() throws IOException {
+      while (open && pending == null && !closeAfterFlush) {
+        in.flip();
+        int end = -1;
+        for (int i = in.position(), i$ = in.limit(); i < i$; ++i) { // [A]
+          if (in.get(i) == '\n') {
+            end = i;
+            break;
+          }
+        }
+
+        if (end == -1) {
+          in.compact();
+          return;
+        }
+
+        final int start = in.position();
+        final int len = end > start && in.get(end - 1) == '\r' ? end - 1 - start : end - start;
+        in.position(end + 1);
+        if (data) {
+          if (len == 1 && in.get(start) == '.') {
+            in.compact();
+            data = false;
+            endData();
+          }
+          else {
+            dataBytes += end + 1 - start;
+            in.compact();
+          }
+        }
+        else {
+          final String line = new String(in.array(), in.arrayOffset() + start, len, StandardCharsets.US_ASCII);
+          in.compact();
+          if (buffered && authMechanism == null)
+            pipelined.increment();
+
+          buffered = true;
+          command(line);
+        }
+      }
+    }
+
+    private void command(final String line) throws IOException {
+      if (authMechanism != null) {
+        auth(line);
+        return;
+      }
+
+      final int space = line.indexOf(' ');
+      String verb = (space == -1 ? line : line.substring(0, space)).toUpperCase(Locale.ROOT);
+      String argument = space == -1 ? "" : line.substring(space + 1).trim();
+      if (("MAIL".equals(verb) || "RCPT".equals(verb)) && argument.indexOf(':') != -1) {
+        // i.e. "MAIL FROM:<a@b>" and "RCPT TO:<a@b>"
+        argument = argument.substring(argument.indexOf(':') + 1).trim();
+      }
+
+      if (verb.isEmpty())
+        verb = "?";
+
+      reply(verb, argument, defaultReply(verb, argument));
+    }
+
+    private Reply defaultReply(final String verb, final String argument) {
+      switch (verb) {
+        case "EHLO":
+          final StringBuilder builder = new StringBuilder("localhost");
+          if (pipelining)
+            builder.append("\nPIPELINING");
+
+          builder.append("\n8BITMIME");
+          if (dsn)
+            builder.append("\nDSN");
+
+          builder.append("\nSIZE");
+          if (maxSize > 0)
+            builder.append(' ').append(maxSize);
+
+          if (sslContext != null && engine == null)
+            builder.append("\nSTARTTLS");
+
+          builder.append("\nAUTH PLAIN LOGIN");
+          return Reply.of(250, builder.toString());
+        case "HELO":
+          return Reply.of(250, "localhost");
+        case "STARTTLS":
+          return sslContext == null || engine != null ? Reply.of(454, "4.7.0 TLS not available") : Reply.of(220, "2.0.0 Ready to start TLS");
+        case "AUTH":
+          if (authenticated)
+            return Reply.of(503, "5.5.1 Already authenticated");
+
+          final String mechanism = (argument.indexOf(' ') == -1 ? argument : argument.substring(0, argument.indexOf(' '))).toUpperCase(Locale.ROOT);
+          if ("PLAIN".equals(mechanism))
+            return argument.length() > 6 ? authPlain(argument.substring(6).trim()) : Reply.of(334, "");
+
+          if ("LOGIN".equals(mechanism))
+            return argument.length() > 6 ? Reply.of(334, "UGFzc3dvcmQ6") : Reply.of(334, "VXNlcm5hbWU6");
+
+          return Reply.of(504, "5.5.4 Unrecognized authentication type");
+        case "MAIL":
+          if (ehlo == null)
+            return Reply.of(503, "5.5.1 Send EHLO first");
+
+          if (userName != null && !authenticated)
+            return Reply.of(530, "5.7.0 Authentication required");
+
+          if (mail)
+            return Reply.of(503, "5.5.1 Nested MAIL command");
+
+          final int size = argument.toUpperCase(Locale.ROOT).indexOf(" SIZE=");
+          if (size != -1 && maxSize > 0) {
+            final String value = argument.substring(size + 6).split(" ")[0];
+            try {
+              if (Long.parseLong(value) > maxSize)
+                return Reply.of(552, "5.3.4 Message size exceeds fixed limit");
+            }
+            catch (final NumberFormatException e) {
+              return Reply.of(501, "5.5.4 Invalid SIZE");
+            }
+          }
+
+          return Reply.of(250, "2.1.0 OK");
+        case "RCPT":
+          return mail ? Reply.of(250, "2.1.5 OK") : Reply.of(503, "5.5.1 Need MAIL command");
+        case "DATA":
+          return !mail ? Reply.of(503, "5.5.1 Need MAIL command") : rcpts == 0 ? Reply.of(503, "5.5.1 Need RCPT command") : Reply.of(354, "End data with <CR><LF>.<CR><LF>");
+        case ".":
+          return maxSize > 0 && dataBytes > maxSize ? Reply.of(552, "5.3.4 Message size exceeds fixed limit") : Reply.of(250, "2.0.0 OK");
+        case "RSET":
+        case "NOOP":
+          return Reply.of(250, "2.0.0 OK");
+        case "QUIT":
+          return Reply.of(221, "2.0.0 Bye");
+        default:
+          return Reply.of(502, "5.5.2 Command not implemented");
+      }
+    }
+
+    private void auth(final String line) throws IOException {
+      if ("*".equals(line)) {
+        authMechanism = null;
+        send(Reply.of(501, "5.0.0 Authentication cancelled"));
+        return;
+      }
+
+      if ("PLAIN".equals(authMechanism)) {
+        authMechanism = null;
+        send(authPlain(line));
+      }
+      else if (authUser == null) {
+        authUser = decode(line);
+        send(Reply.of(334, "UGFzc3dvcmQ6"));
+      }
+      else {
+        authMechanism = null;
+        send(authenticate(authUser, decode(line)));
+        authUser = null;
+      }
+    }
+
+    private Reply authPlain(final String response) {
+      // authzid NUL authcid NUL passwd
+      final String[] parts = decode(response).split("\0", -1);
+      return parts.length != 3 ? Reply.of(501, "5.5.2 Invalid response") : authenticate(parts[1], parts[2]);
+    }
+
+    private Reply authenticate(final String userName, final String password) {
+      if (userName == null || password == null || SmtpStub.this.userName != null && !(SmtpStub.this.userName.equals(userName) && SmtpStub.this.password.equals(password)))
+        return Reply.of(535, "5.7.8 Authentication credentials invalid");
+
+      authenticated = true;
+      return Reply.of(235, "2.7.0 Authentication successful");
+    }
+
+    private String decode(final String base64) {
+      try {
+        return new String(Base64.getDecoder().decode(base64.trim()), StandardCharsets.UTF_8);
+      }
+      catch (final IllegalArgumentException e) {
+        return null;
+      }
+    }
+
+    private void endData() throws IOException {
+      reply(".", "", defaultReply(".", ""));
+    }
+
+    /**
+     * Replies to the specified command with the {@link Reply} of the {@link Script}s, or the specified default {@link Reply}, and
+     * applies the effect of the command if the reply is positive.
+     */
+    private void reply(final String verb, final String argument, final Reply defaultReply) throws IOException {
+      final Reply scripted = script(verb, argument);
+      final Reply reply = scripted != null ? scripted : defaultReply;
+      if (reply.isDrop()) {
+        if (reply.delayMs == 0 && replyLatencyNanos == 0) {
+          close(true);
+        }
+        else {
+          pending = reply;
+          schedule(reply);
+        }
+
+        return;
+      }
+
+      if ("QUIT".equals(verb)) {
+        closeAfterFlush = true;
+      }
+      else if ("AUTH".equals(verb) && scripted == null && reply.code == 334) {
+        authMechanism = argument.toUpperCase(Locale.ROOT).startsWith("PLAIN") ? "PLAIN" : "LOGIN";
+        if ("LOGIN".equals(authMechanism) && argument.length() > 6)
+          authUser = decode(argument.substring(6));
+      }
+      else if (reply.isPositive()) {
+        switch (verb) {
+          case "EHLO":
+          case "HELO":
+            ehlo = argument;
+            mail = false;
+            rcpts = 0;
+            break;
+          case "STARTTLS":
+            startTlsAfterReply = true;
+            break;
+          case "AUTH":
+            authenticated = true;
+            break;
+          case "MAIL":
+            mail = true;
+            rcpts = 0;
+            break;
+          case "RCPT":
+            ++rcpts;
+            recipients.increment();
+            break;
+          case "DATA":
+            data = true;
+            dataBytes = 0;
+            break;
+          case ".":
+            messages.increment();
+            bytes.add(dataBytes);
+            mail = false;
+            rcpts = 0;
+            break;
+          case "RSET":
+            mail = false;
+            rcpts = 0;
+            break;
+        }
+      }
+      else if (".".equals(verb)) {
+        mail = false;
+        rcpts = 0;
+      }
+
+      if (reply.delayMs == 0 && replyLatencyNanos == 0) {
+        send(reply);
+      }
+      else {
+        pending = reply;
+        schedule(reply);
+      }
+    }
+
+    private void schedule(final Reply reply) {
+      due = System.nanoTime() + replyLatencyNanos + TimeUnit.MILLISECONDS.toNanos(reply.delayMs);
+      timers.add(this);
+    }
+
+    /**
+     * Sends the delayed {@link Reply}, and resumes the processing of commands.
+     */
+    private void fire() throws IOException {
+      if (!open)
+        return;
+
+      final Reply reply = pending;
+      pending = null;
+      if (reply.isDrop()) {
+        close(true);
+        return;
+      }
+
+      send(reply);
+      process();
+      flush();
+    }
+
+    private void send(final Reply reply) throws IOException {
+      write(reply.toBytes());
+      if (startTlsAfterReply) {
+        startTlsAfterReply = false;
+        startTls();
+      }
+
+      flush();
+    }
+
+    private void close(final boolean drop) {
+      if (!open)
+        return;
+
+      open = false;
+      if (drop)
+        dropped.increment();
+
+      key.cancel();
+      try {
+        channel.close();
+      }
+      catch (final IOException e) {
+      }
+
+      connections.remove(this);
+      activeCount = connections.size();
+    }
+  }
+
+  /**
+   * Closes the server socket and all connections of this {@link SmtpStub}.
+   */
+  @Override
+  public void close() {
+    if (closed)
+      return;
+
+    closed = true;
+    selector.wakeup();
+    try {
+      thread.join(5000);
+    }
+    catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+
+    try {
+      serverChannel.close();
+      selector.close();
+    }
+    catch (final IOException e) {
+    }
+  }
+}
@@ -0,0 +1,172 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import javax.mail.MessagingException;
+import javax.mail.PasswordAuthentication;
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+import org.libj.mail.SmtpStub.Reply;
+
+public class SmtpStubTest {
+  private static Message message(final String ... to) throws Exception {
+    return new Message("Subject", new MimeContent("Body\r\n.leading dot\r\n", "text/plain"), new InternetAddress("from@example.com"), to);
+  }
+
+  @Test
+  public void testAuth() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().withAuth("user", "secret").build()) {
+      for (final String mechanism : new String[] {"PLAIN", "LOGIN"}) { // [A]
+        try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withProperties(Collections.singletonMap("mail.smtp.auth.mechanisms", mechanism)).build()) {
+          dispatch.send(new PasswordAuthentication("user", "secret"), message("to@example.com"));
+          try {
+            dispatch.send(new PasswordAuthentication("user", "wrong"), message("to@example.com"));
+            fail("Expected MessagingException");
+          }
+          catch (final MessagingException e) {
+          }
+
+          try {
+            dispatch.send(null, message("to@example.com"));
+            fail("Expected MessagingException");
+          }
+          catch (final MessagingException e) {
+            assertEquals(530, RetryPolicy.getReturnCode(e));
+          }
+        }
+      }
+
+      assertEquals(2, stub.getMessageCount());
+      assertEquals(4, stub.getCommandCount("AUTH"));
+    }
+  }
+
+  @Test
+  public void testScript() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder()
+      .withScript((verb, argument, count) -> "RCPT".equals(verb) && argument.startsWith("<bad") ? Reply.of(550, "5.1.1 No such user") : null)
+      .withReply(".", 1, Reply.of(451, "4.3.0 Try again later").delay(50))
+      .build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withMaxConnections(1).build()) {
+        final DeliveryReport report = dispatch.deliver(null, message("a@example.com", "bad@example.com", "b@example.com"));
+        assertEquals(2, report.getAccepted().size());
+        assertEquals(550, RetryPolicy.getReturnCode(report.getRejected().get(new InternetAddress("bad@example.com"))));
+
+        final long start = System.nanoTime();
+        try {
+          dispatch.send(null, message("a@example.com"));
+          fail("Expected MessagingException");
+        }
+        catch (final MessagingException e) {
+          assertEquals(451, RetryPolicy.getReturnCode(e));
+          assertTrue(System.nanoTime() - start >= 50000000);
+        }
+
+        dispatch.send(null, message("a@example.com"));
+      }
+
+      assertEquals(2, stub.getMessageCount());
+      assertEquals(3, stub.getCommandCount("."));
+      assertEquals(1, stub.getConnectionCount());
+    }
+  }
+
+  @Test
+  public void testDrop() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().withReply("DATA", 0, Reply.drop()).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").withMaxConnections(1).build()) {
+        try {
+          dispatch.send(null, message("to@example.com"));
+          fail("Expected MessagingException");
+        }
+        catch (final MessagingException e) {
+          assertEquals(RetryPolicy.Failure.CONNECTION, RetryPolicy.classify(e));
+        }
+
+        // The lost connection is replaced
+        dispatch.send(null, message("to@example.com"));
+        assertEquals(1, stub.getActiveConnectionCount());
+        assertEquals(1, stub.dropConnections());
+        assertEquals(0, stub.getActiveConnectionCount());
+        dispatch.send(null, message("to@example.com"));
+      }
+
+      assertEquals(2, stub.getDropCount());
+      assertEquals(2, stub.getMessageCount());
+      assertEquals(3, stub.getConnectionCount());
+    }
+  }
+
+  @Test
+  public void testSize() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().withMaxSize(1000).build()) {
+      try (final Dispatch dispatch = new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").build()) {
+        dispatch.send(null, message("to@example.com"));
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 100; ++i) // [N]
+          body.append("0123456789\r\n");
+
+        try {
+          dispatch.send(null, new Message("Subject", new MimeContent(body.toString(), "text/plain"), new InternetAddress("from@example.com"), "to@example.com"));
+          fail("Expected MessagingException");
+        }
+        catch (final MessagingException e) {
+          assertEquals(552, RetryPolicy.getReturnCode(e));
+        }
+      }
+
+      assertEquals(1, stub.getMessageCount());
+      assertTrue(stub.getByteCount() < 1000);
+    }
+  }
+
+  @Test
+  public void testConcurrentConnections() throws Exception {
+    // Both ends of each connection are open in this process, so this stays well within a descriptor limit of 1024
+    final int count = 200;
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      final Socket[] sockets = new Socket[count];
+      try {
+        for (int i = 0; i < count; ++i) // [A]
+          sockets[i] = new Socket(InetAddress.getLoopbackAddress(), stub.getPort());
+
+        for (final Socket socket : sockets) // [A]
+          assertTrue(new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.US_ASCII)).readLine().startsWith("220 "));
+
+        assertEquals(count, stub.getActiveConnectionCount());
+      }
+      finally {
+        for (final Socket socket : sockets) // [A]
+          if (socket != null)
+            socket.close();
+      }
+    }
+  }
+}
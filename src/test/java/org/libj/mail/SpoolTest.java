@@ -0,0 +1,231 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.mail.MessagingException;
+
+import javax.mail.internet.InternetAddress;
+
+import org.junit.Test;
+import org.libj.mail.Mail.Dispatch;
+import org.libj.mail.Mail.Message;
+
+public class SpoolTest {
+  private static Dispatch newDispatch(final SmtpStub stub) {
+    return new Dispatch.Builder("localhost", stub.getPort()).withLocalHost("localhost").build();
+  }
+
+  // Defers every message with a transient reply, so that entries remain pending
+  private static SmtpStub newBusyStub() throws IOException {
+    return new SmtpStub.Builder().withReply("MAIL", SmtpStub.Reply.of(451, "4.3.0 Try again later")).build();
+  }
+
+  private static Message newMessage(final int i) throws Exception {
+    return new Message("Subject " + i, new MimeContent("Body " + i, "text/plain"), new InternetAddress("from@example.com"), "to" + i + "@example.com");
+  }
+
+  private static Message newMessage(final int i, final CountDownLatch latch, final AtomicInteger successes, final AtomicInteger failures) throws Exception {
+    return new Message("Subject " + i, new MimeContent("Body " + i, "text/plain"), new InternetAddress("from@example.com"), "to" + i + "@example.com") {
+      @Override
+      public void success() {
+        successes.incrementAndGet();
+        latch.countDown();
+      }
+
+      @Override
+      public void failure(final MessagingException e) {
+        failures.incrementAndGet();
+        latch.countDown();
+      }
+    };
+  }
+
+  private static int countSegments(final Path directory) throws IOException {
+    int count = 0;
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.spool")) {
+      for (final Path path : stream) // [I]
+        ++count;
+    }
+
+    return count;
+  }
+
+  private static Path newDirectory() throws IOException {
+    final Path directory = Files.createTempDirectory("spool");
+    directory.toFile().deleteOnExit();
+    return directory;
+  }
+
+  private static void awaitDelivery(final Spool spool) throws InterruptedException {
+    for (final long deadline = System.currentTimeMillis() + 5000; spool.getPendingCount() > 0 && System.currentTimeMillis() < deadline;) // [X]
+      Thread.sleep(10);
+  }
+
+  private static Path firstSegment(final Path directory) throws IOException {
+    try (final DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*.spool")) {
+      return stream.iterator().next();
+    }
+  }
+
+  @Test
+  public void testRecovery() throws Exception {
+    final Path directory = newDirectory();
+    try (final SmtpStub stub = newBusyStub()) {
+      try (final Dispatch dispatch = newDispatch(stub)) {
+        try (final Spool spool = new Spool.Builder(dispatch, directory).withSegmentSize(1024).withRetryInterval(60000).build()) {
+          for (int i = 0; i < 5; ++i) // [N]
+            spool.enqueue(newMessage(i));
+
+          assertEquals(5, spool.getPendingCount());
+        }
+
+        try (final Spool spool = new Spool.Builder(dispatch, directory).withRetryInterval(60000).build()) {
+          assertEquals(5, spool.getPendingCount());
+          spool.enqueue(newMessage(5));
+          assertEquals(6, spool.getPendingCount());
+        }
+      }
+    }
+
+    // The recovered entries are delivered once the server accepts them
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final Dispatch dispatch = newDispatch(stub)) {
+        try (final Spool spool = new Spool.Builder(dispatch, directory).build()) {
+          awaitDelivery(spool);
+          assertEquals(0, spool.getPendingCount());
+        }
+      }
+
+      assertEquals(6, stub.getMessageCount());
+    }
+  }
+
+  @Test
+  public void testCorruptTail() throws Exception {
+    final Path directory = newDirectory();
+    try (final SmtpStub stub = newBusyStub()) {
+      try (final Dispatch dispatch = newDispatch(stub)) {
+        try (final Spool spool = new Spool.Builder(dispatch, directory).withRetryInterval(60000).build()) {
+          for (int i = 0; i < 3; ++i) // [N]
+            spool.enqueue(newMessage(i));
+        }
+      }
+    }
+
+    // Flip a byte in the payload of the last entry, as if it were torn by a crash
+    final Path segment = firstSegment(directory);
+    try (final FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      final ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+      int offset = 0;
+      for (int i = 0; i < 2; ++i) // [N]
+        offset += 9 + buffer.getInt(offset);
+
+      buffer.put(offset + 20, (byte)(buffer.get(offset + 20) ^ 0xff));
+    }
+
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final Dispatch dispatch = newDispatch(stub)) {
+        try (final Spool spool = new Spool.Builder(dispatch, directory).build()) {
+          awaitDelivery(spool);
+          assertEquals(0, spool.getPendingCount());
+        }
+      }
+
+      // The torn entry is not replayed
+      assertEquals(2, stub.getMessageCount());
+    }
+  }
+
+  @Test
+  public void testDrain() throws Exception {
+    final Path directory = newDirectory();
+    final CountDownLatch latch = new CountDownLatch(5);
+    final AtomicInteger successes = new AtomicInteger();
+    final AtomicInteger failures = new AtomicInteger();
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final Dispatch dispatch = newDispatch(stub)) {
+        // A small segment size seals each segment after a few entries, so that delivered segments are deleted
+        try (final Spool spool = new Spool.Builder(dispatch, directory).withSegmentSize(1024).withDrainers(2).build()) {
+          for (int i = 0; i < 5; ++i) // [N]
+            spool.enqueue(newMessage(i, latch, successes, failures));
+
+          assertTrue(latch.await(5, TimeUnit.SECONDS));
+          assertEquals(0, spool.getPendingCount());
+        }
+
+        // Only the active segment may remain, and none of its entries is replayed
+        assertTrue(countSegments(directory) <= 1);
+        try (final Spool spool = new Spool.Builder(dispatch, directory).build()) {
+          assertEquals(0, spool.getPendingCount());
+        }
+      }
+
+      assertEquals(5, stub.getMessageCount());
+    }
+
+    assertEquals(5, successes.get());
+    assertEquals(0, failures.get());
+  }
+
+  @Test
+  public void testMaxAttempts() throws Exception {
+    final Path directory = newDirectory();
+    final CountDownLatch latch = new CountDownLatch(1);
+    final AtomicInteger successes = new AtomicInteger();
+    final AtomicInteger failures = new AtomicInteger();
+    try (final SmtpStub stub = new SmtpStub.Builder().withReply("MAIL", 0, SmtpStub.Reply.of(451, "Try again later")).withReply("MAIL", 1, SmtpStub.Reply.of(451, "Try again later")).build()) {
+      try (final Dispatch dispatch = newDispatch(stub)) {
+        try (final Spool spool = new Spool.Builder(dispatch, directory).withRetryInterval(10).withMaxAttempts(2).build()) {
+          spool.enqueue(newMessage(0, latch, successes, failures));
+          assertTrue(latch.await(5, TimeUnit.SECONDS));
+          assertEquals(0, spool.getPendingCount());
+        }
+      }
+
+      assertEquals(2, stub.getCommandCount("MAIL"));
+      assertEquals(0, stub.getMessageCount());
+    }
+
+    assertEquals(0, successes.get());
+    assertEquals(1, failures.get());
+  }
+
+  @Test
+  public void testRetryInterval() throws Exception {
+    try (final SmtpStub stub = new SmtpStub.Builder().build()) {
+      try (final Dispatch dispatch = newDispatch(stub)) {
+        new Spool.Builder(dispatch, newDirectory()).withRetryInterval(-1);
+        fail("Expected IllegalArgumentException");
+      }
+      catch (final IllegalArgumentException e) {
+      }
+    }
+  }
+}
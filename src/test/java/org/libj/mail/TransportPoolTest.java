@@ -0,0 +1,148 @@
+/* Copyright (c) 2026 LibJ
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * You should have received a copy of The MIT License (MIT) along with this
+ * program. If not, see <http://opensource.org/licenses/MIT/>.
+ */
+
+package org.libj.mail;
+
+import static org.junit.Assert.*;
+
+import java.util.Properties;
+
+import javax.mail.Address;
+import javax.mail.Message;
+import javax.mail.PasswordAuthentication;
+import javax.mail.Session;
+import javax.mail.Transport;
+import javax.mail.URLName;
+
+import org.junit.Test;
+
+public class TransportPoolTest {
+  private static final Session session = Session.getInstance(new Properties());
+
+  private static final class MockTransport extends Transport {
+    private boolean connected = true;
+
+    private MockTransport() {
+      super(TransportPoolTest.session, new URLName("smtp://localhost"));
+    }
+
+    @Override
+    public boolean isConnected() {
+      return connected;
+    }
+
+    @Override
+    public void close() {
+      connected = false;
+    }
+
+    @Override
+    public void sendMessage(final Message msg, final Address[] addresses) {
+    }
+  }
+
+  private static TransportPool newPool(final int maxConnections, final long maxIdleMs, final int maxMessages) {
+    return new TransportPool((final Credential credential) -> new TransportPool.Connection(credential, session, new MockTransport()), maxConnections, maxIdleMs, -1, maxMessages);
+  }
+
+  @Test
+  public void testReuse() throws Exception {
+    try (final TransportPool pool = newPool(2, -1, -1)) {
+      final Credential credential = Credential.of(new PasswordAuthentication("user", "pass"));
+      final TransportPool.Connection c1 = pool.borrow(credential);
+      assertEquals(1, pool.getActiveCount());
+      pool.release(c1);
+      assertEquals(1, pool.getIdleCount());
+
+      final TransportPool.Connection c2 = pool.borrow(Credential.of(new PasswordAuthentication("user", "pass")));
+      assertSame(c1, c2);
+      assertEquals(1, pool.getReuseCount());
+      assertEquals(1, pool.getCreatedCount());
+
+      final TransportPool.Connection c3 = pool.borrow(Credential.of(new PasswordAuthentication("user", "other")));
+      assertNotSame(c2, c3);
+      pool.release(c2);
+      pool.release(c3);
+      assertEquals(2, pool.getIdleCount());
+
+      // At capacity, an idle connection of another credential is evicted
+      final TransportPool.Connection c4 = pool.borrow(Credential.ANONYMOUS);
+      assertEquals(1, pool.getIdleCount());
+      assertEquals(1, pool.getClosedCount());
+      pool.release(c4);
+    }
+  }
+
+  @Test
+  public void testValidation() throws Exception {
+    try (final TransportPool pool = newPool(1, -1, -1)) {
+      final TransportPool.Connection c1 = pool.borrow(Credential.ANONYMOUS);
+      pool.release(c1);
+      ((MockTransport)c1.transport).connected = false;
+
+      final TransportPool.Connection c2 = pool.borrow(Credential.ANONYMOUS);
+      assertNotSame(c1, c2);
+      assertEquals(1, pool.getValidationFailureCount());
+      pool.release(c2);
+    }
+  }
+
+  @Test
+  public void testMaxMessages() throws Exception {
+    try (final TransportPool pool = newPool(1, -1, 2)) {
+      final TransportPool.Connection c1 = pool.borrow(Credential.ANONYMOUS);
+      c1.messageCount = 2;
+      pool.release(c1);
+      assertEquals(0, pool.getIdleCount());
+      assertFalse(c1.transport.isConnected());
+    }
+  }
+
+  @Test
+  public void testMaxIdle() throws Exception {
+    try (final TransportPool pool = newPool(1, 1, -1)) {
+      final TransportPool.Connection c1 = pool.borrow(Credential.ANONYMOUS);
+      pool.release(c1);
+      Thread.sleep(5);
+      final TransportPool.Connection c2 = pool.borrow(Credential.ANONYMOUS);
+      assertNotSame(c1, c2);
+      assertEquals(0, pool.getReuseCount());
+      pool.release(c2);
+    }
+  }
+
+  @Test
+  public void testWait() throws Exception {
+    try (final TransportPool pool = newPool(1, -1, -1)) {
+      final TransportPool.Connection c1 = pool.borrow(Credential.ANONYMOUS);
+      final Thread thread = new Thread(() -> {
+        try {
+          Thread.sleep(50);
+        }
+        catch (final InterruptedException e) {
+        }
+
+        pool.release(c1);
+      });
+      thread.start();
+      final TransportPool.Connection c2 = pool.borrow(Credential.ANONYMOUS);
+      assertSame(c1, c2);
+      assertEquals(1, pool.getWaitCount());
+      pool.release(c2);
+      thread.join();
+    }
+  }
+}